@@ -0,0 +1,306 @@
+package com.infragest.infra_orders_service.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Límite adaptativo de llamadas concurrentes a un microservicio externo (AIMD guiado por latencia).
+ *
+ * <p>El límite se ajusta con cada respuesta:</p>
+ * <ul>
+ *   <li>Si la llamada falla (5xx, red, timeout) o su latencia supera {@code tolerance} veces la latencia
+ *       base, el límite se reduce multiplicándolo por {@code backoffRatio}: el servicio está saturado.
+ *       Como en TCP, se reduce como mucho una vez por ronda: las llamadas iniciadas antes de la última
+ *       reducción ya no la repiten.</li>
+ *   <li>Si la llamada es rápida y el límite se está aprovechando (al menos la mitad en uso), el límite
+ *       crece en {@code 1/límite}, es decir, en 1 por cada ronda completa de llamadas.</li>
+ * </ul>
+ *
+ * <p>La latencia base es la mínima observada en la ventana anterior de {@code baselineWindow} muestras,
+ * de modo que se adapta si el servicio cambia (p. ej. tras un despliegue). Se lleva una base por operación
+ * (ver {@link #operation(String, int)}): el límite es común a todo el cliente, pero una llamada solo se compara
+ * con las de su mismo tipo y tamaño, así una reserva o una verificación de cientos de dispositivos no se
+ * toma por saturación frente a la base de las consultas de uno o dos. Las llamadas que exceden el
+ * límite esperan en una cola acotada ({@code maxQueue}, {@code maxWait}); si la cola está llena o la espera
+ * vence, la llamada se descarta.</p>
+ *
+ * <p>Métricas expuestas (con la etiqueta {@code client}): {@code orders.concurrency.limit},
+ * {@code orders.concurrency.inflight}, {@code orders.concurrency.queue} y {@code orders.concurrency.rejected}.</p>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    /**
+     * Operación de las llamadas que no indican la suya.
+     */
+    public static final String DEFAULT_OPERATION = "default";
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final int maxQueue;
+
+    private final long maxWaitNanos;
+
+    private final double tolerance;
+
+    private final double backoffRatio;
+
+    private final int baselineWindow;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition released = lock.newCondition();
+
+    private final Counter rejected;
+
+    private double limit;
+
+    private int inFlight;
+
+    private int queued;
+
+    private long lastDecreaseNanos = System.nanoTime();
+
+    private final Map<String, Baseline> baselines = new HashMap<>();
+
+    /**
+     * Constructor con los parámetros del límite.
+     *
+     * @param client         nombre del cliente (etiqueta de las métricas)
+     * @param initialLimit   límite inicial
+     * @param minLimit       límite mínimo
+     * @param maxLimit       límite máximo
+     * @param maxQueue       llamadas que pueden esperar cuando se alcanza el límite
+     * @param maxWait        espera máxima en la cola
+     * @param tolerance      factor de latencia sobre la base a partir del cual se reduce el límite
+     * @param backoffRatio   factor de reducción del límite (entre 0 y 1)
+     * @param baselineWindow muestras por ventana de latencia base
+     * @param meterRegistry  registro de métricas
+     */
+    public AdaptiveConcurrencyLimiter(String client, int initialLimit, int minLimit, int maxLimit,
+                                      int maxQueue, Duration maxWait, double tolerance, double backoffRatio,
+                                      int baselineWindow, MeterRegistry meterRegistry) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.maxQueue = maxQueue;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+        this.baselineWindow = baselineWindow;
+        this.limit = Math.max(this.minLimit, Math.min(this.maxLimit, initialLimit));
+
+        Gauge.builder("orders.concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("client", client)
+                .description("Límite actual de llamadas concurrentes al servicio")
+                .register(meterRegistry);
+        Gauge.builder("orders.concurrency.inflight", this, AdaptiveConcurrencyLimiter::getInFlight)
+                .tag("client", client)
+                .description("Llamadas en curso al servicio")
+                .register(meterRegistry);
+        Gauge.builder("orders.concurrency.queue", this, AdaptiveConcurrencyLimiter::getQueued)
+                .tag("client", client)
+                .description("Llamadas esperando hueco bajo el límite de concurrencia")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("orders.concurrency.rejected")
+                .tag("client", client)
+                .description("Llamadas descartadas por el límite de concurrencia")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reserva un hueco para una llamada, esperando en la cola si se alcanzó el límite.
+     *
+     * @return {@code true} si se obtuvo el hueco; {@code false} si la llamada se descarta
+     *         (cola llena, espera vencida o hilo interrumpido)
+     */
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                return true;
+            }
+            if (queued >= maxQueue) {
+                rejected.increment();
+                return false;
+            }
+
+            queued++;
+            try {
+                long remaining = maxWaitNanos;
+                while (inFlight >= (int) limit) {
+                    if (remaining <= 0) {
+                        rejected.increment();
+                        return false;
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+                inFlight++;
+                return true;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                rejected.increment();
+                return false;
+            } finally {
+                queued--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Nombre de operación para la latencia base: el tipo de llamada y la clase de tamaño de su carga
+     * (potencia de dos del número de elementos), de modo que llamadas de tamaño parecido comparten base.
+     *
+     * @param name  tipo de llamada (p. ej. {@code "devices-batch"})
+     * @param items elementos de la llamada (IDs consultados, dispositivos reservados...)
+     * @return nombre de la operación
+     */
+    public static String operation(String name, int items) {
+        return name + "/" + (Integer.SIZE - Integer.numberOfLeadingZeros(Math.max(0, items)));
+    }
+
+    /**
+     * Libera el hueco de una llamada de la operación por defecto y ajusta el límite con su resultado.
+     *
+     * @param rttNanos duración de la llamada
+     * @param failed   {@code true} si la llamada falló por saturación del servicio
+     */
+    public void release(long rttNanos, boolean failed) {
+        release(DEFAULT_OPERATION, rttNanos, failed);
+    }
+
+    /**
+     * Libera el hueco de una llamada y ajusta el límite con su resultado, comparando su latencia con la
+     * base de su operación.
+     *
+     * @param operation operación de la llamada (ver {@link #operation(String, int)})
+     * @param rttNanos  duración de la llamada
+     * @param failed    {@code true} si la llamada falló por saturación del servicio
+     */
+    public void release(String operation, long rttNanos, boolean failed) {
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            int inFlightAtRelease = inFlight;
+            inFlight--;
+            long baselineRttNanos = baselines.computeIfAbsent(operation, key -> new Baseline()).update(rttNanos);
+
+            boolean overloaded = failed || (baselineRttNanos > 0 && rttNanos > baselineRttNanos * tolerance);
+            if (overloaded) {
+                if (now - rttNanos > lastDecreaseNanos) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    lastDecreaseNanos = now;
+                }
+            } else if (inFlightAtRelease * 2 >= (int) limit) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Libera el hueco de una llamada que no llegó a medir al servicio (p. ej. rechazada localmente),
+     * sin ajustar el límite.
+     */
+    public void releaseWithoutSample() {
+        lock.lock();
+        try {
+            inFlight--;
+            released.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Límite actual de llamadas concurrentes.
+     *
+     * @return límite
+     */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Llamadas en curso.
+     *
+     * @return llamadas en curso
+     */
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Llamadas en cola.
+     *
+     * @return llamadas esperando hueco
+     */
+    public int getQueued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Latencia base de una operación. Sus campos se protegen con {@code lock}.
+     */
+    private final class Baseline {
+
+        private long baselineRttNanos;
+
+        private boolean ready;
+
+        private long windowMinRttNanos = Long.MAX_VALUE;
+
+        private int windowSamples;
+
+        /**
+         * Actualiza la latencia base: mínimo de la ventana actual, que pasa a ser la base al cerrarse.
+         * Durante la primera ventana la base es el mínimo observado hasta el momento.
+         *
+         * @param rttNanos duración de la llamada
+         * @return latencia base tras registrar la muestra
+         */
+        private long update(long rttNanos) {
+            windowMinRttNanos = Math.min(windowMinRttNanos, rttNanos);
+            if (!ready) {
+                baselineRttNanos = windowMinRttNanos;
+            }
+            if (++windowSamples >= baselineWindow) {
+                baselineRttNanos = windowMinRttNanos;
+                ready = true;
+                windowMinRttNanos = Long.MAX_VALUE;
+                windowSamples = 0;
+            }
+            return baselineRttNanos;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.infragest.infra_orders_service.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Acceso con caché a los datos de assignees de infra-groups-service ({@link GroupClient} y {@link EmployeeClient}).
+ *
+ * <p>Los grupos, los correos de sus miembros y los empleados cambian con poca frecuencia, mientras que cada
+ * cambio de estado de una orden necesita resolver sus destinatarios. Las respuestas se guardan en
+ * {@link LookupCache}s acotadas y con expiración ({@code orders.assignee-cache.*}), de modo que un cambio de
+ * estado normalmente no hace llamadas remotas. Los cambios publicados por infra-groups-service invalidan
+ * las entradas afectadas (ver {@code GroupChangesListener}).</p>
+ *
+ * <p>Los fallos de caché concurrentes sobre la misma clave (p. ej. muchas órdenes a la vez para un grupo
+ * grande) comparten una sola llamada remota ({@link SingleFlight}), protegida por el circuit breaker y
+ * el bulkhead de su cliente ({@link DependencyGuard}).</p>
+ *
+ * <p>Los valores se devuelven como copias no modificables, ya que se comparten entre peticiones. Las
+ * respuestas vacías (grupo inexistente o sin miembros) no se guardan, para que se vuelvan a comprobar.</p>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+@Component
+@Slf4j
+public class AssigneeDirectory {
+
+    private final GroupClient groupClient;
+
+    private final EmployeeClient employeeClient;
+
+    private final DependencyGuard groupsGuard;
+
+    private final DependencyGuard employeesGuard;
+
+    private final LookupCache<UUID, Map<String, Object>> groups;
+
+    private final LookupCache<UUID, List<String>> groupMembersEmails;
+
+    private final LookupCache<UUID, Map<String, Object>> employees;
+
+    private final SingleFlight<UUID, Map<String, Object>> groupLookups;
+
+    private final SingleFlight<UUID, List<String>> groupMembersEmailsLookups;
+
+    private final SingleFlight<UUID, Map<String, Object>> employeeLookups;
+
+    /**
+     * Constructor con los clientes y la configuración de las cachés.
+     *
+     * @param groupClient    cliente de grupos
+     * @param employeeClient cliente de empleados
+     * @param groupsGuard    circuit breaker y bulkhead de {@link GroupClient}
+     * @param employeesGuard circuit breaker y bulkhead de {@link EmployeeClient}
+     * @param maxEntries     máximo de entradas por caché
+     * @param ttl            vida útil de las entradas
+     * @param meterRegistry  registro de métricas
+     */
+    public AssigneeDirectory(
+            GroupClient groupClient,
+            EmployeeClient employeeClient,
+            DependencyGuard groupsGuard,
+            DependencyGuard employeesGuard,
+            @Value("${orders.assignee-cache.max-entries:10000}") int maxEntries,
+            @Value("${orders.assignee-cache.ttl:PT5M}") Duration ttl,
+            MeterRegistry meterRegistry
+    ) {
+        this.groupClient = groupClient;
+        this.employeeClient = employeeClient;
+        this.groupsGuard = groupsGuard;
+        this.employeesGuard = employeesGuard;
+        this.groups = new LookupCache<>("groups", maxEntries, ttl, meterRegistry);
+        this.groupMembersEmails = new LookupCache<>("group-members-emails", maxEntries, ttl, meterRegistry);
+        this.employees = new LookupCache<>("employees", maxEntries, ttl, meterRegistry);
+        this.groupLookups = new SingleFlight<>("groups", meterRegistry);
+        this.groupMembersEmailsLookups = new SingleFlight<>("group-members-emails", meterRegistry);
+        this.employeeLookups = new SingleFlight<>("employees", meterRegistry);
+    }
+
+    /**
+     * Obtiene la información de un grupo.
+     *
+     * @param groupId UUID del grupo
+     * @return mapa con la información del grupo, o {@code null}/vacío si no existe
+     */
+    public Map<String, Object> getGroup(UUID groupId) {
+        return groups.get(groupId, () -> groupLookups.execute(groupId,
+                () -> copyOrNull(groupsGuard.call(() -> groupClient.getGroup(groupId)))));
+    }
+
+    /**
+     * Obtiene los correos de los miembros de un grupo.
+     *
+     * @param groupId UUID del grupo
+     * @return lista de correos, o {@code null}/vacía si no tiene miembros
+     */
+    public List<String> getGroupMembersEmails(UUID groupId) {
+        return groupMembersEmails.get(groupId, () -> groupMembersEmailsLookups.execute(groupId, () -> {
+            List<String> emails = groupsGuard.call(() -> groupClient.getGroupMembersEmails(groupId));
+            return emails == null || emails.isEmpty() ? null : Collections.unmodifiableList(new ArrayList<>(emails));
+        }));
+    }
+
+    /**
+     * Obtiene la información de un empleado.
+     *
+     * @param employeeId UUID del empleado
+     * @return mapa con la información del empleado, o {@code null}/vacío si no existe
+     */
+    public Map<String, Object> getEmployee(UUID employeeId) {
+        return employees.get(employeeId, () -> employeeLookups.execute(employeeId,
+                () -> copyOrNull(employeesGuard.call(() -> employeeClient.getEmployee(employeeId)))));
+    }
+
+    /**
+     * Invalida la información y los miembros de un grupo.
+     *
+     * @param groupId UUID del grupo
+     */
+    public void invalidateGroup(UUID groupId) {
+        groups.invalidate(groupId);
+        groupMembersEmails.invalidate(groupId);
+        log.debug("Caché de assignees: grupo {} invalidado", groupId);
+    }
+
+    /**
+     * Invalida un empleado y, como su correo puede figurar en cualquier grupo, los correos de todos los grupos.
+     *
+     * @param employeeId UUID del empleado
+     */
+    public void invalidateEmployee(UUID employeeId) {
+        employees.invalidate(employeeId);
+        groupMembersEmails.invalidateAll();
+        log.debug("Caché de assignees: empleado {} invalidado", employeeId);
+    }
+
+    /**
+     * Invalida todas las entradas (p. ej. ante un cambio que no identifica grupo ni empleado).
+     */
+    public void invalidateAll() {
+        groups.invalidateAll();
+        groupMembersEmails.invalidateAll();
+        employees.invalidateAll();
+        log.debug("Caché de assignees: todas las entradas invalidadas");
+    }
+
+    /**
+     * Copia no modificable de una respuesta, o {@code null} si está vacía (no se guarda en caché).
+     *
+     * @param response respuesta del cliente
+     * @return copia no modificable o {@code null}
+     */
+    private Map<String, Object> copyOrNull(Map<String, Object> response) {
+        return response == null || response.isEmpty() ? null : Collections.unmodifiableMap(new LinkedHashMap<>(response));
+    }
+}
@@ -0,0 +1,143 @@
+package com.infragest.infra_orders_service.client;
+
+import com.infragest.infra_orders_service.excepcion.DependencyRejectedException;
+import feign.FeignException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Protección de las llamadas a un microservicio externo: circuit breaker, límite adaptativo de
+ * concurrencia y bulkhead propios del cliente.
+ *
+ * <ul>
+ *   <li>El circuit breaker se abre ante una tasa alta de fallos o de llamadas lentas y, mientras está
+ *       abierto, rechaza las llamadas sin esperar al timeout.</li>
+ *   <li>El límite adaptativo ({@link AdaptiveConcurrencyLimiter}) descubre la concurrencia que admite el
+ *       servicio según su latencia y errores; el exceso espera en una cola acotada o se descarta.</li>
+ *   <li>El bulkhead es el techo fijo de llamadas concurrentes, de modo que un servicio lento solo retiene
+ *       los hilos de las peticiones que lo necesitan.</li>
+ * </ul>
+ *
+ * <p>Los rechazos locales lanzan {@link DependencyRejectedException}, que se trata como un 503 del servicio
+ * pero no cuenta como fallo ni como éxito del servicio para el circuit breaker ni para el límite adaptativo.
+ * Ambos miden solo la duración de la llamada, sin la espera por capacidad.</p>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+public class DependencyGuard {
+
+    private final String service;
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    private final Bulkhead bulkhead;
+
+    /**
+     * Constructor con el servicio protegido y sus protecciones.
+     *
+     * @param service            nombre del servicio (para los mensajes de error)
+     * @param circuitBreaker     circuit breaker del cliente
+     * @param concurrencyLimiter límite adaptativo de concurrencia del cliente
+     * @param bulkhead           bulkhead del cliente
+     */
+    public DependencyGuard(String service, CircuitBreaker circuitBreaker,
+                           AdaptiveConcurrencyLimiter concurrencyLimiter, Bulkhead bulkhead) {
+        this.service = service;
+        this.circuitBreaker = circuitBreaker;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.bulkhead = bulkhead;
+    }
+
+    /**
+     * Indica si una excepción cuenta como fallo del servicio: errores 5xx o de red/timeout (status negativo).
+     * Los rechazos locales ({@link DependencyRejectedException}) no cuentan.
+     *
+     * @param ex excepción de la llamada
+     * @return {@code true} si la excepción indica que el servicio falló o está saturado
+     */
+    public static boolean isDependencyFailure(Throwable ex) {
+        return ex instanceof FeignException fe
+                && !(ex instanceof DependencyRejectedException)
+                && (fe.status() >= 500 || fe.status() < 0);
+    }
+
+    /**
+     * Ejecuta una llamada remota protegida de la operación por defecto.
+     *
+     * @param call llamada remota
+     * @param <T>  tipo del resultado
+     * @return resultado de la llamada
+     * @throws DependencyRejectedException si el circuito está abierto, se supera el límite de concurrencia
+     *                                     o el bulkhead está lleno
+     * @see #call(String, Supplier)
+     */
+    public <T> T call(Supplier<T> call) {
+        return call(AdaptiveConcurrencyLimiter.DEFAULT_OPERATION, call);
+    }
+
+    /**
+     * Ejecuta una llamada remota protegida. El orden es circuit breaker, límite adaptativo y bulkhead:
+     * con el circuito abierto no se ocupa capacidad del límite ni del bulkhead.
+     *
+     * <p>Los permisos se piden de forma explícita para que el circuit breaker y el límite solo midan la
+     * llamada al servicio, no la espera en la cola del límite ni en el bulkhead: una llamada que esperó hueco
+     * no cuenta como lenta. Un rechazo local devuelve el permiso del circuit breaker sin registrar resultado,
+     * así no diluye la tasa de fallos ni cierra un circuito semiabierto con llamadas que no llegaron al
+     * servicio.</p>
+     *
+     * <p>La operación separa la latencia base del límite adaptativo: los endpoints del mismo servicio con
+     * cargas de distinto tamaño no se comparan entre sí.</p>
+     *
+     * @param operation operación de la llamada (ver {@link AdaptiveConcurrencyLimiter#operation(String, int)})
+     * @param call      llamada remota
+     * @param <T>       tipo del resultado
+     * @return resultado de la llamada
+     * @throws DependencyRejectedException si el circuito está abierto, se supera el límite de concurrencia
+     *                                     o el bulkhead está lleno
+     */
+    public <T> T call(String operation, Supplier<T> call) {
+        try {
+            circuitBreaker.acquirePermission();
+        } catch (CallNotPermittedException ex) {
+            throw new DependencyRejectedException(service, "circuit breaker '" + circuitBreaker.getName() + "' abierto");
+        }
+
+        if (!concurrencyLimiter.tryAcquire()) {
+            circuitBreaker.releasePermission();
+            throw new DependencyRejectedException(service,
+                    "límite de concurrencia alcanzado (" + concurrencyLimiter.getLimit() + ")");
+        }
+
+        try {
+            bulkhead.acquirePermission();
+        } catch (BulkheadFullException ex) {
+            concurrencyLimiter.releaseWithoutSample();
+            circuitBreaker.releasePermission();
+            throw new DependencyRejectedException(service, "bulkhead '" + bulkhead.getName() + "' sin capacidad");
+        }
+
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            long elapsed = System.nanoTime() - start;
+            circuitBreaker.onResult(elapsed, TimeUnit.NANOSECONDS, result);
+            concurrencyLimiter.release(operation, elapsed, false);
+            return result;
+        } catch (RuntimeException | Error ex) {
+            long elapsed = System.nanoTime() - start;
+            circuitBreaker.onError(elapsed, TimeUnit.NANOSECONDS, ex);
+            concurrencyLimiter.release(operation, elapsed, isDependencyFailure(ex));
+            throw ex;
+        } finally {
+            bulkhead.onComplete();
+        }
+    }
+}
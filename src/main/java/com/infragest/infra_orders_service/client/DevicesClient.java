@@ -2,6 +2,8 @@ package com.infragest.infra_orders_service.client;
 
 import com.infragest.infra_orders_service.config.FeignClientConfig;
 import com.infragest.infra_orders_service.model.ApiResponseDto;
+import com.infragest.infra_orders_service.model.DeviceReservationBatchRq;
+import com.infragest.infra_orders_service.model.DeviceReservationResultRs;
 import com.infragest.infra_orders_service.model.DeviceRs;
 import com.infragest.infra_orders_service.model.DevicesBatchRq;
 import com.infragest.infra_orders_service.model.RestoreDevicesRq;
@@ -40,6 +42,16 @@ public interface DevicesClient {
     @PutMapping("/api/devices/reserve")
     ApiResponseDto<Void> reserveDevices(@RequestBody Map<String, Object> body);
 
+    /**
+     * Reserva en una sola llamada los dispositivos de varias órdenes. Solo se usa si infra-devices-service
+     * lo soporta ({@code orders.devices.reservation-batching.enabled}).
+     *
+     * @param deviceReservationBatchRq reservas de cada orden y estado destino
+     * @return respuesta con el resultado de la reserva de cada orden
+     */
+    @PutMapping("/api/devices/reserve/batch")
+    ApiResponseDto<List<DeviceReservationResultRs>> reserveDevicesBatch(@RequestBody DeviceReservationBatchRq deviceReservationBatchRq);
+
     /**
      * Restaura los estados originales de devices (usado al finalizar una orden).
      *
@@ -0,0 +1,160 @@
+package com.infragest.infra_orders_service.client;
+
+import com.infragest.infra_orders_service.model.ApiResponseDto;
+import com.infragest.infra_orders_service.model.DeviceReservationBatchRq;
+import com.infragest.infra_orders_service.model.DeviceRs;
+import com.infragest.infra_orders_service.model.DevicesBatchRq;
+import com.infragest.infra_orders_service.model.RestoreDevicesRq;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Acceso a infra-devices-service ({@link DevicesClient}) con coalescencia de consultas en curso y
+ * circuit breaker/bulkhead ({@link DependencyGuard}).
+ *
+ * <p>Cuando llegan muchas órdenes a la vez sobre los mismos equipos, las consultas concurrentes de
+ * {@code /api/devices/batch} con IDs solapados comparten una sola llamada por equipo
+ * (ver {@link SingleFlight#executeAll}): cada petición solo consulta los IDs que nadie tiene en curso.</p>
+ *
+ * <p>Todas las llamadas pasan por el {@code devicesGuard}: si el servicio está degradado se rechazan
+ * al instante con {@link com.infragest.infra_orders_service.excepcion.DependencyRejectedException} (un 503).
+ * Cada endpoint indica su operación y tamaño, de modo que el límite adaptativo compara su latencia solo con
+ * la de llamadas equivalentes.</p>
+ *
+ * <p>Si infra-devices-service soporta la reserva combinada ({@code orders.devices.reservation-batching.enabled}),
+ * las reservas concurrentes con las mismas credenciales se agrupan durante una ventana corta en una sola
+ * llamada a {@code /api/devices/reserve/batch} ({@code orders.devices.reservation-batching.*}).</p>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+@Component
+public class DevicesGateway {
+
+    private final DevicesClient devicesClient;
+
+    private final DependencyGuard devicesGuard;
+
+    private final SingleFlight<UUID, DeviceRs> deviceLookups;
+
+    private final ReservationBatcher reservations;
+
+    /**
+     * Constructor con el cliente de dispositivos.
+     *
+     * @param devicesClient         cliente de infra-devices-service
+     * @param devicesGuard          circuit breaker y bulkhead de infra-devices-service
+     * @param reservationBatching   si infra-devices-service soporta la reserva combinada
+     * @param reservationWindow     espera máxima para agrupar reservas concurrentes (cero desactiva la agrupación)
+     * @param reservationMaxOrders  órdenes que cierran un lote de reservas
+     * @param reservationMaxDevices dispositivos que cierran un lote de reservas
+     * @param meterRegistry         registro de métricas
+     */
+    public DevicesGateway(
+            DevicesClient devicesClient,
+            DependencyGuard devicesGuard,
+            @Value("${orders.devices.reservation-batching.enabled:false}") boolean reservationBatching,
+            @Value("${orders.devices.reservation-batching.window:PT0.01S}") Duration reservationWindow,
+            @Value("${orders.devices.reservation-batching.max-orders:50}") int reservationMaxOrders,
+            @Value("${orders.devices.reservation-batching.max-devices:1000}") int reservationMaxDevices,
+            MeterRegistry meterRegistry
+    ) {
+        this.devicesClient = devicesClient;
+        this.devicesGuard = devicesGuard;
+        this.deviceLookups = new SingleFlight<>("devices-batch", meterRegistry);
+        this.reservations = new ReservationBatcher(reservationBatching ? reservationWindow : Duration.ZERO,
+                reservationMaxOrders, reservationMaxDevices,
+                rq -> devicesGuard.call(AdaptiveConcurrencyLimiter.operation("reserve-batch", countDevices(rq)),
+                        () -> devicesClient.reserveDevicesBatch(rq)), meterRegistry);
+    }
+
+    /**
+     * Obtiene los dispositivos indicados, en el orden solicitado y sin repetidos.
+     * Los IDs que no existen no aparecen en el resultado.
+     *
+     * @param deviceIds IDs de los dispositivos
+     * @return dispositivos encontrados
+     * @throws feign.FeignException si falla la llamada (propia o compartida)
+     */
+    public List<DeviceRs> getDevicesByIds(List<UUID> deviceIds) {
+        Map<UUID, DeviceRs> found = deviceLookups.executeAll(deviceIds, ids -> {
+            List<DeviceRs> devices = devicesGuard.call(AdaptiveConcurrencyLimiter.operation("lookup", ids.size()),
+                    () -> devicesClient.getDevicesByIds(DevicesBatchRq.builder().ids(ids).build()));
+            Map<UUID, DeviceRs> byId = new HashMap<>(ids.size() * 2);
+            if (devices != null) {
+                devices.stream()
+                        .filter(device -> device != null && device.getId() != null)
+                        .forEach(device -> byId.put(device.getId(), device));
+            }
+            return byId;
+        });
+
+        return deviceIds.stream()
+                .distinct()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Reserva los dispositivos de una orden. Las reservas concurrentes de varias órdenes con las mismas
+     * credenciales se agrupan en una sola llamada ({@link ReservationBatcher}).
+     *
+     * @param orderId   orden que reserva
+     * @param deviceIds dispositivos a reservar
+     * @param state     estado al que pasan los dispositivos (p. ej. OCCUPIED)
+     * @return respuesta con el estado de la reserva de la orden
+     */
+    public ApiResponseDto<Void> reserveDevices(UUID orderId, List<UUID> deviceIds, String state) {
+        return reservations.reserve(state, currentCredentials(), orderId, deviceIds, () -> devicesGuard.call(
+                AdaptiveConcurrencyLimiter.operation("reserve", deviceIds.size()),
+                () -> devicesClient.reserveDevices(Map.of("deviceIds", deviceIds, "state", state, "orderId", orderId))));
+    }
+
+    /**
+     * Restaura los estados originales de dispositivos.
+     *
+     * @param restoreDevicesRq solicitud con los dispositivos y estados originales
+     * @return respuesta con el estado de la operación
+     */
+    public ApiResponseDto<Void> restoreDeviceStates(RestoreDevicesRq restoreDevicesRq) {
+        int devices = restoreDevicesRq.getItems() != null ? restoreDevicesRq.getItems().size() : 0;
+        return devicesGuard.call(AdaptiveConcurrencyLimiter.operation("restore", devices),
+                () -> devicesClient.restoreDeviceStates(restoreDevicesRq));
+    }
+
+    /**
+     * Dispositivos de una reserva combinada, para la latencia base de su tamaño.
+     *
+     * @param request reserva combinada
+     * @return número total de dispositivos
+     */
+    private static int countDevices(DeviceReservationBatchRq request) {
+        return request.getReservations().stream()
+                .mapToInt(reservation -> reservation.getDeviceIds().size())
+                .sum();
+    }
+
+    /**
+     * Credenciales con las que {@code FeignClientConfig} firma las llamadas del hilo actual.
+     *
+     * @return token del contexto de seguridad, o null si no hay
+     */
+    private String currentCredentials() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication.getCredentials() == null) {
+            return null;
+        }
+        return authentication.getCredentials().toString();
+    }
+}
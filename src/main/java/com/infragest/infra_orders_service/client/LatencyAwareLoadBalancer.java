@@ -0,0 +1,126 @@
+package com.infragest.infra_orders_service.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Balanceador de Spring Cloud LoadBalancer que reparte las llamadas de los clientes Feign según la
+ * latencia observada y las peticiones en curso de cada réplica ({@link PeakEwmaSelector}).
+ *
+ * <p>Sustituye al round-robin por defecto: una réplica lenta o saturada recibe menos tráfico en cuanto
+ * sus respuestas empeoran, en lugar de seguir recibiendo su parte y arrastrar la latencia de cola.</p>
+ *
+ * <p>También actúa como {@link LoadBalancerLifecycle} para medir cada llamada: el cliente Feign bloqueante
+ * notifica el inicio y el final en el mismo hilo, por lo que el inicio se guarda en un {@link ThreadLocal}.
+ * Los errores de red y las respuestas 5xx cuentan como fallo y penalizan la réplica.</p>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+@Slf4j
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer,
+        LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    private final String serviceId;
+
+    private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+
+    private final PeakEwmaSelector<ServiceInstance> selector;
+
+    private final ThreadLocal<Long> startedAt = new ThreadLocal<>();
+
+    /**
+     * Constructor con el proveedor de instancias del servicio y los parámetros de la estimación.
+     *
+     * @param serviceInstanceListSupplierProvider proveedor de las instancias del servicio
+     * @param serviceId                           nombre del servicio
+     * @param decay                               ventana de decaimiento de la latencia estimada
+     * @param failurePenalty                      latencia que se asigna a una llamada fallida
+     */
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+                                    String serviceId, Duration decay, Duration failurePenalty) {
+        this.serviceId = serviceId;
+        this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+        this.selector = new PeakEwmaSelector<>(LatencyAwareLoadBalancer::instanceKey, decay, failurePenalty);
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = serviceInstanceListSupplierProvider
+                .getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(this::chooseInstance);
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+        // La instancia aún no está elegida: se mide desde onStartRequest
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse != null && lbResponse.hasServer()) {
+            selector.onStart(lbResponse.getServer());
+            startedAt.set(System.nanoTime());
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Long start = startedAt.get();
+        startedAt.remove();
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (start == null || lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+
+        boolean failed = completionContext.status() == CompletionContext.Status.FAILED
+                || completionContext.getClientResponse() instanceof ResponseData data
+                && data.getHttpStatus() != null && data.getHttpStatus().is5xxServerError();
+        selector.onComplete(lbResponse.getServer(), System.nanoTime() - start, failed);
+    }
+
+    /**
+     * Elige la réplica para una llamada entre las instancias disponibles.
+     *
+     * @param instances instancias del servicio
+     * @return respuesta con la instancia elegida, o vacía si no hay instancias
+     */
+    private Response<ServiceInstance> chooseInstance(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            log.warn("No hay instancias disponibles del servicio {}", serviceId);
+            return new EmptyResponse();
+        }
+        return new DefaultResponse(selector.choose(instances));
+    }
+
+    /**
+     * Clave estable de una réplica: host y puerto (el identificador de instancia no siempre existe).
+     *
+     * @param instance instancia del servicio
+     * @return clave de la réplica
+     */
+    private static String instanceKey(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+}
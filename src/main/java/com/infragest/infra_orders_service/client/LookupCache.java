@@ -0,0 +1,153 @@
+package com.infragest.infra_orders_service.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Caché en memoria, acotada en tamaño y con expiración, para respuestas de clientes remotos.
+ *
+ * <p>Las entradas se ordenan por acceso: al superar el máximo se descarta la usada hace más tiempo,
+ * y cada entrada expira {@code ttl} después de cargarse. Los fallos de la carga no se guardan, de modo
+ * que el siguiente acceso vuelve a consultar el servicio. La carga se ejecuta fuera del bloqueo; si
+ * mientras tanto se invalida alguna entrada, el valor cargado se devuelve pero no se guarda, para no
+ * reintroducir un dato anterior a la invalidación.</p>
+ *
+ * <p>Métricas expuestas (con la etiqueta {@code cache}): {@code orders.cache.hits},
+ * {@code orders.cache.misses}, {@code orders.cache.evictions} y {@code orders.cache.size}.</p>
+ *
+ * @param <K> tipo de la clave
+ * @param <V> tipo del valor
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+public class LookupCache<K, V> {
+
+    private final int maxEntries;
+
+    private final long ttlNanos;
+
+    private final Map<K, Entry<V>> entries;
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    private final Counter evictions;
+
+    /**
+     * Se incrementa en cada invalidación; una carga iniciada antes no se guarda.
+     */
+    private long generation;
+
+    /**
+     * Constructor con el nombre, el tamaño máximo y la vida útil de las entradas.
+     *
+     * @param name          nombre de la caché (etiqueta de las métricas)
+     * @param maxEntries    máximo de entradas
+     * @param ttl           vida útil de cada entrada
+     * @param meterRegistry registro de métricas
+     */
+    public LookupCache(String name, int maxEntries, Duration ttl, MeterRegistry meterRegistry) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                boolean evict = size() > LookupCache.this.maxEntries;
+                if (evict) {
+                    evictions.increment();
+                }
+                return evict;
+            }
+        };
+        this.hits = Counter.builder("orders.cache.hits")
+                .tag("cache", name)
+                .description("Consultas resueltas desde la caché")
+                .register(meterRegistry);
+        this.misses = Counter.builder("orders.cache.misses")
+                .tag("cache", name)
+                .description("Consultas que requirieron una llamada remota")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("orders.cache.evictions")
+                .tag("cache", name)
+                .description("Entradas descartadas por superar el tamaño máximo")
+                .register(meterRegistry);
+        Gauge.builder("orders.cache.size", this, LookupCache::size)
+                .tag("cache", name)
+                .description("Entradas en la caché")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Devuelve el valor de la clave, cargándolo con {@code loader} si no está en caché o expiró.
+     * Los valores nulos no se guardan.
+     *
+     * @param key    clave
+     * @param loader carga del valor (llamada remota); sus excepciones se propagan sin guardarse
+     * @return valor en caché o recién cargado
+     */
+    public V get(K key, Supplier<V> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && System.nanoTime() - entry.loadedAt() <= ttlNanos) {
+                hits.increment();
+                return entry.value();
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+            loadGeneration = generation;
+        }
+
+        misses.increment();
+        V value = loader.get();
+        if (value != null) {
+            synchronized (this) {
+                if (loadGeneration == generation) {
+                    entries.put(key, new Entry<>(value, System.nanoTime()));
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Elimina la entrada de una clave.
+     *
+     * @param key clave a invalidar
+     */
+    public synchronized void invalidate(K key) {
+        generation++;
+        entries.remove(key);
+    }
+
+    /**
+     * Elimina todas las entradas.
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    /**
+     * Número de entradas en caché (incluidas las expiradas aún no consultadas).
+     *
+     * @return tamaño de la caché
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Valor en caché y momento de carga (nanosegundos).
+     */
+    private record Entry<V>(V value, long loadedAt) {
+    }
+}
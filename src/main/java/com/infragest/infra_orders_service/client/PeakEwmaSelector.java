@@ -0,0 +1,196 @@
+package com.infragest.infra_orders_service.client;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.random.RandomGenerator;
+
+/**
+ * Selección de instancias por latencia observada: "power of two choices" sobre peak-EWMA.
+ *
+ * <p>Para cada petición se eligen dos instancias al azar y se usa la de menor coste, donde el coste es
+ * la latencia estimada multiplicada por las peticiones en curso más una. La latencia estimada es una
+ * media móvil exponencial con decaimiento temporal ({@code decay}) que sube de inmediato ante una
+ * respuesta lenta (peak-EWMA): una réplica que empieza a degradarse deja de recibir tráfico enseguida y
+ * lo recupera poco a poco al responder bien. Un fallo cuenta como una respuesta de {@code failurePenalty}.</p>
+ *
+ * <p>Elegir entre dos al azar, en lugar de la mejor de todas, evita que todas las instancias del servicio
+ * manden a la vez su tráfico a la misma réplica con las estadísticas del momento.</p>
+ *
+ * @param <T> tipo de la instancia
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+public class PeakEwmaSelector<T> {
+
+    /**
+     * Instancias desaparecidas que se toleran antes de limpiar sus estadísticas.
+     */
+    private static final int MAX_STALE_INSTANCES = 16;
+
+    private final Function<T, String> instanceKey;
+
+    private final double decayNanos;
+
+    private final long failurePenaltyNanos;
+
+    private final LongSupplier clock;
+
+    private final RandomGenerator random;
+
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor con el reloj del sistema y un generador aleatorio por hilo.
+     *
+     * @param instanceKey    clave estable de cada instancia (p. ej. host:puerto)
+     * @param decay          ventana de decaimiento de la latencia estimada
+     * @param failurePenalty latencia que se asigna a una respuesta fallida
+     */
+    public PeakEwmaSelector(Function<T, String> instanceKey, Duration decay, Duration failurePenalty) {
+        this(instanceKey, decay, failurePenalty, System::nanoTime, null);
+    }
+
+    /**
+     * Constructor con reloj y generador aleatorio explícitos (simulaciones deterministas).
+     *
+     * @param instanceKey    clave estable de cada instancia
+     * @param decay          ventana de decaimiento de la latencia estimada
+     * @param failurePenalty latencia que se asigna a una respuesta fallida
+     * @param clock          reloj en nanosegundos
+     * @param random         generador aleatorio, o {@code null} para usar uno por hilo
+     */
+    public PeakEwmaSelector(Function<T, String> instanceKey, Duration decay, Duration failurePenalty,
+                            LongSupplier clock, RandomGenerator random) {
+        this.instanceKey = instanceKey;
+        this.decayNanos = decay.toNanos();
+        this.failurePenaltyNanos = failurePenalty.toNanos();
+        this.clock = clock;
+        this.random = random;
+    }
+
+    /**
+     * Elige una instancia entre las candidatas.
+     *
+     * @param candidates instancias disponibles
+     * @return la instancia elegida, o {@code null} si no hay candidatas
+     */
+    public T choose(List<T> candidates) {
+        int size = candidates.size();
+        if (size == 0) {
+            return null;
+        }
+        if (size == 1) {
+            return candidates.get(0);
+        }
+        if (stats.size() > 2 * size + MAX_STALE_INSTANCES) {
+            forgetMissing(candidates);
+        }
+
+        RandomGenerator rnd = random != null ? random : ThreadLocalRandom.current();
+        int first = rnd.nextInt(size);
+        int second = rnd.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+
+        T a = candidates.get(first);
+        T b = candidates.get(second);
+        return statsOf(a).cost() <= statsOf(b).cost() ? a : b;
+    }
+
+    /**
+     * Registra el inicio de una petición a la instancia.
+     *
+     * @param instance instancia elegida
+     */
+    public void onStart(T instance) {
+        statsOf(instance).start();
+    }
+
+    /**
+     * Registra el final de una petición a la instancia.
+     *
+     * @param instance     instancia que atendió la petición
+     * @param latencyNanos duración de la petición
+     * @param failed       {@code true} si la petición falló (se penaliza la instancia)
+     */
+    public void onComplete(T instance, long latencyNanos, boolean failed) {
+        statsOf(instance).complete(failed ? Math.max(latencyNanos, failurePenaltyNanos) : latencyNanos, clock.getAsLong());
+    }
+
+    /**
+     * Latencia estimada actual de una instancia (para métricas y pruebas).
+     *
+     * @param instance instancia
+     * @return latencia estimada en nanosegundos (0 si aún no hay muestras)
+     */
+    public double estimatedLatencyNanos(T instance) {
+        return statsOf(instance).ewma();
+    }
+
+    /**
+     * Olvida las estadísticas de las instancias que ya no están entre las candidatas (réplicas retiradas).
+     *
+     * @param candidates instancias actuales
+     */
+    private void forgetMissing(List<T> candidates) {
+        Set<String> current = new HashSet<>();
+        candidates.forEach(candidate -> current.add(instanceKey.apply(candidate)));
+        stats.keySet().retainAll(current);
+    }
+
+    private InstanceStats statsOf(T instance) {
+        return stats.computeIfAbsent(instanceKey.apply(instance), key -> new InstanceStats());
+    }
+
+    /**
+     * Estadísticas de una instancia: latencia estimada (peak-EWMA) y peticiones en curso.
+     */
+    private final class InstanceStats {
+
+        private double ewmaNanos;
+
+        private long updatedAt;
+
+        private int pending;
+
+        synchronized void start() {
+            pending++;
+        }
+
+        synchronized void complete(long latencyNanos, long now) {
+            pending = Math.max(0, pending - 1);
+            if (latencyNanos > ewmaNanos) {
+                ewmaNanos = latencyNanos;
+            } else {
+                double weight = Math.exp(-(now - updatedAt) / decayNanos);
+                ewmaNanos = ewmaNanos * weight + latencyNanos * (1 - weight);
+            }
+            updatedAt = now;
+        }
+
+        synchronized double ewma() {
+            return ewmaNanos;
+        }
+
+        /**
+         * Coste de enviar una petición más: latencia estimada por peticiones en curso más una.
+         * Una instancia sin muestras cuesta 0 para que reciba tráfico y se mida, pero mientras su
+         * primera respuesta no llega cuenta como lenta ({@code failurePenalty}), de modo que no
+         * acapare las peticiones por no tener aún latencia.
+         */
+        synchronized double cost() {
+            if (ewmaNanos == 0) {
+                return pending == 0 ? 0 : (double) failurePenaltyNanos + pending;
+            }
+            return ewmaNanos * (pending + 1);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.infragest.infra_orders_service.client;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Supplier;
+
+/**
+ * Ejecutor acotado para lanzar en paralelo llamadas remotas (clientes Feign) independientes.
+ *
+ * <p>El pool no tiene cola: si no hay hilos libres la tarea se ejecuta en el hilo llamador
+ * ({@link ThreadPoolExecutor.CallerRunsPolicy}). Así el paralelismo queda acotado y una tarea
+ * que espera a otra nunca queda bloqueada detrás de una cola llena.</p>
+ *
+ * <p>Cada tarea ve el {@code SecurityContext} del hilo que la envía, ya que
+ * {@code FeignClientConfig#requestInterceptor} lo necesita para reenviar el JWT del usuario;
+ * el contexto de trazas también se propaga.</p>
+ *
+ * <p>No se expone como bean {@link Executor} para no desactivar el ejecutor por defecto de Spring Boot.</p>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+@Component
+public class RemoteCallExecutor implements DisposableBean {
+
+    private final ThreadPoolTaskExecutor pool;
+
+    private final Executor executor;
+
+    /**
+     * Constructor con el tamaño del pool.
+     *
+     * @param corePoolSize hilos mínimos del pool
+     * @param maxPoolSize  hilos máximos del pool
+     */
+    public RemoteCallExecutor(
+            @Value("${orders.remote-calls.core-pool-size:8}") int corePoolSize,
+            @Value("${orders.remote-calls.max-pool-size:32}") int maxPoolSize
+    ) {
+        this.pool = new ThreadPoolTaskExecutor();
+        this.pool.setCorePoolSize(corePoolSize);
+        this.pool.setMaxPoolSize(maxPoolSize);
+        this.pool.setQueueCapacity(0);
+        this.pool.setThreadNamePrefix("orders-remote-");
+        this.pool.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        this.pool.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        this.pool.setWaitForTasksToCompleteOnShutdown(true);
+        this.pool.initialize();
+        this.executor = new DelegatingSecurityContextExecutor(pool);
+    }
+
+    /**
+     * Lanza una llamada remota de forma asíncrona.
+     *
+     * @param call llamada a ejecutar
+     * @param <T>  tipo del resultado
+     * @return futuro con el resultado de la llamada
+     */
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(call, executor);
+    }
+
+    /**
+     * Espera el resultado de un futuro y relanza la excepción original de la llamada
+     * (p. ej. {@code FeignException}) en lugar de {@link CompletionException}, para que
+     * los {@code catch} existentes sigan funcionando igual que en la versión secuencial.
+     *
+     * @param future futuro a esperar
+     * @param <T>    tipo del resultado
+     * @return resultado de la llamada
+     */
+    public static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Detiene el pool al cerrar el contexto.
+     */
+    @Override
+    public void destroy() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,273 @@
+package com.infragest.infra_orders_service.client;
+
+import com.infragest.infra_orders_service.model.ApiResponseDto;
+import com.infragest.infra_orders_service.model.DeviceReservationBatchRq;
+import com.infragest.infra_orders_service.model.DeviceReservationResultRs;
+import feign.FeignException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Agrupación ("micro-batching") de las reservas de dispositivos de órdenes concurrentes en una sola
+ * llamada a {@code /api/devices/reserve/batch}.
+ *
+ * <p>La primera reserva que llega abre un lote y espera como máximo {@code window}; las que llegan
+ * mientras tanto se suman al lote, que se cierra antes si alcanza {@code maxOrders} órdenes o
+ * {@code maxDevices} dispositivos. El hilo que abrió el lote hace la llamada combinada y reparte a cada
+ * orden su resultado.</p>
+ *
+ * <p>La llamada combinada viaja con el contexto de seguridad del hilo que abrió el lote, por lo que solo
+ * se agrupan reservas con las mismas credenciales: los lotes se abren por estado destino y token. Así
+ * ninguna reserva se autoriza ni se audita con la identidad de otro usuario. Sin credenciales no se
+ * agrupa.</p>
+ *
+ * <p>Cuando no es posible atribuir un resultado a una orden, esa orden hace su propia llamada individual,
+ * en su propio hilo:</p>
+ * <ul>
+ *   <li>El lote solo tiene una orden (tráfico bajo): no se cambia el formato de la llamada.</li>
+ *   <li>La respuesta combinada no trae el resultado de la orden (también si responde con éxito pero sin
+ *       detalle por orden): nunca se da por reservada una orden sin su resultado.</li>
+ *   <li>La llamada combinada devuelve un 4xx: así una orden con datos inválidos no hace fallar al resto.</li>
+ * </ul>
+ * <p>Los errores del servidor, de red o los rechazos locales del {@link DependencyGuard} se propagan a
+ * todas las órdenes del lote, igual que si cada una hubiera llamado por separado.</p>
+ *
+ * <p>Con {@code window} cero no se agrupa nada. Métricas expuestas:
+ * {@code orders.devices.reservations.batch.size} (órdenes por llamada combinada) y
+ * {@code orders.devices.reservations.fallback} (órdenes reenviadas de forma individual).</p>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+public class ReservationBatcher {
+
+    private final long windowNanos;
+
+    private final int maxOrders;
+
+    private final int maxDevices;
+
+    private final Function<DeviceReservationBatchRq, ApiResponseDto<List<DeviceReservationResultRs>>> combinedCall;
+
+    private final Object lock = new Object();
+
+    private final Map<BatchKey, Batch> open = new HashMap<>();
+
+    private final DistributionSummary batchSize;
+
+    private final Counter fallbacks;
+
+    /**
+     * Constructor con la ventana, los umbrales del lote y la llamada combinada.
+     *
+     * @param window        espera máxima para completar un lote
+     * @param maxOrders     órdenes que cierran el lote antes de la ventana
+     * @param maxDevices    dispositivos que cierran el lote antes de la ventana
+     * @param combinedCall  llamada combinada a infra-devices-service
+     * @param meterRegistry registro de métricas
+     */
+    public ReservationBatcher(Duration window, int maxOrders, int maxDevices,
+                              Function<DeviceReservationBatchRq, ApiResponseDto<List<DeviceReservationResultRs>>> combinedCall,
+                              MeterRegistry meterRegistry) {
+        this.windowNanos = window.toNanos();
+        this.maxOrders = maxOrders;
+        this.maxDevices = maxDevices;
+        this.combinedCall = combinedCall;
+        this.batchSize = DistributionSummary.builder("orders.devices.reservations.batch.size")
+                .description("Órdenes reservadas por cada llamada combinada a infra-devices-service")
+                .register(meterRegistry);
+        this.fallbacks = Counter.builder("orders.devices.reservations.fallback")
+                .description("Reservas agrupadas reenviadas de forma individual")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reserva los dispositivos de una orden, agrupándola con las reservas concurrentes.
+     *
+     * @param state       estado al que pasan los dispositivos
+     * @param credentials token con el que viaja la llamada (null si no hay contexto de seguridad)
+     * @param orderId     orden que reserva
+     * @param deviceIds   dispositivos a reservar
+     * @param singleCall  llamada individual de la orden, usada cuando no se puede agrupar
+     * @return resultado de la reserva de la orden
+     * @throws FeignException si falla la llamada (combinada o individual)
+     */
+    public ApiResponseDto<Void> reserve(String state, String credentials, UUID orderId, List<UUID> deviceIds,
+                                        Supplier<ApiResponseDto<Void>> singleCall) {
+        if (windowNanos <= 0 || credentials == null) {
+            return singleCall.get();
+        }
+
+        BatchKey key = new BatchKey(state, credentials);
+        Pending pending = new Pending(orderId, deviceIds, new CompletableFuture<>());
+        Batch batch;
+        boolean leader;
+        synchronized (lock) {
+            batch = open.get(key);
+            leader = batch == null;
+            if (leader) {
+                batch = new Batch(key);
+                open.put(key, batch);
+            }
+            batch.add(pending);
+            if (batch.isFull()) {
+                close(batch);
+                lock.notifyAll();
+            }
+        }
+
+        if (leader) {
+            awaitWindow(batch);
+            dispatch(batch);
+        }
+
+        // Sin resultado propio (null) la orden hace su llamada individual
+        ApiResponseDto<Void> result = RemoteCallExecutor.await(pending.result());
+        return result != null ? result : singleCall.get();
+    }
+
+    /**
+     * Espera a que el lote se llene o venza la ventana, y lo cierra.
+     *
+     * @param batch lote abierto por el hilo actual
+     */
+    private void awaitWindow(Batch batch) {
+        long deadline = System.nanoTime() + windowNanos;
+        synchronized (lock) {
+            long remaining;
+            while (!batch.closed && (remaining = deadline - System.nanoTime()) > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            if (!batch.closed) {
+                close(batch);
+            }
+        }
+    }
+
+    /**
+     * Envía el lote cerrado y completa el resultado de cada orden.
+     *
+     * @param batch lote cerrado
+     */
+    private void dispatch(Batch batch) {
+        List<Pending> items = batch.items;
+        if (items.size() == 1) {
+            items.get(0).result().complete(null);
+            return;
+        }
+
+        batchSize.record(items.size());
+        try {
+            ApiResponseDto<List<DeviceReservationResultRs>> response = combinedCall.apply(toRequest(batch));
+            Map<UUID, DeviceReservationResultRs> byOrder = new HashMap<>(items.size() * 2);
+            if (response != null && response.getData() != null) {
+                response.getData().stream()
+                        .filter(result -> result != null && result.getOrderId() != null)
+                        .forEach(result -> byOrder.put(result.getOrderId(), result));
+            }
+
+            // Sin resultado propio la orden no cuenta como reservada, aunque la respuesta sea un éxito
+            for (Pending pending : items) {
+                DeviceReservationResultRs result = byOrder.get(pending.orderId());
+                if (result != null) {
+                    pending.result().complete(new ApiResponseDto<>(result.isSuccess(), result.getMessage(), null));
+                } else {
+                    fallback(pending);
+                }
+            }
+        } catch (FeignException ex) {
+            if (ex.status() >= 400 && ex.status() < 500) {
+                items.forEach(this::fallback);
+            } else {
+                items.forEach(pending -> pending.result().completeExceptionally(ex));
+            }
+        } catch (RuntimeException | Error ex) {
+            items.forEach(pending -> pending.result().completeExceptionally(ex));
+        }
+    }
+
+    private void fallback(Pending pending) {
+        fallbacks.increment();
+        pending.result().complete(null);
+    }
+
+    private DeviceReservationBatchRq toRequest(Batch batch) {
+        List<DeviceReservationBatchRq.Reservation> reservations = new ArrayList<>(batch.items.size());
+        for (Pending pending : batch.items) {
+            reservations.add(DeviceReservationBatchRq.Reservation.builder()
+                    .orderId(pending.orderId())
+                    .deviceIds(pending.deviceIds())
+                    .build());
+        }
+        return DeviceReservationBatchRq.builder()
+                .state(batch.key.state())
+                .reservations(reservations)
+                .build();
+    }
+
+    /**
+     * Cierra el lote: deja de aceptar reservas y la siguiente abre uno nuevo. Requiere {@code lock}.
+     *
+     * @param batch lote a cerrar
+     */
+    private void close(Batch batch) {
+        batch.closed = true;
+        open.remove(batch.key, batch);
+    }
+
+    /**
+     * Reserva de una orden a la espera de su resultado.
+     */
+    private record Pending(UUID orderId, List<UUID> deviceIds, CompletableFuture<ApiResponseDto<Void>> result) {
+    }
+
+    /**
+     * Clave de un lote: solo se agrupan reservas hacia el mismo estado y con las mismas credenciales.
+     */
+    private record BatchKey(String state, String credentials) {
+    }
+
+    /**
+     * Lote de reservas con una misma clave. Sus campos se protegen con {@code lock}.
+     */
+    private final class Batch {
+
+        private final BatchKey key;
+
+        private final List<Pending> items = new ArrayList<>();
+
+        private int devices;
+
+        private boolean closed;
+
+        private Batch(BatchKey key) {
+            this.key = key;
+        }
+
+        private void add(Pending pending) {
+            items.add(pending);
+            devices += pending.deviceIds().size();
+        }
+
+        private boolean isFull() {
+            return items.size() >= maxOrders || devices >= maxDevices;
+        }
+    }
+}
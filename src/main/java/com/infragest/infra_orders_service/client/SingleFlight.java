@@ -0,0 +1,136 @@
+package com.infragest.infra_orders_service.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Coalescencia de llamadas remotas idénticas en curso ("single flight").
+ *
+ * <p>Si varios hilos piden a la vez la misma clave, solo el primero hace la llamada; los demás esperan
+ * y reciben su mismo resultado (o su misma excepción). La clave deja de estar en curso al terminar la
+ * llamada, por lo que esto no es una caché: una petición posterior vuelve a llamar al servicio.</p>
+ *
+ * <p>Para llamadas por lotes ({@link #executeAll}) la coalescencia es por clave: cada hilo solo pide
+ * las claves que nadie tiene en curso y se une a las demás. Primero completa sus propias claves y solo
+ * después espera las ajenas, de modo que dos lotes solapados nunca se bloquean mutuamente.</p>
+ *
+ * <p>Métrica expuesta: {@code orders.singleflight.coalesced} (claves servidas por una llamada ajena),
+ * con la etiqueta {@code call}.</p>
+ *
+ * @param <K> tipo de la clave
+ * @param <V> tipo del resultado
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter coalesced;
+
+    /**
+     * Constructor con el nombre de la llamada (etiqueta de las métricas).
+     *
+     * @param name          nombre de la llamada
+     * @param meterRegistry registro de métricas
+     */
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.coalesced = Counter.builder("orders.singleflight.coalesced")
+                .tag("call", name)
+                .description("Claves servidas por una llamada remota idéntica ya en curso")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ejecuta la llamada de una clave, o se une a la que ya esté en curso.
+     *
+     * @param key  clave de la llamada
+     * @param call llamada remota
+     * @return resultado de la llamada (propia o compartida)
+     */
+    public V execute(K key, Supplier<V> call) {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, own);
+        if (existing != null) {
+            coalesced.increment();
+            return RemoteCallExecutor.await(existing);
+        }
+
+        try {
+            V value = call.get();
+            own.complete(value);
+            return value;
+        } catch (RuntimeException | Error ex) {
+            own.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    /**
+     * Ejecuta una llamada por lotes: pide en una sola llamada las claves que no están en curso y
+     * se une a las que sí lo están.
+     *
+     * @param keys      claves solicitadas
+     * @param batchCall llamada remota para un lote de claves; devuelve los valores encontrados por clave
+     * @return valores encontrados por clave (las claves sin valor no aparecen)
+     */
+    public Map<K, V> executeAll(Collection<K> keys, Function<List<K>, Map<K, V>> batchCall) {
+        Map<K, CompletableFuture<V>> owned = new LinkedHashMap<>();
+        Map<K, CompletableFuture<V>> joined = new LinkedHashMap<>();
+        for (K key : keys) {
+            if (owned.containsKey(key) || joined.containsKey(key)) {
+                continue;
+            }
+            CompletableFuture<V> own = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, own);
+            if (existing == null) {
+                owned.put(key, own);
+            } else {
+                joined.put(key, existing);
+            }
+        }
+
+        Map<K, V> result = new HashMap<>(keys.size() * 2);
+        if (!owned.isEmpty()) {
+            try {
+                Map<K, V> values = batchCall.apply(new ArrayList<>(owned.keySet()));
+                owned.forEach((key, future) -> {
+                    V value = values != null ? values.get(key) : null;
+                    future.complete(value);
+                    if (value != null) {
+                        result.put(key, value);
+                    }
+                });
+            } catch (RuntimeException | Error ex) {
+                owned.values().forEach(future -> future.completeExceptionally(ex));
+                throw ex;
+            } finally {
+                owned.forEach(inFlight::remove);
+            }
+        }
+
+        if (!joined.isEmpty()) {
+            coalesced.increment(joined.size());
+            joined.forEach((key, future) -> {
+                V value = RemoteCallExecutor.await(future);
+                if (value != null) {
+                    result.put(key, value);
+                }
+            });
+        }
+        return result;
+    }
+}
@@ -0,0 +1,120 @@
+package com.infragest.infra_orders_service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Convertidor de mensajes AMQP que codifica los eventos en CBOR (RFC 8949), un formato binario
+ * compacto con el mismo modelo de datos que JSON.
+ *
+ * <p>Usa las mismas anotaciones de Jackson que la codificación JSON, por lo que los eventos no
+ * necesitan un esquema aparte. Frente a JSON evita las comillas y separadores, escribe los números
+ * en binario y los {@code UUID} en 16 bytes en lugar de 36 caracteres.</p>
+ *
+ * <p>Como {@code Jackson2JsonMessageConverter}, indica la clase del payload en la cabecera
+ * {@value #TYPE_ID_HEADER}; al decodificar solo se aceptan clases de los paquetes de confianza.</p>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+public class CborMessageConverter implements MessageConverter {
+
+    /**
+     * Content-type de los mensajes codificados en CBOR.
+     */
+    public static final String CONTENT_TYPE = "application/cbor";
+
+    /**
+     * Cabecera con la clase del payload (la misma que usa {@code Jackson2JsonMessageConverter}).
+     */
+    public static final String TYPE_ID_HEADER = "__TypeId__";
+
+    private final ObjectMapper cborMapper;
+
+    private final List<String> trustedPackages;
+
+    /**
+     * Constructor con los paquetes cuyas clases se pueden decodificar a partir de la cabecera de tipo.
+     *
+     * @param trustedPackages paquetes de confianza
+     */
+    public CborMessageConverter(String... trustedPackages) {
+        this.cborMapper = CBORMapper.builder().findAndAddModules().build();
+        this.trustedPackages = List.of(trustedPackages);
+    }
+
+    /**
+     * Indica si un content-type corresponde a CBOR.
+     *
+     * @param contentType content-type del mensaje (puede ser {@code null})
+     * @return {@code true} si el mensaje está codificado en CBOR
+     */
+    public static boolean isCbor(String contentType) {
+        return contentType != null && contentType.startsWith(CONTENT_TYPE);
+    }
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) {
+        byte[] body = write(object);
+        messageProperties.setContentType(CONTENT_TYPE);
+        messageProperties.setContentLength(body.length);
+        messageProperties.setHeader(TYPE_ID_HEADER, object.getClass().getName());
+        return new Message(body, messageProperties);
+    }
+
+    @Override
+    public Object fromMessage(Message message) {
+        Object typeId = message.getMessageProperties().getHeader(TYPE_ID_HEADER);
+        if (typeId == null) {
+            throw new MessageConversionException("Mensaje CBOR sin cabecera " + TYPE_ID_HEADER);
+        }
+
+        String className = typeId.toString();
+        if (trustedPackages.stream().noneMatch(pkg -> className.startsWith(pkg + "."))) {
+            throw new MessageConversionException("Clase no confiable en mensaje CBOR: " + className);
+        }
+
+        try {
+            return read(message.getBody(), Class.forName(className, false, getClass().getClassLoader()));
+        } catch (ClassNotFoundException ex) {
+            throw new MessageConversionException("Clase desconocida en mensaje CBOR: " + className, ex);
+        }
+    }
+
+    /**
+     * Codifica un objeto en CBOR.
+     *
+     * @param object objeto a codificar
+     * @return bytes CBOR
+     */
+    public byte[] write(Object object) {
+        try {
+            return cborMapper.writeValueAsBytes(object);
+        } catch (IOException ex) {
+            throw new MessageConversionException("No se pudo codificar el mensaje en CBOR", ex);
+        }
+    }
+
+    /**
+     * Decodifica un contenido CBOR en el tipo indicado.
+     *
+     * @param body contenido CBOR
+     * @param type clase destino
+     * @param <T>  tipo destino
+     * @return objeto decodificado
+     */
+    public <T> T read(byte[] body, Class<T> type) {
+        try {
+            return cborMapper.readValue(body, type);
+        } catch (IOException ex) {
+            throw new MessageConversionException("No se pudo decodificar el mensaje CBOR", ex);
+        }
+    }
+}
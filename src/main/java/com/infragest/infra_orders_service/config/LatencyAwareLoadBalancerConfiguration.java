@@ -0,0 +1,42 @@
+package com.infragest.infra_orders_service.config;
+
+import com.infragest.infra_orders_service.client.LatencyAwareLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Configuración del contexto de balanceo de cada cliente ({@code infra-devices-service},
+ * {@code infra-groups-service}, ...): crea su {@link LatencyAwareLoadBalancer}.
+ *
+ * <p>No lleva {@code @Configuration} a propósito: Spring Cloud LoadBalancer la instancia en el contexto
+ * hijo de cada servicio (ver {@link LoadBalancerConfig}); si la detectara el escaneo de componentes,
+ * el balanceador se crearía en el contexto principal sin nombre de servicio.</p>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+public class LatencyAwareLoadBalancerConfiguration {
+
+    /**
+     * Balanceador por latencia para el servicio del contexto actual. Se declara con su tipo concreto
+     * para que Spring Cloud lo encuentre también como {@code LoadBalancerLifecycle}.
+     *
+     * @param environment               entorno del contexto del servicio
+     * @param loadBalancerClientFactory factoría de contextos de balanceo
+     * @return balanceador del servicio
+     */
+    @Bean
+    public LatencyAwareLoadBalancer latencyAwareLoadBalancer(Environment environment,
+                                                             LoadBalancerClientFactory loadBalancerClientFactory) {
+        String serviceId = LoadBalancerClientFactory.getName(environment);
+        return new LatencyAwareLoadBalancer(
+                loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                serviceId,
+                environment.getProperty("orders.loadbalancer.latency-aware.decay", Duration.class, Duration.ofSeconds(10)),
+                environment.getProperty("orders.loadbalancer.latency-aware.failure-penalty", Duration.class, Duration.ofSeconds(5)));
+    }
+}
@@ -0,0 +1,20 @@
+package com.infragest.infra_orders_service.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Activa el balanceo por latencia ({@link LatencyAwareLoadBalancerConfiguration}) para todos los
+ * clientes Feign en lugar del round-robin por defecto.
+ *
+ * <p>Se desactiva con {@code orders.loadbalancer.latency-aware.enabled=false}.</p>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+@Configuration
+@ConditionalOnProperty(name = "orders.loadbalancer.latency-aware.enabled", havingValue = "true", matchIfMissing = true)
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+}
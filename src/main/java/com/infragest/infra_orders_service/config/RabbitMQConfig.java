@@ -1,12 +1,17 @@
 package com.infragest.infra_orders_service.config;
 
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.ContentTypeDelegatingMessageConverter;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 
 /**
  * Configuración de RabbitMQ para el microservicio de órdenes.
@@ -36,6 +41,51 @@ public class RabbitMQConfig {
      */
     public static final String NOTIFICATIONS_QUEUE_NAME = "orders.notifications.queue";
 
+    /**
+     * Exchange de dead-letter de la cola de confirmaciones (reintentos y parking lot).
+     */
+    public static final String NOTIFICATIONS_DLX_NAME = "orders.notifications.dlx";
+
+    /**
+     * Cola de espera para reintentos: los mensajes caducan tras el retraso configurado y vuelven a la cola principal.
+     */
+    public static final String NOTIFICATIONS_RETRY_QUEUE_NAME = "orders.notifications.retry.queue";
+
+    /**
+     * Cola de aparcamiento (parking lot) para mensajes que agotaron los reintentos o no se pueden procesar.
+     */
+    public static final String NOTIFICATIONS_PARKING_LOT_QUEUE_NAME = "orders.notifications.parking-lot";
+
+    /**
+     * Routing key en el exchange de dead-letter hacia la cola de reintentos.
+     */
+    public static final String NOTIFICATIONS_RETRY_ROUTING_KEY = "retry";
+
+    /**
+     * Routing key en el exchange de dead-letter hacia el parking lot.
+     */
+    public static final String NOTIFICATIONS_PARKING_LOT_ROUTING_KEY = "parking-lot";
+
+    /**
+     * Nombre del bean de la factoría de listeners que consume confirmaciones de notificación en lotes.
+     */
+    public static final String NOTIFICATIONS_BATCH_LISTENER_FACTORY = "notificationsBatchListenerFactory";
+
+    /**
+     * Nombre del exchange en el que infra-groups-service publica los cambios de grupos y empleados.
+     */
+    public static final String GROUPS_EXCHANGE_NAME = "groups.exchange";
+
+    /**
+     * Propiedad que habilita la invalidación de la caché de assignees a partir de los cambios de infra-groups-service.
+     */
+    public static final String ASSIGNEE_CACHE_INVALIDATION_PROPERTY = "orders.assignee-cache.invalidation.enabled";
+
+    /**
+     * Paquete cuyas clases se pueden decodificar a partir de la cabecera de tipo de un mensaje CBOR.
+     */
+    public static final String TRUSTED_PACKAGE = "com.infragest";
+
 
     /**
      * Declara un exchange de tipo Topic llamado "orders.exchange".
@@ -61,12 +111,133 @@ public class RabbitMQConfig {
     /**
      * Declara una cola durable llamada "orders.notifications.queue".
      * Esta cola almacenará eventos de confirmación de notificaciones procesadas.
+     * Los mensajes rechazados se envían a la cola de reintentos a través del exchange de dead-letter.
      *
      * @return una {@link Queue} construida como durable.
      */
     @Bean
     public Queue notificationsQueue() {
-        return QueueBuilder.durable(NOTIFICATIONS_QUEUE_NAME).build();
+        return QueueBuilder.durable(NOTIFICATIONS_QUEUE_NAME)
+                .deadLetterExchange(NOTIFICATIONS_DLX_NAME)
+                .deadLetterRoutingKey(NOTIFICATIONS_RETRY_ROUTING_KEY)
+                .build();
+    }
+
+    /**
+     * Declara el exchange de dead-letter de la cola de confirmaciones.
+     *
+     * @return un {@link DirectExchange} con el nombre {@code "orders.notifications.dlx"}.
+     */
+    @Bean
+    public DirectExchange notificationsDeadLetterExchange() {
+        return new DirectExchange(NOTIFICATIONS_DLX_NAME);
+    }
+
+    /**
+     * Declara la cola de reintentos. No tiene consumidores: cada mensaje espera {@code retryDelayMs}
+     * y, al caducar, vuelve a "orders.notifications.queue" por el exchange por defecto (reintento diferido).
+     *
+     * @param retryDelayMs retraso antes de reintentar un mensaje.
+     * @return una {@link Queue} durable con TTL.
+     */
+    @Bean
+    public Queue notificationsRetryQueue(@Value("${orders.notifications.retry.delay-ms:5000}") int retryDelayMs) {
+        return QueueBuilder.durable(NOTIFICATIONS_RETRY_QUEUE_NAME)
+                .ttl(retryDelayMs)
+                .deadLetterExchange("")
+                .deadLetterRoutingKey(NOTIFICATIONS_QUEUE_NAME)
+                .build();
+    }
+
+    /**
+     * Declara la cola de aparcamiento (parking lot), que solo se vacía mediante el endpoint de administración.
+     *
+     * @return una {@link Queue} durable.
+     */
+    @Bean
+    public Queue notificationsParkingLotQueue() {
+        return QueueBuilder.durable(NOTIFICATIONS_PARKING_LOT_QUEUE_NAME).build();
+    }
+
+    /**
+     * Vincula la cola de reintentos al exchange de dead-letter.
+     *
+     * @param notificationsRetryQueue         la cola de reintentos.
+     * @param notificationsDeadLetterExchange el exchange de dead-letter.
+     * @return un {@link Binding} con la routing key {@code "retry"}.
+     */
+    @Bean
+    public Binding notificationsRetryQueueBinding(Queue notificationsRetryQueue, DirectExchange notificationsDeadLetterExchange) {
+        return BindingBuilder.bind(notificationsRetryQueue)
+                .to(notificationsDeadLetterExchange)
+                .with(NOTIFICATIONS_RETRY_ROUTING_KEY);
+    }
+
+    /**
+     * Vincula el parking lot al exchange de dead-letter.
+     *
+     * @param notificationsParkingLotQueue    la cola de aparcamiento.
+     * @param notificationsDeadLetterExchange el exchange de dead-letter.
+     * @return un {@link Binding} con la routing key {@code "parking-lot"}.
+     */
+    @Bean
+    public Binding notificationsParkingLotBinding(Queue notificationsParkingLotQueue, DirectExchange notificationsDeadLetterExchange) {
+        return BindingBuilder.bind(notificationsParkingLotQueue)
+                .to(notificationsDeadLetterExchange)
+                .with(NOTIFICATIONS_PARKING_LOT_ROUTING_KEY);
+    }
+
+    /**
+     * Declara el exchange de tipo Topic de infra-groups-service ("groups.exchange").
+     *
+     * @return un {@link TopicExchange} con el nombre {@code "groups.exchange"}.
+     */
+    @Bean
+    @ConditionalOnProperty(name = ASSIGNEE_CACHE_INVALIDATION_PROPERTY, havingValue = "true")
+    public TopicExchange groupsExchange() {
+        return new TopicExchange(GROUPS_EXCHANGE_NAME);
+    }
+
+    /**
+     * Declara una cola anónima (exclusiva y temporal) para los cambios de grupos y empleados.
+     * Cada instancia tiene la suya, de modo que todas invalidan su caché local.
+     *
+     * @return una {@link AnonymousQueue}.
+     */
+    @Bean
+    @ConditionalOnProperty(name = ASSIGNEE_CACHE_INVALIDATION_PROPERTY, havingValue = "true")
+    public Queue groupChangesQueue() {
+        return new AnonymousQueue();
+    }
+
+    /**
+     * Vincula la cola de cambios a los eventos de grupos ({@code group.#}).
+     *
+     * @param groupChangesQueue la cola de cambios de esta instancia.
+     * @param groupsExchange    el exchange de infra-groups-service.
+     * @return un {@link Binding} con la routing key {@code "group.#"}.
+     */
+    @Bean
+    @ConditionalOnProperty(name = ASSIGNEE_CACHE_INVALIDATION_PROPERTY, havingValue = "true")
+    public Binding groupChangesBinding(Queue groupChangesQueue, TopicExchange groupsExchange) {
+        return BindingBuilder.bind(groupChangesQueue)
+                .to(groupsExchange)
+                .with("group.#");
+    }
+
+    /**
+     * Vincula la cola de cambios a los eventos de empleados ({@code employee.#}).
+     *
+     * @param groupChangesQueue la cola de cambios de esta instancia.
+     * @param groupsExchange    el exchange de infra-groups-service.
+     * @return un {@link Binding} con la routing key {@code "employee.#"}.
+     */
+    @Bean
+    @ConditionalOnProperty(name = ASSIGNEE_CACHE_INVALIDATION_PROPERTY, havingValue = "true")
+    public Binding employeeChangesBinding(Queue groupChangesQueue, TopicExchange groupsExchange) {
+        return BindingBuilder.bind(groupChangesQueue)
+                .to(groupsExchange)
+                .with("employee.#");
     }
 
     /**
@@ -85,20 +256,46 @@ public class RabbitMQConfig {
     }
 
     /**
-     * Configura un convertidor de mensajes basado en JSON.
+     * Configura el convertidor de mensajes en CBOR (formato binario compacto).
      *
-     * @return un {@link Jackson2JsonMessageConverter} para manejar los mensajes en formato JSON.
+     * @return un {@link CborMessageConverter} que solo decodifica clases de los paquetes del proyecto.
      */
     @Bean
-    public MessageConverter jsonMessageConverter() {
-        return new Jackson2JsonMessageConverter();
+    public CborMessageConverter cborMessageConverter() {
+        return new CborMessageConverter(TRUSTED_PACKAGE);
+    }
+
+    /**
+     * Configura el convertidor de mensajes seleccionado por content-type.
+     *
+     * Los mensajes salientes se codifican con el formato de {@code orders.events.content-type}
+     * ({@code application/json} por defecto, o {@code application/cbor}); los entrantes se decodifican
+     * según su cabecera {@code content-type}, de modo que ambos formatos conviven durante la migración
+     * de los consumidores.
+     *
+     * @param cborMessageConverter convertidor CBOR.
+     * @param contentType          content-type de los mensajes publicados.
+     * @return un {@link ContentTypeDelegatingMessageConverter} con JSON y CBOR registrados.
+     */
+    @Bean
+    @Primary
+    public MessageConverter messageConverter(
+            CborMessageConverter cborMessageConverter,
+            @Value("${orders.events.content-type:application/json}") String contentType
+    ) {
+        Jackson2JsonMessageConverter jsonMessageConverter = new Jackson2JsonMessageConverter(TRUSTED_PACKAGE);
+        ContentTypeDelegatingMessageConverter converter = new ContentTypeDelegatingMessageConverter(
+                CborMessageConverter.isCbor(contentType) ? cborMessageConverter : jsonMessageConverter);
+        converter.addDelegate(MessageProperties.CONTENT_TYPE_JSON, jsonMessageConverter);
+        converter.addDelegate(CborMessageConverter.CONTENT_TYPE, cborMessageConverter);
+        return converter;
     }
 
     /**
      * Configura un RabbitTemplate para manejar la comunicación con RabbitMQ.
      *
      * @param connectionFactory la conexión a RabbitMQ, proporcionada por Spring Boot.
-     * @param messageConverter el convertidor de mensajes a utilizar (en este caso, JSON).
+     * @param messageConverter el convertidor de mensajes a utilizar (JSON o CBOR según content-type).
      * @return un {@link RabbitTemplate} configurado para enviar mensajes a RabbitMQ.
      */
     @Bean
@@ -107,4 +304,45 @@ public class RabbitMQConfig {
         rabbitTemplate.setMessageConverter(messageConverter);
         return rabbitTemplate;
     }
-}
\ No newline at end of file
+
+    /**
+     * Configura la factoría de listeners en modo lote para la cola de confirmaciones de notificación.
+     *
+     * Cada consumidor acumula hasta {@code batchSize} mensajes (o lo recibido en {@code receiveTimeoutMs})
+     * y los entrega juntos al listener, que los aplica con una sola actualización en base de datos.
+     * Los lotes que fallan no se reencolan: pasan por el exchange de dead-letter a la cola de reintentos.
+     *
+     * @param connectionFactory la conexión a RabbitMQ, proporcionada por Spring Boot.
+     * @param messageConverter  el convertidor de mensajes a utilizar (JSON o CBOR según content-type).
+     * @param prefetch          mensajes sin confirmar que el broker entrega a cada consumidor.
+     * @param concurrency       consumidores concurrentes iniciales.
+     * @param maxConcurrency    máximo de consumidores concurrentes.
+     * @param batchSize         máximo de mensajes por lote.
+     * @param receiveTimeoutMs  espera máxima para completar un lote antes de entregarlo.
+     * @return una {@link SimpleRabbitListenerContainerFactory} configurada para lotes.
+     */
+    @Bean(NOTIFICATIONS_BATCH_LISTENER_FACTORY)
+    public SimpleRabbitListenerContainerFactory notificationsBatchListenerFactory(
+            ConnectionFactory connectionFactory,
+            MessageConverter messageConverter,
+            @Value("${orders.notifications.listener.prefetch:250}") int prefetch,
+            @Value("${orders.notifications.listener.concurrency:1}") int concurrency,
+            @Value("${orders.notifications.listener.max-concurrency:4}") int maxConcurrency,
+            @Value("${orders.notifications.listener.batch-size:100}") int batchSize,
+            @Value("${orders.notifications.listener.receive-timeout-ms:200}") long receiveTimeoutMs
+    ) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(messageConverter);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setPrefetchCount(Math.max(prefetch, batchSize));
+        factory.setConcurrentConsumers(concurrency);
+        factory.setMaxConcurrentConsumers(Math.max(concurrency, maxConcurrency));
+        factory.setReceiveTimeout(receiveTimeoutMs);
+        // Un lote que falla se envía a la cola de reintentos (DLX) en lugar de reencolarse en bucle
+        factory.setDefaultRequeueRejected(false);
+        return factory;
+    }
+}
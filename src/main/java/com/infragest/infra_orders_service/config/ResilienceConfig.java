@@ -0,0 +1,248 @@
+package com.infragest.infra_orders_service.config;
+
+import com.infragest.infra_orders_service.client.AdaptiveConcurrencyLimiter;
+import com.infragest.infra_orders_service.client.DependencyGuard;
+import com.infragest.infra_orders_service.excepcion.DependencyRejectedException;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuración de los circuit breakers y bulkheads (Resilience4j) y de los límites adaptativos de
+ * concurrencia de los clientes Feign.
+ *
+ * <p>Cada cliente ({@code DevicesClient}, {@code GroupClient}, {@code EmployeeClient}) tiene su propio
+ * {@link DependencyGuard}, de modo que un servicio degradado no afecta a las llamadas de los demás.</p>
+ *
+ * <p>Solo cuentan como fallo los errores del servidor (5xx) y los de red o timeout; los 4xx (p. ej. un
+ * grupo inexistente) son respuestas válidas y no abren el circuito. Los rechazos locales (bulkhead lleno,
+ * límite de concurrencia) se ignoran: no cuentan como fallo ni como éxito.</p>
+ *
+ * <p>El límite adaptativo de cada cliente ({@code orders.resilience.concurrency-limit.*}) se mueve entre
+ * su mínimo y el techo del bulkhead ({@code max-concurrent-calls}).</p>
+ *
+ * <p>Métricas expuestas: las de Resilience4j ({@code resilience4j.circuitbreaker.*},
+ * {@code resilience4j.bulkhead.*}), {@code orders.circuitbreaker.transitions} por transición de estado
+ * y las de {@link AdaptiveConcurrencyLimiter} ({@code orders.concurrency.*}).</p>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+@Configuration
+@Slf4j
+public class ResilienceConfig {
+
+    /**
+     * Límite inicial de concurrencia de cada cliente.
+     */
+    @Value("${orders.resilience.concurrency-limit.initial-limit:10}")
+    private int initialLimit;
+
+    /**
+     * Límite mínimo de concurrencia de cada cliente.
+     */
+    @Value("${orders.resilience.concurrency-limit.min-limit:2}")
+    private int minLimit;
+
+    /**
+     * Llamadas que pueden esperar hueco cuando se alcanza el límite.
+     */
+    @Value("${orders.resilience.concurrency-limit.max-queue:50}")
+    private int maxQueue;
+
+    /**
+     * Espera máxima en la cola del límite.
+     */
+    @Value("${orders.resilience.concurrency-limit.max-wait:PT0.5S}")
+    private Duration maxQueueWait;
+
+    /**
+     * Factor de latencia sobre la base a partir del cual se reduce el límite.
+     */
+    @Value("${orders.resilience.concurrency-limit.tolerance:2.0}")
+    private double tolerance;
+
+    /**
+     * Factor de reducción del límite ante saturación.
+     */
+    @Value("${orders.resilience.concurrency-limit.backoff-ratio:0.9}")
+    private double backoffRatio;
+
+    /**
+     * Muestras por ventana de latencia base.
+     */
+    @Value("${orders.resilience.concurrency-limit.baseline-window:500}")
+    private int baselineWindow;
+
+    /**
+     * Registro de circuit breakers con la configuración común {@code orders.resilience.circuit-breaker.*}.
+     *
+     * @param failureRateThreshold porcentaje de fallos que abre el circuito.
+     * @param slowCallRateThreshold porcentaje de llamadas lentas que abre el circuito.
+     * @param slowCallDuration     duración a partir de la cual una llamada se considera lenta.
+     * @param slidingWindowSize    número de llamadas evaluadas.
+     * @param minimumCalls         llamadas mínimas antes de evaluar las tasas.
+     * @param openDuration         tiempo que el circuito permanece abierto antes de probar de nuevo.
+     * @param halfOpenCalls        llamadas de prueba permitidas en estado semiabierto.
+     * @param meterRegistry        registro de métricas.
+     * @return un {@link CircuitBreakerRegistry} con métricas registradas.
+     */
+    @Bean
+    public CircuitBreakerRegistry circuitBreakerRegistry(
+            @Value("${orders.resilience.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${orders.resilience.circuit-breaker.slow-call-rate-threshold:50}") float slowCallRateThreshold,
+            @Value("${orders.resilience.circuit-breaker.slow-call-duration:PT2S}") Duration slowCallDuration,
+            @Value("${orders.resilience.circuit-breaker.sliding-window-size:50}") int slidingWindowSize,
+            @Value("${orders.resilience.circuit-breaker.minimum-calls:20}") int minimumCalls,
+            @Value("${orders.resilience.circuit-breaker.open-duration:PT30S}") Duration openDuration,
+            @Value("${orders.resilience.circuit-breaker.half-open-calls:5}") int halfOpenCalls,
+            MeterRegistry meterRegistry
+    ) {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumCalls)
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .slowCallDurationThreshold(slowCallDuration)
+                .waitDurationInOpenState(openDuration)
+                .permittedNumberOfCallsInHalfOpenState(halfOpenCalls)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .recordException(DependencyGuard::isDependencyFailure)
+                .ignoreExceptions(BulkheadFullException.class, DependencyRejectedException.class)
+                .build();
+
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    /**
+     * Registro de bulkheads (límites de concurrencia por cliente).
+     *
+     * @param meterRegistry registro de métricas.
+     * @return un {@link BulkheadRegistry} con métricas registradas.
+     */
+    @Bean
+    public BulkheadRegistry bulkheadRegistry(MeterRegistry meterRegistry) {
+        BulkheadRegistry registry = BulkheadRegistry.ofDefaults();
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    /**
+     * Protección de las llamadas a infra-devices-service.
+     *
+     * @param circuitBreakerRegistry registro de circuit breakers.
+     * @param bulkheadRegistry       registro de bulkheads.
+     * @param maxConcurrentCalls     llamadas concurrentes permitidas.
+     * @param maxWait                espera máxima por un hueco en el bulkhead.
+     * @param meterRegistry          registro de métricas.
+     * @return el {@link DependencyGuard} de {@code DevicesClient}.
+     */
+    @Bean
+    public DependencyGuard devicesGuard(
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            BulkheadRegistry bulkheadRegistry,
+            @Value("${orders.resilience.devices.max-concurrent-calls:64}") int maxConcurrentCalls,
+            @Value("${orders.resilience.devices.max-wait:PT0.1S}") Duration maxWait,
+            MeterRegistry meterRegistry
+    ) {
+        return guard("infra-devices-service", "devices", circuitBreakerRegistry, bulkheadRegistry,
+                maxConcurrentCalls, maxWait, meterRegistry);
+    }
+
+    /**
+     * Protección de las llamadas de grupos a infra-groups-service.
+     *
+     * @param circuitBreakerRegistry registro de circuit breakers.
+     * @param bulkheadRegistry       registro de bulkheads.
+     * @param maxConcurrentCalls     llamadas concurrentes permitidas.
+     * @param maxWait                espera máxima por un hueco en el bulkhead.
+     * @param meterRegistry          registro de métricas.
+     * @return el {@link DependencyGuard} de {@code GroupClient}.
+     */
+    @Bean
+    public DependencyGuard groupsGuard(
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            BulkheadRegistry bulkheadRegistry,
+            @Value("${orders.resilience.groups.max-concurrent-calls:64}") int maxConcurrentCalls,
+            @Value("${orders.resilience.groups.max-wait:PT0.1S}") Duration maxWait,
+            MeterRegistry meterRegistry
+    ) {
+        return guard("infra-groups-service", "groups", circuitBreakerRegistry, bulkheadRegistry,
+                maxConcurrentCalls, maxWait, meterRegistry);
+    }
+
+    /**
+     * Protección de las llamadas de empleados a infra-groups-service.
+     *
+     * @param circuitBreakerRegistry registro de circuit breakers.
+     * @param bulkheadRegistry       registro de bulkheads.
+     * @param maxConcurrentCalls     llamadas concurrentes permitidas.
+     * @param maxWait                espera máxima por un hueco en el bulkhead.
+     * @param meterRegistry          registro de métricas.
+     * @return el {@link DependencyGuard} de {@code EmployeeClient}.
+     */
+    @Bean
+    public DependencyGuard employeesGuard(
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            BulkheadRegistry bulkheadRegistry,
+            @Value("${orders.resilience.employees.max-concurrent-calls:32}") int maxConcurrentCalls,
+            @Value("${orders.resilience.employees.max-wait:PT0.1S}") Duration maxWait,
+            MeterRegistry meterRegistry
+    ) {
+        return guard("infra-groups-service", "employees", circuitBreakerRegistry, bulkheadRegistry,
+                maxConcurrentCalls, maxWait, meterRegistry);
+    }
+
+    /**
+     * Crea el circuit breaker y el bulkhead de un cliente y registra sus transiciones de estado.
+     *
+     * @param service                nombre del servicio protegido.
+     * @param name                   nombre del circuit breaker y del bulkhead.
+     * @param circuitBreakerRegistry registro de circuit breakers.
+     * @param bulkheadRegistry       registro de bulkheads.
+     * @param maxConcurrentCalls     llamadas concurrentes permitidas (techo del límite adaptativo).
+     * @param maxWait                espera máxima por un hueco en el bulkhead.
+     * @param meterRegistry          registro de métricas.
+     * @return el {@link DependencyGuard} del cliente.
+     */
+    private DependencyGuard guard(String service, String name,
+                                  CircuitBreakerRegistry circuitBreakerRegistry, BulkheadRegistry bulkheadRegistry,
+                                  int maxConcurrentCalls, Duration maxWait, MeterRegistry meterRegistry) {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(name);
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            CircuitBreaker.StateTransition transition = event.getStateTransition();
+            log.warn("Circuit breaker '{}': {} -> {}", name, transition.getFromState(), transition.getToState());
+            Counter.builder("orders.circuitbreaker.transitions")
+                    .tag("name", name)
+                    .tag("from", transition.getFromState().name())
+                    .tag("to", transition.getToState().name())
+                    .description("Transiciones de estado de los circuit breakers de los clientes Feign")
+                    .register(meterRegistry)
+                    .increment();
+        });
+
+        BulkheadConfig bulkheadConfig = BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(maxWait)
+                .build();
+        AdaptiveConcurrencyLimiter concurrencyLimiter = new AdaptiveConcurrencyLimiter(name, initialLimit, minLimit,
+                maxConcurrentCalls, maxQueue, maxQueueWait, tolerance, backoffRatio, baselineWindow, meterRegistry);
+        return new DependencyGuard(service, circuitBreaker, concurrencyLimiter, bulkheadRegistry.bulkhead(name, bulkheadConfig));
+    }
+}
@@ -0,0 +1,84 @@
+package com.infragest.infra_orders_service.controller;
+
+import com.infragest.infra_orders_service.model.ApiResponseDto;
+import com.infragest.infra_orders_service.model.ParkedNotificationRs;
+import com.infragest.infra_orders_service.service.NotificationDeadLetterService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controlador REST de administración para las confirmaciones de notificación aparcadas.
+ *
+ * Permite inspeccionar el parking lot de `orders.notifications.queue` y reprocesar en bloque
+ * los mensajes una vez corregida la causa del fallo. Requiere el rol ADMIN
+ * (ver {@link com.infragest.infra_orders_service.security.SecurityConfig}).
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+@Slf4j
+@RestController
+@RequestMapping("/admin/notifications/parking-lot")
+public class NotificationAdminController {
+
+    private final NotificationDeadLetterService deadLetterService;
+
+    /**
+     * Constructor del controlador que inyecta el servicio de dead-letter.
+     *
+     * @param deadLetterService Servicio de reintentos y parking lot de notificaciones.
+     */
+    public NotificationAdminController(NotificationDeadLetterService deadLetterService) {
+        this.deadLetterService = deadLetterService;
+    }
+
+    /**
+     * Consultar los mensajes aparcados.
+     *
+     * Devuelve los primeros mensajes del parking lot sin retirarlos de la cola.
+     *
+     * @param limit Máximo de mensajes a devolver (por defecto 50, máximo 500).
+     * @return Una lista de `ParkedNotificationRs`, con código HTTP 200 (OK).
+     */
+    @Operation(summary = "Consultar notificaciones aparcadas", description = "Devuelve los primeros mensajes del parking lot de confirmaciones de notificación sin consumirlos.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Mensajes aparcados",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ParkedNotificationRs.class))),
+            @ApiResponse(responseCode = "403", description = "Sin rol de administración", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Error al consultar el parking lot", content = @Content)
+    })
+    @GetMapping
+    public ResponseEntity<List<ParkedNotificationRs>> listParked(@RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(deadLetterService.inspectParked(limit));
+    }
+
+    /**
+     * Reprocesar los mensajes aparcados.
+     *
+     * Devuelve a `orders.notifications.queue` hasta `limit` mensajes del parking lot, con sus reintentos a cero.
+     *
+     * @param limit Máximo de mensajes a reprocesar (por defecto 100, máximo 500).
+     * @return Un `ApiResponseDto` con el número de mensajes reenviados, con código HTTP 200 (OK).
+     */
+    @Operation(summary = "Reprocesar notificaciones aparcadas", description = "Reenvía a la cola principal los mensajes del parking lot, hasta el límite indicado.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Mensajes reenviados",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiResponseDto.class))),
+            @ApiResponse(responseCode = "403", description = "Sin rol de administración", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Error al reprocesar el parking lot", content = @Content)
+    })
+    @PostMapping("/replay")
+    public ResponseEntity<ApiResponseDto<Integer>> replayParked(@RequestParam(defaultValue = "100") int limit) {
+        int replayed = deadLetterService.replayParked(limit);
+        log.info("Reproceso del parking lot solicitado: {} mensajes reenviados", replayed);
+        return ResponseEntity.ok(new ApiResponseDto<>(true, "Mensajes reenviados a la cola de notificaciones", replayed));
+    }
+}
@@ -1,6 +1,11 @@
 package com.infragest.infra_orders_service.controller;
 
 import com.infragest.infra_orders_service.enums.OrderState;
+import com.infragest.infra_orders_service.model.BulkOrderRq;
+import com.infragest.infra_orders_service.model.BulkOrderRs;
+import com.infragest.infra_orders_service.model.CursorPageRs;
+import com.infragest.infra_orders_service.model.DeviceOrderRs;
+import com.infragest.infra_orders_service.model.OrderDevicesPatchRq;
 import com.infragest.infra_orders_service.model.OrderRq;
 import com.infragest.infra_orders_service.model.OrderRs;
 import com.infragest.infra_orders_service.service.OrderService;
@@ -9,16 +14,33 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Controlador REST para la gestión de órdenes.
@@ -38,15 +60,32 @@ import java.util.UUID;
 @RequestMapping("/orders")
 public class OrderController {
 
+    /**
+     * Tamaño del buffer de escritura usado en la exportación NDJSON.
+     */
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Clave del interceptor que aplica el timeout propio de la exportación NDJSON.
+     */
+    private static final String EXPORT_TIMEOUT_INTERCEPTOR = OrderController.class.getName() + ".exportTimeout";
+
     private final OrderService orderService;
 
+    private final Duration exportTimeout;
+
     /**
      * Constructor que inyecta el servicio de órdenes.
      *
-     * @param orderService Servicio que contiene la lógica de negocio para Órdenes
+     * @param orderService  Servicio que contiene la lógica de negocio para Órdenes
+     * @param exportTimeout Tiempo máximo de la exportación NDJSON; solo se aplica a ese endpoint
      */
-    public OrderController(OrderService orderService) {
+    public OrderController(
+            OrderService orderService,
+            @Value("${orders.export.timeout:PT30M}") Duration exportTimeout
+    ) {
         this.orderService = orderService;
+        this.exportTimeout = exportTimeout;
     }
 
     /**
@@ -76,24 +115,212 @@ public class OrderController {
     }
 
     /**
-     * Listar todas las órdenes.
+     * Crear varias órdenes en una sola solicitud.
      *
-     * Este endpoint devuelve una lista de todas las órdenes disponibles en el sistema.
-     * Si no hay órdenes registradas, devuelve una lista vacía.
+     * Pensado para dar de alta aulas o laboratorios completos: verifica todos los dispositivos
+     * en una sola llamada, resuelve cada assignee una vez e inserta las órdenes en lote.
+     * Devuelve el resultado de cada orden, incluidas las que fueron rechazadas.
      *
-     * @return Una lista de objetos `OrderRs` que representan las órdenes registradas.
-     * Si no hay órdenes disponibles, la respuesta será una lista vacía con un código HTTP 200 (OK).
+     * @param bulkOrderRq Solicitud con la lista de órdenes a crear (en formato JSON).
+     * @return Un `BulkOrderRs` con el resultado por orden, con código HTTP 200 (OK).
      */
-    @Operation(summary = "Listar todas las órdenes", description = "Devuelve una lista de todas las órdenes registradas en el sistema.")
+    @Operation(summary = "Crear órdenes en lote", description = "Crea varias órdenes agrupando las llamadas a dispositivos y assignees. Devuelve el resultado de cada orden.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Lista de órdenes encontrada",
-                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = OrderRs.class))),
-            @ApiResponse(responseCode = "204", description = "No hay órdenes registradas",
+            @ApiResponse(responseCode = "200", description = "Lote procesado (ver el resultado de cada orden)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = BulkOrderRs.class))),
+            @ApiResponse(responseCode = "400", description = "Solicitud inválida", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Error en la creación de las órdenes", content = @Content)
+    })
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkOrderRs> createOrders(@Valid @RequestBody BulkOrderRq bulkOrderRq) {
+        return ResponseEntity.ok(orderService.createOrders(bulkOrderRq.getOrders()));
+    }
+
+    /**
+     * Listar las órdenes paginadas por cursor.
+     *
+     * Este endpoint devuelve las órdenes de la más reciente a la más antigua, en páginas
+     * de tamaño acotado. Para obtener la página siguiente se debe enviar el valor
+     * `nextCursor` de la respuesta anterior en el parámetro `cursor`.
+     *
+     * @param cursor Cursor opaco de la página anterior (opcional; omitir para la primera página).
+     * @param size Tamaño de página solicitado (por defecto 20, máximo 100).
+     * @return Un `CursorPageRs` con las órdenes de la página y el cursor siguiente, con código HTTP 200 (OK).
+     */
+    @Operation(summary = "Listar órdenes paginadas", description = "Devuelve una página de órdenes ordenadas por fecha de creación descendente, paginada por cursor.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de órdenes encontrada",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CursorPageRs.class))),
+            @ApiResponse(responseCode = "400", description = "Cursor inválido",
                     content = @Content)
     })
     @GetMapping
-    public ResponseEntity<List<OrderRs>> listAllOrders() {
-        return ResponseEntity.ok(orderService.listOrders());
+    public ResponseEntity<CursorPageRs<OrderRs>> listAllOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(orderService.listOrders(cursor, size));
+    }
+
+    /**
+     * Listar las órdenes de un assignee (empleado o grupo).
+     *
+     * Este endpoint devuelve, paginadas por cursor, las órdenes asignadas al empleado o grupo
+     * indicado, opcionalmente filtradas por estado. Pensado para los tableros de los técnicos.
+     *
+     * @param assigneeId UUID del empleado o grupo asignado.
+     * @param state Estado por el que filtrar (opcional).
+     * @param cursor Cursor opaco de la página anterior (opcional).
+     * @param size Tamaño de página solicitado (por defecto 20, máximo 100).
+     * @return Un `CursorPageRs` con las órdenes del assignee, con código HTTP 200 (OK).
+     */
+    @Operation(summary = "Listar órdenes de un assignee", description = "Devuelve las órdenes asignadas a un empleado o grupo, filtrables por estado y paginadas por cursor.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de órdenes encontrada",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CursorPageRs.class))),
+            @ApiResponse(responseCode = "400", description = "Parámetros o cursor inválidos", content = @Content)
+    })
+    @GetMapping("/assignee/{assigneeId}")
+    public ResponseEntity<CursorPageRs<OrderRs>> listOrdersByAssignee(
+            @PathVariable UUID assigneeId,
+            @RequestParam(required = false) OrderState state,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(orderService.findByAssigneeId(assigneeId, state, cursor, size));
+    }
+
+    /**
+     * Buscar órdenes con errores de integración.
+     *
+     * Este endpoint está pensado para el triaje de incidentes: devuelve, paginadas por cursor,
+     * las órdenes con al menos un error de integración que cumpla los filtros indicados
+     * (por ejemplo, reservas fallidas con `service=devices&type=SERVICE_UNAVAILABLE`).
+     *
+     * @param state Estado de la orden (opcional, p. ej. CREATED_WITH_ERRORS).
+     * @param service Servicio de origen del error: devices | assignee (opcional).
+     * @param type Tipo de error, p. ej. SERVICE_UNAVAILABLE o NOT_FOUND (opcional).
+     * @param deviceId Dispositivo afectado por el error (opcional).
+     * @param from Fecha mínima del error en formato ISO-8601, inclusiva (opcional).
+     * @param to Fecha máxima del error en formato ISO-8601, exclusiva (opcional).
+     * @param cursor Cursor opaco de la página anterior (opcional).
+     * @param size Tamaño de página solicitado (por defecto 20, máximo 100).
+     * @return Un `CursorPageRs` con las órdenes y sus errores, con código HTTP 200 (OK).
+     */
+    @Operation(summary = "Buscar órdenes con errores de integración", description = "Filtra las órdenes por servicio, tipo, dispositivo y ventana de tiempo de sus errores de integración, paginadas por cursor.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de órdenes encontrada",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CursorPageRs.class))),
+            @ApiResponse(responseCode = "400", description = "Parámetros, ventana de tiempo o cursor inválidos", content = @Content)
+    })
+    @GetMapping("/errors")
+    public ResponseEntity<CursorPageRs<OrderRs>> listOrdersWithErrors(
+            @RequestParam(required = false) OrderState state,
+            @RequestParam(required = false) String service,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) UUID deviceId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(orderService.findWithIntegrationErrors(state, service, type, deviceId, from, to, cursor, size));
+    }
+
+    /**
+     * Listar las órdenes que contienen un dispositivo.
+     *
+     * Este endpoint permite saber qué órdenes retienen un equipo. Devuelve una proyección
+     * ligera de cada orden (sin la lista completa de items).
+     *
+     * @param equipmentId UUID del equipo.
+     * @param activeOnly Si es `true`, excluye las órdenes finalizadas (por defecto `false`).
+     * @return Una lista de `DeviceOrderRs`, con código HTTP 200 (OK).
+     */
+    @Operation(summary = "Listar órdenes de un dispositivo", description = "Devuelve las órdenes que incluyen un dispositivo, opcionalmente solo las activas (no FINISHED).")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Órdenes encontradas",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = DeviceOrderRs.class))),
+            @ApiResponse(responseCode = "400", description = "Parámetros inválidos en la solicitud", content = @Content)
+    })
+    @GetMapping("/device/{equipmentId}")
+    public ResponseEntity<List<DeviceOrderRs>> listOrdersByDevice(
+            @PathVariable UUID equipmentId,
+            @RequestParam(defaultValue = "false") boolean activeOnly
+    ) {
+        return ResponseEntity.ok(orderService.findByEquipmentId(equipmentId, activeOnly));
+    }
+
+    /**
+     * Exportar órdenes en formato NDJSON.
+     *
+     * Este endpoint está pensado para procesos de reporte: escribe una orden (con sus items)
+     * por línea directamente desde un cursor de base de datos, sin construir la lista completa
+     * en memoria. Si el cliente envía `Accept-Encoding: gzip`, la respuesta se comprime.
+     * La escritura asíncrona usa su propio timeout (`orders.export.timeout`), solo para esta petición.
+     *
+     * @param state Estado por el que filtrar (opcional).
+     * @param from Fecha de creación mínima, inclusiva, en formato ISO (opcional).
+     * @param to Fecha de creación máxima, exclusiva, en formato ISO (opcional).
+     * @param acceptEncoding Cabecera `Accept-Encoding` del cliente.
+     * @param request Petición en curso, a la que se aplica el timeout de la exportación.
+     * @return El flujo NDJSON de órdenes, con código HTTP 200 (OK).
+     */
+    @Operation(summary = "Exportar órdenes (NDJSON)", description = "Exporta órdenes e items como JSON delimitado por líneas, filtrables por estado y rango de creación. Soporta gzip.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Exportación generada",
+                    content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE)),
+            @ApiResponse(responseCode = "400", description = "Parámetros inválidos en la solicitud", content = @Content)
+    })
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(required = false) OrderState state,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletRequest request
+    ) {
+        applyExportTimeout(request);
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, EXPORT_BUFFER_SIZE, true) : out;
+            BufferedOutputStream buffered = new BufferedOutputStream(target, EXPORT_BUFFER_SIZE);
+            orderService.exportOrders(state, from, to, buffered);
+            buffered.flush();
+            if (target instanceof GZIPOutputStream gzipStream) {
+                gzipStream.finish();
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders.ndjson\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    /**
+     * Sustituye, solo para esta petición, el timeout asíncrono por defecto por el de la exportación.
+     * El interceptor se ejecuta justo antes de iniciar el procesamiento asíncrono del
+     * {@link StreamingResponseBody}, cuando el timeout aún puede cambiarse.
+     *
+     * @param request Petición de exportación en curso.
+     */
+    private void applyExportTimeout(HttpServletRequest request) {
+        long timeoutMillis = exportTimeout.toMillis();
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(EXPORT_TIMEOUT_INTERCEPTOR,
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void beforeConcurrentHandling(NativeWebRequest webRequest, Callable<T> task) {
+                        if (webRequest instanceof AsyncWebRequest asyncWebRequest) {
+                            asyncWebRequest.setTimeout(timeoutMillis);
+                        }
+                    }
+                });
     }
 
     /**
@@ -174,4 +401,34 @@ public class OrderController {
         orderService.updateOrder(orderId, orderRq);
         return ResponseEntity.ok().build();
     }
+
+    /**
+     * Agregar y retirar dispositivos de una orden de forma incremental.
+     *
+     * Solo se envían los dispositivos que cambian; el servicio reserva, restaura y modifica
+     * únicamente esos items, sin reenviar ni recorrer la lista completa de la orden.
+     *
+     * @param orderId UUID único de la orden a modificar
+     * @param patchRq Dispositivos a agregar ({@code add}) y a retirar ({@code remove})
+     * @return ResponseEntity con código HTTP 200 (OK) si la modificación fue exitosa
+     */
+    @Operation(
+            summary = "Agregar o retirar dispositivos de una orden",
+            description = "Modifica solo los dispositivos indicados de una orden existente, sin enviar la lista completa."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Dispositivos de la orden modificados exitosamente"),
+            @ApiResponse(responseCode = "400", description = "Solicitud vacía o con un dispositivo en ambas listas", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Orden no encontrada", content = @Content),
+            @ApiResponse(responseCode = "409", description = "La orden está finalizada", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor", content = @Content)
+    })
+    @PatchMapping("/{orderId}/devices")
+    public ResponseEntity<Void> patchOrderDevices(
+            @PathVariable UUID orderId,
+            @Valid @RequestBody OrderDevicesPatchRq patchRq
+    ) {
+        orderService.patchOrderDevices(orderId, patchRq);
+        return ResponseEntity.ok().build();
+    }
 }
@@ -0,0 +1,25 @@
+package com.infragest.infra_orders_service.entity;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.UUIDGenerator;
+
+/**
+ * Generador de UUID que respeta el identificador si ya fue asignado en memoria.
+ *
+ * <p>Permite conocer el id de una entidad antes de persistirla (por ejemplo, para enviar el
+ * {@code orderId} a infra-devices-service al reservar) sin un INSERT previo. Si el id es
+ * {@code null} se comporta igual que {@link UUIDGenerator}.</p>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+public class AssignableUuidGenerator extends UUIDGenerator {
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        if (object instanceof BaseEntity entity && entity.getId() != null) {
+            return entity.getId();
+        }
+        return super.generate(session, object);
+    }
+}
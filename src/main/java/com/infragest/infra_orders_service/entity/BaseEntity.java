@@ -21,11 +21,11 @@ import java.util.UUID;
 public class BaseEntity {
 
     /**
-     * Identificador único (UUID) generado por Hibernate.
+     * Identificador único (UUID) generado por Hibernate, salvo que se haya asignado antes de persistir.
      */
     @Id
     @GeneratedValue(generator = "UUID")
-    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
+    @GenericGenerator(name = "UUID", strategy = "com.infragest.infra_orders_service.entity.AssignableUuidGenerator")
     @Column(name = "id", updatable = false, nullable = false)
     private UUID id;
 
@@ -24,15 +24,17 @@ import java.util.UUID;
 @Entity
 @Table(name = "rental_order", indexes = {
         @Index(name = "idx_order_state", columnList = "state"),
-        @Index(name = "idx_order_assignee_id", columnList = "assignee_id"),
-        @Index(name = "idx_order_notification_status", columnList = "notification_status")
+        @Index(name = "idx_order_assignee_created_at_id", columnList = "assignee_id, created_at, id"),
+        @Index(name = "idx_order_notification_status", columnList = "notification_status"),
+        @Index(name = "idx_order_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_order_assignee_state_created_at", columnList = "assignee_id, state, created_at, id")
 })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 @EqualsAndHashCode(callSuper = true)
-@ToString(callSuper = true, exclude = "items")
+@ToString(callSuper = true, exclude = {"items", "integrationErrors", "legacySnapshot"})
 public class Order extends BaseEntity{
 
     /**
@@ -81,11 +83,35 @@ public class Order extends BaseEntity{
     private NotificationStatus notificationStatus = NotificationStatus.PENDING;
 
     /**
-     * Campo para almacenar un snapshot JSON o mensaje textual de los errores o el log de integración
-     * con los microservicios externos.
+     * Número de destinatarios resueltos en la última notificación (miembros del grupo o 1 para empleados).
+     */
+    @Column(name = "recipient_count")
+    private Integer recipientCount;
+
+    /**
+     * Versión de la membresía del grupo observada en la última resolución de destinatarios
+     * (ver {@link com.infragest.infra_orders_service.event.RecipientsRef}).
+     */
+    @Column(name = "membership_version", length = 36)
+    private String membershipVersion;
+
+    /**
+     * Errores de integración con los microservicios externos, en modo solo inserción.
+     * Cascade PERSIST/MERGE para guardarlos junto con la orden al crearla; sin orphanRemoval
+     * porque los errores son un historial y no se eliminan.
+     */
+    @OneToMany(mappedBy = "order", cascade = {CascadeType.PERSIST, CascadeType.MERGE}, fetch = FetchType.LAZY)
+    @OrderBy("occurredAt ASC")
+    @Builder.Default
+    private List<OrderIntegrationError> integrationErrors = new ArrayList<>();
+
+    /**
+     * Snapshot JSON heredado con los errores de integración registrados antes de {@link OrderIntegrationError}.
+     * Solo lo lee {@code IntegrationErrorSnapshotBackfill}, que lo migra a filas y lo vacía; las órdenes nuevas
+     * no lo usan.
      */
     @Column(name = "snapshot", columnDefinition = "TEXT", nullable = true)
-    private String snapshot;
+    private String legacySnapshot;
 
     /**
      * Callback JPA que se ejecuta antes de persistir la entidad.
@@ -0,0 +1,90 @@
+package com.infragest.infra_orders_service.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.BatchSize;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Entidad JPA que representa un error de integración de una orden con un microservicio externo
+ * (infra-devices-service, infra-groups-service).
+ *
+ * Los errores se guardan como filas de solo inserción: registrar un error nuevo no requiere leer
+ * ni reescribir los anteriores.
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+@Entity
+@Table(name = "order_integration_error", indexes = {
+        @Index(name = "idx_order_error_order_id_occurred_at", columnList = "order_id, occurred_at"),
+        @Index(name = "idx_order_error_service_type_occurred_at", columnList = "service, type, occurred_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(callSuper = true, exclude = "order")
+@ToString(callSuper = true, exclude = "order")
+public class OrderIntegrationError extends BaseEntity {
+
+    /**
+     * Orden a la que pertenece el error. Fetch LAZY para evitar cargas innecesarias.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id", nullable = false, updatable = false)
+    private Order order;
+
+    /**
+     * Servicio de origen del error (por ejemplo: "devices", "assignee").
+     */
+    @Column(name = "service", length = 50, nullable = false, updatable = false)
+    private String service;
+
+    /**
+     * Tipo de error (por ejemplo: "NOT_FOUND", "SERVICE_UNAVAILABLE").
+     */
+    @Column(name = "type", length = 50, nullable = false, updatable = false)
+    private String type;
+
+    /**
+     * Mensaje descriptivo del error.
+     */
+    @Column(name = "message", length = 2000, updatable = false)
+    private String message;
+
+    /**
+     * Momento en que ocurrió el error.
+     */
+    @Column(name = "occurred_at", nullable = false, updatable = false)
+    private Instant occurredAt;
+
+    /**
+     * Tipo de assignee afectado, si el error proviene de la resolución del assignee.
+     */
+    @Column(name = "assigned_type_id", length = 50, updatable = false)
+    private String assignedTypeId;
+
+    /**
+     * Identificador del assignee afectado, si el error proviene de la resolución del assignee.
+     */
+    @Column(name = "assigned_id", length = 50, updatable = false)
+    private String assignedId;
+
+    /**
+     * Dispositivos afectados por el error. Se cargan en lote para evitar N+1 al listar.
+     */
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(
+            name = "order_integration_error_device",
+            joinColumns = @JoinColumn(name = "error_id"),
+            indexes = @Index(name = "idx_order_error_device_device_id", columnList = "device_id"))
+    @Column(name = "device_id", nullable = false)
+    @BatchSize(size = 100)
+    @Builder.Default
+    private List<UUID> deviceIds = new ArrayList<>();
+}
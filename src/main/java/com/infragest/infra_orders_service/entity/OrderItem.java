@@ -14,7 +14,10 @@ import java.util.UUID;
  * @since 2025-11-19
  */
 @Entity
-@Table(name = "rental_order_item")
+@Table(name = "rental_order_item", indexes = {
+        @Index(name = "idx_order_item_equipment_id", columnList = "equipment_id"),
+        @Index(name = "idx_order_item_order_id", columnList = "order_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
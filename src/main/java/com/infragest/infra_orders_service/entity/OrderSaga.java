@@ -0,0 +1,106 @@
+package com.infragest.infra_orders_service.entity;
+
+import com.infragest.infra_orders_service.enums.OrderSagaStatus;
+import com.infragest.infra_orders_service.enums.OrderSagaStep;
+import com.infragest.infra_orders_service.enums.OrderSagaType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entidad JPA que registra de forma duradera los pasos de una saga de orden (reserva/restauración
+ * de dispositivos en infra-devices-service) y, si hace falta, su compensación pendiente.
+ *
+ * Las sagas con restauración pendiente, o cuyo plazo venció sin terminar, las ejecuta en segundo
+ * plano {@link com.infragest.infra_orders_service.service.impl.OrderSagaServiceImpl}.
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+@Entity
+@Table(name = "order_saga", indexes = {
+        @Index(name = "idx_order_saga_status_next_attempt_at", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_order_saga_order_id", columnList = "order_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true, exclude = {"originalStates", "credentials"})
+public class OrderSaga extends BaseEntity {
+
+    /**
+     * Orden a la que pertenece la saga (en la creación, puede no llegar a persistirse).
+     */
+    @Column(name = "order_id", nullable = false, updatable = false)
+    private UUID orderId;
+
+    /**
+     * Tipo de saga.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", length = 20, nullable = false, updatable = false)
+    private OrderSagaType type;
+
+    /**
+     * Estado de la saga.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20, nullable = false)
+    private OrderSagaStatus status;
+
+    /**
+     * Último paso alcanzado.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "step", length = 20, nullable = false)
+    private OrderSagaStep step;
+
+    /**
+     * Estados originales de los dispositivos a restaurar, en JSON ({@code {"deviceId": "STATE"}}).
+     */
+    @Column(name = "original_states", columnDefinition = "TEXT", nullable = false, updatable = false)
+    private String originalStates;
+
+    /**
+     * Usuario cuya petición inició la saga.
+     */
+    @Column(name = "initiated_by", length = 255, updatable = false)
+    private String initiatedBy;
+
+    /**
+     * Token del usuario que inició la saga, con el que el worker restaura los dispositivos. Se borra
+     * al terminar la saga.
+     */
+    @Column(name = "credentials", columnDefinition = "TEXT")
+    private String credentials;
+
+    /**
+     * Fecha y hora a partir de la cual el worker la procesa: siguiente reintento, fin del plazo
+     * de una saga en curso o fin de la reserva de un worker.
+     */
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    /**
+     * Número de intentos de restauración fallidos.
+     */
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private int attempts = 0;
+
+    /**
+     * Último error, para diagnóstico.
+     */
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    /**
+     * Fecha y hora de finalización ({@code null} mientras esté abierta).
+     */
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
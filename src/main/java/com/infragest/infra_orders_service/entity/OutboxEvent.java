@@ -0,0 +1,86 @@
+package com.infragest.infra_orders_service.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entidad JPA que representa un evento pendiente de publicar en RabbitMQ (patrón transactional outbox).
+ *
+ * El evento se inserta en la misma transacción que el cambio de la orden, y un proceso en segundo plano
+ * lo publica después; así un fallo del broker no pierde eventos ni añade latencia a la petición.
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+@Entity
+@Table(name = "order_outbox_event", indexes = {
+        @Index(name = "idx_outbox_pending_next_attempt_at", columnList = "published_at, parked_at, next_attempt_at, created_at"),
+        @Index(name = "idx_outbox_aggregate_id", columnList = "aggregate_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true, exclude = "payload")
+public class OutboxEvent extends BaseEntity {
+
+    /**
+     * Identificador de la orden que originó el evento.
+     */
+    @Column(name = "aggregate_id", nullable = false, updatable = false)
+    private UUID aggregateId;
+
+    /**
+     * Exchange de destino.
+     */
+    @Column(name = "exchange", length = 100, nullable = false, updatable = false)
+    private String exchange;
+
+    /**
+     * Routing key con la que se publica el evento.
+     */
+    @Column(name = "routing_key", length = 100, nullable = false, updatable = false)
+    private String routingKey;
+
+    /**
+     * Evento serializado en JSON.
+     */
+    @Column(name = "payload", columnDefinition = "TEXT", nullable = false, updatable = false)
+    private String payload;
+
+    /**
+     * Fecha y hora de publicación confirmada por el broker ({@code null} mientras esté pendiente).
+     */
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    /**
+     * Fecha y hora en que el evento se apartó tras agotar sus intentos o por ser irrecuperable
+     * ({@code null} mientras siga pendiente). Un evento apartado no se vuelve a publicar automáticamente.
+     */
+    @Column(name = "parked_at")
+    private LocalDateTime parkedAt;
+
+    /**
+     * Fecha y hora a partir de la cual se puede volver a intentar la publicación.
+     */
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    /**
+     * Número de intentos de publicación fallidos.
+     */
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private int attempts = 0;
+
+    /**
+     * Último error de publicación, para diagnóstico.
+     */
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+}
@@ -1,9 +1,42 @@
 package com.infragest.infra_orders_service.enums;
 
+import java.util.Arrays;
+import java.util.List;
+
 public enum NotificationStatus {
 
-    PENDING,  // Estado predeterminado para nuevas órdenes.
-    SENT,     // Notificación enviada con éxito.
-    FAILED    // Ocurrió un error al enviar la notificación.
+    PENDING(0),  // Estado predeterminado para nuevas órdenes.
+    SENT(2),     // Notificación enviada con éxito.
+    FAILED(1);   // Ocurrió un error al enviar la notificación.
+
+    /**
+     * Posición en el ciclo de una notificación (PENDING → FAILED → SENT): el estado solo avanza.
+     */
+    private final int rank;
+
+    NotificationStatus(int rank) {
+        this.rank = rank;
+    }
+
+    /**
+     * Estados desde los que se puede avanzar a este. Un FAILED tardío no sobrescribe un SENT,
+     * y un estado nunca se "reaplica" sobre sí mismo.
+     *
+     * @return estados anteriores en el ciclo (vacío para PENDING)
+     */
+    public List<NotificationStatus> predecessors() {
+        return Arrays.stream(values())
+                .filter(status -> status.rank < rank)
+                .toList();
+    }
 
+    /**
+     * Indica si este estado está por delante de otro en el ciclo de la notificación.
+     *
+     * @param other estado a comparar
+     * @return {@code true} si este estado es posterior a {@code other}
+     */
+    public boolean isAfter(NotificationStatus other) {
+        return rank > other.rank;
+    }
 }
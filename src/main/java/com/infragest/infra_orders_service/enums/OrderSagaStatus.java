@@ -0,0 +1,16 @@
+package com.infragest.infra_orders_service.enums;
+
+/**
+ * Estado de una saga de orden.
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+public enum OrderSagaStatus {
+
+    RUNNING,          // Pasos en curso en la petición; si vence su plazo, el worker la recupera.
+    RESTORE_PENDING,  // Restauración pendiente, ejecutada por el worker con reintentos.
+    COMPLETED,        // Terminada con éxito.
+    COMPENSATED,      // Creación abortada y reserva deshecha (o nada que deshacer).
+    FAILED            // Restauración agotada o resultado desconocido: requiere revisión manual.
+}
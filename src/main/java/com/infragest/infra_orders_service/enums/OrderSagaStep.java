@@ -0,0 +1,16 @@
+package com.infragest.infra_orders_service.enums;
+
+/**
+ * Paso alcanzado por una saga de orden. La saga de creación se registra tras verificar los dispositivos,
+ * con sus estados originales, justo antes de reservarlos.
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+public enum OrderSagaStep {
+
+    RESERVE,  // Dispositivos verificados (estados originales registrados) y reserva solicitada, sin confirmar.
+    PERSIST,  // Reserva confirmada; falta persistir la orden.
+    NOTIFY,   // Orden persistida y evento registrado en la outbox.
+    RESTORE   // Estados originales restaurados (finalización o compensación).
+}
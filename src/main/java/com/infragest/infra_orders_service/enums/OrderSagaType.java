@@ -0,0 +1,13 @@
+package com.infragest.infra_orders_service.enums;
+
+/**
+ * Tipo de saga de una orden.
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+public enum OrderSagaType {
+
+    CREATE,  // Creación: verificar, reservar, persistir y notificar; se compensa restaurando lo reservado.
+    FINISH   // Finalización: restaurar los estados originales de los dispositivos de la orden.
+}
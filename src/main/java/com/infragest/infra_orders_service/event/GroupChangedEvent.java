@@ -0,0 +1,32 @@
+package com.infragest.infra_orders_service.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Cambio publicado por infra-groups-service sobre un grupo (datos o membresía) o un empleado.
+ * Solo se leen los identificadores necesarios para invalidar la caché de assignees.
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class GroupChangedEvent {
+
+    /**
+     * Grupo modificado, si el cambio afecta a un grupo.
+     */
+    private UUID groupId;
+
+    /**
+     * Empleado modificado, si el cambio afecta a un empleado.
+     */
+    private UUID employeeId;
+}
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
 import java.util.UUID;
 
 @Data
@@ -26,4 +27,16 @@ public class NotificationEvent {
      */
     private String message;
 
+    /**
+     * Identificador único del resultado de la notificación, usado para descartar reentregas.
+     * Si el productor no lo envía se toma el {@code messageId} AMQP; sin ninguno de los dos no se deduplica.
+     */
+    private String notificationId;
+
+    /**
+     * Momento en que se produjo el resultado. Si el productor no lo envía, se toma el timestamp
+     * AMQP del mensaje o, en su defecto, el momento de recepción.
+     */
+    private Instant occurredAt;
+
 }
@@ -57,7 +57,13 @@ public class OrderEvent implements Serializable {
     private List<UUID> deviceIds;
 
     /**
-     * Lista de emails de destinatarios para notificaciones.
+     * Lista de emails de destinatarios para notificaciones. Se omite cuando se envía {@link #recipientsRef}.
      */
     private List<String> recipientEmails;
+
+    /**
+     * Referencia a los destinatarios en lugar de la lista expandida, para grupos que superan
+     * {@code orders.events.recipients.inline-threshold} miembros (desactivado si el umbral es cero).
+     */
+    private RecipientsRef recipientsRef;
 }
@@ -0,0 +1,339 @@
+package com.infragest.infra_orders_service.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infragest.infra_orders_service.entity.OutboxEvent;
+import com.infragest.infra_orders_service.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publica en RabbitMQ, en lotes, los eventos guardados en la tabla outbox ({@link OutboxEvent}).
+ *
+ * <p>Cada lote se bloquea con {@code SKIP LOCKED}, se publica por un mismo canal y se esperan las
+ * confirmaciones del broker (publisher confirms) antes de marcarlo como publicado. La entrega es al menos
+ * una vez, por lo que cada mensaje lleva como {@code messageId} el id del evento para que los consumidores
+ * deduplicen.</p>
+ *
+ * <p>Un evento problemático no bloquea a sus vecinos:</p>
+ * <ul>
+ *   <li>Un payload que no se puede deserializar se aparta ({@code parkedAt}) sin reintentarlo.</li>
+ *   <li>Si el lote no se confirma, sus eventos se publican y confirman de uno en uno: los que fallan se
+ *       reintentan con backoff exponencial propio y se apartan al agotar {@code orders.outbox.max-attempts}.
+ *       Si el broker no es accesible, el resto del lote se reintenta sin probarlo evento a evento.</li>
+ * </ul>
+ *
+ * <p>Métricas expuestas:</p>
+ * <ul>
+ *   <li>{@code orders.outbox.pending}: eventos pendientes de publicar.</li>
+ *   <li>{@code orders.outbox.lag}: antigüedad del evento pendiente más antiguo.</li>
+ *   <li>{@code orders.outbox.delivery.delay}: tiempo entre la escritura y la confirmación de cada evento.</li>
+ *   <li>{@code orders.outbox.published} / {@code orders.outbox.publish.failures}: eventos publicados e intentos fallidos.</li>
+ *   <li>{@code orders.outbox.parked} / {@code orders.outbox.parked.size}: eventos apartados (contador y total actual).</li>
+ * </ul>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+@Component
+@Slf4j
+public class OrderEventOutboxRelay {
+
+    /**
+     * Máximo de lotes publicados por ejecución, para no monopolizar el hilo del scheduler.
+     */
+    private static final int MAX_BATCHES_PER_RUN = 20;
+
+    /**
+     * Longitud máxima del último error guardado en el evento.
+     */
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final RabbitTemplate rabbitTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    private final long confirmTimeoutMs;
+
+    private final long maxBackoffMs;
+
+    private final int maxAttempts;
+
+    private final Duration retention;
+
+    private final AtomicLong pending = new AtomicLong();
+
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    private final AtomicLong parked = new AtomicLong();
+
+    private final Counter publishedCounter;
+
+    private final Counter failuresCounter;
+
+    private final Counter parkedCounter;
+
+    private final Timer deliveryDelay;
+
+    /**
+     * Constructor con las dependencias y la configuración del relay.
+     *
+     * @param outboxEventRepository repositorio de la tabla outbox
+     * @param rabbitTemplate        plantilla de RabbitMQ (con publisher confirms habilitados)
+     * @param objectMapper          mapper JSON para reconstruir los eventos
+     * @param transactionManager    gestor de transacciones
+     * @param meterRegistry         registro de métricas
+     * @param batchSize             eventos por lote
+     * @param confirmTimeoutMs      tiempo máximo de espera de las confirmaciones de un lote
+     * @param maxBackoffMs          espera máxima entre reintentos de un evento
+     * @param maxAttempts           intentos de publicación de un evento antes de apartarlo
+     * @param retention             tiempo que se conservan los eventos ya publicados
+     */
+    public OrderEventOutboxRelay(
+            OutboxEventRepository outboxEventRepository,
+            RabbitTemplate rabbitTemplate,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${orders.outbox.batch-size:100}") int batchSize,
+            @Value("${orders.outbox.confirm-timeout-ms:5000}") long confirmTimeoutMs,
+            @Value("${orders.outbox.max-backoff-ms:300000}") long maxBackoffMs,
+            @Value("${orders.outbox.max-attempts:10}") int maxAttempts,
+            @Value("${orders.outbox.retention:P7D}") Duration retention
+    ) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.confirmTimeoutMs = confirmTimeoutMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retention = retention;
+
+        Gauge.builder("orders.outbox.pending", pending, AtomicLong::get)
+                .description("Eventos de la outbox pendientes de publicar")
+                .register(meterRegistry);
+        Gauge.builder("orders.outbox.parked.size", parked, AtomicLong::get)
+                .description("Eventos de la outbox apartados tras agotar sus intentos")
+                .register(meterRegistry);
+        TimeGauge.builder("orders.outbox.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Antigüedad del evento pendiente más antiguo de la outbox")
+                .register(meterRegistry);
+        this.publishedCounter = Counter.builder("orders.outbox.published")
+                .description("Eventos de la outbox publicados y confirmados por el broker")
+                .register(meterRegistry);
+        this.failuresCounter = Counter.builder("orders.outbox.publish.failures")
+                .description("Intentos de publicación de la outbox fallidos")
+                .register(meterRegistry);
+        this.parkedCounter = Counter.builder("orders.outbox.parked")
+                .description("Eventos de la outbox apartados por payload inválido o intentos agotados")
+                .register(meterRegistry);
+        this.deliveryDelay = Timer.builder("orders.outbox.delivery.delay")
+                .description("Tiempo entre la escritura del evento en la outbox y su confirmación")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publica los eventos pendientes en lotes hasta vaciar la outbox (o alcanzar el máximo por ejecución)
+     * y actualiza las métricas de retraso.
+     */
+    @Scheduled(fixedDelayString = "${orders.outbox.relay-interval-ms:500}")
+    public void relay() {
+        try {
+            int batches = 0;
+            int processed;
+            do {
+                processed = publishBatch();
+                batches++;
+            } while (processed == batchSize && batches < MAX_BATCHES_PER_RUN);
+        } catch (Exception ex) {
+            log.error("Error en el relay de la outbox: {}", ex.getMessage(), ex);
+        } finally {
+            refreshLagMetrics();
+        }
+    }
+
+    /**
+     * Elimina periódicamente los eventos ya publicados más antiguos que la retención configurada.
+     */
+    @Scheduled(cron = "${orders.outbox.cleanup-cron:0 0 3 * * *}")
+    public void purgePublished() {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minus(retention)));
+        log.info("Outbox: {} eventos publicados eliminados", deleted);
+    }
+
+    /**
+     * Bloquea, publica y marca un lote de eventos pendientes en una sola transacción.
+     *
+     * @return número de eventos procesados del lote (publicados, reprogramados o apartados)
+     */
+    private int publishBatch() {
+        Integer processed = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> batch = outboxEventRepository.findPendingForUpdate(now, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                return 0;
+            }
+
+            // Un payload ilegible no se arregla reintentando: se aparta y no participa en el lote
+            List<OutboxEvent> publishable = new ArrayList<>(batch.size());
+            List<OrderEvent> events = new ArrayList<>(batch.size());
+            for (OutboxEvent outboxEvent : batch) {
+                try {
+                    events.add(objectMapper.readValue(outboxEvent.getPayload(), OrderEvent.class));
+                    publishable.add(outboxEvent);
+                } catch (Exception ex) {
+                    park(outboxEvent, "Payload ilegible: " + ex.getMessage(), now);
+                }
+            }
+            if (publishable.isEmpty()) {
+                return batch.size();
+            }
+
+            // Camino rápido: todo el lote por un mismo canal con una sola espera de confirmaciones
+            try {
+                send(publishable, events);
+                markPublished(publishable);
+                return batch.size();
+            } catch (Exception ex) {
+                failuresCounter.increment();
+                log.warn("No se pudo publicar un lote de {} eventos de la outbox, se publican de uno en uno: {}",
+                        publishable.size(), ex.getMessage());
+            }
+
+            // Aislar el evento problemático: cada uno se publica, confirma y marca por separado
+            for (int i = 0; i < publishable.size(); i++) {
+                OutboxEvent outboxEvent = publishable.get(i);
+                try {
+                    send(List.of(outboxEvent), List.of(events.get(i)));
+                    markPublished(List.of(outboxEvent));
+                } catch (AmqpConnectException ex) {
+                    // Broker inaccesible: no tiene sentido probar el resto del lote ahora
+                    failuresCounter.increment();
+                    publishable.subList(i, publishable.size()).forEach(pending -> scheduleRetry(pending, ex, now));
+                    break;
+                } catch (Exception ex) {
+                    failuresCounter.increment();
+                    scheduleRetry(outboxEvent, ex, now);
+                }
+            }
+            return batch.size();
+        });
+        return processed != null ? processed : 0;
+    }
+
+    /**
+     * Publica los eventos por un mismo canal y espera todas sus confirmaciones.
+     *
+     * @param outboxEvents filas de la outbox
+     * @param events       eventos deserializados, en el mismo orden
+     * @throws org.springframework.amqp.AmqpException si el broker no confirma alguno de los eventos
+     */
+    private void send(List<OutboxEvent> outboxEvents, List<OrderEvent> events) {
+        rabbitTemplate.invoke(operations -> {
+            for (int i = 0; i < outboxEvents.size(); i++) {
+                OutboxEvent outboxEvent = outboxEvents.get(i);
+                operations.convertAndSend(outboxEvent.getExchange(), outboxEvent.getRoutingKey(), events.get(i), message -> {
+                    message.getMessageProperties().setMessageId(outboxEvent.getId().toString());
+                    return message;
+                });
+            }
+            operations.waitForConfirmsOrDie(confirmTimeoutMs);
+            return null;
+        });
+    }
+
+    /**
+     * Marca los eventos como publicados y registra su retraso de entrega.
+     *
+     * @param outboxEvents eventos confirmados por el broker
+     */
+    private void markPublished(List<OutboxEvent> outboxEvents) {
+        LocalDateTime confirmedAt = LocalDateTime.now();
+        for (OutboxEvent outboxEvent : outboxEvents) {
+            outboxEvent.setPublishedAt(confirmedAt);
+            deliveryDelay.record(Duration.between(outboxEvent.getCreatedAt(), confirmedAt));
+        }
+        publishedCounter.increment(outboxEvents.size());
+        log.debug("Outbox: {} eventos publicados", outboxEvents.size());
+    }
+
+    /**
+     * Registra un intento fallido y programa el siguiente con backoff exponencial (acotado), o aparta el
+     * evento si agotó sus intentos.
+     *
+     * @param outboxEvent evento que no se pudo publicar
+     * @param ex          causa del fallo
+     * @param now         fecha y hora del intento
+     */
+    private void scheduleRetry(OutboxEvent outboxEvent, Exception ex, LocalDateTime now) {
+        int attempts = outboxEvent.getAttempts() + 1;
+        outboxEvent.setAttempts(attempts);
+        if (attempts >= maxAttempts) {
+            park(outboxEvent, String.format("Publicación fallida tras %d intentos: %s", attempts, ex.getMessage()), now);
+            return;
+        }
+
+        long backoffMs = Math.min(maxBackoffMs, 1000L << Math.min(attempts, 20));
+        outboxEvent.setNextAttemptAt(now.plus(Duration.ofMillis(backoffMs)));
+        outboxEvent.setLastError(truncate(String.valueOf(ex.getMessage())));
+    }
+
+    /**
+     * Aparta un evento que no se volverá a publicar automáticamente, conservándolo para revisión.
+     *
+     * @param outboxEvent evento a apartar
+     * @param error       motivo
+     * @param now         fecha y hora actual
+     */
+    private void park(OutboxEvent outboxEvent, String error, LocalDateTime now) {
+        outboxEvent.setParkedAt(now);
+        outboxEvent.setLastError(truncate(error));
+        parkedCounter.increment();
+        log.error("Evento {} de la outbox (orden {}) apartado: {}", outboxEvent.getId(), outboxEvent.getAggregateId(), error);
+    }
+
+    private static String truncate(String error) {
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+
+    /**
+     * Actualiza las métricas de eventos pendientes y antigüedad del más antiguo.
+     */
+    private void refreshLagMetrics() {
+        try {
+            pending.set(outboxEventRepository.countByPublishedAtIsNullAndParkedAtIsNull());
+            parked.set(outboxEventRepository.countByParkedAtIsNotNull());
+            LocalDateTime oldest = outboxEventRepository.findOldestPendingCreatedAt();
+            lagMillis.set(oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis()));
+        } catch (Exception ex) {
+            log.warn("No se pudieron actualizar las métricas de la outbox: {}", ex.getMessage());
+        }
+    }
+}
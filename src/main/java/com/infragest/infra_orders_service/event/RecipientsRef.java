@@ -0,0 +1,47 @@
+package com.infragest.infra_orders_service.event;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * Referencia a los destinatarios de un {@link OrderEvent} cuando el grupo asignado es demasiado grande
+ * para incluir sus correos en el mensaje.
+ *
+ * <p>El consumidor resuelve los miembros directamente en infra-groups-service
+ * ({@code GET /api/groups/{id}/members/emails}), de forma diferida o por partes. La versión de
+ * membresía identifica el conjunto de miembros observado por este servicio, de modo que el consumidor
+ * puede reutilizar una resolución previa si no ha cambiado.</p>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RecipientsRef implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Identificador del grupo cuyos miembros son los destinatarios.
+     */
+    private UUID groupId;
+
+    /**
+     * Versión de la membresía del grupo (huella del conjunto de correos observado).
+     */
+    private String membershipVersion;
+
+    /**
+     * Número de miembros con correo en esa versión.
+     */
+    private Integer memberCount;
+}
@@ -0,0 +1,33 @@
+package com.infragest.infra_orders_service.excepcion;
+
+import feign.FeignException;
+import feign.Request;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Llamada a un microservicio externo rechazada localmente, sin llegar a enviarse, porque su circuit
+ * breaker está abierto o su bulkhead no tiene capacidad.
+ *
+ * <p>Extiende {@link FeignException.ServiceUnavailable} para que siga el mismo camino que un 503 del
+ * servicio: los {@code catch} existentes la registran como error de integración {@code SERVICE_UNAVAILABLE}.</p>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+public class DependencyRejectedException extends FeignException.ServiceUnavailable {
+
+    /**
+     * Constructor con el servicio y el motivo del rechazo.
+     *
+     * @param service nombre del servicio protegido (p. ej. "infra-devices-service")
+     * @param reason  motivo del rechazo
+     */
+    public DependencyRejectedException(String service, String reason) {
+        super(String.format("%s no disponible: %s", service, reason),
+                Request.create(Request.HttpMethod.GET, "http://" + service, Map.of(), Request.Body.empty(), null),
+                reason.getBytes(StandardCharsets.UTF_8),
+                Map.of());
+    }
+}
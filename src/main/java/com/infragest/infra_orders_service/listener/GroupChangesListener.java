@@ -0,0 +1,66 @@
+package com.infragest.infra_orders_service.listener;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infragest.infra_orders_service.client.AssigneeDirectory;
+import com.infragest.infra_orders_service.config.RabbitMQConfig;
+import com.infragest.infra_orders_service.event.GroupChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Invalida la caché de assignees ({@link AssigneeDirectory}) con los cambios publicados por infra-groups-service.
+ *
+ * <p>Se habilita con {@code orders.assignee-cache.invalidation.enabled}. Sin él, las entradas
+ * solo se renuevan al expirar ({@code orders.assignee-cache.ttl}).</p>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = RabbitMQConfig.ASSIGNEE_CACHE_INVALIDATION_PROPERTY, havingValue = "true")
+public class GroupChangesListener {
+
+    private final AssigneeDirectory assigneeDirectory;
+
+    private final ObjectMapper objectMapper;
+
+    public GroupChangesListener(AssigneeDirectory assigneeDirectory, ObjectMapper objectMapper) {
+        this.assigneeDirectory = assigneeDirectory;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Procesa un cambio de grupo o empleado. Si el mensaje no se puede leer o no identifica grupo ni
+     * empleado, se invalida toda la caché: es preferible una consulta remota de más que un dato obsoleto.
+     *
+     * @param message mensaje recibido desde "groups.exchange".
+     */
+    @RabbitListener(queues = "#{groupChangesQueue.name}")
+    public void handleGroupChange(Message message) {
+        GroupChangedEvent event;
+        try {
+            event = objectMapper.readValue(message.getBody(), GroupChangedEvent.class);
+        } catch (IOException ex) {
+            log.warn("Cambio de infra-groups-service ilegible, se invalida toda la caché: {}", ex.getMessage());
+            assigneeDirectory.invalidateAll();
+            return;
+        }
+
+        if (event.getGroupId() == null && event.getEmployeeId() == null) {
+            assigneeDirectory.invalidateAll();
+            return;
+        }
+        if (event.getGroupId() != null) {
+            assigneeDirectory.invalidateGroup(event.getGroupId());
+        }
+        if (event.getEmployeeId() != null) {
+            assigneeDirectory.invalidateEmployee(event.getEmployeeId());
+        }
+    }
+}
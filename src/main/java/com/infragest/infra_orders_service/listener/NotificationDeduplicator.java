@@ -0,0 +1,115 @@
+package com.infragest.infra_orders_service.listener;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Registro en memoria, acotado y con expiración, de los resultados de notificación ya procesados.
+ *
+ * <p>Permite descartar sin tocar la base de datos las reentregas de RabbitMQ de un
+ * {@code NotificationEvent}. Las entradas se guardan en orden de inserción: como todas tienen
+ * la misma vida útil, las más antiguas son las primeras en expirar, y al superar el máximo se
+ * descarta la más antigua. Si una entrada ya expiró, la reentrega se procesa de nuevo, lo que
+ * sigue siendo seguro porque la actualización en base de datos solo hace avanzar el estado.</p>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+@Component
+public class NotificationDeduplicator {
+
+    private final int maxEntries;
+
+    private final long ttlNanos;
+
+    private final Map<String, Long> processed;
+
+    private final Counter duplicates;
+
+    /**
+     * Constructor con el tamaño máximo y la vida útil de las entradas.
+     *
+     * @param maxEntries    máximo de identificadores recordados
+     * @param ttl           tiempo durante el que se recuerda un identificador
+     * @param meterRegistry registro de métricas
+     */
+    public NotificationDeduplicator(
+            @Value("${orders.notifications.dedup.max-entries:100000}") int maxEntries,
+            @Value("${orders.notifications.dedup.ttl:PT1H}") Duration ttl,
+            MeterRegistry meterRegistry
+    ) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.processed = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > NotificationDeduplicator.this.maxEntries;
+            }
+        };
+        this.duplicates = Counter.builder("orders.notifications.duplicates")
+                .description("Confirmaciones de notificación descartadas por estar ya procesadas")
+                .register(meterRegistry);
+        Gauge.builder("orders.notifications.dedup.size", this, NotificationDeduplicator::size)
+                .description("Identificadores de notificación recordados para deduplicar")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Indica si el resultado de notificación ya fue procesado (y la entrada no ha expirado).
+     *
+     * @param notificationId identificador del resultado
+     * @return {@code true} si es una reentrega de un resultado ya aplicado
+     */
+    public synchronized boolean isDuplicate(String notificationId) {
+        evictExpired(System.nanoTime());
+        boolean duplicate = processed.containsKey(notificationId);
+        if (duplicate) {
+            duplicates.increment();
+        }
+        return duplicate;
+    }
+
+    /**
+     * Registra como procesados los resultados indicados. Debe invocarse solo después de
+     * aplicar los cambios en base de datos, para no perder un resultado si la transacción falla.
+     *
+     * @param notificationIds identificadores de los resultados aplicados
+     */
+    public synchronized void markProcessed(Collection<String> notificationIds) {
+        long now = System.nanoTime();
+        evictExpired(now);
+        for (String notificationId : notificationIds) {
+            processed.putIfAbsent(notificationId, now);
+        }
+    }
+
+    /**
+     * Número de identificadores recordados actualmente.
+     *
+     * @return tamaño del registro
+     */
+    public synchronized int size() {
+        return processed.size();
+    }
+
+    /**
+     * Elimina desde la cabeza las entradas expiradas (las más antiguas).
+     *
+     * @param now instante actual en nanosegundos
+     */
+    private void evictExpired(long now) {
+        Iterator<Long> it = processed.values().iterator();
+        while (it.hasNext() && now - it.next() > ttlNanos) {
+            it.remove();
+        }
+    }
+}
@@ -1,32 +1,153 @@
 package com.infragest.infra_orders_service.listener;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infragest.infra_orders_service.config.CborMessageConverter;
 import com.infragest.infra_orders_service.config.RabbitMQConfig;
 import com.infragest.infra_orders_service.event.NotificationEvent;
+import com.infragest.infra_orders_service.service.NotificationDeadLetterService;
 import com.infragest.infra_orders_service.service.OrderService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.converter.MessageConversionException;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+
 @Component
 @Slf4j
 public class NotificationsListener {
 
     private final OrderService orderService;
 
-    public NotificationsListener(OrderService orderService) {
+    private final NotificationDeduplicator deduplicator;
+
+    private final NotificationDeadLetterService deadLetterService;
+
+    private final ObjectMapper objectMapper;
+
+    private final CborMessageConverter cborMessageConverter;
+
+    public NotificationsListener(OrderService orderService,
+                                 NotificationDeduplicator deduplicator,
+                                 NotificationDeadLetterService deadLetterService,
+                                 ObjectMapper objectMapper,
+                                 CborMessageConverter cborMessageConverter) {
         this.orderService = orderService;
+        this.deduplicator = deduplicator;
+        this.deadLetterService = deadLetterService;
+        this.objectMapper = objectMapper;
+        this.cborMessageConverter = cborMessageConverter;
     }
 
     /**
-     * Método que procesa eventos de confirmación recibidos desde la cola `orders.notifications.queue`.
+     * Método que procesa, en lotes, los eventos de confirmación recibidos desde la cola `orders.notifications.queue`.
+     *
+     * <p>El contenedor entrega hasta {@code orders.notifications.listener.batch-size} mensajes a la vez;
+     * los mensajes del lote se confirman juntos cuando el método termina sin error.</p>
+     *
+     * <p>Cada evento se identifica (ver {@link #withIdentity(NotificationEvent, MessageProperties)}) y las
+     * reentregas de resultados ya aplicados se descartan sin acceder a la base de datos. Los eventos sin
+     * identificador del productor no se deduplican: los protege la actualización condicional, que solo
+     * avanza el estado.</p>
+     *
+     * <p>Un mensaje ilegible o sin {@code orderId}/{@code status} se aparca directamente, ya que reintentarlo
+     * no cambiaría el resultado. Si la actualización del lote falla, cada mensaje pasa a la cola de reintentos
+     * (o al parking lot si los agotó); así un mensaje problemático nunca bloquea la cola.</p>
+     *
+     * @param messages los mensajes de confirmación recibidos desde el microservicio de notificaciones.
+     */
+    @RabbitListener(queues = RabbitMQConfig.NOTIFICATIONS_QUEUE_NAME,
+            containerFactory = RabbitMQConfig.NOTIFICATIONS_BATCH_LISTENER_FACTORY)
+    public void handleNotificationEvents(List<Message> messages) {
+        log.info("Lote de {} confirmaciones de notificación recibido", messages.size());
+
+        List<NotificationEvent> fresh = new ArrayList<>(messages.size());
+        List<Message> freshMessages = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            NotificationEvent event;
+            try {
+                event = decode(message);
+            } catch (IOException | MessageConversionException ex) {
+                deadLetterService.park(message, "Mensaje ilegible: " + ex.getMessage());
+                continue;
+            }
+
+            if (event == null || event.getOrderId() == null || event.getStatus() == null) {
+                deadLetterService.park(message, "Evento de notificación sin orderId o status");
+                continue;
+            }
+
+            // Descartar reentregas de resultados ya aplicados (solo si el productor los identifica)
+            withIdentity(event, message.getMessageProperties());
+            if (event.getNotificationId() == null || !deduplicator.isDuplicate(event.getNotificationId())) {
+                fresh.add(event);
+                freshMessages.add(message);
+            }
+        }
+
+        if (fresh.isEmpty()) {
+            log.debug("Lote de confirmaciones sin eventos nuevos que aplicar");
+            return;
+        }
+
+        // Procesar el lote (una actualización masiva y condicional del estado de notificación)
+        try {
+            orderService.updateOrderNotificationStatuses(fresh);
+        } catch (RuntimeException ex) {
+            log.error("Error aplicando un lote de {} confirmaciones de notificación: {}", fresh.size(), ex.getMessage(), ex);
+            freshMessages.forEach(message -> deadLetterService.retryOrPark(message, ex));
+            return;
+        }
+
+        // Solo tras aplicar el lote se recuerdan sus identificadores
+        deduplicator.markProcessed(fresh.stream()
+                .map(NotificationEvent::getNotificationId)
+                .filter(Objects::nonNull)
+                .toList());
+    }
+
+    /**
+     * Decodifica el evento según el content-type del mensaje: CBOR si así se indica y JSON en otro caso
+     * (incluidos los productores que no envían content-type).
+     *
+     * @param message mensaje recibido
+     * @return evento decodificado
+     * @throws IOException si el contenido JSON no es válido
+     */
+    private NotificationEvent decode(Message message) throws IOException {
+        if (CborMessageConverter.isCbor(message.getMessageProperties().getContentType())) {
+            return cborMessageConverter.read(message.getBody(), NotificationEvent.class);
+        }
+        return objectMapper.readValue(message.getBody(), NotificationEvent.class);
+    }
+
+    /**
+     * Completa la identidad y el momento del resultado de notificación cuando el productor no los envía.
+     *
+     * <ul>
+     *   <li>Identidad: el {@code messageId} AMQP. Si tampoco existe queda sin identidad: no se deriva del
+     *       contenido, ya que un resultado idéntico de la siguiente notificación de la orden es legítimo.</li>
+     *   <li>Momento: el timestamp AMQP o, si no existe, el momento de recepción.</li>
+     * </ul>
      *
-     * @param notificationEvent el evento de confirmación recibido desde el microservicio de notificaciones.
+     * @param event      evento recibido
+     * @param properties propiedades AMQP del mensaje
      */
-    @RabbitListener(queues = RabbitMQConfig.NOTIFICATIONS_QUEUE_NAME)
-    public void handleNotificationEvent(NotificationEvent notificationEvent) {
-        log.info("Confirmación de notificación recibida: {}", notificationEvent);
+    private void withIdentity(NotificationEvent event, MessageProperties properties) {
+        if (event.getNotificationId() == null) {
+            event.setNotificationId(properties.getMessageId());
+        }
 
-        // Procesar el evento (ejemplo: actualizar el estado de la orden en la base de datos)
-        orderService.updateOrderNotificationStatus(notificationEvent);
+        if (event.getOccurredAt() == null) {
+            Date timestamp = properties.getTimestamp();
+            event.setOccurredAt(timestamp != null ? timestamp.toInstant() : Instant.now());
+        }
     }
 }
@@ -0,0 +1,38 @@
+package com.infragest.infra_orders_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de una orden dentro de una creación masiva.
+ *
+ * <p>Si la orden se persistió, {@code order} contiene su representación (su estado puede ser
+ * {@code CREATED_WITH_ERRORS}); si fue rechazada, {@code order} es {@code null} y {@code error}
+ * explica el motivo.</p>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkOrderResultRs {
+
+    /**
+     * Posición de la orden en la solicitud (base 0).
+     */
+    private int index;
+
+    /**
+     * Orden creada, o {@code null} si fue rechazada.
+     */
+    private OrderRs order;
+
+    /**
+     * Motivo del rechazo, o {@code null} si la orden se creó.
+     */
+    private String error;
+}
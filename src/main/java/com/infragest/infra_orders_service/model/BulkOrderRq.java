@@ -0,0 +1,33 @@
+package com.infragest.infra_orders_service.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para peticiones de creación masiva de órdenes (p. ej. un aula o laboratorio completo).
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkOrderRq {
+
+    /**
+     * Órdenes a crear. Se procesan juntas pero cada una tiene su propio resultado.
+     */
+    @NotEmpty(message = "Debe especificar al menos una orden.")
+    @Size(max = 500, message = "No se pueden crear más de 500 órdenes por solicitud.")
+    @Valid
+    private List<OrderRq> orders;
+
+}
@@ -0,0 +1,41 @@
+package com.infragest.infra_orders_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO de respuesta de una creación masiva de órdenes.
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkOrderRs {
+
+    /**
+     * Número de órdenes creadas sin errores.
+     */
+    private int created;
+
+    /**
+     * Número de órdenes creadas en estado {@code CREATED_WITH_ERRORS}.
+     */
+    private int createdWithErrors;
+
+    /**
+     * Número de órdenes rechazadas (no persistidas).
+     */
+    private int failed;
+
+    /**
+     * Resultado de cada orden, en el mismo orden de la solicitud.
+     */
+    private List<BulkOrderResultRs> results;
+}
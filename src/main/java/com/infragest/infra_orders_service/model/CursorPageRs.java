@@ -0,0 +1,46 @@
+package com.infragest.infra_orders_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO de respuesta para listados paginados por cursor (keyset).
+ *
+ * <p>El cliente debe enviar {@code nextCursor} en la siguiente petición para obtener
+ * la página siguiente. Cuando {@code nextCursor} es {@code null} no hay más resultados.</p>
+ *
+ * @param <T> tipo de los elementos de la página.
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPageRs<T> {
+
+    /**
+     * Elementos de la página actual.
+     */
+    private List<T> items;
+
+    /**
+     * Cursor opaco para solicitar la siguiente página ({@code null} si no hay más).
+     */
+    private String nextCursor;
+
+    /**
+     * Tamaño de página efectivamente aplicado (tras el tope máximo).
+     */
+    private int size;
+
+    /**
+     * Indica si existen más elementos después de esta página.
+     */
+    private boolean hasNext;
+}
@@ -0,0 +1,57 @@
+package com.infragest.infra_orders_service.model;
+
+import com.infragest.infra_orders_service.enums.AssigneeType;
+import com.infragest.infra_orders_service.enums.OrderState;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Proyección ligera de una orden que contiene un dispositivo concreto.
+ *
+ * <p>Se construye directamente desde JPQL (constructor expression), sin cargar
+ * la entidad {@code Order} ni su colección de items.</p>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DeviceOrderRs {
+
+    /**
+     * UUID de la orden.
+     */
+    private UUID orderId;
+
+    /**
+     * Estado actual de la orden.
+     */
+    private OrderState state;
+
+    /**
+     * Tipo del assignee (EMPLOYEE | GROUP).
+     */
+    private AssigneeType assigneeType;
+
+    /**
+     * UUID del empleado o del grupo asignado.
+     */
+    private UUID assigneeId;
+
+    /**
+     * Fecha/hora de creación de la orden.
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * Estado original del dispositivo al incluirse en la orden.
+     */
+    private String originalDeviceState;
+}
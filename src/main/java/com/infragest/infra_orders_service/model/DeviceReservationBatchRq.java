@@ -0,0 +1,63 @@
+package com.infragest.infra_orders_service.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO para reservar en una sola llamada los dispositivos de varias órdenes.
+ *
+ * {@code reservations} contiene una {@link Reservation} por orden; infra-devices-service responde
+ * con el resultado de cada una ({@link DeviceReservationResultRs}).
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DeviceReservationBatchRq {
+
+    /**
+     * Estado al que pasan los dispositivos reservados (por ejemplo: OCCUPIED).
+     */
+    @NotNull(message = "state es requerido")
+    private String state;
+
+    /**
+     * Reservas de cada orden.
+     */
+    @NotEmpty(message = "La lista de reservas no puede estar vacía")
+    @Valid
+    private List<Reservation> reservations;
+
+    /**
+     * Sub-clase interna que representa la reserva de una orden.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Reservation {
+
+        /**
+         * Identificador de la orden que reserva.
+         */
+        @NotNull(message = "orderId es requerido")
+        private UUID orderId;
+
+        /**
+         * Dispositivos a reservar para la orden.
+         */
+        @NotEmpty(message = "La lista de deviceIds no puede estar vacía")
+        private List<UUID> deviceIds;
+    }
+}
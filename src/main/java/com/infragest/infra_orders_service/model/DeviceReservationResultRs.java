@@ -0,0 +1,37 @@
+package com.infragest.infra_orders_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * DTO de respuesta con el resultado de la reserva de una orden dentro de una reserva combinada
+ * ({@link DeviceReservationBatchRq}).
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DeviceReservationResultRs {
+
+    /**
+     * Identificador de la orden.
+     */
+    private UUID orderId;
+
+    /**
+     * Indicador de éxito de la reserva de la orden.
+     */
+    private boolean success;
+
+    /**
+     * Descripción del resultado (motivo del fallo, p. ej. dispositivos ya ocupados).
+     */
+    private String message;
+}
@@ -0,0 +1,39 @@
+package com.infragest.infra_orders_service.model;
+
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO para modificar de forma incremental los dispositivos de una orden: solo se indican los
+ * dispositivos a agregar y a retirar, no la lista completa.
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderDevicesPatchRq {
+
+    /**
+     * Dispositivos a agregar a la orden (los que ya tiene se ignoran).
+     */
+    @Size(max = 10000, message = "No se pueden agregar más de 10000 equipos por solicitud.")
+    @Builder.Default
+    private List<UUID> add = new ArrayList<>();
+
+    /**
+     * Dispositivos a retirar de la orden (los que no tiene se ignoran).
+     */
+    @Size(max = 10000, message = "No se pueden retirar más de 10000 equipos por solicitud.")
+    @Builder.Default
+    private List<UUID> remove = new ArrayList<>();
+}
@@ -0,0 +1,37 @@
+package com.infragest.infra_orders_service.model;
+
+import com.infragest.infra_orders_service.enums.AssigneeType;
+import com.infragest.infra_orders_service.enums.NotificationStatus;
+import com.infragest.infra_orders_service.enums.OrderState;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Fila plana (orden + item) leída desde el cursor de exportación.
+ *
+ * <p>Cada orden aparece en tantas filas consecutivas como items tenga (o una sola fila con
+ * {@code deviceId} nulo si no tiene items); el exportador las agrupa antes de escribirlas.</p>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderExportRow {
+
+    private UUID orderId;
+    private String description;
+    private OrderState state;
+    private AssigneeType assigneeType;
+    private UUID assigneeId;
+    private NotificationStatus notificationStatus;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private UUID deviceId;
+    private String originalDeviceState;
+}
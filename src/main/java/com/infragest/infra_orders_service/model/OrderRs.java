@@ -63,4 +63,9 @@ public class OrderRs {
      */
     private List<OrderItemDto> items;
 
+    /**
+     * Errores de integración registrados para la orden, en orden cronológico.
+     */
+    private List<OrderIntegrationErrorDto> integrationErrors;
+
 }
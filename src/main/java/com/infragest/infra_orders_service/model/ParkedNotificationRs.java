@@ -0,0 +1,46 @@
+package com.infragest.infra_orders_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * DTO de respuesta que representa un mensaje de confirmación de notificación aparcado en el parking lot.
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ParkedNotificationRs {
+
+    /**
+     * Identificador AMQP del mensaje (puede ser {@code null} si el productor no lo asignó).
+     */
+    private String messageId;
+
+    /**
+     * Motivo por el que se aparcó el mensaje.
+     */
+    private String reason;
+
+    /**
+     * Número de reintentos realizados antes de aparcarlo.
+     */
+    private int retries;
+
+    /**
+     * Momento en que se aparcó.
+     */
+    private Instant parkedAt;
+
+    /**
+     * Cuerpo original del mensaje (JSON como texto; CBOR en Base64).
+     */
+    private String body;
+}
@@ -0,0 +1,40 @@
+package com.infragest.infra_orders_service.repository;
+
+import com.infragest.infra_orders_service.entity.Order;
+import com.infragest.infra_orders_service.enums.OrderState;
+import com.infragest.infra_orders_service.util.OrderCursor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Fragmento de {@link OrderRepository} para buscar órdenes por sus errores de integración.
+ *
+ * <p>La consulta se construye solo con los filtros informados, de modo que la base de datos puede
+ * partir de los índices de {@code order_integration_error} ({@code service}, {@code type},
+ * {@code occurred_at}) y de {@code order_integration_error_device} ({@code device_id}) en lugar de
+ * recorrer {@code rental_order}.</p>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+public interface OrderErrorSearchRepository {
+
+    /**
+     * Página de las órdenes que tienen al menos un error de integración que cumple los filtros
+     * (keyset descendente por {@code createdAt}, {@code id}). Los filtros con valor {@code null} no se aplican.
+     *
+     * @param state    estado de la orden (opcional)
+     * @param service  servicio de origen del error (opcional)
+     * @param type     tipo de error (opcional)
+     * @param deviceId dispositivo afectado por el error (opcional)
+     * @param from     fecha mínima del error, inclusiva (opcional)
+     * @param to       fecha máxima del error, exclusiva (opcional)
+     * @param after    cursor de la página anterior ({@code null} para la primera página)
+     * @param limit    número máximo de órdenes a devolver
+     * @return órdenes de la página
+     */
+    List<Order> findPageWithErrors(OrderState state, String service, String type, UUID deviceId,
+                                   Instant from, Instant to, OrderCursor after, int limit);
+}
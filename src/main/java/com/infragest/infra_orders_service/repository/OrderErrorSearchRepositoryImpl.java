@@ -0,0 +1,91 @@
+package com.infragest.infra_orders_service.repository;
+
+import com.infragest.infra_orders_service.entity.Order;
+import com.infragest.infra_orders_service.enums.OrderState;
+import com.infragest.infra_orders_service.util.OrderCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Implementación de {@link OrderErrorSearchRepository} con JPQL dinámico.
+ *
+ * <ul>
+ *   <li>Con algún filtro de error, las órdenes se seleccionan con {@code o.id IN (subconsulta)} sobre la
+ *       tabla de errores (y la de dispositivos si se filtra por dispositivo), con solo los predicados
+ *       informados: la subconsulta se resuelve por sus índices y la base de datos no recorre todas las
+ *       órdenes para comprobar cada una.</li>
+ *   <li>Sin filtros de error basta con que la orden tenga algún error ({@code EXISTS} por el índice
+ *       {@code order_id}); las órdenes se recorren en el orden del cursor ({@code created_at}, {@code id}).</li>
+ * </ul>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+public class OrderErrorSearchRepositoryImpl implements OrderErrorSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Order> findPageWithErrors(OrderState state, String service, String type, UUID deviceId,
+                                          Instant from, Instant to, OrderCursor after, int limit) {
+        Map<String, Object> params = new HashMap<>();
+
+        // Predicados de los errores: solo los informados
+        StringBuilder errorFilter = new StringBuilder();
+        if (service != null) {
+            errorFilter.append(" AND e.service = :service");
+            params.put("service", service);
+        }
+        if (type != null) {
+            errorFilter.append(" AND e.type = :type");
+            params.put("type", type);
+        }
+        if (deviceId != null) {
+            errorFilter.append(" AND d = :deviceId");
+            params.put("deviceId", deviceId);
+        }
+        if (from != null) {
+            errorFilter.append(" AND e.occurredAt >= :from");
+            params.put("from", from);
+        }
+        if (to != null) {
+            errorFilter.append(" AND e.occurredAt < :to");
+            params.put("to", to);
+        }
+
+        StringBuilder jpql = new StringBuilder("SELECT o FROM Order o WHERE ");
+        if (errorFilter.isEmpty()) {
+            jpql.append("EXISTS (SELECT e.id FROM OrderIntegrationError e WHERE e.order = o)");
+        } else {
+            jpql.append("o.id IN (SELECT e.order.id FROM OrderIntegrationError e")
+                    .append(deviceId != null ? " JOIN e.deviceIds d" : "")
+                    .append(" WHERE 1 = 1")
+                    .append(errorFilter)
+                    .append(")");
+        }
+
+        // Predicados de la orden
+        if (state != null) {
+            jpql.append(" AND o.state = :state");
+            params.put("state", state);
+        }
+        if (after != null) {
+            jpql.append(" AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id))");
+            params.put("createdAt", after.createdAt());
+            params.put("id", after.id());
+        }
+        jpql.append(" ORDER BY o.createdAt DESC, o.id DESC");
+
+        TypedQuery<Order> query = entityManager.createQuery(jpql.toString(), Order.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+}
@@ -0,0 +1,34 @@
+package com.infragest.infra_orders_service.repository;
+
+import com.infragest.infra_orders_service.enums.OrderState;
+import com.infragest.infra_orders_service.model.OrderExportRow;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+/**
+ * Fragmento de {@link OrderRepository} para recorrer las órdenes a exportar.
+ *
+ * <p>La consulta se construye solo con los filtros informados, de modo que la base de datos puede
+ * partir de los índices de {@code rental_order} ({@code state} y {@code created_at}, {@code id}) en lugar de
+ * evaluar predicados {@code :param IS NULL OR ...} que le impiden usarlos.</p>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+public interface OrderExportRepository {
+
+    /**
+     * Recorre con un cursor forward-only las órdenes y sus items como filas planas, para exportación.
+     *
+     * <p>Las filas se devuelven ordenadas por ({@code createdAt}, {@code id}) de forma que los items de
+     * una misma orden sean consecutivos. El {@link Stream} debe consumirse dentro de una transacción
+     * y cerrarse al terminar. Los filtros con valor {@code null} no se aplican.</p>
+     *
+     * @param state estado de la orden (opcional)
+     * @param from  fecha de creación mínima, inclusiva (opcional)
+     * @param to    fecha de creación máxima, exclusiva (opcional)
+     * @return stream de filas orden + item
+     */
+    Stream<OrderExportRow> streamForExport(OrderState state, LocalDateTime from, LocalDateTime to);
+}
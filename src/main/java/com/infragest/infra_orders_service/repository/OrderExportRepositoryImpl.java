@@ -0,0 +1,64 @@
+package com.infragest.infra_orders_service.repository;
+
+import com.infragest.infra_orders_service.enums.OrderState;
+import com.infragest.infra_orders_service.model.OrderExportRow;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Implementación de {@link OrderExportRepository} con JPQL dinámico.
+ *
+ * <ul>
+ *   <li>Solo se añaden los predicados de los filtros informados; sin filtros la consulta recorre las
+ *       órdenes por el índice {@code (created_at, id)}, que coincide con el orden de la exportación.</li>
+ *   <li>Las filas se leen del cursor en bloques de {@value #FETCH_SIZE}, en solo lectura y fuera de la
+ *       caché de consultas, para que la memoria no crezca con el tamaño de la exportación.</li>
+ * </ul>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+public class OrderExportRepositoryImpl implements OrderExportRepository {
+
+    private static final int FETCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<OrderExportRow> streamForExport(OrderState state, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> params = new HashMap<>();
+
+        StringBuilder jpql = new StringBuilder("SELECT new com.infragest.infra_orders_service.model.OrderExportRow(")
+                .append("o.id, o.description, o.state, o.assigneeType, o.assigneeId, o.notificationStatus, ")
+                .append("o.createdAt, o.updatedAt, i.deviceId, i.originalDeviceState) ")
+                .append("FROM Order o LEFT JOIN o.items i WHERE 1 = 1");
+        if (state != null) {
+            jpql.append(" AND o.state = :state");
+            params.put("state", state);
+        }
+        if (from != null) {
+            jpql.append(" AND o.createdAt >= :from");
+            params.put("from", from);
+        }
+        if (to != null) {
+            jpql.append(" AND o.createdAt < :to");
+            params.put("to", to);
+        }
+        jpql.append(" ORDER BY o.createdAt, o.id");
+
+        TypedQuery<OrderExportRow> query = entityManager.createQuery(jpql.toString(), OrderExportRow.class);
+        params.forEach(query::setParameter);
+        return query.setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setHint(HibernateHints.HINT_CACHEABLE, false)
+                .getResultStream();
+    }
+}
@@ -0,0 +1,29 @@
+package com.infragest.infra_orders_service.repository;
+
+import com.infragest.infra_orders_service.entity.OrderIntegrationError;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repositorio Spring Data para la entidad {@link OrderIntegrationError}.
+ *
+ * Los errores son de solo inserción: se agregan con {@code save}/{@code saveAll} y nunca se modifican.
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+@Repository
+public interface OrderIntegrationErrorRepository extends JpaRepository<OrderIntegrationError, UUID> {
+
+    /**
+     * Obtiene en una sola consulta los errores de varias órdenes (evita N+1 al listar).
+     *
+     * @param orderIds UUIDs de las órdenes
+     * @return errores de todas las órdenes indicadas, ordenados por fecha (puede ser vacía)
+     */
+    List<OrderIntegrationError> findByOrderIdInOrderByOccurredAtAsc(Collection<UUID> orderIds);
+}
@@ -1,9 +1,14 @@
 package com.infragest.infra_orders_service.repository;
 
 import com.infragest.infra_orders_service.entity.OrderItem;
+import com.infragest.infra_orders_service.enums.OrderState;
+import com.infragest.infra_orders_service.model.DeviceOrderRs;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -26,6 +31,32 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, UUID> {
      */
     List<OrderItem> findByOrderId(UUID orderId);
 
+    /**
+     * Obtiene en una sola consulta los items de varias órdenes (evita N+1 al listar).
+     *
+     * @param orderIds UUIDs de las órdenes
+     * @return items de todas las órdenes indicadas (puede ser vacía)
+     */
+    List<OrderItem> findByOrderIdIn(Collection<UUID> orderIds);
+
+    /**
+     * Obtiene solo los items de una orden que referencian los equipos indicados
+     * (modificación incremental de dispositivos sin cargar toda la orden).
+     *
+     * @param orderId   UUID de la orden
+     * @param deviceIds UUIDs de los equipos
+     * @return items de la orden con esos equipos (puede ser vacía)
+     */
+    List<OrderItem> findByOrderIdAndDeviceIdIn(UUID orderId, Collection<UUID> deviceIds);
+
+    /**
+     * Indica si la orden tiene al menos un item.
+     *
+     * @param orderId UUID de la orden
+     * @return {@code true} si la orden tiene items
+     */
+    boolean existsByOrderId(UUID orderId);
+
     /**
      * Obtiene los items cuyo deviceId coincide.
      *
@@ -34,4 +65,34 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, UUID> {
      */
     List<OrderItem> findByDeviceId(UUID deviceId);
 
+    /**
+     * Obtiene, como proyección ligera, las órdenes que contienen un dispositivo.
+     * Usa el índice {@code idx_order_item_equipment_id}.
+     *
+     * @param deviceId UUID del equipo
+     * @return órdenes que incluyen ese equipo, de la más reciente a la más antigua
+     */
+    @Query("SELECT new com.infragest.infra_orders_service.model.DeviceOrderRs(" +
+            "o.id, o.state, o.assigneeType, o.assigneeId, o.createdAt, i.originalDeviceState) " +
+            "FROM OrderItem i JOIN i.order o " +
+            "WHERE i.deviceId = :deviceId " +
+            "ORDER BY o.createdAt DESC")
+    List<DeviceOrderRs> findOrdersByDeviceId(@Param("deviceId") UUID deviceId);
+
+    /**
+     * Obtiene, como proyección ligera, las órdenes que contienen un dispositivo
+     * excluyendo las que están en el estado indicado (p. ej. FINISHED).
+     *
+     * @param deviceId      UUID del equipo
+     * @param excludedState estado a excluir
+     * @return órdenes que incluyen ese equipo, de la más reciente a la más antigua
+     */
+    @Query("SELECT new com.infragest.infra_orders_service.model.DeviceOrderRs(" +
+            "o.id, o.state, o.assigneeType, o.assigneeId, o.createdAt, i.originalDeviceState) " +
+            "FROM OrderItem i JOIN i.order o " +
+            "WHERE i.deviceId = :deviceId AND o.state <> :excludedState " +
+            "ORDER BY o.createdAt DESC")
+    List<DeviceOrderRs> findOrdersByDeviceIdExcludingState(@Param("deviceId") UUID deviceId,
+                                                           @Param("excludedState") OrderState excludedState);
+
 }
@@ -1,12 +1,21 @@
 package com.infragest.infra_orders_service.repository;
 
 import com.infragest.infra_orders_service.entity.Order;
+import com.infragest.infra_orders_service.enums.NotificationStatus;
 import com.infragest.infra_orders_service.enums.OrderState;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -17,7 +26,8 @@ import java.util.UUID;
  * @since 2025-11-19
  */
 @Repository
-public interface OrderRepository extends JpaRepository<Order, UUID> {
+public interface OrderRepository extends JpaRepository<Order, UUID>, OrderErrorSearchRepository,
+        OrderExportRepository {
 
     /**
      * Devuelve las órdenes asociadas a un assignee (empleado o grupo).
@@ -44,4 +54,131 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
      */
     @Query("SELECT DISTINCT o FROM Order o JOIN o.items i WHERE i.deviceId = :deviceId")
     List<Order> findByDeviceId(@Param("deviceId") UUID deviceId);
+
+    /**
+     * Primera página del listado de órdenes ordenado por ({@code createdAt}, {@code id}) descendente.
+     * Usa el índice {@code idx_order_created_at_id}; el tamaño lo define {@code pageable}.
+     *
+     * @param pageable tamaño de página (siempre página 0, no se usa OFFSET)
+     * @return órdenes de la primera página
+     */
+    @Query("SELECT o FROM Order o ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findFirstPage(Pageable pageable);
+
+    /**
+     * Página siguiente al cursor ({@code createdAt}, {@code id}) en orden descendente (keyset).
+     *
+     * @param createdAt fecha de creación de la última orden de la página anterior
+     * @param id        UUID de la última orden de la página anterior
+     * @param pageable  tamaño de página (siempre página 0, no se usa OFFSET)
+     * @return órdenes posteriores al cursor
+     */
+    @Query("SELECT o FROM Order o " +
+            "WHERE o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id) " +
+            "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                              @Param("id") UUID id,
+                              Pageable pageable);
+
+    /**
+     * Primera página de las órdenes de un assignee (keyset descendente por {@code createdAt}, {@code id}).
+     *
+     * @param assigneeId UUID del empleado o del grupo
+     * @param pageable   tamaño de página (siempre página 0, no se usa OFFSET)
+     * @return órdenes de la primera página
+     */
+    @Query("SELECT o FROM Order o WHERE o.assigneeId = :assigneeId " +
+            "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findFirstPageByAssignee(@Param("assigneeId") UUID assigneeId, Pageable pageable);
+
+    /**
+     * Página siguiente al cursor de las órdenes de un assignee.
+     *
+     * @param assigneeId UUID del empleado o del grupo
+     * @param createdAt  fecha de creación de la última orden de la página anterior
+     * @param id         UUID de la última orden de la página anterior
+     * @param pageable   tamaño de página (siempre página 0, no se usa OFFSET)
+     * @return órdenes posteriores al cursor
+     */
+    @Query("SELECT o FROM Order o WHERE o.assigneeId = :assigneeId " +
+            "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+            "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findPageByAssigneeAfter(@Param("assigneeId") UUID assigneeId,
+                                        @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") UUID id,
+                                        Pageable pageable);
+
+    /**
+     * Primera página de las órdenes de un assignee en un estado dado.
+     * Usa el índice compuesto {@code idx_order_assignee_state_created_at}.
+     *
+     * @param assigneeId UUID del empleado o del grupo
+     * @param state      estado de la orden
+     * @param pageable   tamaño de página (siempre página 0, no se usa OFFSET)
+     * @return órdenes de la primera página
+     */
+    @Query("SELECT o FROM Order o WHERE o.assigneeId = :assigneeId AND o.state = :state " +
+            "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findFirstPageByAssigneeAndState(@Param("assigneeId") UUID assigneeId,
+                                                @Param("state") OrderState state,
+                                                Pageable pageable);
+
+    /**
+     * Página siguiente al cursor de las órdenes de un assignee en un estado dado.
+     *
+     * @param assigneeId UUID del empleado o del grupo
+     * @param state      estado de la orden
+     * @param createdAt  fecha de creación de la última orden de la página anterior
+     * @param id         UUID de la última orden de la página anterior
+     * @param pageable   tamaño de página (siempre página 0, no se usa OFFSET)
+     * @return órdenes posteriores al cursor
+     */
+    @Query("SELECT o FROM Order o WHERE o.assigneeId = :assigneeId AND o.state = :state " +
+            "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+            "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findPageByAssigneeAndStateAfter(@Param("assigneeId") UUID assigneeId,
+                                                @Param("state") OrderState state,
+                                                @Param("createdAt") LocalDateTime createdAt,
+                                                @Param("id") UUID id,
+                                                Pageable pageable);
+
+    /**
+     * Hace avanzar en bloque el estado de notificación de varias órdenes, sin cargarlas.
+     * Solo se actualizan las órdenes cuyo estado actual es anterior al nuevo (actualización condicional),
+     * por lo que reentregas y resultados tardíos no escriben nada.
+     * Incrementa la versión para que las escrituras optimistas concurrentes lo detecten.
+     *
+     * @param ids          UUIDs de las órdenes
+     * @param status       nuevo estado de notificación
+     * @param predecessors estados desde los que se permite avanzar a {@code status}
+     * @param updatedAt    fecha y hora de la actualización
+     * @return número de órdenes actualizadas
+     */
+    @Modifying
+    @Query("UPDATE Order o SET o.notificationStatus = :status, o.updatedAt = :updatedAt, o.version = o.version + 1 " +
+            "WHERE o.id IN :ids AND o.notificationStatus IN :predecessors")
+    int advanceNotificationStatus(@Param("ids") Collection<UUID> ids,
+                                  @Param("status") NotificationStatus status,
+                                  @Param("predecessors") Collection<NotificationStatus> predecessors,
+                                  @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Obtiene y bloquea el siguiente lote de órdenes con errores de integración en el snapshot JSON heredado,
+     * pendientes de migrar a filas. Las filas bloqueadas por otra instancia se saltan ({@code SKIP LOCKED}).
+     * Debe invocarse dentro de una transacción.
+     *
+     * @param pageable tamaño del lote (siempre página 0)
+     * @return órdenes bloqueadas con snapshot heredado
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM Order o WHERE o.legacySnapshot IS NOT NULL ORDER BY o.id")
+    List<Order> findWithLegacySnapshotForUpdate(Pageable pageable);
+
+    /**
+     * Indica si quedan órdenes con snapshot heredado sin migrar.
+     *
+     * @return {@code true} si alguna orden conserva el snapshot
+     */
+    boolean existsByLegacySnapshotIsNotNull();
 }
@@ -0,0 +1,98 @@
+package com.infragest.infra_orders_service.repository;
+
+import com.infragest.infra_orders_service.entity.OrderSaga;
+import com.infragest.infra_orders_service.enums.OrderSagaStatus;
+import com.infragest.infra_orders_service.enums.OrderSagaStep;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repositorio Spring Data para la entidad {@link OrderSaga}.
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+@Repository
+public interface OrderSagaRepository extends JpaRepository<OrderSaga, UUID> {
+
+    /**
+     * Obtiene y bloquea el siguiente lote de sagas vencidas con alguno de los estados indicados.
+     *
+     * <p>Las filas bloqueadas por otra instancia se saltan ({@code SKIP LOCKED}), de modo que varias
+     * réplicas pueden procesar sagas en paralelo sin duplicarlas. Debe invocarse dentro de una transacción.</p>
+     *
+     * @param statuses estados a procesar
+     * @param now      fecha y hora actual
+     * @param pageable tamaño del lote (siempre página 0)
+     * @return sagas vencidas bloqueadas
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT s FROM OrderSaga s WHERE s.status IN :statuses AND s.nextAttemptAt <= :now " +
+            "ORDER BY s.nextAttemptAt, s.id")
+    List<OrderSaga> findDueForUpdate(@Param("statuses") Collection<OrderSagaStatus> statuses,
+                                     @Param("now") LocalDateTime now,
+                                     Pageable pageable);
+
+    /**
+     * Avanza el paso de las sagas indicadas que sigan en curso.
+     *
+     * @param ids  IDs de las sagas
+     * @param step paso alcanzado
+     * @param now  fecha y hora actual
+     * @return número de sagas actualizadas
+     */
+    @Modifying
+    @Query("UPDATE OrderSaga s SET s.step = :step, s.updatedAt = :now, s.version = s.version + 1 " +
+            "WHERE s.id IN :ids AND s.status = com.infragest.infra_orders_service.enums.OrderSagaStatus.RUNNING")
+    int advanceRunning(@Param("ids") Collection<UUID> ids,
+                       @Param("step") OrderSagaStep step,
+                       @Param("now") LocalDateTime now);
+
+    /**
+     * Cierra las sagas indicadas que sigan en curso y borra las credenciales que guardaban.
+     *
+     * @param ids    IDs de las sagas
+     * @param status estado final
+     * @param step   último paso alcanzado
+     * @param now    fecha y hora actual
+     * @return número de sagas cerradas
+     */
+    @Modifying
+    @Query("UPDATE OrderSaga s SET s.status = :status, s.step = :step, s.completedAt = :now, s.updatedAt = :now, " +
+            "s.credentials = NULL, s.version = s.version + 1 " +
+            "WHERE s.id IN :ids AND s.status = com.infragest.infra_orders_service.enums.OrderSagaStatus.RUNNING")
+    int closeRunning(@Param("ids") Collection<UUID> ids,
+                     @Param("status") OrderSagaStatus status,
+                     @Param("step") OrderSagaStep step,
+                     @Param("now") LocalDateTime now);
+
+    /**
+     * Cuenta las sagas con el estado indicado.
+     *
+     * @param status estado
+     * @return número de sagas
+     */
+    long countByStatus(OrderSagaStatus status);
+
+    /**
+     * Elimina las sagas terminadas antes de la fecha indicada.
+     *
+     * @param statuses estados terminales a purgar
+     * @param before   límite (exclusivo) de la fecha de finalización
+     * @return número de sagas eliminadas
+     */
+    @Modifying
+    @Query("DELETE FROM OrderSaga s WHERE s.status IN :statuses AND s.completedAt < :before")
+    int deleteCompletedBefore(@Param("statuses") Collection<OrderSagaStatus> statuses,
+                              @Param("before") LocalDateTime before);
+}
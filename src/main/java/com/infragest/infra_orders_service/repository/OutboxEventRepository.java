@@ -0,0 +1,73 @@
+package com.infragest.infra_orders_service.repository;
+
+import com.infragest.infra_orders_service.entity.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repositorio Spring Data para la entidad {@link OutboxEvent}.
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, UUID> {
+
+    /**
+     * Obtiene y bloquea el siguiente lote de eventos pendientes (no apartados) cuyo reintento ya venció,
+     * en orden de creación.
+     *
+     * <p>Las filas bloqueadas por otra instancia se saltan ({@code SKIP LOCKED}), de modo que varias
+     * réplicas del servicio pueden publicar en paralelo sin duplicar lotes. Debe invocarse dentro
+     * de una transacción.</p>
+     *
+     * @param now      fecha y hora actual
+     * @param pageable tamaño del lote (siempre página 0)
+     * @return eventos pendientes bloqueados
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.publishedAt IS NULL AND e.parkedAt IS NULL AND e.nextAttemptAt <= :now " +
+            "ORDER BY e.createdAt, e.id")
+    List<OutboxEvent> findPendingForUpdate(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Cuenta los eventos aún no publicados ni apartados.
+     *
+     * @return número de eventos pendientes
+     */
+    long countByPublishedAtIsNullAndParkedAtIsNull();
+
+    /**
+     * Cuenta los eventos apartados tras agotar sus intentos.
+     *
+     * @return número de eventos apartados
+     */
+    long countByParkedAtIsNotNull();
+
+    /**
+     * Fecha de creación del evento pendiente más antiguo.
+     *
+     * @return fecha de creación, o {@code null} si no hay pendientes
+     */
+    @Query("SELECT MIN(e.createdAt) FROM OutboxEvent e WHERE e.publishedAt IS NULL AND e.parkedAt IS NULL")
+    LocalDateTime findOldestPendingCreatedAt();
+
+    /**
+     * Elimina los eventos publicados antes de la fecha indicada.
+     *
+     * @param before límite (exclusivo) de la fecha de publicación
+     * @return número de eventos eliminados
+     */
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.publishedAt < :before")
+    int deletePublishedBefore(@Param("before") LocalDateTime before);
+}
@@ -7,18 +7,20 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Collections;
+import java.util.List;
 
 /**
  * Filtro de seguridad que se ejecuta una vez por petición y que se encarga de:
  *
- * Esta implementación es deliberadamente sencilla: no carga detalles del usuario
- * desde DB ni asigna roles (usa {@link Collections#emptyList()} para los authorities).
+ * Esta implementación es deliberadamente sencilla: no carga detalles del usuario desde DB;
+ * los authorities son los roles del claim "roles" del token ({@code ROLE_<rol>}), usados por
+ * {@link SecurityConfig} para restringir las operaciones de administración.
  *
  * @author bunnystring
  * @since 2025-11-19
@@ -62,10 +64,13 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
             if (jwtUtil.validateToken(token)) {
                 String email = jwtUtil.getEmailFromToken(token);
+                List<SimpleGrantedAuthority> authorities = jwtUtil.getRolesFromToken(token).stream()
+                        .map(role -> new SimpleGrantedAuthority(role.startsWith("ROLE_") ? role : "ROLE_" + role))
+                        .toList();
                 Authentication authentication = new UsernamePasswordAuthenticationToken(
                         email,
                         token,
-                        Collections.emptyList()
+                        authorities
                 );
                 SecurityContextHolder.getContext().setAuthentication(authentication);
                 log.info("Usuario autenticado: {}", email);
@@ -8,13 +8,18 @@ import io.jsonwebtoken.Jwts;
 
 import javax.crypto.spec.SecretKeySpec;
 import java.security.Key;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
 
 /**
  * Utilidad para operaciones comunes con tokens JWT.
  *
  * Proporciona inicialización de la clave secreta a partir de una cadena Base64,
- * extracción del email (subject) desde el token y validación de la integridad y
+ * extracción del email (subject) y de los roles desde el token y validación de la integridad y
  * validez del JWT.
  *
  * @author bunnystring
@@ -23,6 +28,11 @@ import java.util.Base64;
 @Component
 public class JwtUtil {
 
+    /**
+     * Claim con los roles del usuario.
+     */
+    private static final String ROLES_CLAIM = "roles";
+
     /**
      * Clave del JWT codificada en Base64. Se inyecta desde la propiedad:
      * {@code spring.security.oauth2.resourceserver.jwt.secret}.
@@ -64,6 +74,29 @@ public class JwtUtil {
                 .getSubject();
     }
 
+    /**
+     * Extrae los roles de un token JWT válido (claim "roles", como lista o separados por comas).
+     *
+     * @param token JWT en formato compact
+     * @return roles del token, vacía si no tiene
+     * @throws JwtException si el token es inválido, está mal formado o la firma no coincide
+     */
+    public List<String> getRolesFromToken(String token) {
+        Object roles = Jwts.parser()
+                .setSigningKey(secretKey)
+                .parseClaimsJws(token)
+                .getBody()
+                .get(ROLES_CLAIM);
+
+        if (roles instanceof Collection<?> values) {
+            return values.stream().filter(Objects::nonNull).map(String::valueOf).map(String::trim).toList();
+        }
+        if (roles instanceof String value && !value.isBlank()) {
+            return Arrays.stream(value.split(",")).map(String::trim).filter(role -> !role.isEmpty()).toList();
+        }
+        return Collections.emptyList();
+    }
+
     /**
      * Valida la integridad y validez de un token JWT comprobando firma y estructura.
      *
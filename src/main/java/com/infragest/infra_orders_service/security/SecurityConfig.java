@@ -17,6 +17,11 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @Configuration
 public class SecurityConfig   {
 
+    /**
+     * Rol (claim "roles" del JWT) requerido para las rutas {@code /admin/**}.
+     */
+    public static final String ADMIN_ROLE = "ADMIN";
+
     /**
      * Filtro responsable de extraer y validar el JWT (Authorization: Bearer &lt;token&gt;)
      * y de poblar el SecurityContext con la {@code Authentication} correspondiente.
@@ -45,6 +50,7 @@ public class SecurityConfig   {
         http
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
+                        .requestMatchers("/admin/**").hasRole(ADMIN_ROLE)  // operaciones de administración
                         .anyRequest().authenticated()   // TODAS las rutas deben ir autenticadas por token
                 )
                 .sessionManagement(sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
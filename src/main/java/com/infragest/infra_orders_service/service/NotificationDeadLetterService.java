@@ -0,0 +1,48 @@
+package com.infragest.infra_orders_service.service;
+
+import com.infragest.infra_orders_service.model.ParkedNotificationRs;
+import org.springframework.amqp.core.Message;
+
+import java.util.List;
+
+/**
+ * Servicio para el manejo de confirmaciones de notificación que no se pudieron procesar:
+ * reintento diferido, aparcamiento (parking lot) y reproceso manual.
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+public interface NotificationDeadLetterService {
+
+    /**
+     * Reenvía el mensaje a la cola de reintentos o, si agotó los reintentos, lo aparca.
+     *
+     * @param message mensaje que falló
+     * @param cause   causa del fallo
+     */
+    void retryOrPark(Message message, Throwable cause);
+
+    /**
+     * Aparca el mensaje en el parking lot sin reintentarlo (por ejemplo, un mensaje ilegible).
+     *
+     * @param message mensaje a aparcar
+     * @param reason  motivo del aparcamiento
+     */
+    void park(Message message, String reason);
+
+    /**
+     * Consulta los primeros mensajes del parking lot sin retirarlos de la cola.
+     *
+     * @param limit máximo de mensajes a devolver
+     * @return mensajes aparcados, en orden de llegada
+     */
+    List<ParkedNotificationRs> inspectParked(int limit);
+
+    /**
+     * Devuelve a la cola principal hasta {@code limit} mensajes aparcados, con el contador de reintentos a cero.
+     *
+     * @param limit máximo de mensajes a reprocesar
+     * @return número de mensajes reenviados
+     */
+    int replayParked(int limit);
+}
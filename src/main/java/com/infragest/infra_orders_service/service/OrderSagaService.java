@@ -0,0 +1,72 @@
+package com.infragest.infra_orders_service.service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Servicio de sagas de órdenes: registra de forma duradera los pasos que reservan o restauran
+ * dispositivos en infra-devices-service y ejecuta en segundo plano, con reintentos, las
+ * restauraciones pendientes (finalización de órdenes y compensación de creaciones abortadas).
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+public interface OrderSagaService {
+
+    /**
+     * Inicia la saga de creación de una orden antes de reservar sus dispositivos (transacción propia).
+     * También cubre los dispositivos que se agregan a una orden existente: la reserva se compensa igual
+     * si sus items no llegan a persistirse.
+     *
+     * @param orderId        orden en creación (aún sin persistir) o a la que se agregan dispositivos
+     * @param originalStates estados originales verificados de los dispositivos a reservar
+     * @return ID de la saga
+     */
+    UUID startCreation(UUID orderId, Map<UUID, String> originalStates);
+
+    /**
+     * Inicia en una sola transacción las sagas de creación de varias órdenes.
+     *
+     * @param statesByOrder estados originales verificados de los dispositivos a reservar, por orden
+     * @return ID de la saga de cada orden
+     */
+    Map<UUID, UUID> startCreations(Map<UUID, Map<UUID, String>> statesByOrder);
+
+    /**
+     * Registra que la reserva de las sagas indicadas se confirmó (transacción propia): a partir de aquí,
+     * si la orden no llega a persistirse, la reserva se compensa.
+     *
+     * @param sagaIds IDs de las sagas
+     */
+    void markReserved(Collection<UUID> sagaIds);
+
+    /**
+     * Cierra con éxito las sagas indicadas. Debe invocarse en la transacción que persiste las órdenes.
+     *
+     * @param sagaIds IDs de las sagas
+     * @throws com.infragest.infra_orders_service.excepcion.OrderException (INTERNAL_SERVER) si alguna saga
+     *         ya no está en curso (el worker la recuperó por plazo vencido), para deshacer la transacción
+     */
+    void complete(Collection<UUID> sagaIds);
+
+    /**
+     * Aborta las sagas indicadas tras un fallo al persistir sus órdenes: las que reservaron dispositivos
+     * quedan pendientes de restauración y las demás se cierran sin nada que deshacer. Nunca lanza
+     * excepciones: si no se puede registrar, el worker recupera las sagas cuando vence su plazo.
+     *
+     * @param sagaIds         IDs de las sagas a abortar
+     * @param reservedSagaIds IDs (de entre las anteriores) cuya reserva se confirmó
+     * @param cause           causa del fallo
+     */
+    void compensate(Collection<UUID> sagaIds, Collection<UUID> reservedSagaIds, Exception cause);
+
+    /**
+     * Programa la restauración de los estados originales de los dispositivos de una orden finalizada.
+     * Debe invocarse en la transacción que cambia el estado de la orden.
+     *
+     * @param orderId        orden finalizada
+     * @param originalStates estados originales de sus dispositivos
+     */
+    void scheduleRestore(UUID orderId, Map<UUID, String> originalStates);
+}
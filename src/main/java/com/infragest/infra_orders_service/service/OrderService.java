@@ -2,9 +2,16 @@ package com.infragest.infra_orders_service.service;
 
 import com.infragest.infra_orders_service.enums.OrderState;
 import com.infragest.infra_orders_service.event.NotificationEvent;
+import com.infragest.infra_orders_service.model.BulkOrderRs;
+import com.infragest.infra_orders_service.model.CursorPageRs;
+import com.infragest.infra_orders_service.model.DeviceOrderRs;
+import com.infragest.infra_orders_service.model.OrderDevicesPatchRq;
 import com.infragest.infra_orders_service.model.OrderRq;
 import com.infragest.infra_orders_service.model.OrderRs;
 
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -26,11 +33,22 @@ public interface OrderService {
     OrderRs createOrder(OrderRq rq);
 
     /**
-     * Lista todas las órdenes.
+     * Crea varias órdenes en una sola operación, agrupando las llamadas a servicios externos.
      *
-     * @return lista de {@link OrderRs}
+     * @param requests peticiones de creación
+     * @return resultado de cada orden, incluyendo las rechazadas
      */
-    List<OrderRs> listOrders();
+    BulkOrderRs createOrders(List<OrderRq> requests);
+
+    /**
+     * Lista las órdenes paginadas por cursor (keyset sobre {@code createdAt}, {@code id}),
+     * de la más reciente a la más antigua.
+     *
+     * @param cursor cursor opaco devuelto por la página anterior ({@code null} para la primera página)
+     * @param size   tamaño de página solicitado; se limita a un máximo configurado
+     * @return página de {@link OrderRs} con el cursor de la siguiente página
+     */
+    CursorPageRs<OrderRs> listOrders(String cursor, int size);
 
     /**
      * Obtiene una orden por su identificador UUID.
@@ -55,20 +73,40 @@ public interface OrderService {
     void changeState(UUID orderId, OrderState newState);
 
     /**
-     * Obtiene las órdenes asociadas a un assignee (empleado o grupo).
+     * Obtiene las órdenes asociadas a un assignee (empleado o grupo), paginadas por cursor.
      *
      * @param assigneeId UUID del assignee
-     * @return lista de {@link OrderRs}
+     * @param state      estado por el que filtrar ({@code null} para todos)
+     * @param cursor     cursor opaco de la página anterior ({@code null} para la primera página)
+     * @param size       tamaño de página solicitado; se limita a un máximo configurado
+     * @return página de {@link OrderRs}
+     */
+    CursorPageRs<OrderRs> findByAssigneeId(UUID assigneeId, OrderState state, String cursor, int size);
+
+    /**
+     * Busca las órdenes con errores de integración que cumplen los filtros, paginadas por cursor.
+     *
+     * @param state    estado de la orden ({@code null} para todos)
+     * @param service  servicio de origen del error (devices | assignee), opcional
+     * @param type     tipo de error (por ejemplo SERVICE_UNAVAILABLE), opcional
+     * @param deviceId dispositivo afectado por el error, opcional
+     * @param from     fecha mínima del error, inclusiva (opcional)
+     * @param to       fecha máxima del error, exclusiva (opcional)
+     * @param cursor   cursor opaco de la página anterior ({@code null} para la primera página)
+     * @param size     tamaño de página solicitado; se limita a un máximo configurado
+     * @return página de {@link OrderRs} con sus errores de integración
      */
-    List<OrderRs> findByAssigneeId(UUID assigneeId);
+    CursorPageRs<OrderRs> findWithIntegrationErrors(OrderState state, String service, String type, UUID deviceId,
+                                                   Instant from, Instant to, String cursor, int size);
 
     /**
      * Obtiene las órdenes que incluyen un equipmentId dado.
      *
      * @param equipmentId UUID del equipo
-     * @return lista de {@link OrderRs}
+     * @param activeOnly  si es {@code true}, excluye las órdenes en estado FINISHED
+     * @return lista de {@link DeviceOrderRs}
      */
-    List<OrderRs> findByEquipmentId(UUID equipmentId);
+    List<DeviceOrderRs> findByEquipmentId(UUID equipmentId, boolean activeOnly);
 
     /**
      * Actualiza el estado de la notificación en las órdenes.
@@ -77,6 +115,15 @@ public interface OrderService {
      */
     void updateOrderNotificationStatus(NotificationEvent notificationEvent);
 
+    /**
+     * Actualiza en bloque el estado de la notificación de varias órdenes.
+     * Si llegan varios eventos para la misma orden, prevalece el último.
+     *
+     * @param notificationEvents eventos de confirmación de notificación, en orden de llegada.
+     * @return número de órdenes actualizadas.
+     */
+    int updateOrderNotificationStatuses(List<NotificationEvent> notificationEvents);
+
     /**
      * Actualiza los datos de una orden existente.
      *
@@ -85,4 +132,24 @@ public interface OrderService {
      */
     void updateOrder(UUID orderId, OrderRq orderRq);
 
+    /**
+     * Agrega y retira dispositivos de una orden de forma incremental.
+     *
+     * Solo consulta, reserva, restaura y modifica los items de los dispositivos indicados,
+     * sin recorrer el resto de la orden.
+     */
+    void patchOrderDevices(UUID orderId, OrderDevicesPatchRq patchRq);
+
+    /**
+     * Exporta las órdenes con sus items como JSON delimitado por saltos de línea (NDJSON),
+     * escribiendo directamente en {@code out} desde un cursor de base de datos.
+     *
+     * @param state filtro opcional por estado
+     * @param from  fecha de creación mínima, inclusiva (opcional)
+     * @param to    fecha de creación máxima, exclusiva (opcional)
+     * @param out   destino de la exportación (no se cierra)
+     * @return número de órdenes exportadas
+     */
+    long exportOrders(OrderState state, LocalDateTime from, LocalDateTime to, OutputStream out);
+
 }
@@ -0,0 +1,191 @@
+package com.infragest.infra_orders_service.service.impl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infragest.infra_orders_service.entity.Order;
+import com.infragest.infra_orders_service.entity.OrderIntegrationError;
+import com.infragest.infra_orders_service.model.OrderIntegrationErrorDto;
+import com.infragest.infra_orders_service.repository.OrderIntegrationErrorRepository;
+import com.infragest.infra_orders_service.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Migración única de los errores de integración guardados en el snapshot JSON heredado de cada orden
+ * ({@code rental_order.snapshot}) a filas de {@link OrderIntegrationError}.
+ *
+ * <p>Sin esta migración, los errores de las órdenes anteriores no aparecerían en
+ * {@code OrderRs.integrationErrors} ni en la consulta de órdenes con errores. Cada lote se bloquea con
+ * {@code SKIP LOCKED} y, en la misma transacción, se insertan sus filas y se vacía el snapshot, por lo que
+ * varias instancias pueden ejecutarla a la vez sin duplicar errores y repetirla no tiene efecto.</p>
+ *
+ * <p>Un snapshot ilegible se conserva como un único error {@code LEGACY_SNAPSHOT} con el texto original,
+ * para no perderlo ni bloquear la migración. Cuando no quedan snapshots la tarea deja de consultar.</p>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+@Component
+@Slf4j
+public class IntegrationErrorSnapshotBackfill {
+
+    /**
+     * Longitud máxima del mensaje de un error ({@code order_integration_error.message}).
+     */
+    private static final int MAX_MESSAGE_LENGTH = 2000;
+
+    private static final TypeReference<List<OrderIntegrationErrorDto>> SNAPSHOT_TYPE = new TypeReference<>() {
+    };
+
+    private final OrderRepository orderRepository;
+
+    private final OrderIntegrationErrorRepository orderIntegrationErrorRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    private volatile boolean done;
+
+    /**
+     * Constructor con las dependencias y el tamaño de lote de la migración.
+     *
+     * @param orderRepository                 repositorio de órdenes
+     * @param orderIntegrationErrorRepository repositorio de errores de integración
+     * @param objectMapper                    mapper JSON del snapshot heredado
+     * @param transactionManager              gestor de transacciones
+     * @param batchSize                       órdenes migradas por transacción
+     */
+    public IntegrationErrorSnapshotBackfill(
+            OrderRepository orderRepository,
+            OrderIntegrationErrorRepository orderIntegrationErrorRepository,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${orders.integration-errors.backfill.batch-size:200}") int batchSize
+    ) {
+        this.orderRepository = orderRepository;
+        this.orderIntegrationErrorRepository = orderIntegrationErrorRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Migra por lotes los snapshots pendientes. Las órdenes bloqueadas por otras transacciones se migran
+     * en la siguiente ejecución.
+     */
+    @Scheduled(initialDelayString = "${orders.integration-errors.backfill.initial-delay-ms:30000}",
+            fixedDelayString = "${orders.integration-errors.backfill.interval-ms:60000}")
+    public void backfill() {
+        if (done) {
+            return;
+        }
+        try {
+            int migrated = 0;
+            int batch;
+            do {
+                batch = migrateBatch();
+                migrated += batch;
+            } while (batch == batchSize);
+
+            if (migrated > 0) {
+                log.info("Errores de integración: {} snapshots heredados migrados", migrated);
+            }
+            done = !orderRepository.existsByLegacySnapshotIsNotNull();
+            if (done) {
+                log.info("Errores de integración: migración de snapshots heredados completada");
+            }
+        } catch (Exception ex) {
+            log.error("Error migrando snapshots heredados de errores de integración: {}", ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Bloquea un lote de órdenes con snapshot, inserta sus errores como filas y vacía el snapshot.
+     *
+     * @return número de órdenes migradas
+     */
+    private int migrateBatch() {
+        Integer migrated = transactionTemplate.execute(status -> {
+            List<Order> orders = orderRepository.findWithLegacySnapshotForUpdate(PageRequest.of(0, batchSize));
+            List<OrderIntegrationError> rows = new ArrayList<>();
+            for (Order order : orders) {
+                rows.addAll(toRows(order));
+                order.setLegacySnapshot(null);
+            }
+            orderIntegrationErrorRepository.saveAll(rows);
+            orderRepository.saveAll(orders);
+            return orders.size();
+        });
+        return migrated != null ? migrated : 0;
+    }
+
+    /**
+     * Convierte el snapshot de una orden en filas de error.
+     *
+     * @param order orden con snapshot heredado
+     * @return errores a insertar (vacía si el snapshot no contenía errores)
+     */
+    private List<OrderIntegrationError> toRows(Order order) {
+        String snapshot = order.getLegacySnapshot();
+        if (snapshot.isBlank()) {
+            return List.of();
+        }
+
+        Instant fallbackTime = order.getCreatedAt() != null
+                ? order.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant()
+                : Instant.now();
+        List<OrderIntegrationErrorDto> errors;
+        try {
+            errors = objectMapper.readValue(snapshot, SNAPSHOT_TYPE);
+        } catch (IOException ex) {
+            log.warn("Snapshot ilegible de la orden {}, se conserva como texto: {}", order.getId(), ex.getMessage());
+            return List.of(OrderIntegrationError.builder()
+                    .order(order)
+                    .service("orders")
+                    .type("LEGACY_SNAPSHOT")
+                    .message(truncate(snapshot))
+                    .occurredAt(fallbackTime)
+                    .build());
+        }
+
+        List<OrderIntegrationError> rows = new ArrayList<>(errors.size());
+        for (OrderIntegrationErrorDto error : errors) {
+            if (error == null) {
+                continue;
+            }
+            rows.add(OrderIntegrationError.builder()
+                    .order(order)
+                    .service(error.getService() != null ? error.getService() : "unknown")
+                    .type(error.getType() != null ? error.getType() : "UNKNOWN")
+                    .message(error.getMessage() != null ? truncate(error.getMessage()) : null)
+                    .occurredAt(error.getTimestamp() != null ? error.getTimestamp() : fallbackTime)
+                    .deviceIds(error.getDeviceIds() != null
+                            ? error.getDeviceIds().stream().filter(Objects::nonNull).collect(Collectors.toList())
+                            : new ArrayList<>())
+                    .assignedTypeId(error.getAssignedTypeId())
+                    .assignedId(error.getAssignedId())
+                    .build());
+        }
+        return rows;
+    }
+
+    private static String truncate(String value) {
+        return value.length() > MAX_MESSAGE_LENGTH ? value.substring(0, MAX_MESSAGE_LENGTH) : value;
+    }
+}
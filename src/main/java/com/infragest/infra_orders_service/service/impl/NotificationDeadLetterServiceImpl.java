@@ -0,0 +1,285 @@
+package com.infragest.infra_orders_service.service.impl;
+
+import com.infragest.infra_orders_service.config.CborMessageConverter;
+import com.infragest.infra_orders_service.config.RabbitMQConfig;
+import com.infragest.infra_orders_service.model.ParkedNotificationRs;
+import com.infragest.infra_orders_service.service.NotificationDeadLetterService;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.GetResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Implementación de {@link NotificationDeadLetterService} sobre la topología de dead-letter de
+ * {@link RabbitMQConfig}: cola de reintentos con TTL y parking lot.
+ *
+ * <p>El número de reintentos se guarda en la cabecera {@value #RETRY_COUNT_HEADER}; también se tienen en
+ * cuenta los rechazos registrados por RabbitMQ en {@code x-death} (lotes que fallaron sin manejarse).</p>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+@Service
+@Slf4j
+public class NotificationDeadLetterServiceImpl implements NotificationDeadLetterService {
+
+    /**
+     * Cabecera con el número de reintentos realizados.
+     */
+    public static final String RETRY_COUNT_HEADER = "x-retry-count";
+
+    /**
+     * Cabecera con el motivo del aparcamiento.
+     */
+    public static final String PARKING_REASON_HEADER = "x-parking-reason";
+
+    /**
+     * Cabecera con el momento del aparcamiento (epoch millis).
+     */
+    public static final String PARKED_AT_HEADER = "x-parked-at";
+
+    /**
+     * Máximo de mensajes por consulta o reproceso del parking lot.
+     */
+    public static final int MAX_PARKED_BATCH = 500;
+
+    /**
+     * Cabeceras de control que no se conservan al reprocesar un mensaje aparcado.
+     */
+    private static final Set<String> CONTROL_HEADERS = Set.of(
+            RETRY_COUNT_HEADER, PARKING_REASON_HEADER, PARKED_AT_HEADER, "x-death",
+            "x-first-death-exchange", "x-first-death-queue", "x-first-death-reason");
+
+    /**
+     * Longitud máxima del motivo guardado en la cabecera.
+     */
+    private static final int MAX_REASON_LENGTH = 500;
+
+    private final RabbitTemplate rabbitTemplate;
+
+    private final int maxRetries;
+
+    private final Counter retried;
+
+    private final Counter parked;
+
+    private final Counter replayed;
+
+    /**
+     * Constructor con las dependencias y el máximo de reintentos.
+     *
+     * @param rabbitTemplate plantilla de RabbitMQ
+     * @param maxRetries     reintentos diferidos antes de aparcar un mensaje
+     * @param meterRegistry  registro de métricas
+     */
+    public NotificationDeadLetterServiceImpl(
+            RabbitTemplate rabbitTemplate,
+            @Value("${orders.notifications.retry.max-attempts:5}") int maxRetries,
+            MeterRegistry meterRegistry
+    ) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.maxRetries = maxRetries;
+        this.retried = Counter.builder("orders.notifications.retried")
+                .description("Confirmaciones de notificación enviadas a la cola de reintentos")
+                .register(meterRegistry);
+        this.parked = Counter.builder("orders.notifications.parked")
+                .description("Confirmaciones de notificación aparcadas en el parking lot")
+                .register(meterRegistry);
+        this.replayed = Counter.builder("orders.notifications.replayed")
+                .description("Confirmaciones de notificación reprocesadas desde el parking lot")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void retryOrPark(Message message, Throwable cause) {
+        int retries = retryCount(message.getMessageProperties());
+        if (retries >= maxRetries) {
+            park(message, String.format("Reintentos agotados (%d): %s", retries, cause.getMessage()));
+            return;
+        }
+
+        message.getMessageProperties().setHeader(RETRY_COUNT_HEADER, retries + 1);
+        rabbitTemplate.send(RabbitMQConfig.NOTIFICATIONS_DLX_NAME, RabbitMQConfig.NOTIFICATIONS_RETRY_ROUTING_KEY, message);
+        retried.increment();
+        log.warn("Confirmación de notificación {} enviada a reintento ({}/{}): {}",
+                message.getMessageProperties().getMessageId(), retries + 1, maxRetries, cause.getMessage());
+    }
+
+    @Override
+    public void park(Message message, String reason) {
+        String truncated = reason != null && reason.length() > MAX_REASON_LENGTH
+                ? reason.substring(0, MAX_REASON_LENGTH)
+                : reason;
+
+        MessageProperties properties = message.getMessageProperties();
+        properties.setHeader(PARKING_REASON_HEADER, truncated);
+        properties.setHeader(PARKED_AT_HEADER, System.currentTimeMillis());
+        rabbitTemplate.send(RabbitMQConfig.NOTIFICATIONS_DLX_NAME, RabbitMQConfig.NOTIFICATIONS_PARKING_LOT_ROUTING_KEY, message);
+        parked.increment();
+        log.error("Confirmación de notificación {} aparcada: {}", properties.getMessageId(), truncated);
+    }
+
+    /**
+     * Consulta los primeros mensajes del parking lot. Los mensajes se leen sin confirmar y se devuelven
+     * a la cola al terminar, por lo que permanecen aparcados y conservan su orden.
+     *
+     * @param limit máximo de mensajes a devolver (se limita a {@link #MAX_PARKED_BATCH})
+     * @return mensajes aparcados
+     */
+    @Override
+    public List<ParkedNotificationRs> inspectParked(int limit) {
+        int max = normalizeLimit(limit);
+        List<ParkedNotificationRs> result = rabbitTemplate.execute(channel -> {
+            List<ParkedNotificationRs> messages = new ArrayList<>();
+            long lastDeliveryTag = -1;
+            try {
+                while (messages.size() < max) {
+                    GetResponse response = channel.basicGet(RabbitMQConfig.NOTIFICATIONS_PARKING_LOT_QUEUE_NAME, false);
+                    if (response == null) {
+                        break;
+                    }
+                    lastDeliveryTag = response.getEnvelope().getDeliveryTag();
+                    messages.add(toParkedNotification(response));
+                }
+            } finally {
+                if (lastDeliveryTag >= 0) {
+                    channel.basicNack(lastDeliveryTag, true, true);
+                }
+            }
+            return messages;
+        });
+        return result != null ? result : List.of();
+    }
+
+    /**
+     * Reprocesa mensajes del parking lot: cada uno se publica de nuevo en la cola principal y solo
+     * después se confirma su retirada, de modo que un fallo a mitad no pierde mensajes.
+     *
+     * @param limit máximo de mensajes a reprocesar (se limita a {@link #MAX_PARKED_BATCH})
+     * @return número de mensajes reenviados
+     */
+    @Override
+    public int replayParked(int limit) {
+        int max = normalizeLimit(limit);
+        Integer count = rabbitTemplate.execute(channel -> {
+            int replayedCount = 0;
+            while (replayedCount < max) {
+                GetResponse response = channel.basicGet(RabbitMQConfig.NOTIFICATIONS_PARKING_LOT_QUEUE_NAME, false);
+                if (response == null) {
+                    break;
+                }
+                try {
+                    rabbitTemplate.send("", RabbitMQConfig.NOTIFICATIONS_QUEUE_NAME, toReplayMessage(response));
+                } catch (RuntimeException ex) {
+                    channel.basicNack(response.getEnvelope().getDeliveryTag(), false, true);
+                    throw ex;
+                }
+                channel.basicAck(response.getEnvelope().getDeliveryTag(), false);
+                replayedCount++;
+            }
+            return replayedCount;
+        });
+
+        int total = count != null ? count : 0;
+        replayed.increment(total);
+        log.info("Reprocesadas {} confirmaciones de notificación desde el parking lot", total);
+        return total;
+    }
+
+    /**
+     * Calcula los reintentos ya realizados: el mayor entre la cabecera propia y los rechazos
+     * de la cola principal registrados por RabbitMQ en {@code x-death}.
+     *
+     * @param properties propiedades del mensaje
+     * @return número de reintentos
+     */
+    private int retryCount(MessageProperties properties) {
+        Object header = properties.getHeaders() != null ? properties.getHeaders().get(RETRY_COUNT_HEADER) : null;
+        int retries = header instanceof Number number ? number.intValue() : 0;
+
+        List<Map<String, ?>> deaths = properties.getXDeathHeader();
+        if (deaths != null) {
+            long rejected = deaths.stream()
+                    .filter(death -> RabbitMQConfig.NOTIFICATIONS_QUEUE_NAME.equals(String.valueOf(death.get("queue"))))
+                    .map(death -> death.get("count"))
+                    .filter(Number.class::isInstance)
+                    .mapToLong(deathCount -> ((Number) deathCount).longValue())
+                    .sum();
+            retries = (int) Math.max(retries, rejected);
+        }
+        return retries;
+    }
+
+    /**
+     * Mapea un mensaje leído del parking lot a su DTO de consulta. Los cuerpos binarios (CBOR)
+     * se devuelven en Base64.
+     *
+     * @param response mensaje leído
+     * @return DTO del mensaje aparcado
+     */
+    private ParkedNotificationRs toParkedNotification(GetResponse response) {
+        AMQP.BasicProperties props = response.getProps();
+        Map<String, Object> headers = props.getHeaders() != null ? props.getHeaders() : Map.of();
+
+        Object retries = headers.get(RETRY_COUNT_HEADER);
+        Object reason = headers.get(PARKING_REASON_HEADER);
+        Object parkedAt = headers.get(PARKED_AT_HEADER);
+
+        return ParkedNotificationRs.builder()
+                .messageId(props.getMessageId())
+                .reason(reason != null ? reason.toString() : null)
+                .retries(retries instanceof Number number ? number.intValue() : 0)
+                .parkedAt(parkedAt instanceof Number number ? Instant.ofEpochMilli(number.longValue()) : null)
+                .body(CborMessageConverter.isCbor(props.getContentType())
+                        ? Base64.getEncoder().encodeToString(response.getBody())
+                        : new String(response.getBody(), StandardCharsets.UTF_8))
+                .build();
+    }
+
+    /**
+     * Reconstruye un mensaje aparcado para reenviarlo a la cola principal, sin las cabeceras de control
+     * (reintentos, motivo, {@code x-death}), de modo que vuelva a tener todos sus reintentos.
+     *
+     * @param response mensaje leído del parking lot
+     * @return mensaje listo para publicar
+     */
+    private Message toReplayMessage(GetResponse response) {
+        AMQP.BasicProperties props = response.getProps();
+        MessageProperties properties = new MessageProperties();
+        if (props.getHeaders() != null) {
+            props.getHeaders().forEach((name, value) -> {
+                if (!CONTROL_HEADERS.contains(name)) {
+                    properties.setHeader(name, value instanceof Number || value instanceof Boolean ? value : String.valueOf(value));
+                }
+            });
+        }
+        properties.setMessageId(props.getMessageId());
+        properties.setContentType(props.getContentType());
+        properties.setTimestamp(props.getTimestamp());
+        return new Message(response.getBody(), properties);
+    }
+
+    /**
+     * Limita el número de mensajes por operación.
+     *
+     * @param limit límite solicitado
+     * @return límite efectivo entre 1 y {@link #MAX_PARKED_BATCH}
+     */
+    private int normalizeLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PARKED_BATCH));
+    }
+}
@@ -0,0 +1,671 @@
+package com.infragest.infra_orders_service.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infragest.infra_orders_service.client.DevicesGateway;
+import com.infragest.infra_orders_service.entity.OrderIntegrationError;
+import com.infragest.infra_orders_service.entity.OrderSaga;
+import com.infragest.infra_orders_service.enums.OrderSagaStatus;
+import com.infragest.infra_orders_service.enums.OrderSagaStep;
+import com.infragest.infra_orders_service.enums.OrderSagaType;
+import com.infragest.infra_orders_service.excepcion.OrderException;
+import com.infragest.infra_orders_service.model.ApiResponseDto;
+import com.infragest.infra_orders_service.model.DeviceStatusEnum;
+import com.infragest.infra_orders_service.model.RestoreDevicesRq;
+import com.infragest.infra_orders_service.repository.OrderIntegrationErrorRepository;
+import com.infragest.infra_orders_service.repository.OrderRepository;
+import com.infragest.infra_orders_service.repository.OrderSagaRepository;
+import com.infragest.infra_orders_service.service.OrderSagaService;
+import com.infragest.infra_orders_service.util.MessageException;
+import feign.FeignException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Implementación de {@link OrderSagaService} sobre la tabla {@code order_saga} ({@link OrderSaga}).
+ *
+ * <p>Los pasos síncronos (inicio, reserva confirmada, cierre) se registran desde la petición; las
+ * restauraciones pendientes las ejecuta un pool acotado de workers, de modo que ningún hilo de petición
+ * espera a infra-devices-service para finalizar una orden o deshacer una reserva:</p>
+ * <ul>
+ *   <li>El dispatcher bloquea con {@code SKIP LOCKED} las sagas vencidas, las reserva durante
+ *       {@code orders.saga.lease} (si la instancia cae, otra las retoma al vencer) y las entrega al pool.
+ *       Solo reclama tantas como workers libres haya.</li>
+ *   <li>Una saga de creación que sigue en curso al vencer {@code orders.saga.running-timeout} (la
+ *       instancia cayó a mitad de la petición) se compensa si su reserva estaba confirmada; si la reserva
+ *       quedó sin confirmar su resultado es desconocido y se marca {@code FAILED} para revisión.</li>
+ *   <li>Los fallos se reintentan con backoff exponencial hasta {@code orders.saga.max-attempts}; los
+ *       rechazos 4xx no se reintentan.</li>
+ * </ul>
+ *
+ * <p>Cada saga guarda el usuario y el token de la petición que la inició, y sus restauraciones se ejecutan
+ * con ese mismo contexto de seguridad; las credenciales se borran al terminar la saga. Si el token ya no es
+ * válido cuando se ejecuta la restauración, infra-devices-service la rechaza (4xx) y la saga queda
+ * {@code FAILED} para revisión. La restauración es idempotente (fija estados), por lo que repetirla tras
+ * una caída no tiene efecto adicional.</p>
+ *
+ * <p>Métricas expuestas:</p>
+ * <ul>
+ *   <li>{@code orders.saga.pending}: sagas con restauración pendiente.</li>
+ *   <li>{@code orders.saga.in-flight}: restauraciones en ejecución en esta instancia.</li>
+ *   <li>{@code orders.saga.compensations}: creaciones abortadas cuya reserva se deshace.</li>
+ *   <li>{@code orders.saga.restored} / {@code orders.saga.restore.failures} / {@code orders.saga.failed}:
+ *       restauraciones completadas, intentos fallidos y sagas que requieren revisión.</li>
+ * </ul>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+@Service
+@Slf4j
+public class OrderSagaServiceImpl implements OrderSagaService, DisposableBean {
+
+    /**
+     * Longitud máxima del último error guardado en la saga.
+     */
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    /**
+     * Estados que procesa el dispatcher cuando vence su {@code nextAttemptAt}.
+     */
+    private static final List<OrderSagaStatus> DUE_STATUSES =
+            List.of(OrderSagaStatus.RUNNING, OrderSagaStatus.RESTORE_PENDING);
+
+    /**
+     * Estados terminales que se purgan al superar la retención ({@code FAILED} se conserva para revisión).
+     */
+    private static final List<OrderSagaStatus> PURGEABLE_STATUSES =
+            List.of(OrderSagaStatus.COMPLETED, OrderSagaStatus.COMPENSATED);
+
+    private static final TypeReference<LinkedHashMap<UUID, String>> STATES_TYPE = new TypeReference<>() {
+    };
+
+    private final OrderSagaRepository orderSagaRepository;
+
+    private final OrderRepository orderRepository;
+
+    private final OrderIntegrationErrorRepository orderIntegrationErrorRepository;
+
+    private final DevicesGateway devicesGateway;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ThreadPoolTaskExecutor pool;
+
+    private final int workers;
+
+    private final int batchSize;
+
+    private final int maxAttempts;
+
+    private final long maxBackoffMs;
+
+    private final Duration runningTimeout;
+
+    private final Duration lease;
+
+    private final Duration retention;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicLong pending = new AtomicLong();
+
+    private final Counter compensations;
+
+    private final Counter restored;
+
+    private final Counter restoreFailures;
+
+    private final Counter failed;
+
+    /**
+     * Constructor con las dependencias y la configuración de las sagas.
+     *
+     * @param orderSagaRepository             repositorio de sagas
+     * @param orderRepository                 repositorio de órdenes
+     * @param orderIntegrationErrorRepository repositorio de errores de integración
+     * @param devicesGateway                  acceso a infra-devices-service
+     * @param objectMapper                    mapper JSON de los estados originales
+     * @param transactionManager              gestor de transacciones
+     * @param meterRegistry                   registro de métricas
+     * @param workers                         restauraciones concurrentes por instancia
+     * @param batchSize                       sagas reclamadas como máximo por ejecución del dispatcher
+     * @param maxAttempts                     intentos de restauración antes de marcar la saga como fallida
+     * @param maxBackoffMs                    espera máxima entre reintentos
+     * @param runningTimeout                  plazo de una saga de creación en curso antes de recuperarla
+     * @param lease                           tiempo que una saga reclamada queda reservada para su worker
+     * @param retention                       tiempo que se conservan las sagas terminadas
+     */
+    public OrderSagaServiceImpl(
+            OrderSagaRepository orderSagaRepository,
+            OrderRepository orderRepository,
+            OrderIntegrationErrorRepository orderIntegrationErrorRepository,
+            DevicesGateway devicesGateway,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${orders.saga.workers:4}") int workers,
+            @Value("${orders.saga.batch-size:50}") int batchSize,
+            @Value("${orders.saga.max-attempts:10}") int maxAttempts,
+            @Value("${orders.saga.max-backoff-ms:300000}") long maxBackoffMs,
+            @Value("${orders.saga.running-timeout:PT5M}") Duration runningTimeout,
+            @Value("${orders.saga.lease:PT2M}") Duration lease,
+            @Value("${orders.saga.retention:P30D}") Duration retention
+    ) {
+        this.orderSagaRepository = orderSagaRepository;
+        this.orderRepository = orderRepository;
+        this.orderIntegrationErrorRepository = orderIntegrationErrorRepository;
+        this.devicesGateway = devicesGateway;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.workers = Math.max(1, workers);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.maxBackoffMs = maxBackoffMs;
+        this.runningTimeout = runningTimeout;
+        this.lease = lease;
+        this.retention = retention;
+
+        // Nunca hay más tareas que workers: el dispatcher solo reclama las que caben
+        this.pool = new ThreadPoolTaskExecutor();
+        this.pool.setCorePoolSize(this.workers);
+        this.pool.setMaxPoolSize(this.workers);
+        this.pool.setQueueCapacity(this.workers);
+        this.pool.setThreadNamePrefix("orders-saga-");
+        this.pool.setWaitForTasksToCompleteOnShutdown(true);
+        this.pool.initialize();
+
+        Gauge.builder("orders.saga.pending", pending, AtomicLong::get)
+                .description("Sagas de órdenes con restauración de dispositivos pendiente")
+                .register(meterRegistry);
+        Gauge.builder("orders.saga.in-flight", inFlight, AtomicInteger::get)
+                .description("Restauraciones de sagas en ejecución en esta instancia")
+                .register(meterRegistry);
+        this.compensations = Counter.builder("orders.saga.compensations")
+                .description("Creaciones de órdenes abortadas cuya reserva de dispositivos se deshace")
+                .register(meterRegistry);
+        this.restored = Counter.builder("orders.saga.restored")
+                .description("Restauraciones de dispositivos de sagas completadas")
+                .register(meterRegistry);
+        this.restoreFailures = Counter.builder("orders.saga.restore.failures")
+                .description("Intentos de restauración de dispositivos de sagas fallidos")
+                .register(meterRegistry);
+        this.failed = Counter.builder("orders.saga.failed")
+                .description("Sagas de órdenes que requieren revisión manual")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public UUID startCreation(UUID orderId, Map<UUID, String> originalStates) {
+        return startCreations(Map.of(orderId, originalStates)).get(orderId);
+    }
+
+    @Override
+    public Map<UUID, UUID> startCreations(Map<UUID, Map<UUID, String>> statesByOrder) {
+        if (statesByOrder.isEmpty()) {
+            return Map.of();
+        }
+
+        Authentication initiator = currentAuthentication();
+        LocalDateTime deadline = LocalDateTime.now().plus(runningTimeout);
+        List<OrderSaga> sagas = statesByOrder.entrySet().stream()
+                .map(entry -> OrderSaga.builder()
+                        .orderId(entry.getKey())
+                        .type(OrderSagaType.CREATE)
+                        .status(OrderSagaStatus.RUNNING)
+                        .step(OrderSagaStep.RESERVE)
+                        .originalStates(writeStates(restorableStates(entry.getKey(), entry.getValue())))
+                        .initiatedBy(initiator != null ? initiator.getName() : null)
+                        .credentials(credentialsOf(initiator))
+                        .nextAttemptAt(deadline)
+                        .build())
+                .toList();
+
+        List<OrderSaga> saved = transactionTemplate.execute(status -> orderSagaRepository.saveAll(sagas));
+        return saved.stream().collect(Collectors.toMap(OrderSaga::getOrderId, OrderSaga::getId));
+    }
+
+    @Override
+    public void markReserved(Collection<UUID> sagaIds) {
+        if (sagaIds.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    orderSagaRepository.advanceRunning(sagaIds, OrderSagaStep.PERSIST, LocalDateTime.now()));
+        } catch (Exception ex) {
+            // La petición sigue: si la orden se persiste la saga se cierra igualmente
+            log.error("No se pudo registrar la reserva de {} sagas: {}", sagaIds.size(), ex.getMessage());
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void complete(Collection<UUID> sagaIds) {
+        if (sagaIds.isEmpty()) {
+            return;
+        }
+        Set<UUID> ids = new HashSet<>(sagaIds);
+        int closed = orderSagaRepository.closeRunning(ids, OrderSagaStatus.COMPLETED, OrderSagaStep.NOTIFY, LocalDateTime.now());
+        if (closed != ids.size()) {
+            throw new OrderException(
+                    String.format(MessageException.ORDER_CREATE_FAILED, "the creation saga expired and is being compensated"),
+                    OrderException.Type.INTERNAL_SERVER
+            );
+        }
+    }
+
+    @Override
+    public void compensate(Collection<UUID> sagaIds, Collection<UUID> reservedSagaIds, Exception cause) {
+        if (sagaIds.isEmpty()) {
+            return;
+        }
+        Set<UUID> reserved = new HashSet<>(reservedSagaIds);
+        String error = truncate("Orden o items no persistidos: " + cause.getMessage());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                for (OrderSaga saga : orderSagaRepository.findAllById(new HashSet<>(sagaIds))) {
+                    if (saga.getStatus() != OrderSagaStatus.RUNNING) {
+                        continue;
+                    }
+                    saga.setLastError(error);
+                    if (reserved.contains(saga.getId())) {
+                        saga.setStatus(OrderSagaStatus.RESTORE_PENDING);
+                        saga.setStep(OrderSagaStep.PERSIST);
+                        saga.setNextAttemptAt(now);
+                        compensations.increment();
+                    } else {
+                        saga.setStatus(OrderSagaStatus.COMPENSATED);
+                        saga.setCompletedAt(now);
+                        saga.setCredentials(null);
+                    }
+                }
+            });
+            log.warn("Creación abortada: {} reservas pendientes de deshacer", reserved.size());
+        } catch (Exception ex) {
+            log.error("No se pudo registrar la compensación de {} sagas (se recuperarán al vencer su plazo): {}",
+                    sagaIds.size(), ex.getMessage());
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void scheduleRestore(UUID orderId, Map<UUID, String> originalStates) {
+        Map<UUID, String> restorable = restorableStates(orderId, originalStates);
+        if (restorable.isEmpty()) {
+            log.warn("La orden {} no tiene dispositivos con estado original restaurable", orderId);
+            return;
+        }
+
+        Authentication initiator = currentAuthentication();
+        orderSagaRepository.save(OrderSaga.builder()
+                .orderId(orderId)
+                .type(OrderSagaType.FINISH)
+                .status(OrderSagaStatus.RESTORE_PENDING)
+                .step(OrderSagaStep.NOTIFY)
+                .originalStates(writeStates(restorable))
+                .initiatedBy(initiator != null ? initiator.getName() : null)
+                .credentials(credentialsOf(initiator))
+                .nextAttemptAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Reclama las sagas vencidas que caben en los workers libres y las entrega al pool.
+     */
+    @Scheduled(fixedDelayString = "${orders.saga.dispatch-interval-ms:1000}")
+    public void dispatch() {
+        try {
+            int capacity = workers - inFlight.get();
+            if (capacity <= 0) {
+                return;
+            }
+
+            claim(Math.min(batchSize, capacity)).forEach(this::submit);
+        } catch (Exception ex) {
+            log.error("Error en el dispatcher de sagas: {}", ex.getMessage(), ex);
+        } finally {
+            refreshPending();
+        }
+    }
+
+    /**
+     * Elimina periódicamente las sagas terminadas más antiguas que la retención configurada.
+     */
+    @Scheduled(cron = "${orders.saga.cleanup-cron:0 30 3 * * *}")
+    public void purgeCompleted() {
+        Integer deleted = transactionTemplate.execute(status ->
+                orderSagaRepository.deleteCompletedBefore(PURGEABLE_STATUSES, LocalDateTime.now().minus(retention)));
+        log.info("Sagas: {} sagas terminadas eliminadas", deleted);
+    }
+
+    /**
+     * Detiene el pool de workers al cerrar el contexto.
+     */
+    @Override
+    public void destroy() {
+        pool.shutdown();
+    }
+
+    /**
+     * Restauración reclamada por el dispatcher, con el usuario y el token de la petición que inició la saga.
+     */
+    private record RestoreTask(UUID sagaId, UUID orderId, OrderSagaType type, Map<UUID, String> originalStates,
+                               String initiatedBy, String credentials) {
+    }
+
+    /**
+     * Bloquea un lote de sagas vencidas y, en la misma transacción, recupera las creaciones cuyo plazo
+     * venció y reserva las restauraciones para esta instancia durante {@link #lease}.
+     *
+     * @param limit máximo de sagas a reclamar
+     * @return restauraciones a ejecutar
+     */
+    private List<RestoreTask> claim(int limit) {
+        List<RestoreTask> tasks = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<RestoreTask> claimed = new ArrayList<>();
+            for (OrderSaga saga : orderSagaRepository.findDueForUpdate(DUE_STATUSES, now, PageRequest.of(0, limit))) {
+                if (saga.getStatus() == OrderSagaStatus.RUNNING && !recoverExpired(saga, now)) {
+                    continue;
+                }
+                if (saga.getCredentials() == null) {
+                    fail(saga, "Sin credenciales del usuario que inició la saga: restaurar los dispositivos manualmente", now);
+                    continue;
+                }
+
+                Map<UUID, String> originalStates;
+                try {
+                    originalStates = objectMapper.readValue(saga.getOriginalStates(), STATES_TYPE);
+                } catch (JsonProcessingException ex) {
+                    fail(saga, "Estados originales ilegibles: " + ex.getOriginalMessage(), now);
+                    continue;
+                }
+
+                saga.setNextAttemptAt(now.plus(lease));
+                claimed.add(new RestoreTask(saga.getId(), saga.getOrderId(), saga.getType(), originalStates,
+                        saga.getInitiatedBy(), saga.getCredentials()));
+            }
+            return claimed;
+        });
+        return tasks != null ? tasks : List.of();
+    }
+
+    /**
+     * Recupera una saga de creación que sigue en curso tras vencer su plazo (la orden no se persistió).
+     *
+     * @param saga saga bloqueada
+     * @param now  fecha y hora actual
+     * @return {@code true} si su reserva estaba confirmada y pasa a compensarse
+     */
+    private boolean recoverExpired(OrderSaga saga, LocalDateTime now) {
+        if (saga.getStep() == OrderSagaStep.PERSIST) {
+            saga.setStatus(OrderSagaStatus.RESTORE_PENDING);
+            saga.setLastError("Plazo vencido sin persistir la orden");
+            compensations.increment();
+            log.warn("Saga {} de la orden {} vencida sin persistir la orden: se deshace la reserva", saga.getId(), saga.getOrderId());
+            return true;
+        }
+        fail(saga, "Plazo vencido con la reserva sin confirmar: revisar el estado de los dispositivos", now);
+        return false;
+    }
+
+    /**
+     * Entrega una restauración al pool. Si el pool la rechaza, la saga se retoma al vencer su reserva.
+     *
+     * @param task restauración
+     */
+    private void submit(RestoreTask task) {
+        inFlight.incrementAndGet();
+        try {
+            pool.execute(() -> {
+                try {
+                    restore(task);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        } catch (TaskRejectedException ex) {
+            inFlight.decrementAndGet();
+            log.warn("Restauración de la saga {} rechazada por el pool: {}", task.sagaId(), ex.getMessage());
+        }
+    }
+
+    /**
+     * Ejecuta una restauración con el contexto de seguridad del usuario que inició la saga y registra
+     * su resultado.
+     *
+     * @param task restauración
+     */
+    private void restore(RestoreTask task) {
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new UsernamePasswordAuthenticationToken(task.initiatedBy(), task.credentials(),
+                Collections.emptyList()));
+        SecurityContextHolder.setContext(context);
+        try {
+            ApiResponseDto<Void> response = devicesGateway.restoreDeviceStates(buildRestoreRequest(task.originalStates()));
+            if (response != null && response.isSuccess()) {
+                recordOutcome(task, null, false);
+            } else {
+                recordOutcome(task, "Restauración rechazada: " + (response != null ? response.getMessage() : null), true);
+            }
+        } catch (FeignException fe) {
+            // 4xx (salvo timeout y rate limit) no cambia al reintentar
+            int httpStatus = fe.status();
+            boolean retryable = httpStatus < 400 || httpStatus >= 500 || httpStatus == 408 || httpStatus == 429;
+            recordOutcome(task, fe.getMessage(), retryable);
+        } catch (Exception ex) {
+            recordOutcome(task, ex.getMessage(), true);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    /**
+     * Registra el resultado de una restauración: cierra la saga, programa su reintento con backoff
+     * exponencial (acotado) o la marca como fallida.
+     *
+     * @param task      restauración ejecutada
+     * @param error     error producido ({@code null} si se restauró)
+     * @param retryable si el error puede resolverse reintentando
+     */
+    private void recordOutcome(RestoreTask task, String error, boolean retryable) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                OrderSaga saga = orderSagaRepository.findById(task.sagaId()).orElse(null);
+                if (saga == null || saga.getStatus() != OrderSagaStatus.RESTORE_PENDING) {
+                    return;
+                }
+
+                LocalDateTime now = LocalDateTime.now();
+                if (error == null) {
+                    saga.setStatus(task.type() == OrderSagaType.FINISH ? OrderSagaStatus.COMPLETED : OrderSagaStatus.COMPENSATED);
+                    saga.setStep(OrderSagaStep.RESTORE);
+                    saga.setCompletedAt(now);
+                    saga.setCredentials(null);
+                    restored.increment();
+                    log.info("Dispositivos de la orden {} restaurados (saga {})", task.orderId(), task.type());
+                    return;
+                }
+
+                int attempts = saga.getAttempts() + 1;
+                saga.setAttempts(attempts);
+                restoreFailures.increment();
+                if (!retryable || attempts >= maxAttempts) {
+                    fail(saga, String.format("Restauración fallida tras %d intentos: %s", attempts, error), now);
+                    if (task.type() == OrderSagaType.FINISH) {
+                        recordRestoreError(task, error);
+                    }
+                    return;
+                }
+
+                long backoffMs = Math.min(maxBackoffMs, 1000L << Math.min(attempts, 20));
+                saga.setNextAttemptAt(now.plus(Duration.ofMillis(backoffMs)));
+                saga.setLastError(truncate(error));
+                log.warn("Restauración de la orden {} fallida (intento {}/{}): {}", task.orderId(), attempts, maxAttempts, error);
+            });
+        } catch (Exception ex) {
+            log.error("No se pudo registrar el resultado de la saga {} (se retomará al vencer su reserva): {}",
+                    task.sagaId(), ex.getMessage());
+        }
+    }
+
+    /**
+     * Marca una saga como fallida, pendiente de revisión manual.
+     *
+     * @param saga  saga bloqueada o cargada en la transacción actual
+     * @param error motivo
+     * @param now   fecha y hora actual
+     */
+    private void fail(OrderSaga saga, String error, LocalDateTime now) {
+        saga.setStatus(OrderSagaStatus.FAILED);
+        saga.setCompletedAt(now);
+        saga.setLastError(truncate(error));
+        saga.setCredentials(null);
+        failed.increment();
+        log.error("Saga {} de la orden {} fallida: {}", saga.getType(), saga.getOrderId(), error);
+    }
+
+    /**
+     * Registra en la orden finalizada el error de restauración definitivo, sin cambiar su estado,
+     * para que aparezca en la consulta de órdenes con errores de integración.
+     *
+     * @param task  restauración fallida
+     * @param error último error
+     */
+    private void recordRestoreError(RestoreTask task, String error) {
+        orderIntegrationErrorRepository.save(OrderIntegrationError.builder()
+                .order(orderRepository.getReferenceById(task.orderId()))
+                .service("devices")
+                .type("RESTORE_FAILED")
+                .message(truncate("Error al restaurar dispositivos: " + error))
+                .occurredAt(Instant.now())
+                .deviceIds(new ArrayList<>(task.originalStates().keySet()))
+                .build());
+    }
+
+    /**
+     * Construye la solicitud de restauración de los estados originales.
+     *
+     * @param originalStates estados originales por dispositivo
+     * @return solicitud de restauración
+     */
+    private RestoreDevicesRq buildRestoreRequest(Map<UUID, String> originalStates) {
+        return RestoreDevicesRq.builder()
+                .items(originalStates.entrySet().stream()
+                        .map(entry -> RestoreDevicesRq.RestoreItem.builder()
+                                .deviceId(entry.getKey())
+                                .state(DeviceStatusEnum.valueOf(entry.getValue()))
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    /**
+     * Filtra los dispositivos cuyo estado original se puede restaurar (los no verificados, p. ej.
+     * {@code UNKNOWN}, se omiten).
+     *
+     * @param orderId        orden, para el log
+     * @param originalStates estados originales por dispositivo
+     * @return estados restaurables, en el mismo orden
+     */
+    private Map<UUID, String> restorableStates(UUID orderId, Map<UUID, String> originalStates) {
+        Map<UUID, String> restorable = new LinkedHashMap<>();
+        originalStates.forEach((deviceId, state) -> {
+            try {
+                restorable.put(deviceId, DeviceStatusEnum.valueOf(state).name());
+            } catch (IllegalArgumentException | NullPointerException ex) {
+                log.warn("Estado original '{}' del dispositivo {} de la orden {} no restaurable", state, deviceId, orderId);
+            }
+        });
+        return restorable;
+    }
+
+    /**
+     * Serializa los estados originales a JSON.
+     *
+     * @param originalStates estados originales por dispositivo
+     * @return JSON de los estados
+     * @throws OrderException (INTERNAL_SERVER) si no se pueden serializar
+     */
+    private String writeStates(Map<UUID, String> originalStates) {
+        try {
+            return objectMapper.writeValueAsString(originalStates);
+        } catch (JsonProcessingException ex) {
+            throw new OrderException(MessageException.INTERNAL_ERROR, OrderException.Type.INTERNAL_SERVER);
+        }
+    }
+
+    /**
+     * Autenticación de la petición en curso, que se guarda con la saga para ejecutar sus restauraciones.
+     *
+     * @return autenticación del contexto de seguridad, o null si no hay
+     */
+    private Authentication currentAuthentication() {
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    /**
+     * Token con el que {@code FeignClientConfig} firma las llamadas de una autenticación.
+     *
+     * @param authentication autenticación, puede ser null
+     * @return token, o null si no hay
+     */
+    private String credentialsOf(Authentication authentication) {
+        if (authentication == null || authentication.getCredentials() == null) {
+            return null;
+        }
+        return authentication.getCredentials().toString();
+    }
+
+    /**
+     * Actualiza la métrica de sagas con restauración pendiente.
+     */
+    private void refreshPending() {
+        try {
+            pending.set(orderSagaRepository.countByStatus(OrderSagaStatus.RESTORE_PENDING));
+        } catch (Exception ex) {
+            log.warn("No se pudo actualizar la métrica de sagas pendientes: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Recorta un mensaje de error a la longitud de la columna.
+     *
+     * @param error mensaje
+     * @return mensaje recortado
+     */
+    private String truncate(String error) {
+        String value = String.valueOf(error);
+        return value.length() > MAX_ERROR_LENGTH ? value.substring(0, MAX_ERROR_LENGTH) : value;
+    }
+}
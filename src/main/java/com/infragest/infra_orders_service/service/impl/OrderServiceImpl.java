@@ -1,35 +1,56 @@
 package com.infragest.infra_orders_service.service.impl;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.infragest.infra_orders_service.client.DevicesClient;
-import com.infragest.infra_orders_service.client.EmployeeClient;
-import com.infragest.infra_orders_service.client.GroupClient;
+import com.infragest.infra_orders_service.client.AssigneeDirectory;
+import com.infragest.infra_orders_service.client.DevicesGateway;
+import com.infragest.infra_orders_service.client.RemoteCallExecutor;
 import com.infragest.infra_orders_service.config.RabbitMQConfig;
 import com.infragest.infra_orders_service.entity.Order;
+import com.infragest.infra_orders_service.entity.OrderIntegrationError;
 import com.infragest.infra_orders_service.entity.OrderItem;
+import com.infragest.infra_orders_service.entity.OutboxEvent;
 import com.infragest.infra_orders_service.enums.AssigneeType;
 import com.infragest.infra_orders_service.enums.NotificationStatus;
 import com.infragest.infra_orders_service.enums.OrderState;
 import com.infragest.infra_orders_service.event.NotificationEvent;
 import com.infragest.infra_orders_service.event.OrderEvent;
+import com.infragest.infra_orders_service.event.OrderEventOutboxRelay;
+import com.infragest.infra_orders_service.event.RecipientsRef;
 import com.infragest.infra_orders_service.excepcion.DeviceUnavailableException;
 import com.infragest.infra_orders_service.excepcion.GroupUnavailableExcepction;
 import com.infragest.infra_orders_service.excepcion.OrderException;
 import com.infragest.infra_orders_service.model.*;
+import com.infragest.infra_orders_service.repository.OrderIntegrationErrorRepository;
 import com.infragest.infra_orders_service.repository.OrderItemRepository;
 import com.infragest.infra_orders_service.repository.OrderRepository;
+import com.infragest.infra_orders_service.repository.OutboxEventRepository;
+import com.infragest.infra_orders_service.service.OrderSagaService;
 import com.infragest.infra_orders_service.service.OrderService;
+import com.infragest.infra_orders_service.util.DeviceSetDiff;
 import com.infragest.infra_orders_service.util.MessageException;
+import com.infragest.infra_orders_service.util.OrderCursor;
+import com.infragest.infra_orders_service.util.UuidSet;
 import feign.FeignException;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implementación del servicio de órdenes.
@@ -43,6 +64,21 @@ import java.util.stream.Collectors;
 @Slf4j
 public class OrderServiceImpl implements OrderService {
 
+    /**
+     * Tamaño de página por defecto para listados paginados por cursor.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    /**
+     * Tamaño máximo de página permitido para listados paginados por cursor.
+     */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Cada cuántas órdenes exportadas se vacía el buffer de salida hacia el cliente.
+     */
+    private static final int EXPORT_FLUSH_EVERY = 500;
+
     /**
      * Inyección de dependencia: OrderRepository
      */
@@ -54,57 +90,114 @@ public class OrderServiceImpl implements OrderService {
     private final OrderItemRepository orderItemRepository;
 
     /**
-     * Inyección de dependencia: DevicesClient
+     * Inyección de dependencia: OrderIntegrationErrorRepository
      */
-    private final DevicesClient devicesClient;
+    private final OrderIntegrationErrorRepository orderIntegrationErrorRepository;
 
     /**
-     * Inyección de dependencia: GroupClient
+     * Inyección de dependencia: DevicesGateway (DevicesClient con coalescencia, circuit breaker y bulkhead)
      */
-    private final GroupClient groupClient;
+    private final DevicesGateway devicesGateway;
 
     /**
-     * Inyección de dependencia: EmployeeClient
+     * Inyección de dependencia: AssigneeDirectory (GroupClient y EmployeeClient con caché)
      */
-    private final EmployeeClient employeeClient;
+    private final AssigneeDirectory assigneeDirectory;
 
     /**
-     * Inyección de dependencia: RabbitTemplate
+     * Inyección de dependencia: OutboxEventRepository (eventos pendientes de publicar)
      */
-    private final RabbitTemplate rabbitTemplate;
+    private final OutboxEventRepository outboxEventRepository;
 
     private final ObjectMapper objectMapper;
 
+    /**
+     * Transacciones programáticas: agrupan la persistencia de la orden y su evento tras las llamadas remotas.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Inyección de dependencia: RemoteCallExecutor (llamadas remotas en paralelo)
+     */
+    private final RemoteCallExecutor remoteCallExecutor;
+
+    /**
+     * Inyección de dependencia: OrderSagaService (registro de reservas/restauraciones y su compensación)
+     */
+    private final OrderSagaService orderSagaService;
+
+    /**
+     * Máximo de miembros de un grupo cuyos correos se incluyen en el evento; por encima se publica una referencia.
+     */
+    private final int recipientsInlineThreshold;
+
+    /**
+     * Máximo de dispositivos por llamada de verificación; las órdenes más grandes se verifican por bloques en paralelo.
+     */
+    private final int deviceVerificationChunkSize;
+
+    /**
+     * Máximo de dispositivos por llamada de restauración al retirarlos de una orden.
+     */
+    private final int deviceRestoreChunkSize;
+
     /**
      * Constructor con los parametros iniciales.
      * @param orderRepository
      * @param orderItemRepository
-     * @param devicesClient
-     * @param groupClient
-     * @param employeeClient
-     * @param rabbitTemplate
+     * @param orderIntegrationErrorRepository
+     * @param devicesGateway
+     * @param assigneeDirectory
+     * @param outboxEventRepository
+     * @param objectMapper
+     * @param transactionManager
+     * @param remoteCallExecutor
+     * @param orderSagaService
+     * @param recipientsInlineThreshold
+     * @param deviceVerificationChunkSize
+     * @param deviceRestoreChunkSize
      */
     public OrderServiceImpl(
             OrderRepository orderRepository,
             OrderItemRepository orderItemRepository,
-            DevicesClient devicesClient,
-            GroupClient groupClient,
-            EmployeeClient employeeClient,
-            RabbitTemplate rabbitTemplate, ObjectMapper objectMapper
+            OrderIntegrationErrorRepository orderIntegrationErrorRepository,
+            DevicesGateway devicesGateway,
+            AssigneeDirectory assigneeDirectory,
+            OutboxEventRepository outboxEventRepository,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            RemoteCallExecutor remoteCallExecutor,
+            OrderSagaService orderSagaService,
+            @Value("${orders.events.recipients.inline-threshold:0}") int recipientsInlineThreshold,
+            @Value("${orders.devices.verification.chunk-size:200}") int deviceVerificationChunkSize,
+            @Value("${orders.devices.restore.chunk-size:500}") int deviceRestoreChunkSize
     )
     {
         this.orderRepository = orderRepository;
         this.orderItemRepository = orderItemRepository;
-        this.devicesClient = devicesClient;
-        this.groupClient = groupClient;
-        this.employeeClient = employeeClient;
-        this.rabbitTemplate = rabbitTemplate;
+        this.orderIntegrationErrorRepository = orderIntegrationErrorRepository;
+        this.devicesGateway = devicesGateway;
+        this.assigneeDirectory = assigneeDirectory;
+        this.outboxEventRepository = outboxEventRepository;
         this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.remoteCallExecutor = remoteCallExecutor;
+        this.orderSagaService = orderSagaService;
+        this.recipientsInlineThreshold = recipientsInlineThreshold;
+        this.deviceVerificationChunkSize = Math.max(1, deviceVerificationChunkSize);
+        this.deviceRestoreChunkSize = Math.max(1, deviceRestoreChunkSize);
     }
 
     /**
      * Crea una nueva orden a partir de la solicitud proporcionada.
      *
+     * <p>Las llamadas remotas se hacen sin transacción abierta; la orden, sus items, los errores
+     * de integración acumulados y el evento de la outbox se persisten al final en una sola transacción.</p>
+     *
+     * <p>Los dispositivos solo se reservan si todos se verificaron: una orden sin items no debe retenerlos.
+     * La reserva se registra en una saga ({@link OrderSagaService}); si la orden no llega a persistirse,
+     * la reserva se deshace en segundo plano.</p>
+     *
      * @param rq Objeto de solicitud que contiene la información necesaria para crear la orden.
      *           Incluye dispositivos, tipos de asignación (`assigneeType`), e identificadores de asignación (`assigneeId`).
      * @return DTO que representa la orden creada.
@@ -115,49 +208,333 @@ public class OrderServiceImpl implements OrderService {
     @Override
     public OrderRs createOrder(OrderRq rq) {
 
-        // Crear la base de la orden
+        // Crear la base de la orden en memoria (con su UUID); no se persiste hasta el final
         Order order = createOrderBase(rq);
 
+        // Errores de integración acumulados durante las llamadas remotas
+        List<OrderIntegrationErrorDto> errors = new ArrayList<>();
+
+        // Obtener los correos asociados a la asignación en paralelo: no depende de los dispositivos.
+        // Sus errores se acumulan aparte y se añaden después de los de dispositivos.
+        List<OrderIntegrationErrorDto> recipientErrors = new ArrayList<>();
+        CompletableFuture<List<String>> recipientsFuture = remoteCallExecutor.supplyAsync(
+                () -> resolveRecipients(rq.getAssigneeType(), rq.getAssigneeId(), recipientErrors));
+
         // Verificar dispositivos y obtener su estado original
-        Map<UUID, String> originalStates = verifyDevicesAndFetchState(rq.getDevicesIds(), order);
+        Map<UUID, String> originalStates = verifyDevicesAndFetchState(rq.getDevicesIds(), errors);
+
+        // Esperar los destinatarios antes de reservar: si el assignee es rechazado no se reserva nada
+        List<String> recipients = RemoteCallExecutor.await(recipientsFuture);
+
+        // Reservar dispositivos (solo si todos se verificaron), registrando la saga de creación
+        List<UUID> sagaIds = new ArrayList<>(1);
+        List<UUID> reservedSagaIds = new ArrayList<>(1);
+        if (errors.isEmpty()) {
+            UUID sagaId = orderSagaService.startCreation(order.getId(), originalStates);
+            sagaIds.add(sagaId);
+            if (reserveDevices(rq.getDevicesIds(), order.getId(), errors)) {
+                reservedSagaIds.add(sagaId);
+                orderSagaService.markReserved(reservedSagaIds);
+            }
+        }
+        errors.addAll(recipientErrors);
 
-        // Reservar dispositivos
-        reserveDevices(rq.getDevicesIds(), order.getId(), order);
+        // Persistir orden, items, errores, evento (outbox) y cierre de la saga en una única transacción
+        recordIntegrationErrors(order, errors);
+        Order orderToSave = order;
+        try {
+            order = transactionTemplate.execute(status -> {
+                Order saved = saveOrderAndItems(orderToSave, rq, originalStates, false);
+                if (shouldPublishEvent(saved, recipients)) {
+                    enqueueOrderEvent(saved, recipients);
+                }
+                orderSagaService.complete(sagaIds);
+                return saved;
+            });
+        } catch (RuntimeException ex) {
+            // La orden no existe: deshacer la reserva en segundo plano
+            orderSagaService.compensate(sagaIds, reservedSagaIds, ex);
+            throw ex;
+        }
 
-        // Crear la orden y guardar los datos
-        order = saveOrderAndItems(order, rq, originalStates, false);
+        // Mapear y devolver la orden como DTO
+        return toOrderRs(order);
+    }
+
+    /**
+     * Crea varias órdenes en una sola operación, agrupando las llamadas remotas.
+     *
+     * <p>Flujo:</p>
+     * <ul>
+     *   <li>Cada assignee distinto se resuelve una sola vez, en paralelo.</li>
+     *   <li>Todos los dispositivos (deduplicados) se verifican juntos, por bloques en paralelo si son muchos;
+     *       un bloque fallido solo afecta a las órdenes con dispositivos en él.</li>
+     *   <li>Un dispositivo pedido por varias órdenes del lote solo se asigna a la primera; cada orden solo
+     *       recibe items de los dispositivos verificados que se le asignaron.</li>
+     *   <li>Se reservan en paralelo solo los dispositivos de las órdenes sin errores
+     *       (el endpoint de reserva es por orden, ya que recibe el {@code orderId}); cada reserva se
+     *       registra en una saga que la deshace si el lote no llega a persistirse.</li>
+     *   <li>Todas las órdenes, items y eventos se insertan en una transacción con batching JDBC.</li>
+     * </ul>
+     *
+     * <p>Una orden cuyo assignee es rechazado (no existe, inactivo, sin correos) no se persiste y
+     * se informa como fallida; las demás se crean, con estado {@code CREATED_WITH_ERRORS} si
+     * tuvieron errores de integración.</p>
+     *
+     * @param requests solicitudes de creación
+     * @return resultado por orden, en el mismo orden de la solicitud
+     */
+    @Override
+    public BulkOrderRs createOrders(List<OrderRq> requests) {
+
+        int size = requests.size();
+        List<Order> orders = new ArrayList<>(size);
+        List<List<OrderIntegrationErrorDto>> errorsByOrder = new ArrayList<>(size);
+        for (OrderRq rq : requests) {
+            orders.add(createOrderBase(rq));
+            errorsByOrder.add(new ArrayList<>());
+        }
 
-        // Obtener los correos asociados a la asignación
-        List<String> recipients = resolveRecipientsAndValidate(rq.getAssigneeType(), rq.getAssigneeId(), order);
+        // Resolver cada assignee distinto una sola vez, en paralelo con la verificación de dispositivos
+        Map<AssigneeKey, CompletableFuture<RecipientResolution>> recipientsByAssignee = new HashMap<>();
+        for (OrderRq rq : requests) {
+            recipientsByAssignee.computeIfAbsent(
+                    new AssigneeKey(rq.getAssigneeType(), rq.getAssigneeId()),
+                    key -> remoteCallExecutor.supplyAsync(() -> resolveRecipientsSafely(key.type(), key.id())));
+        }
 
-        // Validación centralizada y de recipients
-        Optional<OrderRs> earlyReturn = shouldReturnEarly(order, recipients);
-        if (earlyReturn.isPresent()) {
-            return earlyReturn.get();
+        // Verificar todos los dispositivos del lote (por bloques en paralelo si son muchos)
+        Set<UUID> allDeviceIds = new LinkedHashSet<>();
+        requests.forEach(rq -> allDeviceIds.addAll(rq.getDevicesIds()));
+        List<OrderIntegrationErrorDto> batchErrors = new ArrayList<>();
+        DeviceLookup lookup = fetchDevices(new ArrayList<>(allDeviceIds), batchErrors);
+
+        // Validar los dispositivos de cada orden contra el resultado del lote
+        List<Map<UUID, String>> statesByOrder = new ArrayList<>(size);
+        Set<UUID> claimed = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+            statesByOrder.add(checkBulkOrderDevices(
+                    requests.get(i).getDevicesIds(), lookup, batchErrors, claimed, errorsByOrder.get(i)));
         }
 
-        // Publicar el evento
-        publishOrderEvent(order, recipients);
+        // Esperar destinatarios y registrar las sagas de creación de las órdenes válidas (una transacción)
+        List<RecipientResolution> resolutions = new ArrayList<>(size);
+        Map<UUID, Map<UUID, String>> statesToReserve = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            OrderRq rq = requests.get(i);
+            RecipientResolution resolution = RemoteCallExecutor.await(
+                    recipientsByAssignee.get(new AssigneeKey(rq.getAssigneeType(), rq.getAssigneeId())));
+            resolutions.add(resolution);
+
+            if (resolution.failure() == null && errorsByOrder.get(i).isEmpty()) {
+                statesToReserve.put(orders.get(i).getId(), statesByOrder.get(i));
+            }
+        }
+        Map<UUID, UUID> sagaIdsByOrder = orderSagaService.startCreations(statesToReserve);
+
+        // Reservar en paralelo los dispositivos de las órdenes válidas
+        List<CompletableFuture<List<OrderIntegrationErrorDto>>> reservations = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            UUID orderId = orders.get(i).getId();
+            if (statesToReserve.containsKey(orderId)) {
+                List<UUID> deviceIds = List.copyOf(statesToReserve.get(orderId).keySet());
+                reservations.add(remoteCallExecutor.supplyAsync(() -> {
+                    List<OrderIntegrationErrorDto> reserveErrors = new ArrayList<>();
+                    reserveDevices(deviceIds, orderId, reserveErrors);
+                    return reserveErrors;
+                }));
+            } else {
+                reservations.add(null);
+            }
+        }
 
-        // Mapear y devolver la orden como DTO
-        return toOrderRs(order);
+        // Preparar las órdenes a persistir (las rechazadas no se guardan)
+        List<Order> toPersist = new ArrayList<>();
+        List<UUID> reservedSagaIds = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (resolutions.get(i).failure() != null) {
+                continue;
+            }
+            List<OrderIntegrationErrorDto> errors = errorsByOrder.get(i);
+            if (reservations.get(i) != null) {
+                List<OrderIntegrationErrorDto> reserveErrors = RemoteCallExecutor.await(reservations.get(i));
+                if (reserveErrors.isEmpty()) {
+                    reservedSagaIds.add(sagaIdsByOrder.get(orders.get(i).getId()));
+                }
+                errors.addAll(reserveErrors);
+            }
+            errors.addAll(resolutions.get(i).errors());
+
+            // Items solo de los dispositivos verificados y asignados a esta orden: los no encontrados, no
+            // verificados o ya asignados a otra orden del lote quedan solo como errores de integración
+            Order order = orders.get(i);
+            recordIntegrationErrors(order, errors);
+            statesByOrder.get(i).forEach((deviceId, originalState) -> order.getItems().add(OrderItem.builder()
+                    .order(order)
+                    .deviceId(deviceId)
+                    .originalDeviceState(originalState)
+                    .build()));
+            toPersist.add(order);
+        }
+
+        orderSagaService.markReserved(reservedSagaIds);
+
+        // Insertar todas las órdenes, items, eventos (outbox) y cierres de saga en una sola transacción (batching JDBC)
+        Map<UUID, RecipientResolution> resolutionsByOrder = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            resolutionsByOrder.put(orders.get(i).getId(), resolutions.get(i));
+        }
+        Map<UUID, Order> persisted;
+        try {
+            persisted = transactionTemplate.execute(status -> {
+                List<Order> saved = orderRepository.saveAll(toPersist);
+                for (Order order : saved) {
+                    List<String> recipients = resolutionsByOrder.get(order.getId()).recipients();
+                    if (shouldPublishEvent(order, recipients)) {
+                        enqueueOrderEvent(order, recipients);
+                    }
+                }
+                orderSagaService.complete(sagaIdsByOrder.values());
+                return saved.stream().collect(Collectors.toMap(Order::getId, o -> o));
+            });
+        } catch (RuntimeException ex) {
+            // Ninguna orden del lote existe: deshacer sus reservas en segundo plano
+            orderSagaService.compensate(sagaIdsByOrder.values(), reservedSagaIds, ex);
+            throw ex;
+        }
+
+        // Construir el resultado por orden
+        List<BulkOrderResultRs> results = new ArrayList<>(size);
+        int created = 0;
+        int createdWithErrors = 0;
+        int failed = 0;
+        for (int i = 0; i < size; i++) {
+            RecipientResolution resolution = resolutions.get(i);
+            if (resolution.failure() != null) {
+                failed++;
+                results.add(BulkOrderResultRs.builder()
+                        .index(i)
+                        .error(resolution.failure().getMessage())
+                        .build());
+                continue;
+            }
+
+            Order order = persisted.get(orders.get(i).getId());
+            if (order.getState() == OrderState.CREATED_WITH_ERRORS) {
+                createdWithErrors++;
+            } else {
+                created++;
+            }
+            results.add(BulkOrderResultRs.builder()
+                    .index(i)
+                    .order(toOrderRs(order))
+                    .build());
+        }
+
+        log.info("Creación masiva finalizada: {} creadas, {} con errores, {} rechazadas", created, createdWithErrors, failed);
+
+        return BulkOrderRs.builder()
+                .created(created)
+                .createdWithErrors(createdWithErrors)
+                .failed(failed)
+                .results(results)
+                .build();
     }
 
     /**
-     * Lista todas las órdenes.
+     * Lista las órdenes paginadas por cursor (keyset sobre {@code createdAt}, {@code id}).
      *
-     * @return lista de {@link OrderRs}
+     * <p>Se ejecutan exactamente dos consultas por página: una para las órdenes (limitada a
+     * {@code size + 1} filas para detectar si hay página siguiente) y otra para los items de
+     * todas las órdenes de la página.</p>
+     *
+     * @param cursor cursor opaco de la página anterior ({@code null} para la primera página)
+     * @param size   tamaño de página solicitado (se limita a {@link #MAX_PAGE_SIZE})
+     * @return página de {@link OrderRs}
+     * @throws OrderException (BAD_REQUEST) si el cursor no es válido.
      */
     @Override
-    public List<OrderRs> listOrders() {
+    @Transactional(readOnly = true)
+    public CursorPageRs<OrderRs> listOrders(String cursor, int size) {
 
-        // Consultar todas las órdenes desde la base de datos
-        List<Order> orders = orderRepository.findAll();
+        int pageSize = normalizePageSize(size);
+        OrderCursor after = OrderCursor.decode(cursor);
 
-        // Mapear entidades Order a DTO OrderRs
-        return orders.stream()
-                .map(this::toOrderRs)
-                .collect(Collectors.toList());
+        // Se solicita un elemento extra para saber si existe una página siguiente
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<Order> orders = after == null
+                ? orderRepository.findFirstPage(limit)
+                : orderRepository.findPageAfter(after.createdAt(), after.id(), limit);
+
+        return toCursorPage(orders, pageSize);
+    }
+
+    /**
+     * Exporta las órdenes con sus items como NDJSON (una orden por línea).
+     *
+     * <p>Las filas se leen con un cursor forward-only y se agrupan por orden sobre la marcha,
+     * por lo que en memoria solo se mantiene la orden que se está escribiendo.</p>
+     *
+     * @param state filtro opcional por estado
+     * @param from  fecha de creación mínima, inclusiva (opcional)
+     * @param to    fecha de creación máxima, exclusiva (opcional)
+     * @param out   destino de la exportación (no se cierra)
+     * @return número de órdenes exportadas
+     * @throws UncheckedIOException si falla la escritura hacia el cliente.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportOrders(OrderState state, LocalDateTime from, LocalDateTime to, OutputStream out) {
+
+        long exported = 0;
+        OrderRs current = null;
+
+        try (Stream<OrderExportRow> rows = orderRepository.streamForExport(state, from, to)) {
+            Iterator<OrderExportRow> it = rows.iterator();
+            while (it.hasNext()) {
+                OrderExportRow row = it.next();
+
+                // Nueva orden: escribir la anterior y empezar a acumular la actual
+                if (current == null || !current.getId().equals(row.getOrderId())) {
+                    if (current != null) {
+                        writeNdjsonLine(current, out);
+                        if (++exported % EXPORT_FLUSH_EVERY == 0) {
+                            out.flush();
+                        }
+                    }
+                    current = OrderRs.builder()
+                            .id(row.getOrderId())
+                            .description(row.getDescription())
+                            .state(row.getState())
+                            .assigneeType(row.getAssigneeType())
+                            .assigneeId(row.getAssigneeId())
+                            .createdAt(row.getCreatedAt())
+                            .updatedAt(row.getUpdatedAt())
+                            .items(new ArrayList<>())
+                            .build();
+                }
+
+                if (row.getDeviceId() != null) {
+                    current.getItems().add(OrderItemDto.builder()
+                            .deviceId(row.getDeviceId())
+                            .originalDeviceState(row.getOriginalDeviceState())
+                            .build());
+                }
+            }
+
+            if (current != null) {
+                writeNdjsonLine(current, out);
+                exported++;
+            }
+            out.flush();
+        } catch (IOException ex) {
+            log.error("Error escribiendo la exportación de órdenes tras {} órdenes: {}", exported, ex.getMessage());
+            throw new UncheckedIOException(ex);
+        }
+
+        log.info("Exportación de órdenes finalizada: {} órdenes (state={}, from={}, to={})", exported, state, from, to);
+        return exported;
     }
 
     /**
@@ -180,7 +557,8 @@ public class OrderServiceImpl implements OrderService {
      * Cambia el estado de una orden y ejecuta las acciones asociadas al cambio.
      * <p>
      * Comportamiento esperado:
-     * - Si el nuevo estado es FINISHED, restaurar los estados originales de los equipos en infra-devices-service.
+     * - Si el nuevo estado es FINISHED, programar (saga) la restauración de los estados originales de los equipos
+     *   en infra-devices-service; se ejecuta en segundo plano, con reintentos.
      * - Publicar evento de cambio de estado en RabbitMQ.
      *
      * @param orderId  UUID de la orden
@@ -222,25 +600,113 @@ public class OrderServiceImpl implements OrderService {
     }
 
     /**
-     * Obtiene las órdenes asociadas a un assignee (empleado o grupo).
+     * Obtiene las órdenes asociadas a un assignee (empleado o grupo), paginadas por cursor.
+     *
+     * <p>Las consultas se resuelven sobre los índices compuestos ({@code assignee_id}, {@code created_at},
+     * {@code id}) sin estado y ({@code assignee_id}, {@code state}, {@code created_at}, {@code id}) con estado,
+     * que ya devuelven las filas en el orden del cursor: el coste depende solo del tamaño de la página y no
+     * del total de órdenes del assignee.</p>
      *
      * @param assigneeId UUID del assignee
-     * @return lista de {@link OrderRs}
+     * @param state      estado por el que filtrar ({@code null} para todos)
+     * @param cursor     cursor opaco de la página anterior ({@code null} para la primera página)
+     * @param size       tamaño de página solicitado (se limita a {@link #MAX_PAGE_SIZE})
+     * @return página de {@link OrderRs}
+     * @throws OrderException (BAD_REQUEST) si falta el assignee o el cursor no es válido.
      */
     @Override
-    public List<OrderRs> findByAssigneeId(UUID assigneeId) {
-        return List.of();
+    @Transactional(readOnly = true)
+    public CursorPageRs<OrderRs> findByAssigneeId(UUID assigneeId, OrderState state, String cursor, int size) {
+
+        if (assigneeId == null) {
+            throw new OrderException(
+                    String.format(MessageException.MISSING_PARAMETER, "assigneeId"),
+                    OrderException.Type.BAD_REQUEST
+            );
+        }
+
+        int pageSize = normalizePageSize(size);
+        OrderCursor after = OrderCursor.decode(cursor);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<Order> orders;
+        if (state == null) {
+            orders = after == null
+                    ? orderRepository.findFirstPageByAssignee(assigneeId, limit)
+                    : orderRepository.findPageByAssigneeAfter(assigneeId, after.createdAt(), after.id(), limit);
+        } else {
+            orders = after == null
+                    ? orderRepository.findFirstPageByAssigneeAndState(assigneeId, state, limit)
+                    : orderRepository.findPageByAssigneeAndStateAfter(assigneeId, state, after.createdAt(), after.id(), limit);
+        }
+
+        return toCursorPage(orders, pageSize);
+    }
+
+    /**
+     * Busca las órdenes con errores de integración que cumplen los filtros, paginadas por cursor.
+     *
+     * <p>La consulta se construye solo con los filtros informados y parte de las tablas indexadas de errores
+     * y dispositivos afectados ({@link com.infragest.infra_orders_service.repository.OrderErrorSearchRepository}),
+     * sin recorrer todas las órdenes ni cargar o parsear sus errores. Cada orden devuelta incluye todos
+     * sus errores de integración (no solo los que cumplen el filtro).</p>
+     *
+     * @param state    estado de la orden ({@code null} para todos)
+     * @param service  servicio de origen del error, opcional
+     * @param type     tipo de error, opcional
+     * @param deviceId dispositivo afectado por el error, opcional
+     * @param from     fecha mínima del error, inclusiva (opcional)
+     * @param to       fecha máxima del error, exclusiva (opcional)
+     * @param cursor   cursor opaco de la página anterior ({@code null} para la primera página)
+     * @param size     tamaño de página solicitado (se limita a {@link #MAX_PAGE_SIZE})
+     * @return página de {@link OrderRs}
+     * @throws OrderException (BAD_REQUEST) si la ventana de tiempo o el cursor no son válidos.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageRs<OrderRs> findWithIntegrationErrors(OrderState state, String service, String type, UUID deviceId,
+                                                          Instant from, Instant to, String cursor, int size) {
+
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new OrderException(
+                    String.format(MessageException.INVALID_TIME_WINDOW, from, to),
+                    OrderException.Type.BAD_REQUEST
+            );
+        }
+
+        int pageSize = normalizePageSize(size);
+        OrderCursor after = OrderCursor.decode(cursor);
+
+        List<Order> orders = orderRepository.findPageWithErrors(state, service, type, deviceId, from, to,
+                after, pageSize + 1);
+
+        return toCursorPage(orders, pageSize);
     }
 
     /**
      * Obtiene las órdenes que incluyen un equipmentId dado.
      *
+     * <p>La consulta parte de {@code rental_order_item} por el índice de {@code equipment_id}
+     * y devuelve proyecciones, sin cargar entidades {@link Order} ni sus items.</p>
+     *
      * @param equipmentId UUID del equipo
-     * @return lista de {@link OrderRs}
+     * @param activeOnly  si es {@code true}, excluye las órdenes en estado FINISHED
+     * @return lista de {@link DeviceOrderRs}
      */
     @Override
-    public List<OrderRs> findByEquipmentId(UUID equipmentId) {
-        return List.of();
+    @Transactional(readOnly = true)
+    public List<DeviceOrderRs> findByEquipmentId(UUID equipmentId, boolean activeOnly) {
+
+        if (equipmentId == null) {
+            throw new OrderException(
+                    String.format(MessageException.MISSING_PARAMETER, "equipmentId"),
+                    OrderException.Type.BAD_REQUEST
+            );
+        }
+
+        return activeOnly
+                ? orderItemRepository.findOrdersByDeviceIdExcludingState(equipmentId, OrderState.FINISHED)
+                : orderItemRepository.findOrdersByDeviceId(equipmentId);
     }
 
     /**
@@ -252,15 +718,33 @@ public class OrderServiceImpl implements OrderService {
      * @throws OrderException Si ocurren errores de validación, dependencias externas o de negocio.
      */
     private List<String> resolveRecipientsAndValidate(AssigneeType assigneeType, UUID assigneeId, Order order) {
+        List<OrderIntegrationErrorDto> errors = new ArrayList<>();
+        List<String> recipients = resolveRecipients(assigneeType, assigneeId, errors);
+        recordIntegrationErrors(order, errors);
+        return recipients;
+    }
+
+    /**
+     * Valida la existencia/estado del assignee y devuelve la lista de correos electrónicos,
+     * acumulando los errores de integración en {@code errors} en lugar de escribirlos en la orden.
+     * No accede a la orden, por lo que puede ejecutarse fuera del hilo de la petición.
+     *
+     * @param assigneeType tipo de assignee (`GROUP` o `EMPLOYEE`).
+     * @param assigneeId ID del assignee (UUID del grupo o empleado).
+     * @param errors lista donde se acumulan los errores de integración.
+     * @return Una lista de correos electrónicos asociados al asignado, o vacía si hubo errores.
+     * @throws OrderException Si ocurren errores de negocio (assignee inexistente, inactivo, sin correos).
+     */
+    private List<String> resolveRecipients(AssigneeType assigneeType, UUID assigneeId, List<OrderIntegrationErrorDto> errors) {
         // Validación inicial
         if (assigneeType == null || assigneeId == null) {
             OrderIntegrationErrorDto errorDto = OrderIntegrationErrorDto.builder()
                     .service("assignee")
                     .type("INVALID_REQUEST")
                     .message("assigneeType o assigneeId nulo")
-                    .timestamp(java.time.Instant.now())
+                    .timestamp(Instant.now())
                     .build();
-            addErrorToOrderSnapshot(order, errorDto);
+            errors.add(errorDto);
             return Collections.emptyList();
         }
 
@@ -278,11 +762,11 @@ public class OrderServiceImpl implements OrderService {
                         .service("assignee")
                         .type("ASSIGNEE_INVALID")
                         .message("Tipo de asignado inválido: " + assigneeType)
-                        .timestamp(java.time.Instant.now())
+                        .timestamp(Instant.now())
                         .assignedTypeId(assigneeType != null ? assigneeType.name() : null)
                         .assignedId(assigneeId.toString())
                         .build();
-                addErrorToOrderSnapshot(order, errorDto);
+                errors.add(errorDto);
                 return Collections.emptyList();
             }
 
@@ -292,11 +776,11 @@ public class OrderServiceImpl implements OrderService {
                         .service("assignee")
                         .type("NO_RECIPIENTS")
                         .message("No se encontraron destinatarios para " + assigneeType + ", id=" + assigneeId)
-                        .timestamp(java.time.Instant.now())
+                        .timestamp(Instant.now())
                         .assignedTypeId(assigneeType.name())
                         .assignedId(assigneeId.toString())
                         .build();
-                addErrorToOrderSnapshot(order, errorDto);
+                errors.add(errorDto);
                 return Collections.emptyList();
             }
 
@@ -307,11 +791,11 @@ public class OrderServiceImpl implements OrderService {
                     .service("assignee")
                     .type("SERVICE_UNAVAILABLE")
                     .message("No se pudo acceder a la dependencia (" + assigneeType + "): " + fe.getMessage())
-                    .timestamp(java.time.Instant.now())
+                    .timestamp(Instant.now())
                     .assignedTypeId(assigneeType.name())
                     .assignedId(assigneeId.toString())
                     .build();
-            addErrorToOrderSnapshot(order, errorDto);
+            errors.add(errorDto);
             return Collections.emptyList();
 
         } catch (FeignException fe) {
@@ -320,11 +804,11 @@ public class OrderServiceImpl implements OrderService {
                     .service("assignee")
                     .type("DEPENDENCY_ERROR")
                     .message("Fallo en integración para " + assigneeType + ": " + extractFeignErrorMessage(fe, MessageException.DEPENDENCY_ERROR))
-                    .timestamp(java.time.Instant.now())
+                    .timestamp(Instant.now())
                     .assignedTypeId(assigneeType.name())
                     .assignedId(assigneeId.toString())
                     .build();
-            addErrorToOrderSnapshot(order, errorDto);
+            errors.add(errorDto);
             return Collections.emptyList();
         }
     }
@@ -346,64 +830,83 @@ public class OrderServiceImpl implements OrderService {
             );
         }
 
-        Map<String, Object> group;
+        // Consultar en paralelo el grupo y los correos de sus miembros (llamadas independientes)
+        CompletableFuture<List<String>> emailsFuture = remoteCallExecutor.supplyAsync(
+                () -> assigneeDirectory.getGroupMembersEmails(groupId));
 
-        try {
+        // Validar la existencia del grupo
+        fetchGroup(groupId);
+
+        List<String> emails;
 
-            // Consultar la existencia del grupo a través del cliente Feign
-           group = groupClient.getGroup(groupId);
+        try {
+            // Obtener los correos de los miembros desde el servicio de grupos
+            emails = RemoteCallExecutor.await(emailsFuture);
 
         } catch (FeignException.ServiceUnavailable fe) {
-            log.error("Error comunicándose con el servicio de grupos: {}", fe.getMessage());
+            // Loguea el error de comunicación con el microservicio de grupos
+            log.error("Error comunicándose con el servicio de grupos al obtener miembros: {}", fe.getMessage());
+            // Lanza una excepción personalizada en caso de error
             throw new GroupUnavailableExcepction(
                     MessageException.SERVICE_UNAVAILABLE,
                     GroupUnavailableExcepction.Type.INTERNAL_SERVER
             );
         } catch (FeignException fe) {
-            log.error("Error inesperado comunicándose con el servicio de grupos: {}", fe.getMessage());
+            log.error("Inesperado error comunicándose con el servicio de grupos al obtener miembros {}: {}", groupId, fe.getMessage());
             throw new GroupUnavailableExcepction(
                     MessageException.DEPENDENCY_ERROR,
                     GroupUnavailableExcepction.Type.INTERNAL_SERVER
             );
         }
 
-        if (group == null || group.isEmpty()) {
+        if (emails == null || emails.isEmpty()) {
             throw new OrderException(
-                    String.format(MessageException.GROUP_NOT_FOUND, groupId),
-                    OrderException.Type.NOT_FOUND
+                    String.format(MessageException.GROUP_NO_MEMBERS, groupId),
+                    OrderException.Type.CONFLICT
             );
         }
 
-        List<String> emails;
+        return emails;
+    }
+
+    /**
+     * Consulta un grupo en infra-groups-service y valida que exista.
+     *
+     * @param groupId UUID del grupo.
+     * @return mapa con la información del grupo.
+     * @throws GroupUnavailableExcepction si el servicio de grupos no responde o falla.
+     * @throws OrderException Si el grupo no existe.
+     */
+    private Map<String, Object> fetchGroup(UUID groupId) {
+        Map<String, Object> group;
 
         try {
-            // Obtener los correos de los miembros desde el servicio de grupos
-            emails = groupClient.getGroupMembersEmails(groupId);
+
+            // Consultar la existencia del grupo (caché delante del cliente Feign)
+           group = assigneeDirectory.getGroup(groupId);
 
         } catch (FeignException.ServiceUnavailable fe) {
-            // Loguea el error de comunicación con el microservicio de grupos
-            log.error("Error comunicándose con el servicio de grupos al obtener miembros: {}", fe.getMessage());
-            // Lanza una excepción personalizada en caso de error
+            log.error("Error comunicándose con el servicio de grupos: {}", fe.getMessage());
             throw new GroupUnavailableExcepction(
                     MessageException.SERVICE_UNAVAILABLE,
                     GroupUnavailableExcepction.Type.INTERNAL_SERVER
             );
         } catch (FeignException fe) {
-            log.error("Inesperado error comunicándose con el servicio de grupos al obtener miembros {}: {}", groupId, fe.getMessage());
+            log.error("Error inesperado comunicándose con el servicio de grupos: {}", fe.getMessage());
             throw new GroupUnavailableExcepction(
                     MessageException.DEPENDENCY_ERROR,
                     GroupUnavailableExcepction.Type.INTERNAL_SERVER
             );
         }
 
-        if (emails == null || emails.isEmpty()) {
+        if (group == null || group.isEmpty()) {
             throw new OrderException(
-                    String.format(MessageException.GROUP_NO_MEMBERS, groupId),
-                    OrderException.Type.CONFLICT
+                    String.format(MessageException.GROUP_NOT_FOUND, groupId),
+                    OrderException.Type.NOT_FOUND
             );
         }
 
-        return emails;
+        return group;
     }
 
     /**
@@ -414,8 +917,8 @@ public class OrderServiceImpl implements OrderService {
      * @throws OrderException Si el empleado no existe o su estado no es válido.
      */
     private List<String> validateEmployeeAndEmail(UUID employeeId) {
-        // Consultar la existencia del empleado
-        Map<String, Object> employee = employeeClient.getEmployee(employeeId);
+        // Consultar la existencia del empleado (caché delante del cliente Feign)
+        Map<String, Object> employee = assigneeDirectory.getEmployee(employeeId);
         if (employee == null || employee.isEmpty()) {
             throw new OrderException(
                     String.format(MessageException.EMPLOYEE_NOT_FOUND, employeeId),
@@ -452,8 +955,20 @@ public class OrderServiceImpl implements OrderService {
      */
     private OrderRs toOrderRs(Order o) {
         if (o == null) return null;
+        return toOrderRs(o, o.getItems(), o.getIntegrationErrors());
+    }
 
-        List<OrderItemDto> items = o.getItems().stream()
+    /**
+     * Mapea la entidad {@link Order} a {@link OrderRs} usando los items y errores ya cargados,
+     * sin inicializar las colecciones LAZY {@code Order.items} y {@code Order.integrationErrors}.
+     *
+     * @param o                 entidad Order
+     * @param orderItems        items de la orden cargados previamente
+     * @param integrationErrors errores de integración de la orden cargados previamente
+     * @return DTO OrderRs
+     */
+    private OrderRs toOrderRs(Order o, List<OrderItem> orderItems, List<OrderIntegrationError> integrationErrors) {
+        List<OrderItemDto> items = orderItems.stream()
                 .map(it -> OrderItemDto.builder()
                         .deviceId(it.getDeviceId())
                         .originalDeviceState(it.getOriginalDeviceState())
@@ -469,9 +984,206 @@ public class OrderServiceImpl implements OrderService {
                 .createdAt(o.getCreatedAt())
                 .updatedAt(o.getUpdatedAt())
                 .items(items)
+                .integrationErrors(integrationErrors.stream().map(this::toIntegrationErrorDto).toList())
+                .build();
+    }
+
+    /**
+     * Construye una página por cursor a partir de las órdenes consultadas con un elemento extra.
+     * Los items y errores de todas las órdenes de la página se cargan en una consulta cada uno.
+     *
+     * @param orders   órdenes consultadas (hasta {@code pageSize + 1})
+     * @param pageSize tamaño de página efectivo
+     * @return página de {@link OrderRs} con el cursor siguiente si corresponde
+     */
+    private CursorPageRs<OrderRs> toCursorPage(List<Order> orders, int pageSize) {
+        boolean hasNext = orders.size() > pageSize;
+        List<Order> page = hasNext ? orders.subList(0, pageSize) : orders;
+
+        // Cargar los items de toda la página en una sola consulta (evita N+1)
+        Map<UUID, List<OrderItem>> itemsByOrder = page.isEmpty()
+                ? Collections.emptyMap()
+                : orderItemRepository.findByOrderIdIn(page.stream().map(Order::getId).toList()).stream()
+                        .collect(Collectors.groupingBy(item -> item.getOrder().getId()));
+
+        // Igual para los errores de integración
+        Map<UUID, List<OrderIntegrationError>> errorsByOrder = page.isEmpty()
+                ? Collections.emptyMap()
+                : orderIntegrationErrorRepository.findByOrderIdInOrderByOccurredAtAsc(page.stream().map(Order::getId).toList()).stream()
+                        .collect(Collectors.groupingBy(error -> error.getOrder().getId()));
+
+        List<OrderRs> content = page.stream()
+                .map(o -> toOrderRs(o,
+                        itemsByOrder.getOrDefault(o.getId(), Collections.emptyList()),
+                        errorsByOrder.getOrDefault(o.getId(), Collections.emptyList())))
+                .toList();
+
+        String nextCursor = null;
+        if (hasNext) {
+            Order last = page.get(page.size() - 1);
+            nextCursor = new OrderCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return CursorPageRs.<OrderRs>builder()
+                .items(content)
+                .nextCursor(nextCursor)
+                .size(pageSize)
+                .hasNext(hasNext)
                 .build();
     }
 
+    /**
+     * Escribe una orden como una línea JSON seguida de salto de línea.
+     *
+     * @param order DTO de la orden
+     * @param out   destino
+     * @throws IOException si falla la escritura
+     */
+    private void writeNdjsonLine(OrderRs order, OutputStream out) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(order));
+        out.write('\n');
+    }
+
+    /**
+     * Normaliza el tamaño de página solicitado al rango [1, {@link #MAX_PAGE_SIZE}].
+     *
+     * @param size tamaño solicitado por el cliente
+     * @return tamaño de página efectivo
+     */
+    private int normalizePageSize(int size) {
+        if (size < 1) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Clave de un assignee para resolver sus destinatarios una sola vez por lote.
+     */
+    private record AssigneeKey(AssigneeType type, UUID id) {
+    }
+
+    /**
+     * Resultado de resolver los destinatarios de un assignee: correos, errores de integración
+     * y, si fue rechazado por una regla de negocio, la excepción correspondiente.
+     */
+    private record RecipientResolution(List<String> recipients,
+                                       List<OrderIntegrationErrorDto> errors,
+                                       RuntimeException failure) {
+    }
+
+    /**
+     * Resultado de consultar un bloque de dispositivos: los encontrados o el error de la llamada.
+     */
+    private record DeviceChunkResult(List<DeviceRs> devices, OrderIntegrationErrorDto error) {
+    }
+
+    /**
+     * Dispositivos consultados en infra-devices-service: los encontrados por ID y los IDs de los
+     * bloques cuya consulta falló (ni encontrados ni descartados).
+     */
+    private record DeviceLookup(Map<UUID, DeviceRs> devicesById, Set<UUID> unverified) {
+    }
+
+    /**
+     * Resuelve los destinatarios de un assignee sin propagar excepciones de negocio,
+     * para que en un lote el rechazo de un assignee solo afecte a sus órdenes.
+     *
+     * @param assigneeType tipo de assignee
+     * @param assigneeId   UUID del assignee
+     * @return resultado de la resolución
+     */
+    private RecipientResolution resolveRecipientsSafely(AssigneeType assigneeType, UUID assigneeId) {
+        List<OrderIntegrationErrorDto> errors = new ArrayList<>();
+        try {
+            return new RecipientResolution(resolveRecipients(assigneeType, assigneeId, errors), errors, null);
+        } catch (RuntimeException ex) {
+            log.warn("Assignee {} {} rechazado en creación masiva: {}", assigneeType, assigneeId, ex.getMessage());
+            return new RecipientResolution(Collections.emptyList(), errors, ex);
+        }
+    }
+
+    /**
+     * Valida los dispositivos de una orden del lote contra los dispositivos consultados en batch.
+     *
+     * @param deviceIds    dispositivos solicitados por la orden
+     * @param lookup       dispositivos consultados en infra-devices-service
+     * @param batchErrors  errores de los bloques de la consulta (se replican en la orden los que afectan a sus dispositivos)
+     * @param claimed      dispositivos ya asignados a órdenes anteriores del lote (se actualiza)
+     * @param errors       lista donde se acumulan los errores de la orden
+     * @return estados originales de los dispositivos válidos asignados a la orden
+     */
+    private Map<UUID, String> checkBulkOrderDevices(List<UUID> deviceIds,
+                                                    DeviceLookup lookup,
+                                                    List<OrderIntegrationErrorDto> batchErrors,
+                                                    Set<UUID> claimed,
+                                                    List<OrderIntegrationErrorDto> errors) {
+        Set<UUID> orderDeviceIds = new LinkedHashSet<>(deviceIds);
+
+        // Solo los bloques fallidos con dispositivos de esta orden, limitados a esos dispositivos
+        for (OrderIntegrationErrorDto batchError : batchErrors) {
+            List<UUID> affected = batchError.getDeviceIds().stream().filter(orderDeviceIds::contains).toList();
+            if (!affected.isEmpty()) {
+                errors.add(batchError.toBuilder().deviceIds(affected).build());
+            }
+        }
+
+        Map<UUID, String> originalStates = new LinkedHashMap<>();
+        List<UUID> notFound = new ArrayList<>();
+        List<UUID> unavailable = new ArrayList<>();
+        List<UUID> duplicated = new ArrayList<>();
+
+        for (UUID deviceId : orderDeviceIds) {
+            if (lookup.unverified().contains(deviceId)) {
+                continue;
+            }
+            DeviceRs device = lookup.devicesById().get(deviceId);
+            if (device == null) {
+                notFound.add(deviceId);
+                continue;
+            }
+            if (!claimed.add(deviceId)) {
+                duplicated.add(deviceId);
+                continue;
+            }
+            String state = String.valueOf(device.getStatus());
+            originalStates.put(deviceId, state);
+            if ("OCCUPIED".equalsIgnoreCase(state) || "NEEDS_REPAIR".equalsIgnoreCase(state)) {
+                unavailable.add(deviceId);
+            }
+        }
+
+        if (!notFound.isEmpty()) {
+            errors.add(OrderIntegrationErrorDto.builder()
+                    .service("devices")
+                    .type("NOT_FOUND")
+                    .message("No se encontraron todos los dispositivos: ids=" + notFound)
+                    .timestamp(Instant.now())
+                    .deviceIds(notFound)
+                    .build());
+        }
+        if (!unavailable.isEmpty()) {
+            errors.add(OrderIntegrationErrorDto.builder()
+                    .service("devices")
+                    .type("DEVICE_UNAVAILABLE")
+                    .message("Equipos no disponibles: " + unavailable)
+                    .timestamp(Instant.now())
+                    .deviceIds(unavailable)
+                    .build());
+        }
+        if (!duplicated.isEmpty()) {
+            errors.add(OrderIntegrationErrorDto.builder()
+                    .service("devices")
+                    .type("DUPLICATED_IN_BATCH")
+                    .message("Equipos ya asignados a otra orden del mismo lote: " + duplicated)
+                    .timestamp(Instant.now())
+                    .deviceIds(duplicated)
+                    .build());
+        }
+
+        return originalStates;
+    }
+
     /**
      * Parsea el ID del dispositivo desde un objeto genérico.
      *
@@ -486,38 +1198,114 @@ public class OrderServiceImpl implements OrderService {
             } else {
                 return UUID.fromString(String.valueOf(idObj));
             }
-        } catch (Exception ex) {
-            throw new OrderException(String.format(MessageException.INVALID_UUID, String.valueOf(idObj)),
-                    OrderException.Type.BAD_REQUEST);
+        } catch (Exception ex) {
+            throw new OrderException(String.format(MessageException.INVALID_UUID, String.valueOf(idObj)),
+                    OrderException.Type.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Verifica la existencia de dispositivos por sus ID y recupera sus estados actuales.
+     *
+     * @param deviceIds una lista de {@link UUID}s que representan los ID de los dispositivos que se deben verificar.
+     *                  No debe ser {@code null} ni estar vacía.
+     * @param errors    lista donde se acumulan los errores de integración.
+     * @return un {@link Map} donde las llaves son los ID de los dispositivos ({@link UUID}) y los valores
+     *         son sus estados correspondientes como cadenas de texto ({@link String}). Nunca retorna {@code null}.
+     * @throws DeviceUnavailableException si ocurre un error de comunicación con el servicio externo,
+     *                                    si el servicio no responde correctamente o si hay dispositivos
+     *                                    que no pudieron ser encontrados. El tipo de excepción relacionado
+     *                                    se indica en {@link DeviceUnavailableException.Type}.
+     */
+    public Map<UUID, String> verifyDevicesAndFetchState(List<UUID> deviceIds, List<OrderIntegrationErrorDto> errors) {
+
+        // Consultar los dispositivos; los errores de comunicación de cada bloque ya quedan registrados en errors
+        DeviceLookup lookup = fetchDevices(deviceIds, errors);
+
+        // Conciliar solicitados vs encontrados por hash; los IDs de bloques fallidos no cuentan como no encontrados
+        List<UUID> notFound = new ArrayList<>();
+        for (UUID deviceId : new LinkedHashSet<>(deviceIds)) {
+            if (!lookup.devicesById().containsKey(deviceId) && !lookup.unverified().contains(deviceId)) {
+                notFound.add(deviceId);
+            }
+        }
+
+        if (!notFound.isEmpty()) {
+            OrderIntegrationErrorDto errorDto = OrderIntegrationErrorDto.builder()
+                    .service("devices")
+                    .type("NOT_FOUND")
+                    .message("No se encontraron todos los dispositivos: ids=" + notFound)
+                    .timestamp(Instant.now())
+                    .deviceIds(notFound)
+                    .build();
+            errors.add(errorDto);
+            return Collections.emptyMap();
+        }
+
+        // Estados de los dispositivos verificados (todos, salvo los de bloques fallidos)
+        return processDeviceStates(lookup.devicesById().values(), errors);
+    }
+
+    /**
+     * Consulta en infra-devices-service los dispositivos indicados.
+     *
+     * <p>Los IDs (sin repetidos) se consultan en bloques de como máximo {@code deviceVerificationChunkSize}:
+     * con un solo bloque la llamada se hace en el hilo actual y con varios en paralelo
+     * ({@link RemoteCallExecutor}). Un bloque que falla no invalida los demás: registra su propio error
+     * (con los IDs del bloque) y sus dispositivos quedan como no verificados.</p>
+     *
+     * @param deviceIds IDs de los dispositivos a consultar.
+     * @param errors    lista donde se registra un error por cada bloque que falla.
+     * @return los dispositivos encontrados por ID y los IDs que no se pudieron verificar.
+     */
+    private DeviceLookup fetchDevices(List<UUID> deviceIds, List<OrderIntegrationErrorDto> errors) {
+        List<UUID> distinctIds = new ArrayList<>(new LinkedHashSet<>(deviceIds));
+        List<List<UUID>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinctIds.size(); from += deviceVerificationChunkSize) {
+            chunks.add(distinctIds.subList(from, Math.min(from + deviceVerificationChunkSize, distinctIds.size())));
+        }
+
+        List<DeviceChunkResult> results = new ArrayList<>(chunks.size());
+        if (chunks.size() == 1) {
+            results.add(fetchDeviceChunk(chunks.get(0)));
+        } else if (chunks.size() > 1) {
+            List<CompletableFuture<DeviceChunkResult>> futures = chunks.stream()
+                    .map(chunk -> remoteCallExecutor.supplyAsync(() -> fetchDeviceChunk(chunk)))
+                    .toList();
+            futures.forEach(future -> results.add(RemoteCallExecutor.await(future)));
+        }
+
+        Map<UUID, DeviceRs> devicesById = new HashMap<>(distinctIds.size() * 2);
+        Set<UUID> unverified = new HashSet<>();
+        for (int i = 0; i < results.size(); i++) {
+            DeviceChunkResult result = results.get(i);
+            if (result.error() != null) {
+                errors.add(result.error());
+                unverified.addAll(chunks.get(i));
+                continue;
+            }
+            for (DeviceRs device : result.devices()) {
+                devicesById.putIfAbsent(parseDeviceId(device.getId()), device);
+            }
         }
+        return new DeviceLookup(devicesById, unverified);
     }
 
     /**
-     * Verifica la existencia de dispositivos por sus ID y recupera sus estados actuales.
+     * Consulta un bloque de dispositivos en una sola llamada batch.
      *
-     * @param deviceIds una lista de {@link UUID}s que representan los ID de los dispositivos que se deben verificar.
-     *                  No debe ser {@code null} ni estar vacía.
-     * @return un {@link Map} donde las llaves son los ID de los dispositivos ({@link UUID}) y los valores
-     *         son sus estados correspondientes como cadenas de texto ({@link String}). Nunca retorna {@code null}.
-     * @throws DeviceUnavailableException si ocurre un error de comunicación con el servicio externo,
-     *                                    si el servicio no responde correctamente o si hay dispositivos
-     *                                    que no pudieron ser encontrados. El tipo de excepción relacionado
-     *                                    se indica en {@link DeviceUnavailableException.Type}.
+     * @param deviceIds IDs del bloque.
+     * @return los dispositivos encontrados, o el error de integración si la llamada falló.
      */
-    public Map<UUID, String> verifyDevicesAndFetchState(List<UUID> deviceIds, Order order) {
+    private DeviceChunkResult fetchDeviceChunk(List<UUID> deviceIds) {
         List<DeviceRs> devices = null;
         String errorMsg = null;
         String errorType = null;
 
         try {
 
-            // Crea un objeto DevicesBatchRq con la lista de ID
-            DevicesBatchRq devicesBatchRq = DevicesBatchRq.builder()
-                    .ids(deviceIds)
-                    .build();
-
-            // Llama al servicio de dispositivos para obtener sus estados
-            devices = devicesClient.getDevicesByIds(devicesBatchRq);
+            // Llama al servicio de dispositivos para obtener sus estados (compartiendo las consultas en curso)
+            devices = devicesGateway.getDevicesByIds(deviceIds);
 
         } catch (FeignException.ServiceUnavailable fe) {
             log.error("El servicio de dispositivos no está disponible: {}", fe.getMessage());
@@ -538,69 +1326,105 @@ public class OrderServiceImpl implements OrderService {
                     .service("devices")
                     .type(errorType)
                     .message(errorMsg)
-                    .timestamp(java.time.Instant.now())
-                    .deviceIds(deviceIds)
-                    .build();
-            addErrorToOrderSnapshot(order, errorDto);
-            return Collections.emptyMap();
-        }
-
-        if (devices == null || devices.size() != deviceIds.size()) {
-            List<DeviceRs> finalDevices = devices;
-            List<UUID> notFound = deviceIds.stream()
-                    .filter(id -> finalDevices == null || finalDevices.stream().noneMatch(d -> d.getId().equals(id)))
-                    .toList();
-
-            OrderIntegrationErrorDto errorDto = OrderIntegrationErrorDto.builder()
-                    .service("devices")
-                    .type("NOT_FOUND")
-                    .message("No se encontraron todos los dispositivos: ids=" + notFound)
-                    .timestamp(java.time.Instant.now())
-                    .deviceIds(notFound)
+                    .timestamp(Instant.now())
+                    .deviceIds(new ArrayList<>(deviceIds))
                     .build();
-            addErrorToOrderSnapshot(order, errorDto);
-            return Collections.emptyMap();
+            return new DeviceChunkResult(Collections.emptyList(), errorDto);
         }
 
-        return processDeviceStates(devices, order);
+        return new DeviceChunkResult(devices != null ? devices : Collections.emptyList(), null);
     }
 
     /**
-     * Agrega un error al snapshot de la orden, marca su estado con error y persiste el cambio.
+     * Registra un error de integración de la orden y marca su estado con error.
      *
-     * @param order  La orden a la que se añadirá el error en su snapshot.
+     * @param order  La orden a la que pertenece el error.
      * @param error  El error de integración/negocio a registrar.
      */
-    public void addErrorToOrderSnapshot(Order order, OrderIntegrationErrorDto error) {
-        List<OrderIntegrationErrorDto> snapshotList = new ArrayList<>();
-        try {
-            if (order.getSnapshot() != null && !order.getSnapshot().isBlank()) {
-                snapshotList = this.objectMapper.readValue(order.getSnapshot(), new TypeReference<List<OrderIntegrationErrorDto>>() {});
-            }
-        } catch (Exception e) {
-            log.warn("No se pudo deserializar snapshot existente para la orden {}, se iniciará uno nuevo", order.getId(), e);
+    public void recordIntegrationError(Order order, OrderIntegrationErrorDto error) {
+        recordIntegrationErrors(order, List.of(error));
+    }
+
+    /**
+     * Registra varios errores de integración de la orden y marca su estado con error.
+     * Si la lista está vacía no modifica la orden.
+     *
+     * <p>Los errores son filas de solo inserción: nunca se leen ni reescriben los anteriores.
+     * Si la orden aún no se ha persistido, se agregan a su colección y se insertan en cascada
+     * junto con ella; si ya existe, se insertan directamente, por lo que debe invocarse dentro de la
+     * transacción que guarda la orden. En ambos casos el estado de la orden no se persiste aquí: el
+     * llamador es responsable de guardarla.</p>
+     *
+     * <p>Solo una orden en {@code CREATED} pasa a {@code CREATED_WITH_ERRORS}: una orden ya en proceso
+     * conserva su estado y el error queda solo como fila.</p>
+     *
+     * @param order  La orden a la que pertenecen los errores.
+     * @param errors Los errores de integración/negocio a registrar, en orden.
+     */
+    private void recordIntegrationErrors(Order order, List<OrderIntegrationErrorDto> errors) {
+        if (errors.isEmpty()) {
+            return;
         }
-        snapshotList.add(error);
-        try {
-            order.setSnapshot(this.objectMapper.writeValueAsString(snapshotList));
-        } catch (Exception e) {
-            log.error("No se pudo serializar el snapshot actualizado para la orden {}. El snapshot NO será actualizado para evitar corrupción. Error original: {}",
-                    order.getId(), e.getMessage(), e);
+        List<OrderIntegrationError> entities = errors.stream()
+                .map(error -> toIntegrationError(order, error))
+                .toList();
+
+        if (order.getVersion() == null) {
+            order.getIntegrationErrors().addAll(entities);
+        } else {
+            orderIntegrationErrorRepository.saveAll(entities);
         }
-        order.setState(OrderState.CREATED_WITH_ERRORS);
-        if (orderRepository != null) {
-            orderRepository.saveAndFlush(order);
+        if (order.getState() == null || order.getState() == OrderState.CREATED) {
+            order.setState(OrderState.CREATED_WITH_ERRORS);
         }
     }
 
     /**
-     * Procesa la respuesta del servicio de dispositivos, acumulando en snapshot los dispositivos no disponibles.
+     * Mapea un {@link OrderIntegrationErrorDto} a la entidad {@link OrderIntegrationError}.
+     *
+     * @param order orden propietaria del error
+     * @param error DTO del error
+     * @return entidad lista para insertar
+     */
+    private OrderIntegrationError toIntegrationError(Order order, OrderIntegrationErrorDto error) {
+        return OrderIntegrationError.builder()
+                .order(order)
+                .service(error.getService())
+                .type(error.getType())
+                .message(error.getMessage())
+                .occurredAt(error.getTimestamp() != null ? error.getTimestamp() : Instant.now())
+                .deviceIds(error.getDeviceIds() != null ? new ArrayList<>(error.getDeviceIds()) : new ArrayList<>())
+                .assignedTypeId(error.getAssignedTypeId())
+                .assignedId(error.getAssignedId())
+                .build();
+    }
+
+    /**
+     * Mapea la entidad {@link OrderIntegrationError} a {@link OrderIntegrationErrorDto}.
+     *
+     * @param error entidad del error
+     * @return DTO del error
+     */
+    private OrderIntegrationErrorDto toIntegrationErrorDto(OrderIntegrationError error) {
+        return OrderIntegrationErrorDto.builder()
+                .service(error.getService())
+                .type(error.getType())
+                .message(error.getMessage())
+                .timestamp(error.getOccurredAt())
+                .deviceIds(List.copyOf(error.getDeviceIds()))
+                .assignedTypeId(error.getAssignedTypeId())
+                .assignedId(error.getAssignedId())
+                .build();
+    }
+
+    /**
+     * Procesa la respuesta del servicio de dispositivos, acumulando como errores de integración los dispositivos no disponibles.
      *
      * @param devices Lista de dispositivos devuelta por el servicio de devices.
-     * @param order   Orden a la que se le asociarán los errores en snapshot si corresponde.
+     * @param errors  Lista donde se acumulan los errores de integración.
      * @return Un mapa de estados originales por dispositivo (ID → estado).
      */
-    private Map<UUID, String> processDeviceStates(List<DeviceRs> devices, Order order) {
+    private Map<UUID, String> processDeviceStates(Collection<DeviceRs> devices, List<OrderIntegrationErrorDto> errors) {
         Map<UUID, String> originalStates = new HashMap<>();
         List<UUID> unavailableDevices = new ArrayList<>();
 
@@ -622,30 +1446,31 @@ public class OrderServiceImpl implements OrderService {
                     .service("devices")
                     .type("DEVICE_UNAVAILABLE")
                     .message("Equipos no disponibles: " + unavailableDevices)
-                    .timestamp(java.time.Instant.now())
+                    .timestamp(Instant.now())
                     .deviceIds(unavailableDevices)
                     .build();
-            addErrorToOrderSnapshot(order, errorDto);
+            errors.add(errorDto);
         }
 
         return originalStates;
     }
 
     /**
-     * Reserva dispositivo mediante una llamada al servicio de dispositivos.
+     * Reserva dispositivo mediante una llamada al servicio de dispositivos. Las reservas de órdenes
+     * concurrentes se agrupan en una sola llamada (ver {@link DevicesGateway#reserveDevices}).
      *
      * @param deviceIds Una lista de identificadores únicos ({@link UUID}) de los dispositivos
      *                  que se deben reservar. La lista no debe ser {@code null} ni estar vacía.
-     * @throws DeviceUnavailableException La respuesta del servicio indica que los dispositivos no pudieron ser reservados.
-     * Ocurre un error de comunicación con el servicio `devices`.
+     * @param orderId   UUID de la orden para la que se reservan.
+     * @param errors    Lista donde se acumulan los errores de integración.
+     * @return {@code true} si los dispositivos quedaron reservados; {@code false} si se registró un error
      */
-    private void reserveDevices(List<UUID> deviceIds, UUID orderId, Order order) {
-        Map<String, Object> reserveRequest = Map.of("deviceIds", deviceIds, "state", "OCCUPIED","orderId", orderId);
+    private boolean reserveDevices(List<UUID> deviceIds, UUID orderId, List<OrderIntegrationErrorDto> errors) {
         String errorMsg = null;
         String errorType = null;
 
         try {
-            ApiResponseDto<Void> response = devicesClient.reserveDevices(reserveRequest);
+            ApiResponseDto<Void> response = devicesGateway.reserveDevices(orderId, deviceIds, "OCCUPIED");
 
             // Verifica el éxito de la operación
             if (!response.isSuccess()) {
@@ -671,21 +1496,27 @@ public class OrderServiceImpl implements OrderService {
                     .service("devices")
                     .type(errorType)
                     .message("Error al reservar dispositivos: " + errorMsg)
-                    .timestamp(java.time.Instant.now())
+                    .timestamp(Instant.now())
                     .deviceIds(deviceIds)
                     .build();
-            addErrorToOrderSnapshot(order, errorDto);
+            errors.add(errorDto);
+            return false;
         }
+        return true;
     }
 
     /**
      * Crea y guarda una nueva orden junto con sus elementos (items) en la base de datos.
      *
+     * <p>Solo se crean items para los dispositivos verificados (con estado original en {@code newDeviceStates});
+     * los demás quedan únicamente como errores de integración de la orden.</p>
+     *
+     * @param order La orden a guardar.
      * @param rq La solicitud de creación de la orden, que incluye la descripción, el tipo de asignado
      *           ({@code assigneeType}), el identificador del asignado ({@code assigneeId}) y la lista de IDs de dispositivos.
-     * @param originalStates Un mapa donde las llaves son los IDs de los dispositivos asociados a la
-     *                       orden y los valores son los estados originales de esos dispositivos.
-     *                       Si un dispositivo no tiene un estado en este mapa, se usará "UNKNOWN" como valor predeterminado.
+     * @param newDeviceStates Un mapa donde las llaves son los IDs de los dispositivos verificados y los valores
+     *                        son sus estados originales.
+     * @param isUpdate {@code true} para agregar los items a los existentes; {@code false} para reemplazarlos.
      * @return La entidad {@link Order} recién creada y persistida en la base de datos.
      */
     private Order saveOrderAndItems(Order order, OrderRq rq, Map<UUID, String> newDeviceStates, boolean isUpdate) {
@@ -707,12 +1538,14 @@ public class OrderServiceImpl implements OrderService {
                     order.getItems().add(newItem);
                 });
             } else {
-                // MODO CREACIÓN: Reemplazar todos los items
+                // MODO CREACIÓN: Reemplazar todos los items, solo con los dispositivos verificados
                 List<OrderItem> items = rq.getDevicesIds().stream()
+                        .distinct()
+                        .filter(newDeviceStates::containsKey)
                         .map(deviceId -> OrderItem.builder()
                                 .order(order)
                                 .deviceId(deviceId)
-                                .originalDeviceState(newDeviceStates.getOrDefault(deviceId, "UNKNOWN"))
+                                .originalDeviceState(newDeviceStates.get(deviceId))
                                 .build())
                         .collect(Collectors.toList());
 
@@ -723,15 +1556,17 @@ public class OrderServiceImpl implements OrderService {
 
         // Validar y cambiar estado si la orden está completa
         if(isUpdate) {
-            validateOrderState(order);
+            validateOrderState(order, order.getItems() != null && !order.getItems().isEmpty());
         }
 
-        // Guardar la entidad Order (con los items) en la base de datos
-        return orderRepository.saveAndFlush(order);
+        // Guardar la entidad Order (con los items) en una única transacción; el flush ocurre en el commit
+        return orderRepository.save(order);
     }
 
     /**
-     * Crea la base de la orden.
+     * Crea la base de la orden en memoria, sin persistirla.
+     * El UUID se asigna aquí para poder enviarlo a infra-devices-service al reservar;
+     * {@link com.infragest.infra_orders_service.entity.AssignableUuidGenerator} lo respeta al persistir.
      * @param rq
      * @return
      */
@@ -745,44 +1580,116 @@ public class OrderServiceImpl implements OrderService {
                 .assigneeType(rq.getAssigneeType())
                 .notificationStatus(NotificationStatus.PENDING)
                 .build();
+        order.setId(UUID.randomUUID());
 
-        return orderRepository.save(order);
+        return order;
+    }
+
+    /**
+     * Registra en la outbox el evento de la orden con los destinatarios resueltos.
+     *
+     * <p>Guarda en la orden el número de destinatarios y, para grupos, la versión de la membresía.
+     * Si el grupo supera {@code orders.events.recipients.inline-threshold} miembros, el evento lleva
+     * una {@link RecipientsRef} en lugar de la lista de correos. Con umbral cero (por defecto) siempre se
+     * envían los correos, para los consumidores que aún no resuelven referencias.</p>
+     *
+     * @param order      La entidad Order guardada (o por guardar) en la transacción actual.
+     * @param recipients Correos de los destinatarios de la notificación.
+     * @throws OrderException (INTERNAL_SERVER) si el evento no se puede serializar.
+     */
+    private void enqueueOrderEvent(Order order, List<String> recipients) {
+        if (recipients == null || recipients.isEmpty()) {
+            enqueueOrderEvent(order, recipients, null);
+            return;
+        }
+
+        order.setRecipientCount(recipients.size());
+        if (order.getAssigneeType() != AssigneeType.GROUP) {
+            enqueueOrderEvent(order, recipients, null);
+            return;
+        }
+
+        order.setMembershipVersion(membershipVersion(recipients));
+        if (recipientsInlineThreshold > 0 && recipients.size() > recipientsInlineThreshold) {
+            enqueueOrderEvent(order, null, toRecipientsRef(order));
+        } else {
+            enqueueOrderEvent(order, recipients, null);
+        }
     }
 
     /**
-     * Publica un evento OrderCreated con los detalles de la orden creada.
+     * Registra en la outbox el evento de la orden, para que {@link OrderEventOutboxRelay} lo publique
+     * en RabbitMQ. Debe invocarse dentro de la transacción que guarda el cambio de la orden, de modo
+     * que el evento se persista (o se descarte) junto con él.
      *
-     * @param order La entidad Order recién guardada en la base de datos.
+     * @param order         La entidad Order guardada (o por guardar) en la transacción actual.
+     * @param recipients    Correos de los destinatarios (nulo si se envía una referencia).
+     * @param recipientsRef Referencia a los destinatarios (nula si se envían los correos).
+     * @throws OrderException (INTERNAL_SERVER) si el evento no se puede serializar.
      */
-    private void publishOrderEvent(Order order, List<String> recipients) {
+    private void enqueueOrderEvent(Order order, List<String> recipients, RecipientsRef recipientsRef) {
+
+        // Construcción del evento
+        OrderEvent event = OrderEvent.builder()
+                .orderId(order.getId())
+                .state(order.getState())
+                .description(order.getDescription())
+                .assigneeType(order.getAssigneeType() != null ? order.getAssigneeType().name() : null)
+                .assigneeId(order.getAssigneeId())
+                .deviceIds(order.getItems().stream()
+                        .map(OrderItem::getDeviceId)
+                        .collect(Collectors.toList()))
+                .recipientEmails(recipients)
+                .recipientsRef(recipientsRef)
+                .build();
 
-        try {
-            // Construcción del evento
-            OrderEvent event = OrderEvent.builder()
-                    .orderId(order.getId())
-                    .state(order.getState())
-                    .description(order.getDescription())
-                    .assigneeType(order.getAssigneeType() != null ? order.getAssigneeType().name() : null)
-                    .assigneeId(order.getAssigneeId())
-                    .deviceIds(order.getItems().stream()
-                            .map(OrderItem::getDeviceId)
-                            .collect(Collectors.toList()))
-                    .recipientEmails(recipients)
-                    .build();
+        String routingKey = String.format("order.state.%s", order.getState().name().toLowerCase());
 
-            // Publicar en RabbitMQ
-            rabbitTemplate.convertAndSend(
-                    RabbitMQConfig.EXCHANGE_NAME,
-                    String.format("order.state.%s", order.getState().name().toLowerCase()),
-                    event
-            );
+        // Cada evento abre una nueva ronda de notificación: su resultado vuelve a avanzar desde PENDING
+        order.setNotificationStatus(NotificationStatus.PENDING);
 
-            log.info("Evento publicado exitosamente. Orden ID: {}, Estado: {}, Routing Key: {}",
-                    order.getId(), order.getState(), String.format("order.state.%s", order.getState().name().toLowerCase()));
-        } catch (Exception ex) {
-            log.error("Error al publicar el evento. Orden ID: {}, Routing Key: {}. Detalle: {}",
-                    order.getId(), String.format("order.state.%s", order.getState().name().toLowerCase()), ex.getMessage(), ex);
+        try {
+            outboxEventRepository.save(OutboxEvent.builder()
+                    .aggregateId(order.getId())
+                    .exchange(RabbitMQConfig.EXCHANGE_NAME)
+                    .routingKey(routingKey)
+                    .payload(objectMapper.writeValueAsString(event))
+                    .nextAttemptAt(LocalDateTime.now())
+                    .build());
+        } catch (JsonProcessingException ex) {
+            log.error("No se pudo serializar el evento de la orden {}: {}", order.getId(), ex.getMessage(), ex);
+            throw new OrderException(MessageException.INTERNAL_ERROR, OrderException.Type.INTERNAL_SERVER);
         }
+
+        log.info("Evento registrado en la outbox. Orden ID: {}, Estado: {}, Routing Key: {}",
+                order.getId(), order.getState(), routingKey);
+    }
+
+    /**
+     * Construye la referencia a los destinatarios a partir de la resolución recién guardada en la orden.
+     *
+     * @param order orden asignada a un grupo
+     * @return referencia al grupo, su versión de membresía y su número de miembros
+     */
+    private RecipientsRef toRecipientsRef(Order order) {
+        return RecipientsRef.builder()
+                .groupId(order.getAssigneeId())
+                .membershipVersion(order.getMembershipVersion())
+                .memberCount(order.getRecipientCount())
+                .build();
+    }
+
+    /**
+     * Calcula la versión de la membresía de un grupo: un UUID derivado de sus correos ordenados,
+     * independiente del orden en que los devuelva infra-groups-service.
+     *
+     * @param emails correos de los miembros
+     * @return versión de la membresía
+     */
+    private String membershipVersion(List<String> emails) {
+        List<String> sorted = new ArrayList<>(emails);
+        Collections.sort(sorted);
+        return UUID.nameUUIDFromBytes(String.join("\n", sorted).getBytes(StandardCharsets.UTF_8)).toString();
     }
 
     /**
@@ -790,26 +1697,79 @@ public class OrderServiceImpl implements OrderService {
      *
      * @param notificationEvent evento que contiene los detalles de la confirmación.
      */
+    @Override
     public void updateOrderNotificationStatus(NotificationEvent notificationEvent) {
-        log.info("Actualizando estado de notificación para la orden ID: {}, Estado: {}",
-                notificationEvent.getOrderId(),
-                notificationEvent.getStatus());
+        updateOrderNotificationStatuses(List.of(notificationEvent));
+    }
 
-        Optional<Order> optionalOrder = orderRepository.findById(notificationEvent.getOrderId());
+    /**
+     * Actualiza en bloque el estado de la notificación de varias órdenes.
+     *
+     * <p>Los eventos se colapsan por orden (prevalece el más reciente según {@code occurredAt};
+     * a igualdad, el más avanzado) y se aplican con un {@code UPDATE} masivo por cada estado distinto
+     * (como máximo tres), sin cargar las entidades. La actualización es condicional: el estado solo
+     * avanza (PENDING → FAILED → SENT), de modo que un FAILED tardío no sobrescribe un SENT y las
+     * reentregas no escriben nada. Los eventos sin orden o sin estado se descartan con un aviso.</p>
+     *
+     * @param notificationEvents eventos de confirmación, en orden de llegada.
+     * @return número de órdenes actualizadas.
+     */
+    @Override
+    @Transactional
+    public int updateOrderNotificationStatuses(List<NotificationEvent> notificationEvents) {
+
+        // Colapsar por orden: se aplica el evento más reciente de cada orden
+        Map<UUID, NotificationEvent> latestByOrder = new LinkedHashMap<>();
+        for (NotificationEvent event : notificationEvents) {
+            if (event == null || event.getOrderId() == null || event.getStatus() == null) {
+                log.warn("Evento de notificación inválido descartado: {}", event);
+                continue;
+            }
+            latestByOrder.merge(event.getOrderId(), event, this::latestNotification);
+        }
 
-        if (optionalOrder.isEmpty()) {
-            log.warn("Orden no encontrada para el evento de notificación ID: {}", notificationEvent.getOrderId());
-            return;
+        // Agrupar por estado; PENDING no hace avanzar ninguna orden
+        Map<NotificationStatus, List<UUID>> ordersByStatus = new EnumMap<>(NotificationStatus.class);
+        latestByOrder.forEach((orderId, event) -> {
+            NotificationStatus status = mapNotificationStatus(event.getStatus());
+            if (status != NotificationStatus.PENDING) {
+                ordersByStatus.computeIfAbsent(status, key -> new ArrayList<>()).add(orderId);
+            }
+        });
+
+        if (ordersByStatus.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int updated = 0;
+        for (Map.Entry<NotificationStatus, List<UUID>> entry : ordersByStatus.entrySet()) {
+            updated += orderRepository.advanceNotificationStatus(
+                    entry.getValue(), entry.getKey(), entry.getKey().predecessors(), now);
         }
 
-        Order order = optionalOrder.get();
+        log.info("Estado de notificación actualizado para {} órdenes ({} eventos recibidos, {} sin cambios)",
+                updated, notificationEvents.size(), latestByOrder.size() - updated);
 
-        // Actualizar el estado de la notificación
-        NotificationStatus status = mapNotificationStatus(notificationEvent.getStatus());
+        return updated;
+    }
 
-        order.setNotificationStatus(status);
-        orderRepository.save(order);
-        log.info("Estado de la notificación actualizado para la orden ID {}: {}", order.getId(), status);
+    /**
+     * Elige, entre dos eventos de la misma orden, el que debe prevalecer: el de {@code occurredAt}
+     * más reciente o, a igualdad (o sin fecha), el de estado más avanzado.
+     *
+     * @param current evento elegido hasta ahora
+     * @param candidate evento recibido después
+     * @return el evento que prevalece
+     */
+    private NotificationEvent latestNotification(NotificationEvent current, NotificationEvent candidate) {
+        if (current.getOccurredAt() != null && candidate.getOccurredAt() != null
+                && !current.getOccurredAt().equals(candidate.getOccurredAt())) {
+            return candidate.getOccurredAt().isAfter(current.getOccurredAt()) ? candidate : current;
+        }
+        return mapNotificationStatus(current.getStatus()).isAfter(mapNotificationStatus(candidate.getStatus()))
+                ? current
+                : candidate;
     }
 
     /**
@@ -871,110 +1831,25 @@ public class OrderServiceImpl implements OrderService {
         );
     }
 
-    /**
-     * Libera los dispositivos asociados a una orden y restaura sus estados originales.
-     *
-     * Construye la solicitud de restauración basada en los dispositivos asociados
-     * a la orden y sus estados originales, y la envía al servicio de dispositivos.
-     *
-     * @param order La orden que contiene los dispositivos a liberar.
-     * @throws DeviceUnavailableException si ocurre un error al comunicarse con el servicio de dispositivos.
-     */
-    private void releaseOrderDevices(Order order) {
-
-        String errorMsg = null;
-        String errorType = null;
-
-        // Construir la lista de items necesarios para el DTO del request
-        List<RestoreDevicesRq.RestoreItem> restoreItems = order.getItems().stream()
-                .map(item -> RestoreDevicesRq.RestoreItem.builder()
-                        .deviceId(item.getDeviceId())
-                        .state(DeviceStatusEnum.valueOf(item.getOriginalDeviceState()))
-                        .build())
-                .toList();
-
-        // Validar que haya elementos en la lista antes de continuar
-        if (restoreItems.isEmpty()) {
-            log.warn("No hay dispositivos asociados para restaurar en la orden {}", order.getId());
-            throw new OrderException(
-                    String.format(MessageException.INVALID_EQUIPMENT_LIST, order.getId()),
-                    OrderException.Type.BAD_REQUEST
-            );
-        }
-
-        // Extraer solo los UUIDs para el errorDto
-        List<UUID> devicesIds = restoreItems.stream()
-                .map(RestoreDevicesRq.RestoreItem::getDeviceId)
-                .toList();
-
-        // Crear la solicitud DTO para enviar al endpoint de restore
-        RestoreDevicesRq restoreDevicesRq = RestoreDevicesRq.builder()
-                .items(restoreItems)
-                .build();
-
-        log.info("Ejecutando la restauración de dispositivos para la orden {}: {}", order.getId(), restoreDevicesRq);
-
-        try {
-            // Llamar al cliente Feign para restaurar los dispositivos
-            ApiResponseDto<Void> response  = devicesClient.restoreDeviceStates(restoreDevicesRq);
-
-            // Verifica el éxito de la operación
-            if (!response.isSuccess()) {
-                errorMsg = response.getMessage();
-                errorType = "RESTORE_FAILED";
-            }
-
-            log.info("Estados originales restaurados para todos los dispositivos de la orden {}", order.getId());
-
-        } catch (FeignException.ServiceUnavailable fe) {
-
-            // Si el microservicio devuelve un 503
-            log.error("El servicio de dispositivos no está disponible para la orden {}: {}", order.getId(), fe.getMessage());
-            errorMsg = fe.getMessage();
-            errorType = "SERVICE_UNAVAILABLE";
-
-        } catch (FeignException.BadRequest fe) {
-
-            log.error("Solicitud inválida al servicio de dispositivos para la orden {}: {}", order.getId(), fe.getMessage());
-            errorMsg = fe.getMessage();
-            errorType = "BAD_REQUEST";
-
-        } catch (FeignException fe) {
-
-            log.error("Error de comunicación con el servicio de dispositivos para la orden {}: {}", order.getId(), fe.getMessage());
-            errorMsg = fe.getMessage();
-            errorType = "INTERNAL_SERVER";
-        }
-
-        if (errorMsg != null) {
-            OrderIntegrationErrorDto errorDto = OrderIntegrationErrorDto.builder()
-                    .service("devices")
-                    .type(errorType)
-                    .message("Error al restaurar dispositivos: " + errorMsg)
-                    .timestamp(java.time.Instant.now())
-                    .deviceIds(devicesIds)
-                    .build();
-            addErrorToOrderSnapshot(order, errorDto);
-        }
-    }
-
     /**
      * Ejecuta las acciones específicas para un cambio de estado de una orden.
      *
      * Comportamiento:
-     * - Para todos los estados, notifica el cambio a RabbitMQ.
-     * - Para el estado {@link OrderState#FINISHED}, libera los dispositivos asociados a la orden.
+     * - Para todos los estados, notifica el cambio a RabbitMQ. Los destinatarios se resuelven en cada evento
+     *   (a través de la caché de {@link AssigneeDirectory}), de modo que la versión de membresía de una
+     *   {@link RecipientsRef} corresponde siempre a los miembros actuales del grupo.
+     * - Para el estado {@link OrderState#FINISHED}, programa la liberación de los dispositivos asociados a la orden.
      *
      * @param order   La entidad {@link Order} afectada.
      * @param newState El nuevo estado al que se cambia la orden ({@link OrderState}).
      */
     private void performStateSpecificActions(Order order, OrderState newState) {
 
-        // Obtener los correos asociados a la asignación
+        // Obtener los correos asociados a la asignación (recalcula la versión de membresía del grupo)
         List<String> recipients = resolveRecipientsAndValidate(order.getAssigneeType(), order.getAssigneeId(), order);
 
-        // Notificar a RabbitMQ siempre que haya un cambio de estado
-        publishOrderEvent(order, recipients);
+        // Notificar el cambio de estado (outbox, en la misma transacción que el cambio)
+        enqueueOrderEvent(order, recipients);
 
         // Ejecución de acciones específicas solo para el estado FINISHED
         if (newState == OrderState.FINISHED) {
@@ -985,25 +1860,28 @@ public class OrderServiceImpl implements OrderService {
     /**
      * Maneja las acciones específicas para el estado {@link OrderState#FINISHED}.
      * Comportamiento:
-     * - Libera los dispositivos asociados a la orden y restaura sus estados originales.
+     * - Registra, en la transacción del cambio de estado, la saga que restaura los estados originales de los
+     *   dispositivos de la orden. La restauración la ejecutan en segundo plano los workers de
+     *   {@link OrderSagaService}, con reintentos, sin bloquear la petición; la orden sigue en FINISHED aunque
+     *   infra-devices-service no esté disponible.
      *
      * @param order La entidad {@link Order} cuyo estado está cambiando a {@link OrderState#FINISHED}.
-     * @throws OrderException si ocurre un error en el proceso de liberación de dispositivos.
+     * @throws OrderException (BAD_REQUEST) si la orden no tiene dispositivos asociados.
      */
     private void handleFinishedState(Order order) {
-        try {
-
-            // Liberar dispositivos
-            releaseOrderDevices(order);
-            log.info("Se liberaron los dispositivos de la orden {}", order.getId());
+        Map<UUID, String> originalStates = new LinkedHashMap<>();
+        order.getItems().forEach(item -> originalStates.put(item.getDeviceId(), item.getOriginalDeviceState()));
 
-        } catch (Exception ex) {
-            log.error("Error al liberar dispositivos de la orden {}: {}", order.getId(), ex.getMessage());
+        if (originalStates.isEmpty()) {
+            log.warn("No hay dispositivos asociados para restaurar en la orden {}", order.getId());
             throw new OrderException(
-                    String.format(MessageException.EQUIPMENT_RESTORE_FAILED, order.getId()),
-                    OrderException.Type.INTERNAL_SERVER
+                    String.format(MessageException.INVALID_EQUIPMENT_LIST, order.getId()),
+                    OrderException.Type.BAD_REQUEST
             );
         }
+
+        orderSagaService.scheduleRestore(order.getId(), originalStates);
+        log.info("Programada la liberación de {} dispositivos de la orden {}", originalStates.size(), order.getId());
     }
 
     /**
@@ -1013,8 +1891,15 @@ public class OrderServiceImpl implements OrderService {
      * verifica disponibilidad y reserva nuevos dispositivos. Publica evento de
      * notificación si cambia el assignee.</p>
      *
+     * <p>La diferencia entre dispositivos actuales y nuevos se calcula en tiempo lineal ({@link DeviceSetDiff}).</p>
+     *
      * <p><strong>Nota:</strong> Si falla la restauración de dispositivos, el error
-     * se registra en el snapshot y no se eliminan los items de la orden.</p>
+     * se registra como error de integración y no se eliminan los items de ese bloque de la orden.</p>
+     *
+     * <p>Como en {@link #patchOrderDevices}, los dispositivos nuevos solo se reservan si todos se verificaron
+     * y solo se agregan sus items si la reserva se confirmó. La reserva se registra en una saga
+     * ({@link OrderSagaService}) que la deshace si la orden no llega a guardarse. Los errores de integración
+     * se insertan en la misma transacción que los cambios de la orden.</p>
      *
      * @param orderId UUID de la orden a actualizar
      * @param rq datos actualizados (assignee, dispositivos, descripción)
@@ -1028,101 +1913,277 @@ public class OrderServiceImpl implements OrderService {
                 () -> new OrderException(MessageException.ORDER_NOT_FOUND, OrderException.Type.NOT_FOUND)
         );
 
-        // limpiar snapshot
-        order.setSnapshot(null);
-
         // Guardar valores originales para comparar
         AssigneeType originalAssigneeType = order.getAssigneeType();
         UUID originalAssigneeId = order.getAssigneeId();
 
-        // Comparar los devicesIds actuales vs nuevos
-        Set<UUID> currentDeviceIds = order.getItems().stream()
-                .map(OrderItem::getDeviceId)
-                .collect(Collectors.toSet());
-
-        Set<UUID> newDeviceIds = new HashSet<>(rq.getDevicesIds());
-
-        // Dispositivos a AGREGAR (están en el request pero NO en la orden actual)
-        List<UUID> devicesToAdd = newDeviceIds.stream()
-                .filter(id -> !currentDeviceIds.contains(id))
-                .collect(Collectors.toList());
-
-        // Dispositivos a REMOVER (están en la orden actual pero NO en el request)
-        List<UUID> devicesToRemove = currentDeviceIds.stream()
-                .filter(id -> !newDeviceIds.contains(id))
-                .collect(Collectors.toList());
+        // Comparar los devicesIds actuales vs nuevos (agregar / retirar / mantener) en tiempo lineal
+        List<UUID> currentDeviceIds = new ArrayList<>(order.getItems().size());
+        order.getItems().forEach(item -> currentDeviceIds.add(item.getDeviceId()));
+        DeviceSetDiff diff = DeviceSetDiff.of(currentDeviceIds, rq.getDevicesIds());
+        List<UUID> devicesToAdd = diff.toAdd();
 
-        // Remover dispositivos que ya no están
-        if (!devicesToRemove.isEmpty()) {
-            // Obtener estados originales de los items a remover (antes de eliminarlos)
-            Map<UUID, String> originalStatesToRestore = order.getItems().stream()
-                    .filter(item -> devicesToRemove.contains(item.getDeviceId()))
-                    .collect(Collectors.toMap(
-                            OrderItem::getDeviceId,
-                            OrderItem::getOriginalDeviceState
-                    ));
-
-            // Transformar respuesta a dto de tipo RestoreDevicesRq
-            RestoreDevicesRq restoreRequest = buildRestoreRequest(originalStatesToRestore);
-
-            // Restaurar estados de dispositivos ANTES de eliminar los items
-            restoreDevices(restoreRequest, order);
-
-            // Eliminar OrderItems de la lista (orphanRemoval los borrará de BD) solo si el snapshot llega vacio
-            if (order.getSnapshot() == null) {
-                order.getItems().removeIf(item -> devicesToRemove.contains(item.getDeviceId()));
-            }
+        // Remover dispositivos que ya no están (restaurando antes su estado original)
+        List<OrderIntegrationErrorDto> errors = new ArrayList<>();
+        if (!diff.toRemove().isEmpty()) {
+            releaseRemovedDevices(order, diff, errors);
         }
 
-        // Agregar nuevos dispositivos
-        Map<UUID, String> newDeviceStates = new HashMap<>();
+        // Agregar nuevos dispositivos: reservarlos solo si todos se verificaron, registrando la saga de la reserva
+        Map<UUID, String> newDeviceStates = Collections.emptyMap();
+        List<UUID> sagaIds = new ArrayList<>(1);
+        List<UUID> reservedSagaIds = new ArrayList<>(1);
         if (!devicesToAdd.isEmpty()) {
+            List<OrderIntegrationErrorDto> addErrors = new ArrayList<>();
+
             // Verificar y obtener estados originales de dispositivos nuevos
-            newDeviceStates = verifyDevicesAndFetchState(devicesToAdd, order);
+            Map<UUID, String> verifiedStates = verifyDevicesAndFetchState(devicesToAdd, addErrors);
 
             // Reservar los nuevos dispositivos
-            reserveDevices(devicesToAdd, order.getId(), order);
+            if (addErrors.isEmpty()) {
+                UUID sagaId = orderSagaService.startCreation(order.getId(), verifiedStates);
+                sagaIds.add(sagaId);
+                if (reserveDevices(new ArrayList<>(verifiedStates.keySet()), order.getId(), addErrors)) {
+                    reservedSagaIds.add(sagaId);
+                    orderSagaService.markReserved(reservedSagaIds);
+                    newDeviceStates = verifiedStates;
+                }
+            }
+            errors.addAll(addErrors);
         }
 
-        //  Guardar la orden con los cambios
-        order = saveOrderAndItems(order, rq, newDeviceStates, true);
-
         //  Validar si el tipo de asignación O el assigneeId cambió
         boolean assignmentChanged = originalAssigneeType != rq.getAssigneeType()
                 || !originalAssigneeId.equals(rq.getAssigneeId());
 
-        if (assignmentChanged) {
-            // Obtener los correos asociados a la NUEVA asignación
-            List<String> recipients = resolveRecipientsAndValidate(
-                    rq.getAssigneeType(),
-                    rq.getAssigneeId(),
-                    order
-            );
+        // Obtener los correos asociados a la NUEVA asignación (llamada remota, fuera de la transacción)
+        List<OrderIntegrationErrorDto> recipientErrors = new ArrayList<>();
+        List<String> recipients = assignmentChanged
+                ? resolveRecipients(rq.getAssigneeType(), rq.getAssigneeId(), recipientErrors)
+                : Collections.emptyList();
+
+        //  Guardar la orden con los cambios, los errores, el evento y el cierre de la saga en una sola transacción
+        Order orderToSave = order;
+        Map<UUID, String> devicesToSave = newDeviceStates;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                recordIntegrationErrors(orderToSave, errors);
+                Order saved = saveOrderAndItems(orderToSave, rq, devicesToSave, true);
+
+                if (!recipientErrors.isEmpty()) {
+                    recordIntegrationErrors(saved, recipientErrors);
+                    saved = orderRepository.save(saved);
+                }
+
+                if (assignmentChanged) {
+                    enqueueOrderEvent(saved, recipients);
+                }
+                orderSagaService.complete(sagaIds);
+            });
+        } catch (RuntimeException ex) {
+            // Los items nuevos no se guardaron: deshacer la reserva en segundo plano
+            orderSagaService.compensate(sagaIds, reservedSagaIds, ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Restaura el estado original de los dispositivos retirados de la orden y elimina sus items.
+     *
+     * <p>Los estados se obtienen en una sola pasada por los items y se restauran en bloques de
+     * {@code deviceRestoreChunkSize}. Solo se eliminan los items de los bloques restaurados: si un bloque
+     * falla, su error se acumula en {@code errors} y sus items se conservan.</p>
+     *
+     * @param order  orden a actualizar
+     * @param diff   diferencia entre los dispositivos actuales y los solicitados
+     * @param errors lista donde se acumulan los errores de restauración
+     */
+    private void releaseRemovedDevices(Order order, DeviceSetDiff diff, List<OrderIntegrationErrorDto> errors) {
+
+        // Obtener estados originales de los items a remover (antes de eliminarlos)
+        Map<UUID, String> originalStatesToRestore = new LinkedHashMap<>(diff.toRemove().size() * 2);
+        for (OrderItem item : order.getItems()) {
+            if (diff.isRemoved(item.getDeviceId())) {
+                originalStatesToRestore.putIfAbsent(item.getDeviceId(), item.getOriginalDeviceState());
+            }
+        }
+
+        // Restaurar estados de dispositivos por bloques ANTES de eliminar los items
+        UuidSet restored = restoreDevicesInChunks(originalStatesToRestore, order, errors);
+
+        // Eliminar OrderItems de la lista (orphanRemoval los borrará de BD) solo si su restauración fue exitosa
+        if (!restored.isEmpty()) {
+            order.getItems().removeIf(item -> restored.contains(item.getDeviceId()));
+        }
+    }
+
+    /**
+     * Restaura el estado original de dispositivos en bloques de {@code deviceRestoreChunkSize}.
+     * El error de cada bloque fallido se acumula en {@code errors}.
+     *
+     * @param originalStatesToRestore estados originales por dispositivo
+     * @param order                   orden a la que pertenecen los dispositivos
+     * @param errors                  lista donde se acumulan los errores de restauración
+     * @return dispositivos de los bloques restaurados con éxito
+     */
+    private UuidSet restoreDevicesInChunks(Map<UUID, String> originalStatesToRestore, Order order,
+                                           List<OrderIntegrationErrorDto> errors) {
+        UuidSet restored = new UuidSet(originalStatesToRestore.size());
+        Map<UUID, String> chunk = new LinkedHashMap<>();
+        Iterator<Map.Entry<UUID, String>> it = originalStatesToRestore.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<UUID, String> entry = it.next();
+            chunk.put(entry.getKey(), entry.getValue());
+            if (chunk.size() == deviceRestoreChunkSize || !it.hasNext()) {
+                if (restoreDevices(buildRestoreRequest(chunk), order, errors)) {
+                    chunk.keySet().forEach(restored::add);
+                }
+                chunk = new LinkedHashMap<>();
+            }
+        }
+        return restored;
+    }
+
+    /**
+     * Agrega y retira dispositivos de una orden de forma incremental.
+     *
+     * <p>A diferencia de {@link #updateOrder}, no carga ni recorre todos los items de la orden: solo
+     * consulta los items de los dispositivos indicados, verifica y reserva los que se agregan, restaura
+     * los que se retiran e inserta o borra únicamente esas filas. El coste es proporcional al cambio,
+     * no al tamaño de la orden.</p>
+     *
+     * <ul>
+     *   <li>Solo se admite en órdenes en {@code CREATED} o {@code CREATED_WITH_ERRORS}: una vez en proceso
+     *       sus dispositivos ya no cambian.</li>
+     *   <li>Agregar un dispositivo que la orden ya tiene, o retirar uno que no tiene, no hace nada.</li>
+     *   <li>Un dispositivo no puede estar en ambas listas.</li>
+     *   <li>Los errores de verificación, reserva o restauración se registran como errores de integración,
+     *       igual que en {@link #updateOrder}; los items de los bloques no restaurados se conservan.</li>
+     *   <li>Los dispositivos a agregar solo se reservan si todos se verificaron (existen y están disponibles),
+     *       y solo se insertan sus items si la reserva se confirmó. La reserva se registra en una saga
+     *       ({@link OrderSagaService}) que la deshace si los items no llegan a persistirse.</li>
+     *   <li>Los errores se insertan en la misma transacción que los items: si falla, no queda ninguno.</li>
+     * </ul>
+     *
+     * @param orderId UUID de la orden a modificar
+     * @param patchRq dispositivos a agregar y a retirar
+     * @throws OrderException si la orden no existe (NOT_FOUND), ya no está en creación (CONFLICT)
+     *                        o la solicitud no es válida (BAD_REQUEST)
+     */
+    @Override
+    public void patchOrderDevices(UUID orderId, OrderDevicesPatchRq patchRq) {
+        UuidSet toAdd = UuidSet.of(patchRq.getAdd() != null ? patchRq.getAdd() : Collections.emptyList());
+        UuidSet toRemove = UuidSet.of(patchRq.getRemove() != null ? patchRq.getRemove() : Collections.emptyList());
+        if (toAdd.isEmpty() && toRemove.isEmpty()) {
+            throw new OrderException(MessageException.INVALID_EQUIPMENT_LIST, OrderException.Type.BAD_REQUEST);
+        }
+        List<UUID> inBoth = toAdd.toList().stream().filter(toRemove::contains).toList();
+        if (!inBoth.isEmpty()) {
+            throw new OrderException(
+                    String.format(MessageException.OPERATION_NOT_ALLOWED, "add and remove the same equipment " + inBoth),
+                    OrderException.Type.BAD_REQUEST);
+        }
+
+        // Recuperar la orden (sin sus items)
+        Order order = orderRepository.findById(orderId).orElseThrow(
+                () -> new OrderException(String.format(MessageException.ORDER_NOT_FOUND, orderId), OrderException.Type.NOT_FOUND)
+        );
+        if (order.getState() != OrderState.CREATED && order.getState() != OrderState.CREATED_WITH_ERRORS) {
+            throw new OrderException(
+                    String.format(MessageException.ORDER_DEVICES_NOT_EDITABLE, orderId, order.getState()),
+                    OrderException.Type.CONFLICT);
+        }
+
+        // Consultar solo los items de los dispositivos afectados
+        List<UUID> affectedIds = new ArrayList<>(toAdd.size() + toRemove.size());
+        affectedIds.addAll(toAdd.toList());
+        affectedIds.addAll(toRemove.toList());
+        List<OrderItem> affectedItems = orderItemRepository.findByOrderIdAndDeviceIdIn(orderId, affectedIds);
+
+        UuidSet present = new UuidSet(affectedItems.size());
+        Map<UUID, String> originalStatesToRestore = new LinkedHashMap<>();
+        for (OrderItem item : affectedItems) {
+            present.add(item.getDeviceId());
+            if (toRemove.contains(item.getDeviceId())) {
+                originalStatesToRestore.putIfAbsent(item.getDeviceId(), item.getOriginalDeviceState());
+            }
+        }
+
+        // Retirar: restaurar estados por bloques; solo se borran los items restaurados
+        List<OrderIntegrationErrorDto> errors = new ArrayList<>();
+        UuidSet restored = originalStatesToRestore.isEmpty()
+                ? new UuidSet(0)
+                : restoreDevicesInChunks(originalStatesToRestore, order, errors);
+        List<OrderItem> itemsToDelete = affectedItems.stream()
+                .filter(item -> restored.contains(item.getDeviceId()))
+                .toList();
+
+        // Agregar: verificar los dispositivos que la orden no tiene y reservarlos solo si todos se
+        // verificaron, registrando la saga de la reserva; solo se insertan items reservados
+        List<UUID> devicesToAdd = toAdd.toList().stream().filter(id -> !present.contains(id)).toList();
+        Map<UUID, String> newDeviceStates = Collections.emptyMap();
+        List<UUID> sagaIds = new ArrayList<>(1);
+        List<UUID> reservedSagaIds = new ArrayList<>(1);
+        if (!devicesToAdd.isEmpty()) {
+            List<OrderIntegrationErrorDto> addErrors = new ArrayList<>();
+            Map<UUID, String> verifiedStates = verifyDevicesAndFetchState(devicesToAdd, addErrors);
+            if (addErrors.isEmpty()) {
+                UUID sagaId = orderSagaService.startCreation(order.getId(), verifiedStates);
+                sagaIds.add(sagaId);
+                if (reserveDevices(new ArrayList<>(verifiedStates.keySet()), order.getId(), addErrors)) {
+                    reservedSagaIds.add(sagaId);
+                    orderSagaService.markReserved(reservedSagaIds);
+                    newDeviceStates = verifiedStates;
+                }
+            }
+            errors.addAll(addErrors);
+        }
 
-            // Publicar el evento
-            publishOrderEvent(order, recipients);
+        // Insertar y borrar únicamente las filas afectadas, los errores y el cierre de la saga en una sola transacción
+        Map<UUID, String> devicesToSave = newDeviceStates;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!itemsToDelete.isEmpty()) {
+                    orderItemRepository.deleteAll(itemsToDelete);
+                }
+                if (!devicesToSave.isEmpty()) {
+                    List<OrderItem> newItems = new ArrayList<>(devicesToSave.size());
+                    devicesToSave.forEach((deviceId, originalState) -> newItems.add(OrderItem.builder()
+                            .order(order)
+                            .deviceId(deviceId)
+                            .originalDeviceState(originalState)
+                            .build()));
+                    orderItemRepository.saveAll(newItems);
+                }
+
+                recordIntegrationErrors(order, errors);
+                validateOrderState(order, orderItemRepository.existsByOrderId(orderId));
+                orderRepository.save(order);
+                orderSagaService.complete(sagaIds);
+            });
+        } catch (RuntimeException ex) {
+            // Los items no se insertaron: deshacer la reserva en segundo plano
+            orderSagaService.compensate(sagaIds, reservedSagaIds, ex);
+            throw ex;
         }
+
+        log.info("Orden {} modificada: {} equipos agregados, {} retirados", orderId, devicesToSave.size(), itemsToDelete.size());
     }
 
     /**
-     * Método auxiliar que centraliza las validaciones de corte temprano del flujo de creación de orden:
-     * - Si la orden tiene errores (estado {@link OrderState#CREATED_WITH_ERRORS}), se persiste y retorna el DTO.
-     * - Si la lista de destinatarios es nula o vacía, retorna el DTO.
-     * - Si todo es válido, retorna un Optional vacío.
+     * Método auxiliar que centraliza las validaciones del flujo de creación de orden para decidir si se publica el evento:
+     * - Si la orden tiene errores (estado {@link OrderState#CREATED_WITH_ERRORS}), no se publica.
+     * - Si la lista de destinatarios es nula o vacía, no se publica.
      *
      * @param order      La orden a validar.
      * @param recipients Lista de destinatarios de notificación.
-     * @return Optional con DTO de la orden solo si se debe salir del flujo principal.
+     * @return {@code true} si se debe publicar el evento de la orden.
      */
-    private Optional<OrderRs> shouldReturnEarly(Order order, List<String> recipients) {
+    private boolean shouldPublishEvent(Order order, List<String> recipients) {
         if (order.getState() == OrderState.CREATED_WITH_ERRORS) {
-            orderRepository.saveAndFlush(order);
-            return Optional.of(toOrderRs(order));
-        }
-        if (recipients == null || recipients.isEmpty()) {
-            return Optional.of(toOrderRs(order));
+            return false;
         }
-        return Optional.empty();
+        return recipients != null && !recipients.isEmpty();
     }
 
     /**
@@ -1157,17 +2218,15 @@ public class OrderServiceImpl implements OrderService {
      *
      * Si cumple todas las condiciones, cambia el estado a CREATED.
      *
-     * @param order orden a validar
+     * @param order      orden a validar
+     * @param hasDevices  si la orden tiene al menos un dispositivo asignado
      */
-    private void validateOrderState(Order order) {
+    private void validateOrderState(Order order, boolean hasDevices) {
         // Solo aplicar si el estado actual es CREATED_WITH_ERRORS
         if (!OrderState.CREATED_WITH_ERRORS.equals(order.getState())) {
             return;
         }
 
-        // Validar que tenga al menos un dispositivo
-        boolean hasDevices = order.getItems() != null && !order.getItems().isEmpty();
-
         // Validar que tenga assignee configurado
         boolean hasAssignee = order.getAssigneeType() != null && order.getAssigneeId() != null;
 
@@ -1183,15 +2242,17 @@ public class OrderServiceImpl implements OrderService {
      *
      * Realiza la llamada al microservicio de dispositivos para restaurar los estados
      * originales de cada dispositivo. Si ocurre algún error durante la comunicación,
-     * registra el error en el snapshot de la orden para trazabilidad.
+     * acumula el error de integración para registrarlo junto con los cambios de la orden.
      *
      * @param restoreDevicesRq solicitud con los dispositivos y sus estados originales a restaurar
      * @param order orden que contiene los dispositivos a restaurar
+     * @param errors lista donde se acumulan los errores de integración
+     * @return {@code true} si los dispositivos se restauraron; {@code false} si se registró un error
      * @throws FeignException.ServiceUnavailable si el servicio de dispositivos no está disponible (503)
      * @throws FeignException.BadRequest si la solicitud es inválida (400)
      * @throws FeignException si ocurre otro error de comunicación con el servicio
      */
-    private void restoreDevices(RestoreDevicesRq restoreDevicesRq, Order order) {
+    private boolean restoreDevices(RestoreDevicesRq restoreDevicesRq, Order order, List<OrderIntegrationErrorDto> errors) {
 
         String errorMsg = null;
         String errorType = null;
@@ -1203,7 +2264,7 @@ public class OrderServiceImpl implements OrderService {
 
         try {
             // Llamar al cliente Feign para restaurar los dispositivos
-            ApiResponseDto<Void> response  = devicesClient.restoreDeviceStates(restoreDevicesRq);
+            ApiResponseDto<Void> response  = devicesGateway.restoreDeviceStates(restoreDevicesRq);
 
             // Verifica el éxito de la operación
             if (!response.isSuccess()) {
@@ -1238,10 +2299,12 @@ public class OrderServiceImpl implements OrderService {
                     .service("devices")
                     .type(errorType)
                     .message("Error al restaurar dispositivos: " + errorMsg)
-                    .timestamp(java.time.Instant.now())
+                    .timestamp(Instant.now())
                     .deviceIds(devicesIds)
                     .build();
-            addErrorToOrderSnapshot(order, errorDto);
+            errors.add(errorDto);
+            return false;
         }
+        return true;
     }
 }
@@ -0,0 +1,109 @@
+package com.infragest.infra_orders_service.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Diferencia entre los dispositivos actuales de una orden y los solicitados en una actualización.
+ *
+ * <p>Calcula en tiempo lineal los dispositivos a agregar, a retirar y los que se mantienen, usando
+ * {@link UuidSet} en lugar de búsquedas en listas. Los repetidos se ignoran; {@link #toAdd()} conserva
+ * el orden de la solicitud y {@link #toRemove()} el de los dispositivos actuales.</p>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+public final class DeviceSetDiff {
+
+    private final UuidSet current;
+
+    private final UuidSet requested;
+
+    private final List<UUID> toAdd;
+
+    private final List<UUID> toRemove;
+
+    private DeviceSetDiff(UuidSet current, UuidSet requested, List<UUID> toAdd, List<UUID> toRemove) {
+        this.current = current;
+        this.requested = requested;
+        this.toAdd = toAdd;
+        this.toRemove = toRemove;
+    }
+
+    /**
+     * Calcula la diferencia.
+     *
+     * @param currentIds   dispositivos actuales de la orden
+     * @param requestedIds dispositivos solicitados
+     * @return diferencia entre ambos conjuntos
+     */
+    public static DeviceSetDiff of(Collection<UUID> currentIds, Collection<UUID> requestedIds) {
+        UuidSet current = UuidSet.of(currentIds);
+        UuidSet requested = UuidSet.of(requestedIds);
+
+        List<UUID> toAdd = new ArrayList<>();
+        for (int i = 0; i < requested.size(); i++) {
+            UUID id = requested.get(i);
+            if (!current.contains(id)) {
+                toAdd.add(id);
+            }
+        }
+
+        List<UUID> toRemove = new ArrayList<>();
+        for (int i = 0; i < current.size(); i++) {
+            UUID id = current.get(i);
+            if (!requested.contains(id)) {
+                toRemove.add(id);
+            }
+        }
+        return new DeviceSetDiff(current, requested, toAdd, toRemove);
+    }
+
+    /**
+     * Dispositivos solicitados que la orden aún no tiene.
+     *
+     * @return dispositivos a agregar
+     */
+    public List<UUID> toAdd() {
+        return toAdd;
+    }
+
+    /**
+     * Dispositivos de la orden que ya no se solicitan.
+     *
+     * @return dispositivos a retirar
+     */
+    public List<UUID> toRemove() {
+        return toRemove;
+    }
+
+    /**
+     * Número de dispositivos que la orden mantiene.
+     *
+     * @return dispositivos presentes en ambos conjuntos
+     */
+    public int keptCount() {
+        return current.size() - toRemove.size();
+    }
+
+    /**
+     * Indica si el dispositivo se retira de la orden (está en los actuales pero no en los solicitados).
+     *
+     * @param deviceId dispositivo
+     * @return {@code true} si se retira
+     */
+    public boolean isRemoved(UUID deviceId) {
+        return current.contains(deviceId) && !requested.contains(deviceId);
+    }
+
+    /**
+     * Indica si la actualización cambia los dispositivos de la orden.
+     *
+     * @return {@code true} si hay dispositivos a agregar o retirar
+     */
+    public boolean hasChanges() {
+        return !toAdd.isEmpty() || !toRemove.isEmpty();
+    }
+}
@@ -16,6 +16,7 @@ public abstract class MessageException {
     public static final String ORDER_CREATE_FAILED = "Failed to create the order: %s";
     public static final String ORDER_STATE_TRANSITION_INVALID = "Invalid state transition for order %s: %s";
     public static final String ORDER_ALREADY_FINALIZED = "Order %s is already finalized";
+    public static final String ORDER_DEVICES_NOT_EDITABLE = "Devices of order %s cannot be changed in state %s";
 
     // Devices / Equipment
     public static final String DEVICE_ERROR_COMMUNICATION = "Error communicating with the devices service.";
@@ -42,6 +43,8 @@ public abstract class MessageException {
     public static final String INVALID_REQUEST = "Invalid request";
     public static final String INVALID_UUID = "Invalid identifier: %s";
     public static final String MISSING_PARAMETER = "Missing required parameter: %s";
+    public static final String INVALID_CURSOR = "Invalid pagination cursor: %s";
+    public static final String INVALID_TIME_WINDOW = "Invalid time window: 'from' (%s) must be before 'to' (%s)";
 
     // Operation / permissions / DB / internal
     public static final String OPERATION_NOT_ALLOWED = "Operation not allowed: %s";
@@ -0,0 +1,59 @@
+package com.infragest.infra_orders_service.util;
+
+import com.infragest.infra_orders_service.excepcion.OrderException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Cursor de paginación keyset para órdenes, basado en el par ({@code createdAt}, {@code id}).
+ *
+ * <p>Se serializa como Base64 URL-safe de {@code "<createdAt ISO>|<uuid>"} para que el cliente
+ * lo trate como un valor opaco.</p>
+ *
+ * @param createdAt fecha de creación de la última orden devuelta.
+ * @param id        UUID de la última orden devuelta (desempate).
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+public record OrderCursor(LocalDateTime createdAt, UUID id) {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Codifica el cursor como cadena opaca.
+     *
+     * @return cursor en Base64 URL-safe sin padding.
+     */
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor recibido del cliente.
+     *
+     * @param cursor cadena opaca generada por {@link #encode()}; puede ser {@code null} o vacía.
+     * @return el cursor decodificado, o {@code null} si no se envió cursor.
+     * @throws OrderException (BAD_REQUEST) si el cursor no tiene un formato válido.
+     */
+    public static OrderCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int idx = raw.indexOf(SEPARATOR);
+            return new OrderCursor(
+                    LocalDateTime.parse(raw.substring(0, idx)),
+                    UUID.fromString(raw.substring(idx + 1)));
+        } catch (Exception ex) {
+            throw new OrderException(
+                    String.format(MessageException.INVALID_CURSOR, cursor),
+                    OrderException.Type.BAD_REQUEST);
+        }
+    }
+}
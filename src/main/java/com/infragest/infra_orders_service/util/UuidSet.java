@@ -0,0 +1,210 @@
+package com.infragest.infra_orders_service.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Conjunto compacto de UUID guardados como pares de {@code long} (bits altos y bajos).
+ *
+ * <p>Pensado para órdenes con miles de dispositivos: no crea un nodo ni un objeto por elemento como
+ * {@link java.util.HashSet}, sino dos arrays de {@code long} en orden de inserción y una tabla hash de
+ * direccionamiento abierto con los índices. Ocupa unos 24 bytes por elemento y las operaciones son O(1)
+ * amortizado; la iteración ({@link #get(int)}) respeta el orden de inserción.</p>
+ *
+ * <p>No es thread-safe y no admite borrados.</p>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+public final class UuidSet {
+
+    private static final int MIN_CAPACITY = 4;
+
+    private long[] mostSigBits;
+
+    private long[] leastSigBits;
+
+    private int size;
+
+    /**
+     * Tabla hash: 0 = hueco libre; en otro caso, índice + 1 del elemento en los arrays de bits.
+     */
+    private int[] table;
+
+    private int mask;
+
+    /**
+     * Crea un conjunto vacío dimensionado para {@code expectedSize} elementos.
+     *
+     * @param expectedSize número de elementos esperado
+     */
+    public UuidSet(int expectedSize) {
+        int capacity = Math.max(MIN_CAPACITY, expectedSize);
+        this.mostSigBits = new long[capacity];
+        this.leastSigBits = new long[capacity];
+        this.table = new int[tableSizeFor(capacity)];
+        this.mask = table.length - 1;
+    }
+
+    /**
+     * Crea un conjunto con los UUID indicados (los repetidos y {@code null} se ignoran).
+     *
+     * @param ids UUID a incluir
+     * @return conjunto con los UUID
+     */
+    public static UuidSet of(Collection<UUID> ids) {
+        UuidSet set = new UuidSet(ids.size());
+        for (UUID id : ids) {
+            if (id != null) {
+                set.add(id);
+            }
+        }
+        return set;
+    }
+
+    /**
+     * Añade un UUID.
+     *
+     * @param id UUID a añadir
+     * @return {@code true} si no estaba en el conjunto
+     */
+    public boolean add(UUID id) {
+        return add(id.getMostSignificantBits(), id.getLeastSignificantBits());
+    }
+
+    /**
+     * Añade un UUID a partir de sus bits.
+     *
+     * @param msb bits altos
+     * @param lsb bits bajos
+     * @return {@code true} si no estaba en el conjunto
+     */
+    public boolean add(long msb, long lsb) {
+        int slot = hash(msb, lsb) & mask;
+        for (int entry = table[slot]; entry != 0; entry = table[slot]) {
+            if (mostSigBits[entry - 1] == msb && leastSigBits[entry - 1] == lsb) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (size == mostSigBits.length) {
+            mostSigBits = Arrays.copyOf(mostSigBits, size * 2);
+            leastSigBits = Arrays.copyOf(leastSigBits, size * 2);
+        }
+        mostSigBits[size] = msb;
+        leastSigBits[size] = lsb;
+        table[slot] = ++size;
+
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * Indica si el UUID está en el conjunto.
+     *
+     * @param id UUID a buscar ({@code null} nunca está)
+     * @return {@code true} si está
+     */
+    public boolean contains(UUID id) {
+        return id != null && contains(id.getMostSignificantBits(), id.getLeastSignificantBits());
+    }
+
+    /**
+     * Indica si el UUID con los bits indicados está en el conjunto.
+     *
+     * @param msb bits altos
+     * @param lsb bits bajos
+     * @return {@code true} si está
+     */
+    public boolean contains(long msb, long lsb) {
+        int slot = hash(msb, lsb) & mask;
+        for (int entry = table[slot]; entry != 0; entry = table[slot]) {
+            if (mostSigBits[entry - 1] == msb && leastSigBits[entry - 1] == lsb) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Número de elementos.
+     *
+     * @return tamaño del conjunto
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Indica si el conjunto está vacío.
+     *
+     * @return {@code true} si no tiene elementos
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Elemento en la posición indicada (orden de inserción).
+     *
+     * @param index posición entre 0 y {@code size() - 1}
+     * @return UUID en esa posición
+     */
+    public UUID get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return new UUID(mostSigBits[index], leastSigBits[index]);
+    }
+
+    /**
+     * Copia los elementos a una lista, en orden de inserción.
+     *
+     * @return lista con los UUID
+     */
+    public List<UUID> toList() {
+        List<UUID> ids = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ids.add(new UUID(mostSigBits[i], leastSigBits[i]));
+        }
+        return ids;
+    }
+
+    private void rehash(int tableSize) {
+        table = new int[tableSize];
+        mask = tableSize - 1;
+        for (int i = 0; i < size; i++) {
+            int slot = hash(mostSigBits[i], leastSigBits[i]) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = i + 1;
+        }
+    }
+
+    /**
+     * Mezcla los 128 bits (finalizador de MurmurHash3), de modo que UUID secuenciales o con bits
+     * fijos (versión, variante) se repartan bien en la tabla.
+     */
+    private static int hash(long msb, long lsb) {
+        long h = msb ^ Long.rotateLeft(lsb, 32);
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int size = Integer.highestOneBit(capacity * 2 - 1) << 1;
+        return Math.max(MIN_CAPACITY * 2, size);
+    }
+}
@@ -0,0 +1,126 @@
+package com.infragest.infra_orders_service.benchmark;
+
+import com.infragest.infra_orders_service.entity.OrderItem;
+import com.infragest.infra_orders_service.util.DeviceSetDiff;
+import com.infragest.infra_orders_service.util.UuidSet;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Benchmark JMH de la diferencia de dispositivos de {@code updateOrder}: la versión anterior
+ * ({@code HashSet} y búsquedas en {@code List}) frente a {@link DeviceSetDiff}.
+ *
+ * <p>Cada escenario es una orden con {@code devices} dispositivos a la que la actualización retira un
+ * {@code churnPercent}% y agrega otros tantos. Se mide todo el trabajo en memoria de la actualización:
+ * calcular los conjuntos, obtener los estados a restaurar y eliminar los items retirados.</p>
+ *
+ * <p>Ejecución: tras {@code mvn test-compile} (que genera las clases de JMH), lanzar {@link #main}
+ * con el classpath de test.</p>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class DeviceSetDiffBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int devices;
+
+    @Param({"10"})
+    public int churnPercent;
+
+    private List<OrderItem> items;
+
+    private List<UUID> requested;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int churn = devices * churnPercent / 100;
+        items = new ArrayList<>(devices);
+        requested = new ArrayList<>(devices);
+        for (int i = 0; i < devices; i++) {
+            UUID deviceId = UUID.randomUUID();
+            items.add(OrderItem.builder().deviceId(deviceId).originalDeviceState("GOOD_CONDITION").build());
+            if (i >= churn) {
+                requested.add(deviceId);
+            }
+        }
+        for (int i = 0; i < churn; i++) {
+            requested.add(UUID.randomUUID());
+        }
+    }
+
+    /**
+     * Versión anterior de {@code updateOrder}.
+     */
+    @Benchmark
+    public Object legacy() {
+        List<OrderItem> orderItems = new ArrayList<>(items);
+
+        Set<UUID> currentDeviceIds = orderItems.stream()
+                .map(OrderItem::getDeviceId)
+                .collect(Collectors.toSet());
+        Set<UUID> newDeviceIds = new HashSet<>(requested);
+
+        List<UUID> devicesToAdd = newDeviceIds.stream()
+                .filter(id -> !currentDeviceIds.contains(id))
+                .collect(Collectors.toList());
+        List<UUID> devicesToRemove = currentDeviceIds.stream()
+                .filter(id -> !newDeviceIds.contains(id))
+                .collect(Collectors.toList());
+
+        Map<UUID, String> originalStatesToRestore = orderItems.stream()
+                .filter(item -> devicesToRemove.contains(item.getDeviceId()))
+                .collect(Collectors.toMap(OrderItem::getDeviceId, OrderItem::getOriginalDeviceState));
+        orderItems.removeIf(item -> devicesToRemove.contains(item.getDeviceId()));
+
+        return devicesToAdd.size() + originalStatesToRestore.size() + orderItems.size();
+    }
+
+    /**
+     * Versión con {@link DeviceSetDiff}, como en {@code releaseRemovedDevices}.
+     */
+    @Benchmark
+    public Object diffEngine() {
+        List<OrderItem> orderItems = new ArrayList<>(items);
+
+        List<UUID> currentDeviceIds = new ArrayList<>(orderItems.size());
+        orderItems.forEach(item -> currentDeviceIds.add(item.getDeviceId()));
+        DeviceSetDiff diff = DeviceSetDiff.of(currentDeviceIds, requested);
+
+        Map<UUID, String> originalStatesToRestore = new LinkedHashMap<>(diff.toRemove().size() * 2);
+        for (OrderItem item : orderItems) {
+            if (diff.isRemoved(item.getDeviceId())) {
+                originalStatesToRestore.putIfAbsent(item.getDeviceId(), item.getOriginalDeviceState());
+            }
+        }
+        UuidSet restored = UuidSet.of(originalStatesToRestore.keySet());
+        orderItems.removeIf(item -> restored.contains(item.getDeviceId()));
+
+        return diff.toAdd().size() + originalStatesToRestore.size() + orderItems.size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DeviceSetDiffBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
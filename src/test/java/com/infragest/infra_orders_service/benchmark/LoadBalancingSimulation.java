@@ -0,0 +1,140 @@
+package com.infragest.infra_orders_service.benchmark;
+
+import com.infragest.infra_orders_service.client.PeakEwmaSelector;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+/**
+ * Simulación local del balanceo entre réplicas heterogéneas: compara el round-robin por defecto con
+ * el balanceo por latencia de {@code LatencyAwareLoadBalancer} ({@link PeakEwmaSelector}).
+ *
+ * <p>Es una simulación de eventos discretos en tiempo virtual (determinista y de pocos segundos):</p>
+ * <ul>
+ *   <li>Cuatro réplicas con {@value #WORKERS} peticiones simultáneas cada una; una es cinco veces más
+ *       lenta y otra se degrada a mitad de la simulación.</li>
+ *   <li>Llegadas de Poisson a {@value #REQUESTS_PER_SECOND} peticiones por segundo y tiempos de servicio
+ *       exponenciales; lo que no cabe en una réplica espera en su cola.</li>
+ *   <li>El selector recibe el inicio y el final de cada petición en el orden en que ocurren, como en el
+ *       ciclo de vida del balanceador real.</li>
+ * </ul>
+ *
+ * <p>Ejecución: lanzar {@link #main} con el classpath de test. Imprime los percentiles de latencia y el
+ * reparto de peticiones por réplica de cada estrategia.</p>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+public class LoadBalancingSimulation {
+
+    private static final int WORKERS = 4;
+
+    private static final int REQUESTS_PER_SECOND = 280;
+
+    private static final int REQUESTS = 200_000;
+
+    private static final long SEED = 42L;
+
+    private static final long MILLIS = 1_000_000L;
+
+    /**
+     * Réplica simulada.
+     *
+     * @param name               nombre de la réplica
+     * @param serviceMillis      tiempo medio de servicio
+     * @param degradedMillis     tiempo medio de servicio tras degradarse
+     * @param degradesAtRequest  petición a partir de la cual se degrada
+     */
+    private record Replica(String name, double serviceMillis, double degradedMillis, int degradesAtRequest) {
+    }
+
+    /**
+     * Fin de una petición pendiente de notificar al selector.
+     */
+    private record Completion(long at, int replica, long latencyNanos) {
+    }
+
+    private static final List<Replica> REPLICAS = List.of(
+            new Replica("devices-1", 10, 10, Integer.MAX_VALUE),
+            new Replica("devices-2", 10, 10, Integer.MAX_VALUE),
+            new Replica("devices-3", 50, 50, Integer.MAX_VALUE),
+            new Replica("devices-4", 10, 40, REQUESTS / 2));
+
+    public static void main(String[] args) {
+        print("round-robin", simulate(false));
+        print("peak-ewma p2c", simulate(true));
+    }
+
+    /**
+     * Ejecuta la simulación con una estrategia.
+     *
+     * @param latencyAware {@code true} para el balanceo por latencia, {@code false} para round-robin
+     * @return latencias (ns) de cada petición, seguidas del reparto por réplica en la última fila
+     */
+    private static long[][] simulate(boolean latencyAware) {
+        Random arrivals = new Random(SEED);
+        Random services = new Random(SEED + 1);
+        long[] now = {0};
+        LongSupplier clock = () -> now[0];
+        PeakEwmaSelector<Integer> selector = new PeakEwmaSelector<>(String::valueOf,
+                Duration.ofSeconds(10), Duration.ofSeconds(5), clock, new Random(SEED + 2));
+        List<Integer> candidates = List.of(0, 1, 2, 3);
+
+        long[][] workerFreeAt = new long[REPLICAS.size()][WORKERS];
+        PriorityQueue<Completion> pending = new PriorityQueue<>((a, b) -> Long.compare(a.at(), b.at()));
+        long[] latencies = new long[REQUESTS];
+        long[] share = new long[REPLICAS.size()];
+
+        for (int i = 0; i < REQUESTS; i++) {
+            now[0] += (long) (-Math.log(1 - arrivals.nextDouble()) / REQUESTS_PER_SECOND * 1_000 * MILLIS);
+
+            // Notificar al selector las peticiones terminadas antes de esta llegada
+            while (!pending.isEmpty() && pending.peek().at() <= now[0]) {
+                Completion done = pending.poll();
+                long arrivalTime = now[0];
+                now[0] = done.at();
+                selector.onComplete(done.replica(), done.latencyNanos(), false);
+                now[0] = arrivalTime;
+            }
+
+            int replicaIndex = latencyAware ? selector.choose(candidates) : i % REPLICAS.size();
+            selector.onStart(replicaIndex);
+            share[replicaIndex]++;
+
+            Replica replica = REPLICAS.get(replicaIndex);
+            double meanMillis = i >= replica.degradesAtRequest() ? replica.degradedMillis() : replica.serviceMillis();
+            long[] freeAt = workerFreeAt[replicaIndex];
+            int worker = 0;
+            for (int w = 1; w < freeAt.length; w++) {
+                if (freeAt[w] < freeAt[worker]) {
+                    worker = w;
+                }
+            }
+            long start = Math.max(now[0], freeAt[worker]);
+            long finish = start + (long) (-Math.log(1 - services.nextDouble()) * meanMillis * MILLIS);
+            freeAt[worker] = finish;
+
+            latencies[i] = finish - now[0];
+            pending.add(new Completion(finish, replicaIndex, latencies[i]));
+        }
+        return new long[][]{latencies, share};
+    }
+
+    private static void print(String strategy, long[][] result) {
+        long[] latencies = result[0].clone();
+        Arrays.sort(latencies);
+        System.out.printf("%-14s p50=%7.1f ms  p90=%7.1f ms  p99=%7.1f ms  p99.9=%7.1f ms  reparto=%s%n",
+                strategy,
+                percentile(latencies, 0.50), percentile(latencies, 0.90),
+                percentile(latencies, 0.99), percentile(latencies, 0.999),
+                Arrays.toString(result[1]));
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)] / (double) MILLIS;
+    }
+}
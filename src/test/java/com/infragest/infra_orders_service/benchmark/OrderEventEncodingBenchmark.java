@@ -0,0 +1,109 @@
+package com.infragest.infra_orders_service.benchmark;
+
+import com.infragest.infra_orders_service.config.CborMessageConverter;
+import com.infragest.infra_orders_service.config.RabbitMQConfig;
+import com.infragest.infra_orders_service.enums.OrderState;
+import com.infragest.infra_orders_service.event.OrderEvent;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Benchmark JMH que compara la codificación JSON y CBOR de {@link OrderEvent}: tamaño del mensaje
+ * y tiempo de codificación/decodificación con los convertidores usados por RabbitMQ.
+ *
+ * <p>Los eventos son realistas: una orden asignada a un grupo con {@code recipients} destinatarios
+ * y {@code devices} dispositivos. El tamaño de cada codificación se imprime al preparar cada escenario.</p>
+ *
+ * <p>Ejecución: tras {@code mvn test-compile} (que genera las clases de JMH), lanzar {@link #main}
+ * con el classpath de test.</p>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderEventEncodingBenchmark {
+
+    @Param({"10", "500", "5000"})
+    public int recipients;
+
+    @Param({"20"})
+    public int devices;
+
+    private Jackson2JsonMessageConverter jsonConverter;
+
+    private CborMessageConverter cborConverter;
+
+    private OrderEvent event;
+
+    private Message jsonMessage;
+
+    private Message cborMessage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jsonConverter = new Jackson2JsonMessageConverter(RabbitMQConfig.TRUSTED_PACKAGE);
+        cborConverter = new CborMessageConverter(RabbitMQConfig.TRUSTED_PACKAGE);
+
+        event = OrderEvent.builder()
+                .orderId(UUID.randomUUID())
+                .state(OrderState.CREATED)
+                .description("Mantenimiento preventivo de equipos de la sede central")
+                .assigneeType("GROUP")
+                .assigneeId(UUID.randomUUID())
+                .deviceIds(IntStream.range(0, devices).mapToObj(i -> UUID.randomUUID()).toList())
+                .recipientEmails(IntStream.range(0, recipients)
+                        .mapToObj(i -> "empleado" + i + ".soporte@infragest.com")
+                        .toList())
+                .build();
+
+        jsonMessage = jsonConverter.toMessage(event, new MessageProperties());
+        cborMessage = cborConverter.toMessage(event, new MessageProperties());
+
+        int jsonSize = jsonMessage.getBody().length;
+        int cborSize = cborMessage.getBody().length;
+        System.out.printf("%nrecipients=%d devices=%d -> JSON: %d bytes, CBOR: %d bytes (%.1f%%)%n",
+                recipients, devices, jsonSize, cborSize, 100.0 * cborSize / jsonSize);
+    }
+
+    @Benchmark
+    public Message encodeJson() {
+        return jsonConverter.toMessage(event, new MessageProperties());
+    }
+
+    @Benchmark
+    public Message encodeCbor() {
+        return cborConverter.toMessage(event, new MessageProperties());
+    }
+
+    @Benchmark
+    public Object decodeJson() {
+        return jsonConverter.fromMessage(jsonMessage);
+    }
+
+    @Benchmark
+    public Object decodeCbor() {
+        return cborConverter.fromMessage(cborMessage);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OrderEventEncodingBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,223 @@
+package com.infragest.infra_orders_service.client;
+
+import com.infragest.infra_orders_service.model.ApiResponseDto;
+import com.infragest.infra_orders_service.model.DeviceReservationBatchRq;
+import com.infragest.infra_orders_service.model.DeviceReservationResultRs;
+import feign.FeignException;
+import feign.Request;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas de {@link ReservationBatcher}: reparto de la respuesta combinada por orden, reenvío individual
+ * cuando no hay resultado atribuible, propagación de errores del servidor y separación por credenciales.
+ *
+ * <p>Los lotes se cierran al llegar a dos órdenes ({@code maxOrders}) con una ventana larga, de modo que
+ * dos reservas concurrentes siempre viajan juntas.</p>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+class ReservationBatcherTest {
+
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private static final String STATE = "OCCUPIED";
+
+    private static final String TOKEN = "token-a";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    private final List<DeviceReservationBatchRq> combinedRequests = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger singleCalls = new AtomicInteger();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void combinedResponseIsDemultiplexedPerOrder() throws Exception {
+        UUID orderA = UUID.randomUUID();
+        UUID orderB = UUID.randomUUID();
+        ReservationBatcher batcher = batcher(Duration.ofSeconds(TIMEOUT_SECONDS), rq -> new ApiResponseDto<>(true, "ok",
+                List.of(new DeviceReservationResultRs(orderA, true, "reservada A"),
+                        new DeviceReservationResultRs(orderB, false, "ocupados B"))));
+
+        CompletableFuture<ApiResponseDto<Void>> a = reserveAsync(batcher, TOKEN, orderA);
+        CompletableFuture<ApiResponseDto<Void>> b = reserveAsync(batcher, TOKEN, orderB);
+
+        ApiResponseDto<Void> resultA = a.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        ApiResponseDto<Void> resultB = b.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertTrue(resultA.isSuccess());
+        assertEquals("reservada A", resultA.getMessage());
+        assertFalse(resultB.isSuccess());
+        assertEquals("ocupados B", resultB.getMessage());
+
+        assertEquals(1, combinedRequests.size());
+        DeviceReservationBatchRq request = combinedRequests.get(0);
+        assertEquals(STATE, request.getState());
+        assertEquals(2, request.getReservations().size());
+        assertEquals(0, singleCalls.get());
+        assertEquals(0.0, fallbacks());
+    }
+
+    @Test
+    void orderWithoutResultFallsBackToSingleCall() throws Exception {
+        UUID orderA = UUID.randomUUID();
+        UUID orderB = UUID.randomUUID();
+        ReservationBatcher batcher = batcher(Duration.ofSeconds(TIMEOUT_SECONDS), rq -> new ApiResponseDto<>(true, "ok",
+                List.of(new DeviceReservationResultRs(orderA, true, "reservada A"))));
+
+        CompletableFuture<ApiResponseDto<Void>> a = reserveAsync(batcher, TOKEN, orderA);
+        CompletableFuture<ApiResponseDto<Void>> b = reserveAsync(batcher, TOKEN, orderB);
+
+        assertEquals("reservada A", a.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).getMessage());
+        assertEquals("single " + orderB, b.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).getMessage());
+        assertEquals(1, singleCalls.get());
+        assertEquals(1.0, fallbacks());
+    }
+
+    @Test
+    void successWithoutDetailIsNotTakenAsReserved() throws Exception {
+        UUID orderA = UUID.randomUUID();
+        UUID orderB = UUID.randomUUID();
+        ReservationBatcher batcher = batcher(Duration.ofSeconds(TIMEOUT_SECONDS),
+                rq -> new ApiResponseDto<>(true, "ok", null));
+
+        CompletableFuture<ApiResponseDto<Void>> a = reserveAsync(batcher, TOKEN, orderA);
+        CompletableFuture<ApiResponseDto<Void>> b = reserveAsync(batcher, TOKEN, orderB);
+
+        assertEquals("single " + orderA, a.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).getMessage());
+        assertEquals("single " + orderB, b.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).getMessage());
+        assertEquals(2, singleCalls.get());
+        assertEquals(2.0, fallbacks());
+    }
+
+    @Test
+    void clientErrorFallsBackToSingleCalls() throws Exception {
+        ReservationBatcher batcher = batcher(Duration.ofSeconds(TIMEOUT_SECONDS), rq -> {
+            throw new FeignException.BadRequest("orden inválida", request(), null, Map.of());
+        });
+
+        CompletableFuture<ApiResponseDto<Void>> a = reserveAsync(batcher, TOKEN, UUID.randomUUID());
+        CompletableFuture<ApiResponseDto<Void>> b = reserveAsync(batcher, TOKEN, UUID.randomUUID());
+
+        assertTrue(a.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).isSuccess());
+        assertTrue(b.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).isSuccess());
+        assertEquals(2, singleCalls.get());
+        assertEquals(2.0, fallbacks());
+    }
+
+    @Test
+    void serverErrorPropagatesToEveryOrder() throws Exception {
+        FeignException failure = new FeignException.ServiceUnavailable("saturado", request(), null, Map.of());
+        ReservationBatcher batcher = batcher(Duration.ofSeconds(TIMEOUT_SECONDS), rq -> {
+            throw failure;
+        });
+
+        CompletableFuture<ApiResponseDto<Void>> a = reserveAsync(batcher, TOKEN, UUID.randomUUID());
+        CompletableFuture<ApiResponseDto<Void>> b = reserveAsync(batcher, TOKEN, UUID.randomUUID());
+
+        assertSame(failure, causeOf(a));
+        assertSame(failure, causeOf(b));
+        assertEquals(0, singleCalls.get());
+    }
+
+    @Test
+    void differentCredentialsAreNeverBatchedTogether() throws Exception {
+        ReservationBatcher batcher = batcher(Duration.ofMillis(50), rq -> new ApiResponseDto<>(true, "ok", List.of()));
+
+        CompletableFuture<ApiResponseDto<Void>> a = reserveAsync(batcher, "token-a", UUID.randomUUID());
+        CompletableFuture<ApiResponseDto<Void>> b = reserveAsync(batcher, "token-b", UUID.randomUUID());
+
+        assertTrue(a.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).isSuccess());
+        assertTrue(b.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).isSuccess());
+        assertTrue(combinedRequests.isEmpty());
+        assertEquals(2, singleCalls.get());
+    }
+
+    @Test
+    void reservationsWithoutCredentialsOrWindowAreNotBatched() {
+        UUID orderId = UUID.randomUUID();
+
+        ReservationBatcher withoutCredentials = batcher(Duration.ofSeconds(TIMEOUT_SECONDS),
+                rq -> new ApiResponseDto<>(true, "ok", List.of()));
+        assertEquals("single " + orderId, reserve(withoutCredentials, null, orderId).getMessage());
+
+        ReservationBatcher withoutWindow = batcher(Duration.ZERO, rq -> new ApiResponseDto<>(true, "ok", List.of()));
+        assertEquals("single " + orderId, reserve(withoutWindow, TOKEN, orderId).getMessage());
+
+        assertTrue(combinedRequests.isEmpty());
+        assertEquals(2, singleCalls.get());
+    }
+
+    @Test
+    void singleOrderBatchUsesSingleCall() {
+        UUID orderId = UUID.randomUUID();
+        ReservationBatcher batcher = batcher(Duration.ofMillis(10), rq -> new ApiResponseDto<>(true, "ok", List.of()));
+
+        assertEquals("single " + orderId, reserve(batcher, TOKEN, orderId).getMessage());
+        assertTrue(combinedRequests.isEmpty());
+        assertEquals(0.0, fallbacks());
+    }
+
+    private ReservationBatcher batcher(Duration window,
+                                       Function<DeviceReservationBatchRq, ApiResponseDto<List<DeviceReservationResultRs>>> combinedCall) {
+        return new ReservationBatcher(window, 2, 1000, rq -> {
+            combinedRequests.add(rq);
+            return combinedCall.apply(rq);
+        }, meterRegistry);
+    }
+
+    private CompletableFuture<ApiResponseDto<Void>> reserveAsync(ReservationBatcher batcher, String credentials,
+                                                                UUID orderId) {
+        return CompletableFuture.supplyAsync(() -> reserve(batcher, credentials, orderId), executor);
+    }
+
+    private ApiResponseDto<Void> reserve(ReservationBatcher batcher, String credentials, UUID orderId) {
+        return batcher.reserve(STATE, credentials, orderId, List.of(UUID.randomUUID()), () -> {
+            singleCalls.incrementAndGet();
+            return new ApiResponseDto<>(true, "single " + orderId, null);
+        });
+    }
+
+    private double fallbacks() {
+        return meterRegistry.get("orders.devices.reservations.fallback").counter().count();
+    }
+
+    private static Request request() {
+        return Request.create(Request.HttpMethod.PUT, "/api/devices/reserve/batch", Map.of(), null,
+                StandardCharsets.UTF_8, null);
+    }
+
+    private static Throwable causeOf(CompletableFuture<?> future) {
+        ExecutionException ex = assertThrows(ExecutionException.class,
+                () -> future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        return ex.getCause();
+    }
+}
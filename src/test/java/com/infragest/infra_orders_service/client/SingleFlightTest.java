@@ -0,0 +1,164 @@
+package com.infragest.infra_orders_service.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas de {@link SingleFlight}: unión de lotes solapados en curso, propagación de errores a quienes
+ * se unen y ausencia de caché una vez terminada la llamada.
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+class SingleFlightTest {
+
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final SingleFlight<Integer, String> singleFlight = new SingleFlight<>("test", meterRegistry);
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void overlappingBatchOnlyRequestsKeysNotInFlight() throws Exception {
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        List<List<Integer>> secondCalls = new CopyOnWriteArrayList<>();
+
+        CompletableFuture<Map<Integer, String>> first = CompletableFuture.supplyAsync(
+                () -> singleFlight.executeAll(List.of(1, 2), ids -> {
+                    firstStarted.countDown();
+                    await(releaseFirst);
+                    return values("first", ids);
+                }), executor);
+        assertTrue(firstStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        // El segundo lote solo pide la clave 3 y, al terminar su propia llamada, libera al primero:
+        // si esperase la clave 2 antes de llamar, ambos lotes se bloquearían mutuamente
+        CompletableFuture<Map<Integer, String>> second = CompletableFuture.supplyAsync(
+                () -> singleFlight.executeAll(List.of(2, 3), ids -> {
+                    secondCalls.add(ids);
+                    releaseFirst.countDown();
+                    return values("second", ids);
+                }), executor);
+
+        assertEquals(Map.of(1, "first-1", 2, "first-2"), first.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(Map.of(2, "first-2", 3, "second-3"), second.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(List.of(List.of(3)), secondCalls);
+        assertEquals(1.0, coalesced());
+    }
+
+    @Test
+    void joinedKeysReceiveTheOwnerFailure() throws Exception {
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("devices caído");
+
+        CompletableFuture<Map<Integer, String>> first = CompletableFuture.supplyAsync(
+                () -> singleFlight.executeAll(List.of(1), ids -> {
+                    firstStarted.countDown();
+                    await(releaseFirst);
+                    throw failure;
+                }), executor);
+        assertTrue(firstStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        AtomicInteger secondCalls = new AtomicInteger();
+        CompletableFuture<Map<Integer, String>> second = CompletableFuture.supplyAsync(
+                () -> singleFlight.executeAll(List.of(1), ids -> {
+                    secondCalls.incrementAndGet();
+                    return values("second", ids);
+                }), executor);
+
+        // El contador sube al unirse, antes de esperar el resultado ajeno
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (coalesced() < 1.0 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        releaseFirst.countDown();
+
+        assertSame(failure, causeOf(first));
+        assertSame(failure, causeOf(second));
+        assertEquals(0, secondCalls.get());
+    }
+
+    @Test
+    void missingValuesAreOmittedForOwnerAndJoiners() {
+        Map<Integer, String> result = singleFlight.executeAll(List.of(1, 2, 2), ids -> {
+            assertEquals(List.of(1, 2), ids);
+            return Map.of(1, "one");
+        });
+
+        assertEquals(Map.of(1, "one"), result);
+        assertFalse(result.containsKey(2));
+    }
+
+    @Test
+    void completedCallsAreNotCached() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals("v1", singleFlight.execute(1, () -> "v" + calls.incrementAndGet()));
+        assertEquals("v2", singleFlight.execute(1, () -> "v" + calls.incrementAndGet()));
+        assertEquals(Map.of(1, "v3"), singleFlight.executeAll(List.of(1),
+                ids -> Map.of(1, "v" + calls.incrementAndGet())));
+        assertEquals(0.0, coalesced());
+    }
+
+    @Test
+    void failedCallReleasesItsKeys() {
+        assertThrows(IllegalStateException.class, () -> singleFlight.executeAll(List.of(1), ids -> {
+            throw new IllegalStateException("fallo");
+        }));
+
+        assertEquals(Map.of(1, "retry"), singleFlight.executeAll(List.of(1), ids -> Map.of(1, "retry")));
+    }
+
+    private double coalesced() {
+        return meterRegistry.get("orders.singleflight.coalesced").counter().count();
+    }
+
+    private static Map<Integer, String> values(String prefix, List<Integer> ids) {
+        return ids.stream().collect(Collectors.toMap(id -> id, id -> prefix + "-" + id));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static Throwable causeOf(CompletableFuture<?> future) throws Exception {
+        ExecutionException ex = assertThrows(ExecutionException.class,
+                () -> future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, ex.getCause());
+        return ex.getCause();
+    }
+}
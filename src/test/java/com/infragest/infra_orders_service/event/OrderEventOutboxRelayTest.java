@@ -0,0 +1,226 @@
+package com.infragest.infra_orders_service.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infragest.infra_orders_service.entity.OutboxEvent;
+import com.infragest.infra_orders_service.enums.OrderState;
+import com.infragest.infra_orders_service.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pruebas de {@link OrderEventOutboxRelay}: publicación del lote con una sola espera de confirmaciones,
+ * aislamiento evento a evento cuando el lote no se confirma, backoff, eventos apartados y broker inaccesible.
+ *
+ * <p>Cada {@code invoke} de la plantilla de RabbitMQ simula un canal: registra los eventos enviados y, al
+ * esperar las confirmaciones, falla si alguno de ellos está marcado como rechazado por el broker.</p>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+class OrderEventOutboxRelayTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final List<List<UUID>> channels = new ArrayList<>();
+
+    private final Map<UUID, MessagePostProcessor> postProcessors = new HashMap<>();
+
+    private final Set<UUID> rejected = new HashSet<>();
+
+    private boolean brokerDown;
+
+    private OutboxEventRepository outboxEventRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private OrderEventOutboxRelay relay;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        outboxEventRepository = mock(OutboxEventRepository.class);
+        RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+
+        when(rabbitTemplate.invoke(any(RabbitOperations.OperationsCallback.class))).thenAnswer(invocation -> {
+            if (brokerDown) {
+                throw new AmqpConnectException(new ConnectException("broker caído"));
+            }
+            List<UUID> sent = new ArrayList<>();
+            channels.add(sent);
+            RabbitOperations operations = mock(RabbitOperations.class);
+            doAnswer(call -> {
+                UUID orderId = ((OrderEvent) call.getArgument(2)).getOrderId();
+                sent.add(orderId);
+                postProcessors.put(orderId, call.getArgument(3));
+                return null;
+            }).when(operations).convertAndSend(anyString(), anyString(), any(Object.class), any(MessagePostProcessor.class));
+            doAnswer(call -> {
+                if (sent.stream().anyMatch(rejected::contains)) {
+                    throw new AmqpException("nack del broker");
+                }
+                return null;
+            }).when(operations).waitForConfirmsOrDie(anyLong());
+            return ((RabbitOperations.OperationsCallback<Object>) invocation.getArgument(0)).doInRabbit(operations);
+        });
+
+        relay = new OrderEventOutboxRelay(outboxEventRepository, rabbitTemplate, objectMapper,
+                mock(PlatformTransactionManager.class), meterRegistry, 100, 5000, 300000, MAX_ATTEMPTS, Duration.ofDays(7));
+    }
+
+    @Test
+    void batchIsPublishedOverOneChannelWithMessageIds() throws Exception {
+        List<OutboxEvent> batch = List.of(outboxEvent(0), outboxEvent(0), outboxEvent(0));
+        pending(batch);
+
+        relay.relay();
+
+        assertEquals(1, channels.size());
+        assertEquals(batch.stream().map(OutboxEvent::getAggregateId).toList(), channels.get(0));
+        for (OutboxEvent event : batch) {
+            assertNotNull(event.getPublishedAt());
+            Message message = postProcessors.get(event.getAggregateId())
+                    .postProcessMessage(new Message(new byte[0], new MessageProperties()));
+            assertEquals(event.getId().toString(), message.getMessageProperties().getMessageId());
+        }
+        assertEquals(3.0, counter("orders.outbox.published"));
+        assertEquals(0.0, counter("orders.outbox.publish.failures"));
+    }
+
+    @Test
+    void rejectedEventIsIsolatedAndRetriedWithBackoff() throws Exception {
+        OutboxEvent first = outboxEvent(0);
+        OutboxEvent poisoned = outboxEvent(0);
+        OutboxEvent last = outboxEvent(0);
+        rejected.add(poisoned.getAggregateId());
+        pending(List.of(first, poisoned, last));
+        LocalDateTime before = LocalDateTime.now();
+
+        relay.relay();
+
+        // Lote completo y, tras el nack, un canal por evento
+        assertEquals(4, channels.size());
+        assertNotNull(first.getPublishedAt());
+        assertNotNull(last.getPublishedAt());
+
+        assertNull(poisoned.getPublishedAt());
+        assertNull(poisoned.getParkedAt());
+        assertEquals(1, poisoned.getAttempts());
+        assertTrue(poisoned.getNextAttemptAt().isAfter(before.plusSeconds(1)));
+        assertTrue(poisoned.getLastError().contains("nack"));
+        assertEquals(2.0, counter("orders.outbox.published"));
+        assertEquals(2.0, counter("orders.outbox.publish.failures"));
+    }
+
+    @Test
+    void eventIsParkedWhenItExhaustsItsAttempts() throws Exception {
+        OutboxEvent poisoned = outboxEvent(MAX_ATTEMPTS - 1);
+        OutboxEvent healthy = outboxEvent(0);
+        rejected.add(poisoned.getAggregateId());
+        pending(List.of(poisoned, healthy));
+
+        relay.relay();
+
+        assertEquals(MAX_ATTEMPTS, poisoned.getAttempts());
+        assertNotNull(poisoned.getParkedAt());
+        assertNull(poisoned.getPublishedAt());
+        assertNotNull(healthy.getPublishedAt());
+        assertEquals(1.0, counter("orders.outbox.parked"));
+    }
+
+    @Test
+    void unreadablePayloadIsParkedWithoutBlockingTheBatch() throws Exception {
+        OutboxEvent unreadable = outboxEvent(0);
+        unreadable.setPayload("{no es json");
+        OutboxEvent healthy = outboxEvent(0);
+        pending(List.of(unreadable, healthy));
+
+        relay.relay();
+
+        assertEquals(List.of(List.of(healthy.getAggregateId())), channels);
+        assertNotNull(unreadable.getParkedAt());
+        assertEquals(0, unreadable.getAttempts());
+        assertNotNull(healthy.getPublishedAt());
+        assertEquals(1.0, counter("orders.outbox.parked"));
+    }
+
+    @Test
+    void unreachableBrokerReschedulesTheRestOfTheBatchAtOnce() throws Exception {
+        brokerDown = true;
+        List<OutboxEvent> batch = List.of(outboxEvent(0), outboxEvent(0), outboxEvent(0));
+        pending(batch);
+
+        relay.relay();
+
+        // Falla el lote y el primer evento individual; el resto no se prueba
+        assertEquals(2.0, counter("orders.outbox.publish.failures"));
+        for (OutboxEvent event : batch) {
+            assertNull(event.getPublishedAt());
+            assertNull(event.getParkedAt());
+            assertEquals(1, event.getAttempts());
+            assertNotNull(event.getLastError());
+        }
+    }
+
+    private OutboxEvent outboxEvent(int attempts) throws Exception {
+        UUID orderId = UUID.randomUUID();
+        OrderEvent event = OrderEvent.builder()
+                .orderId(orderId)
+                .state(OrderState.CREATED)
+                .deviceIds(List.of(UUID.randomUUID()))
+                .recipientEmails(List.of("ana@infragest.com"))
+                .build();
+        OutboxEvent outboxEvent = OutboxEvent.builder()
+                .aggregateId(orderId)
+                .exchange("orders.exchange")
+                .routingKey("order.state.created")
+                .payload(objectMapper.writeValueAsString(event))
+                .nextAttemptAt(LocalDateTime.now().minusSeconds(1))
+                .attempts(attempts)
+                .build();
+        outboxEvent.setId(UUID.randomUUID());
+        outboxEvent.setCreatedAt(LocalDateTime.now().minusSeconds(2));
+        return outboxEvent;
+    }
+
+    private void pending(List<OutboxEvent> batch) {
+        when(outboxEventRepository.findPendingForUpdate(any(), any())).thenReturn(batch);
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+}
@@ -0,0 +1,153 @@
+package com.infragest.infra_orders_service.listener;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infragest.infra_orders_service.config.CborMessageConverter;
+import com.infragest.infra_orders_service.event.NotificationEvent;
+import com.infragest.infra_orders_service.service.NotificationDeadLetterService;
+import com.infragest.infra_orders_service.service.OrderService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pruebas de {@link NotificationsListener}: un lote de mensajes se aplica con una sola actualización masiva,
+ * los mensajes inválidos se aparcan sin bloquear a sus vecinos y, si el lote falla, cada mensaje pasa a
+ * reintentos. Las reentregas de resultados ya aplicados se descartan, salvo que no tengan identidad.
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+class NotificationsListenerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private OrderService orderService;
+
+    private NotificationDeduplicator deduplicator;
+
+    private NotificationDeadLetterService deadLetterService;
+
+    private NotificationsListener listener;
+
+    @BeforeEach
+    void setUp() {
+        orderService = mock(OrderService.class);
+        deadLetterService = mock(NotificationDeadLetterService.class);
+        deduplicator = new NotificationDeduplicator(1000, Duration.ofHours(1), new SimpleMeterRegistry());
+        listener = new NotificationsListener(orderService, deduplicator, deadLetterService, objectMapper,
+                mock(CborMessageConverter.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void batchIsAppliedWithOneBulkUpdateAndInvalidMessagesAreParked() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        Message unreadable = new Message("{no es json".getBytes(StandardCharsets.UTF_8), new MessageProperties());
+        Message withoutOrder = message(null, "SUCCESS", "m-0");
+
+        listener.handleNotificationEvents(List.of(
+                message(first, "SUCCESS", "m-1"), unreadable, withoutOrder, message(second, "FAILED", "m-2")));
+
+        ArgumentCaptor<List<NotificationEvent>> applied = ArgumentCaptor.forClass(List.class);
+        verify(orderService).updateOrderNotificationStatuses(applied.capture());
+        assertEquals(List.of(first, second), applied.getValue().stream().map(NotificationEvent::getOrderId).toList());
+        applied.getValue().forEach(event -> assertNotNull(event.getOccurredAt()));
+        verify(deadLetterService).park(eq(unreadable), anyString());
+        verify(deadLetterService).park(eq(withoutOrder), anyString());
+        verify(deadLetterService, never()).retryOrPark(any(), any());
+    }
+
+    @Test
+    void failedBatchSendsEveryMessageToRetry() {
+        RuntimeException failure = new IllegalStateException("base de datos caída");
+        when(orderService.updateOrderNotificationStatuses(anyList())).thenThrow(failure);
+        Message first = message(UUID.randomUUID(), "SUCCESS", "m-1");
+        Message second = message(UUID.randomUUID(), "SUCCESS", "m-2");
+
+        listener.handleNotificationEvents(List.of(first, second));
+
+        verify(deadLetterService).retryOrPark(first, failure);
+        verify(deadLetterService).retryOrPark(second, failure);
+        verify(deadLetterService, never()).park(any(), anyString());
+    }
+
+    @Test
+    void batchWithoutValidMessagesDoesNotTouchTheOrders() {
+        listener.handleNotificationEvents(List.of(message(UUID.randomUUID(), null, "m-1")));
+
+        verify(orderService, never()).updateOrderNotificationStatuses(anyList());
+        verify(deadLetterService, times(1)).park(any(), anyString());
+    }
+
+    @Test
+    void redeliveryOfAnAppliedResultIsDiscarded() {
+        Message original = message(UUID.randomUUID(), "SUCCESS", "m-1");
+
+        listener.handleNotificationEvents(List.of(original));
+        listener.handleNotificationEvents(List.of(message(UUID.randomUUID(), "SUCCESS", "m-1")));
+
+        verify(orderService, times(1)).updateOrderNotificationStatuses(anyList());
+        assertEquals(1, deduplicator.size());
+    }
+
+    @Test
+    void resultOfAFailedBatchIsNotRememberedAndIsAppliedOnRedelivery() {
+        when(orderService.updateOrderNotificationStatuses(anyList()))
+                .thenThrow(new IllegalStateException("base de datos caída"))
+                .thenReturn(1);
+        Message message = message(UUID.randomUUID(), "SUCCESS", "m-1");
+
+        listener.handleNotificationEvents(List.of(message));
+        assertEquals(0, deduplicator.size());
+        listener.handleNotificationEvents(List.of(message));
+
+        verify(orderService, times(2)).updateOrderNotificationStatuses(anyList());
+        assertEquals(1, deduplicator.size());
+    }
+
+    @Test
+    void resultsWithoutIdentityAreNeverDeduplicated() {
+        UUID orderId = UUID.randomUUID();
+
+        listener.handleNotificationEvents(List.of(message(orderId, "SUCCESS", null)));
+        listener.handleNotificationEvents(List.of(message(orderId, "SUCCESS", null)));
+
+        verify(orderService, times(2)).updateOrderNotificationStatuses(anyList());
+        assertEquals(0, deduplicator.size());
+    }
+
+    private Message message(UUID orderId, String status, String messageId) {
+        NotificationEvent event = new NotificationEvent();
+        event.setOrderId(orderId);
+        event.setStatus(status);
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setMessageId(messageId);
+        try {
+            return new Message(objectMapper.writeValueAsBytes(event), properties);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.infragest.infra_orders_service.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infragest.infra_orders_service.client.DevicesGateway;
+import com.infragest.infra_orders_service.entity.OrderSaga;
+import com.infragest.infra_orders_service.enums.OrderSagaStatus;
+import com.infragest.infra_orders_service.enums.OrderSagaStep;
+import com.infragest.infra_orders_service.enums.OrderSagaType;
+import com.infragest.infra_orders_service.excepcion.OrderException;
+import com.infragest.infra_orders_service.model.ApiResponseDto;
+import com.infragest.infra_orders_service.model.RestoreDevicesRq;
+import com.infragest.infra_orders_service.repository.OrderIntegrationErrorRepository;
+import com.infragest.infra_orders_service.repository.OrderRepository;
+import com.infragest.infra_orders_service.repository.OrderSagaRepository;
+import feign.FeignException;
+import feign.Request;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pruebas de {@link OrderSagaServiceImpl}: registro de las sagas con las credenciales del usuario, reclamo
+ * por el dispatcher, recuperación de creaciones vencidas, compensación y resultado de las restauraciones.
+ *
+ * <p>El gestor de transacciones es un mock; las restauraciones se ejecutan en el pool real del servicio,
+ * por lo que sus resultados se esperan con {@code timeout} hasta el commit de la transacción que los registra.</p>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+class OrderSagaServiceImplTest {
+
+    private static final long TIMEOUT_MS = 5000;
+
+    private static final String USER = "ana@infragest.com";
+
+    private static final String TOKEN = "token-ana";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private OrderSagaRepository orderSagaRepository;
+
+    private OrderRepository orderRepository;
+
+    private OrderIntegrationErrorRepository orderIntegrationErrorRepository;
+
+    private DevicesGateway devicesGateway;
+
+    private PlatformTransactionManager transactionManager;
+
+    private OrderSagaServiceImpl sagaService;
+
+    @BeforeEach
+    void setUp() {
+        orderSagaRepository = mock(OrderSagaRepository.class);
+        orderRepository = mock(OrderRepository.class);
+        orderIntegrationErrorRepository = mock(OrderIntegrationErrorRepository.class);
+        devicesGateway = mock(DevicesGateway.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+
+        sagaService = new OrderSagaServiceImpl(orderSagaRepository, orderRepository, orderIntegrationErrorRepository,
+                devicesGateway, objectMapper, transactionManager, new SimpleMeterRegistry(),
+                2, 50, 3, 300000, Duration.ofMinutes(5), Duration.ofMinutes(2), Duration.ofDays(30));
+    }
+
+    @AfterEach
+    void tearDown() {
+        sagaService.destroy();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void startCreationStoresInitiatorCredentialsAndOnlyRestorableStates() throws Exception {
+        authenticate();
+        UUID orderId = UUID.randomUUID();
+        UUID verified = UUID.randomUUID();
+        UUID unknown = UUID.randomUUID();
+        UUID sagaId = UUID.randomUUID();
+        when(orderSagaRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<OrderSaga> sagas = invocation.getArgument(0);
+            sagas.forEach(saga -> saga.setId(sagaId));
+            return sagas;
+        });
+        Map<UUID, String> states = new LinkedHashMap<>();
+        states.put(verified, "AVAILABLE");
+        states.put(unknown, "UNKNOWN");
+
+        assertEquals(sagaId, sagaService.startCreation(orderId, states));
+
+        ArgumentCaptor<List<OrderSaga>> saved = ArgumentCaptor.forClass(List.class);
+        verify(orderSagaRepository).saveAll(saved.capture());
+        OrderSaga saga = saved.getValue().get(0);
+        assertEquals(OrderSagaType.CREATE, saga.getType());
+        assertEquals(OrderSagaStatus.RUNNING, saga.getStatus());
+        assertEquals(OrderSagaStep.RESERVE, saga.getStep());
+        assertEquals(USER, saga.getInitiatedBy());
+        assertEquals(TOKEN, saga.getCredentials());
+        assertEquals(Map.of(verified, "AVAILABLE"), readStates(saga));
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void completeFailsWhenASagaWasAlreadyRecovered() {
+        when(orderSagaRepository.closeRunning(anyCollection(), eq(OrderSagaStatus.COMPLETED), eq(OrderSagaStep.NOTIFY), any()))
+                .thenReturn(1);
+
+        OrderException ex = assertThrows(OrderException.class,
+                () -> sagaService.complete(List.of(UUID.randomUUID(), UUID.randomUUID())));
+
+        assertEquals(OrderException.Type.INTERNAL_SERVER, ex.getType());
+    }
+
+    @Test
+    void compensateQueuesOnlyReservedSagasForRestore() throws Exception {
+        OrderSaga reserved = saga(OrderSagaType.CREATE, OrderSagaStatus.RUNNING, OrderSagaStep.PERSIST);
+        OrderSaga unreserved = saga(OrderSagaType.CREATE, OrderSagaStatus.RUNNING, OrderSagaStep.RESERVE);
+        OrderSaga recovered = saga(OrderSagaType.CREATE, OrderSagaStatus.FAILED, OrderSagaStep.RESERVE);
+        when(orderSagaRepository.findAllById(any())).thenReturn(List.of(reserved, unreserved, recovered));
+
+        sagaService.compensate(List.of(reserved.getId(), unreserved.getId(), recovered.getId()),
+                List.of(reserved.getId()), new IllegalStateException("fallo al persistir"));
+
+        assertEquals(OrderSagaStatus.RESTORE_PENDING, reserved.getStatus());
+        assertEquals(TOKEN, reserved.getCredentials());
+        assertTrue(reserved.getLastError().contains("fallo al persistir"));
+
+        assertEquals(OrderSagaStatus.COMPENSATED, unreserved.getStatus());
+        assertNotNull(unreserved.getCompletedAt());
+        assertNull(unreserved.getCredentials());
+
+        assertEquals(OrderSagaStatus.FAILED, recovered.getStatus());
+        assertNull(recovered.getLastError());
+    }
+
+    @Test
+    void expiredReservedCreationIsCompensatedWithInitiatorCredentials() throws Exception {
+        OrderSaga saga = saga(OrderSagaType.CREATE, OrderSagaStatus.RUNNING, OrderSagaStep.PERSIST);
+        claimable(saga);
+        AtomicReference<Authentication> authentication = new AtomicReference<>();
+        when(devicesGateway.restoreDeviceStates(any())).thenAnswer(invocation -> {
+            authentication.set(SecurityContextHolder.getContext().getAuthentication());
+            return new ApiResponseDto<>(true, "ok", null);
+        });
+
+        sagaService.dispatch();
+
+        awaitOutcome();
+        assertEquals(USER, authentication.get().getName());
+        assertEquals(TOKEN, authentication.get().getCredentials());
+        ArgumentCaptor<RestoreDevicesRq> request = ArgumentCaptor.forClass(RestoreDevicesRq.class);
+        verify(devicesGateway).restoreDeviceStates(request.capture());
+        assertEquals(1, request.getValue().getItems().size());
+
+        assertEquals(OrderSagaStatus.COMPENSATED, saga.getStatus());
+        assertEquals(OrderSagaStep.RESTORE, saga.getStep());
+        assertNotNull(saga.getCompletedAt());
+        assertNull(saga.getCredentials());
+    }
+
+    @Test
+    void expiredCreationWithoutConfirmedReservationFailsWithoutRestoring() throws Exception {
+        OrderSaga saga = saga(OrderSagaType.CREATE, OrderSagaStatus.RUNNING, OrderSagaStep.RESERVE);
+        claimable(saga);
+
+        sagaService.dispatch();
+
+        assertEquals(OrderSagaStatus.FAILED, saga.getStatus());
+        assertNull(saga.getCredentials());
+        verify(devicesGateway, never()).restoreDeviceStates(any());
+    }
+
+    @Test
+    void sagaWithoutCredentialsFailsWithoutRestoring() throws Exception {
+        OrderSaga saga = saga(OrderSagaType.FINISH, OrderSagaStatus.RESTORE_PENDING, OrderSagaStep.NOTIFY);
+        saga.setCredentials(null);
+        claimable(saga);
+
+        sagaService.dispatch();
+
+        assertEquals(OrderSagaStatus.FAILED, saga.getStatus());
+        verify(devicesGateway, never()).restoreDeviceStates(any());
+    }
+
+    @Test
+    void retryableFailureSchedulesBackoffAndKeepsCredentials() throws Exception {
+        OrderSaga saga = saga(OrderSagaType.FINISH, OrderSagaStatus.RESTORE_PENDING, OrderSagaStep.NOTIFY);
+        claimable(saga);
+        when(devicesGateway.restoreDeviceStates(any())).thenThrow(
+                new FeignException.ServiceUnavailable("saturado", request(), null, Map.of()));
+        LocalDateTime before = LocalDateTime.now();
+
+        sagaService.dispatch();
+
+        awaitOutcome();
+        assertEquals(OrderSagaStatus.RESTORE_PENDING, saga.getStatus());
+        assertEquals(1, saga.getAttempts());
+        assertTrue(saga.getNextAttemptAt().isAfter(before.plusSeconds(1)));
+        assertEquals(TOKEN, saga.getCredentials());
+        verify(orderIntegrationErrorRepository, never()).save(any());
+    }
+
+    @Test
+    void rejectedRestoreOfFinishedOrderFailsAndRecordsIntegrationError() throws Exception {
+        OrderSaga saga = saga(OrderSagaType.FINISH, OrderSagaStatus.RESTORE_PENDING, OrderSagaStep.NOTIFY);
+        claimable(saga);
+        when(devicesGateway.restoreDeviceStates(any())).thenThrow(
+                new FeignException.Unauthorized("token expirado", request(), null, Map.of()));
+
+        sagaService.dispatch();
+
+        awaitOutcome();
+        assertEquals(OrderSagaStatus.FAILED, saga.getStatus());
+        assertEquals(1, saga.getAttempts());
+        assertNull(saga.getCredentials());
+        verify(orderIntegrationErrorRepository).save(any());
+    }
+
+    private void authenticate() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(USER, TOKEN, Collections.emptyList()));
+    }
+
+    private OrderSaga saga(OrderSagaType type, OrderSagaStatus status, OrderSagaStep step) throws Exception {
+        OrderSaga saga = OrderSaga.builder()
+                .orderId(UUID.randomUUID())
+                .type(type)
+                .status(status)
+                .step(step)
+                .originalStates(objectMapper.writeValueAsString(Map.of(UUID.randomUUID(), "AVAILABLE")))
+                .initiatedBy(USER)
+                .credentials(TOKEN)
+                .nextAttemptAt(LocalDateTime.now().minusSeconds(1))
+                .build();
+        saga.setId(UUID.randomUUID());
+        return saga;
+    }
+
+    /**
+     * Hace que el dispatcher reclame la saga y que el registro del resultado la encuentre.
+     */
+    private void claimable(OrderSaga saga) {
+        when(orderSagaRepository.findDueForUpdate(anyCollection(), any(), any())).thenReturn(List.of(saga));
+        when(orderSagaRepository.findById(saga.getId())).thenReturn(Optional.of(saga));
+    }
+
+    /**
+     * Espera al commit de la transacción del worker que registra el resultado (la primera es la del reclamo).
+     */
+    private void awaitOutcome() {
+        verify(transactionManager, timeout(TIMEOUT_MS).times(2)).commit(any());
+        verify(transactionManager, times(2)).getTransaction(any());
+    }
+
+    private Map<UUID, String> readStates(OrderSaga saga) throws Exception {
+        return objectMapper.readValue(saga.getOriginalStates(),
+                objectMapper.getTypeFactory().constructMapType(LinkedHashMap.class, UUID.class, String.class));
+    }
+
+    private static Request request() {
+        return Request.create(Request.HttpMethod.PUT, "/api/devices/restore", Map.of(), null,
+                StandardCharsets.UTF_8, null);
+    }
+}
@@ -0,0 +1,573 @@
+package com.infragest.infra_orders_service.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infragest.infra_orders_service.client.AssigneeDirectory;
+import com.infragest.infra_orders_service.client.DevicesGateway;
+import com.infragest.infra_orders_service.client.RemoteCallExecutor;
+import com.infragest.infra_orders_service.entity.Order;
+import com.infragest.infra_orders_service.entity.OrderItem;
+import com.infragest.infra_orders_service.event.NotificationEvent;
+import com.infragest.infra_orders_service.enums.AssigneeType;
+import com.infragest.infra_orders_service.enums.NotificationStatus;
+import com.infragest.infra_orders_service.enums.OrderState;
+import com.infragest.infra_orders_service.excepcion.OrderException;
+import com.infragest.infra_orders_service.model.ApiResponseDto;
+import com.infragest.infra_orders_service.model.BulkOrderRs;
+import com.infragest.infra_orders_service.model.CursorPageRs;
+import com.infragest.infra_orders_service.model.DeviceRs;
+import com.infragest.infra_orders_service.model.DeviceStatusEnum;
+import com.infragest.infra_orders_service.model.OrderDevicesPatchRq;
+import com.infragest.infra_orders_service.model.OrderRq;
+import com.infragest.infra_orders_service.model.OrderRs;
+import com.infragest.infra_orders_service.repository.OrderIntegrationErrorRepository;
+import com.infragest.infra_orders_service.repository.OrderItemRepository;
+import com.infragest.infra_orders_service.repository.OrderRepository;
+import com.infragest.infra_orders_service.repository.OutboxEventRepository;
+import com.infragest.infra_orders_service.service.OrderSagaService;
+import com.infragest.infra_orders_service.util.OrderCursor;
+import feign.FeignException;
+import feign.Request;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pruebas de {@link OrderServiceImpl} con los repositorios y clientes simulados.
+ *
+ * <p>El gestor de transacciones es un mock: {@code TransactionTemplate} ejecuta el callback entre
+ * {@code getTransaction} y {@code commit}, lo que permite comprobar qué escrituras ocurren dentro
+ * de la transacción.</p>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+class OrderServiceImplTest {
+
+    private OrderRepository orderRepository;
+
+    private OrderItemRepository orderItemRepository;
+
+    private OrderIntegrationErrorRepository orderIntegrationErrorRepository;
+
+    private DevicesGateway devicesGateway;
+
+    private AssigneeDirectory assigneeDirectory;
+
+    private OutboxEventRepository outboxEventRepository;
+
+    private PlatformTransactionManager transactionManager;
+
+    private RemoteCallExecutor remoteCallExecutor;
+
+    private OrderSagaService orderSagaService;
+
+    private OrderServiceImpl orderService;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository = mock(OrderRepository.class);
+        orderItemRepository = mock(OrderItemRepository.class);
+        orderIntegrationErrorRepository = mock(OrderIntegrationErrorRepository.class);
+        devicesGateway = mock(DevicesGateway.class);
+        assigneeDirectory = mock(AssigneeDirectory.class);
+        outboxEventRepository = mock(OutboxEventRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        remoteCallExecutor = mock(RemoteCallExecutor.class);
+        orderSagaService = mock(OrderSagaService.class);
+
+        orderService = new OrderServiceImpl(orderRepository, orderItemRepository, orderIntegrationErrorRepository,
+                devicesGateway, assigneeDirectory, outboxEventRepository, new ObjectMapper(), transactionManager,
+                remoteCallExecutor, orderSagaService, 0, 200, 500);
+    }
+
+    @Test
+    void patchOnOrderInProcessIsRejectedWithoutTouchingDevicesOrState() {
+        Order order = existingOrder(OrderState.IN_PROCESS);
+        UUID deviceId = UUID.randomUUID();
+        // La verificación fallaría (el dispositivo no existe), pero no debe llegar a consultarse
+        when(devicesGateway.getDevicesByIds(anyList())).thenReturn(List.of());
+
+        OrderException ex = assertThrows(OrderException.class,
+                () -> orderService.patchOrderDevices(order.getId(), patch(List.of(deviceId), List.of())));
+
+        assertEquals(OrderException.Type.CONFLICT, ex.getType());
+        assertEquals(OrderState.IN_PROCESS, order.getState());
+        verifyNoInteractions(devicesGateway, orderSagaService, orderIntegrationErrorRepository, orderItemRepository);
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    void patchAddingAndRemovingSameDeviceIsRejected() {
+        UUID deviceId = UUID.randomUUID();
+
+        OrderException ex = assertThrows(OrderException.class,
+                () -> orderService.patchOrderDevices(UUID.randomUUID(), patch(List.of(deviceId), List.of(deviceId))));
+
+        assertEquals(OrderException.Type.BAD_REQUEST, ex.getType());
+        verifyNoInteractions(orderRepository, devicesGateway);
+    }
+
+    @Test
+    void patchWithFailedVerificationReservesNothingAndRecordsErrorsInTransaction() {
+        Order order = existingOrder(OrderState.CREATED);
+        UUID missing = UUID.randomUUID();
+        when(devicesGateway.getDevicesByIds(anyList())).thenReturn(List.of());
+
+        orderService.patchOrderDevices(order.getId(), patch(List.of(missing), List.of()));
+
+        verifyNoInteractions(orderSagaService);
+        verify(devicesGateway, never()).reserveDevices(any(), anyList(), any());
+        verify(orderItemRepository, never()).saveAll(anyList());
+        assertEquals(OrderState.CREATED_WITH_ERRORS, order.getState());
+
+        InOrder inTransaction = inOrder(transactionManager, orderIntegrationErrorRepository, orderRepository);
+        inTransaction.verify(transactionManager).getTransaction(any());
+        inTransaction.verify(orderIntegrationErrorRepository).saveAll(anyList());
+        inTransaction.verify(orderRepository).save(order);
+        inTransaction.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void patchWithCleanVerificationReservesUnderSagaAndInsertsItems() {
+        Order order = existingOrder(OrderState.CREATED);
+        UUID deviceId = UUID.randomUUID();
+        UUID sagaId = UUID.randomUUID();
+        when(devicesGateway.getDevicesByIds(anyList())).thenReturn(List.of(device(deviceId, DeviceStatusEnum.GOOD_CONDITION)));
+        when(orderSagaService.startCreation(eq(order.getId()), anyMap())).thenReturn(sagaId);
+        when(devicesGateway.reserveDevices(eq(order.getId()), eq(List.of(deviceId)), eq("OCCUPIED")))
+                .thenReturn(new ApiResponseDto<>(true, "ok", null));
+        when(orderItemRepository.existsByOrderId(order.getId())).thenReturn(true);
+
+        orderService.patchOrderDevices(order.getId(), patch(List.of(deviceId), List.of()));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<OrderItem>> items = ArgumentCaptor.forClass(List.class);
+        verify(orderItemRepository).saveAll(items.capture());
+        assertEquals(1, items.getValue().size());
+        assertEquals(deviceId, items.getValue().get(0).getDeviceId());
+        assertEquals("GOOD_CONDITION", items.getValue().get(0).getOriginalDeviceState());
+        verify(orderSagaService).markReserved(List.of(sagaId));
+        verify(orderSagaService).complete(List.of(sagaId));
+        verify(orderIntegrationErrorRepository, never()).saveAll(anyList());
+        assertEquals(OrderState.CREATED, order.getState());
+    }
+
+    @Test
+    void patchCompensatesReservationWhenTransactionFails() {
+        Order order = existingOrder(OrderState.CREATED);
+        UUID deviceId = UUID.randomUUID();
+        UUID sagaId = UUID.randomUUID();
+        RuntimeException failure = new IllegalStateException("base de datos caída");
+        when(devicesGateway.getDevicesByIds(anyList())).thenReturn(List.of(device(deviceId, DeviceStatusEnum.FAIR)));
+        when(orderSagaService.startCreation(eq(order.getId()), anyMap())).thenReturn(sagaId);
+        when(devicesGateway.reserveDevices(any(), anyList(), any())).thenReturn(new ApiResponseDto<>(true, "ok", null));
+        when(orderItemRepository.saveAll(anyList())).thenThrow(failure);
+
+        RuntimeException thrown = assertThrows(RuntimeException.class,
+                () -> orderService.patchOrderDevices(order.getId(), patch(List.of(deviceId), List.of())));
+
+        assertSame(failure, thrown);
+        verify(orderSagaService).compensate(List.of(sagaId), List.of(sagaId), failure);
+        verify(orderSagaService, never()).complete(anyCollection());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void updateWithFailedVerificationReservesNothingAndRecordsErrorsInTransaction() {
+        Order order = existingOrder(OrderState.CREATED);
+        UUID missing = UUID.randomUUID();
+        when(devicesGateway.getDevicesByIds(anyList())).thenReturn(List.of());
+
+        orderService.updateOrder(order.getId(), update(order, List.of(missing)));
+
+        verifyNoInteractions(orderSagaService);
+        verify(devicesGateway, never()).reserveDevices(any(), anyList(), any());
+        assertEquals(0, order.getItems().size());
+        assertEquals(OrderState.CREATED_WITH_ERRORS, order.getState());
+
+        InOrder inTransaction = inOrder(transactionManager, orderIntegrationErrorRepository, orderRepository);
+        inTransaction.verify(transactionManager).getTransaction(any());
+        inTransaction.verify(orderIntegrationErrorRepository).saveAll(anyList());
+        inTransaction.verify(orderRepository).save(order);
+        inTransaction.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void updateOnOrderInProcessKeepsItsStateWhenVerificationFails() {
+        Order order = existingOrder(OrderState.IN_PROCESS);
+        when(devicesGateway.getDevicesByIds(anyList())).thenReturn(List.of());
+
+        orderService.updateOrder(order.getId(), update(order, List.of(UUID.randomUUID())));
+
+        verify(orderIntegrationErrorRepository).saveAll(anyList());
+        assertEquals(OrderState.IN_PROCESS, order.getState());
+    }
+
+    @Test
+    void updateWithCleanVerificationReservesUnderSagaAndAddsItems() {
+        Order order = existingOrder(OrderState.CREATED);
+        UUID deviceId = UUID.randomUUID();
+        UUID sagaId = UUID.randomUUID();
+        when(devicesGateway.getDevicesByIds(anyList())).thenReturn(List.of(device(deviceId, DeviceStatusEnum.GOOD_CONDITION)));
+        when(orderSagaService.startCreation(eq(order.getId()), anyMap())).thenReturn(sagaId);
+        when(devicesGateway.reserveDevices(eq(order.getId()), eq(List.of(deviceId)), eq("OCCUPIED")))
+                .thenReturn(new ApiResponseDto<>(true, "ok", null));
+
+        orderService.updateOrder(order.getId(), update(order, List.of(deviceId)));
+
+        assertEquals(1, order.getItems().size());
+        assertEquals(deviceId, order.getItems().get(0).getDeviceId());
+        verify(orderSagaService).markReserved(List.of(sagaId));
+        verify(orderSagaService).complete(List.of(sagaId));
+        verify(orderIntegrationErrorRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void updateCompensatesReservationWhenTransactionFails() {
+        Order order = existingOrder(OrderState.CREATED);
+        UUID deviceId = UUID.randomUUID();
+        UUID sagaId = UUID.randomUUID();
+        RuntimeException failure = new IllegalStateException("base de datos caída");
+        when(devicesGateway.getDevicesByIds(anyList())).thenReturn(List.of(device(deviceId, DeviceStatusEnum.FAIR)));
+        when(orderSagaService.startCreation(eq(order.getId()), anyMap())).thenReturn(sagaId);
+        when(devicesGateway.reserveDevices(any(), anyList(), any())).thenReturn(new ApiResponseDto<>(true, "ok", null));
+        when(orderRepository.save(order)).thenThrow(failure);
+
+        RuntimeException thrown = assertThrows(RuntimeException.class,
+                () -> orderService.updateOrder(order.getId(), update(order, List.of(deviceId))));
+
+        assertSame(failure, thrown);
+        verify(orderSagaService).compensate(List.of(sagaId), List.of(sagaId), failure);
+        verify(orderSagaService, never()).complete(anyCollection());
+    }
+
+    @Test
+    void createOrderOnlyAddsItemsForVerifiedDevices() {
+        OrderServiceImpl service = serviceWithVerificationChunkSize(1);
+        runRemoteCallsInline();
+        activeEmployee();
+        UUID verified = UUID.randomUUID();
+        UUID unverified = UUID.randomUUID();
+        when(devicesGateway.getDevicesByIds(List.of(verified)))
+                .thenReturn(List.of(device(verified, DeviceStatusEnum.GOOD_CONDITION)));
+        when(devicesGateway.getDevicesByIds(List.of(unverified)))
+                .thenThrow(new FeignException.ServiceUnavailable("caído", request(), null, Map.of()));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        service.createOrder(OrderRq.builder()
+                .description("orden")
+                .assigneeType(AssigneeType.EMPLOYEE)
+                .assigneeId(UUID.randomUUID())
+                .devicesIds(List.of(verified, unverified, verified))
+                .build());
+
+        ArgumentCaptor<Order> saved = ArgumentCaptor.forClass(Order.class);
+        verify(orderRepository).save(saved.capture());
+        Order order = saved.getValue();
+        assertEquals(1, order.getItems().size());
+        assertEquals(verified, order.getItems().get(0).getDeviceId());
+        assertEquals("GOOD_CONDITION", order.getItems().get(0).getOriginalDeviceState());
+        assertEquals(OrderState.CREATED_WITH_ERRORS, order.getState());
+        assertTrue(order.getIntegrationErrors().stream()
+                .anyMatch(error -> error.getDeviceIds() != null && error.getDeviceIds().contains(unverified)));
+        verifyNoInteractions(orderSagaService);
+        verify(devicesGateway, never()).reserveDevices(any(), anyList(), any());
+    }
+
+    @Test
+    void bulkCreationAttributesDevicesAndErrorsToEachOrder() {
+        OrderServiceImpl service = serviceWithVerificationChunkSize(1);
+        runRemoteCallsInline();
+        activeEmployee();
+        UUID rejectedAssignee = UUID.randomUUID();
+        when(assigneeDirectory.getEmployee(rejectedAssignee)).thenReturn(Map.of());
+        UUID own = UUID.randomUUID();
+        UUID shared = UUID.randomUUID();
+        UUID unverified = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        when(devicesGateway.getDevicesByIds(List.of(own))).thenReturn(List.of(device(own, DeviceStatusEnum.GOOD_CONDITION)));
+        when(devicesGateway.getDevicesByIds(List.of(shared))).thenReturn(List.of(device(shared, DeviceStatusEnum.FAIR)));
+        when(devicesGateway.getDevicesByIds(List.of(other))).thenReturn(List.of(device(other, DeviceStatusEnum.FAIR)));
+        when(devicesGateway.getDevicesByIds(List.of(unverified)))
+                .thenThrow(new FeignException.ServiceUnavailable("caído", request(), null, Map.of()));
+        when(orderSagaService.startCreations(anyMap())).thenAnswer(invocation -> {
+            Map<UUID, ?> statesByOrder = invocation.getArgument(0);
+            Map<UUID, UUID> sagaIds = new HashMap<>();
+            statesByOrder.keySet().forEach(orderId -> sagaIds.put(orderId, UUID.randomUUID()));
+            return sagaIds;
+        });
+        when(devicesGateway.reserveDevices(any(), anyList(), any())).thenReturn(new ApiResponseDto<>(true, "ok", null));
+        when(orderRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        UUID assignee = UUID.randomUUID();
+
+        BulkOrderRs result = service.createOrders(List.of(
+                bulkRequest(assignee, List.of(own, shared, own)),
+                bulkRequest(assignee, List.of(shared, unverified)),
+                bulkRequest(rejectedAssignee, List.of(other))));
+
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getCreatedWithErrors());
+        assertEquals(1, result.getFailed());
+        assertEquals(2, result.getResults().get(2).getIndex());
+        assertNull(result.getResults().get(2).getOrder());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Order>> saved = ArgumentCaptor.forClass(List.class);
+        verify(orderRepository).saveAll(saved.capture());
+        assertEquals(2, saved.getValue().size());
+
+        // La primera orden se queda con el dispositivo compartido y no hereda el error del bloque ajeno
+        Order first = saved.getValue().get(0);
+        assertEquals(List.of(own, shared), first.getItems().stream().map(OrderItem::getDeviceId).toList());
+        assertEquals(OrderState.CREATED, first.getState());
+        assertTrue(first.getIntegrationErrors().isEmpty());
+        verify(devicesGateway).reserveDevices(eq(first.getId()), eq(List.of(own, shared)), eq("OCCUPIED"));
+
+        // La segunda no recibe items del dispositivo duplicado ni del no verificado: solo sus errores
+        Order second = saved.getValue().get(1);
+        assertTrue(second.getItems().isEmpty());
+        assertEquals(OrderState.CREATED_WITH_ERRORS, second.getState());
+        assertEquals(List.of(unverified), errorDevices(second, "SERVICE_UNAVAILABLE"));
+        assertEquals(List.of(shared), errorDevices(second, "DUPLICATED_IN_BATCH"));
+        verify(devicesGateway, never()).reserveDevices(eq(second.getId()), anyList(), any());
+        verify(devicesGateway, never()).reserveDevices(any(), eq(List.of(other)), any());
+    }
+
+    private static OrderRq bulkRequest(UUID assigneeId, List<UUID> deviceIds) {
+        return OrderRq.builder()
+                .description("orden")
+                .assigneeType(AssigneeType.EMPLOYEE)
+                .assigneeId(assigneeId)
+                .devicesIds(deviceIds)
+                .build();
+    }
+
+    private static List<UUID> errorDevices(Order order, String type) {
+        return order.getIntegrationErrors().stream()
+                .filter(error -> type.equals(error.getType()))
+                .flatMap(error -> error.getDeviceIds().stream())
+                .toList();
+    }
+
+    @Test
+    void notificationResultsAreCollapsedPerOrderAndOnlyMoveForward() {
+        UUID laterFailure = UUID.randomUUID();
+        UUID sameInstant = UUID.randomUUID();
+        UUID unknownStatus = UUID.randomUUID();
+        Instant t0 = Instant.parse("2026-10-16T10:00:00Z");
+        when(orderRepository.advanceNotificationStatus(anyCollection(), any(), anyCollection(), any())).thenReturn(1);
+
+        int updated = orderService.updateOrderNotificationStatuses(Arrays.asList(
+                notification(laterFailure, "SUCCESS", t0),
+                notification(laterFailure, "FAILED", t0.plusSeconds(5)),
+                notification(sameInstant, "FAILED", t0),
+                notification(sameInstant, "SUCCESS", t0),
+                notification(sameInstant, "FAILED", t0),
+                notification(unknownStatus, "QUEUED", t0),
+                notification(null, "SUCCESS", t0),
+                null));
+
+        assertEquals(2, updated);
+        // El más reciente prevalece aunque retroceda; la actualización condicional impide pisar un SENT
+        verify(orderRepository).advanceNotificationStatus(eq(List.of(laterFailure)), eq(NotificationStatus.FAILED),
+                eq(List.of(NotificationStatus.PENDING)), any());
+        // A igualdad de fecha prevalece el estado más avanzado
+        verify(orderRepository).advanceNotificationStatus(eq(List.of(sameInstant)), eq(NotificationStatus.SENT),
+                eq(List.of(NotificationStatus.PENDING, NotificationStatus.FAILED)), any());
+        verify(orderRepository, times(2)).advanceNotificationStatus(anyCollection(), any(), anyCollection(), any());
+    }
+
+    @Test
+    void notificationResultsThatDoNotAdvanceWriteNothing() {
+        assertEquals(0, orderService.updateOrderNotificationStatuses(List.of(
+                notification(UUID.randomUUID(), "PENDING", null))));
+
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void firstPageRequestsOneExtraRowAndBatchLoadsItems() {
+        List<Order> rows = pageRows(3);
+        when(orderRepository.findFirstPage(any())).thenReturn(rows);
+        OrderItem item = OrderItem.builder().order(rows.get(0)).deviceId(UUID.randomUUID()).originalDeviceState("FAIR").build();
+        when(orderItemRepository.findByOrderIdIn(anyCollection())).thenReturn(List.of(item));
+
+        CursorPageRs<OrderRs> page = orderService.listOrders(null, 2);
+
+        verify(orderRepository).findFirstPage(PageRequest.of(0, 3));
+        assertTrue(page.isHasNext());
+        assertEquals(2, page.getItems().size());
+        assertEquals(1, page.getItems().get(0).getItems().size());
+        assertEquals(new OrderCursor(rows.get(1).getCreatedAt(), rows.get(1).getId()), OrderCursor.decode(page.getNextCursor()));
+        verify(orderItemRepository, times(1)).findByOrderIdIn(List.of(rows.get(0).getId(), rows.get(1).getId()));
+        verify(orderIntegrationErrorRepository, times(1)).findByOrderIdInOrderByOccurredAtAsc(anyCollection());
+    }
+
+    @Test
+    void nextPageContinuesAfterTheCursorAndEndsWithoutCursor() {
+        List<Order> rows = pageRows(1);
+        OrderCursor cursor = new OrderCursor(LocalDateTime.of(2026, 10, 16, 9, 0), UUID.randomUUID());
+        when(orderRepository.findPageAfter(cursor.createdAt(), cursor.id(), PageRequest.of(0, 3))).thenReturn(rows);
+
+        CursorPageRs<OrderRs> page = orderService.listOrders(cursor.encode(), 2);
+
+        assertEquals(1, page.getItems().size());
+        assertFalse(page.isHasNext());
+        assertNull(page.getNextCursor());
+        verify(orderRepository, never()).findFirstPage(any());
+    }
+
+    @Test
+    void pageSizeIsNormalizedAndInvalidCursorIsRejected() {
+        orderService.listOrders(null, 0);
+        orderService.listOrders(null, 10_000);
+
+        verify(orderRepository).findFirstPage(PageRequest.of(0, OrderServiceImpl.DEFAULT_PAGE_SIZE + 1));
+        verify(orderRepository).findFirstPage(PageRequest.of(0, OrderServiceImpl.MAX_PAGE_SIZE + 1));
+        OrderException ex = assertThrows(OrderException.class, () -> orderService.listOrders("roto", 10));
+        assertEquals(OrderException.Type.BAD_REQUEST, ex.getType());
+    }
+
+    @Test
+    void assigneePagesUseTheQueryMatchingTheFilters() {
+        UUID assigneeId = UUID.randomUUID();
+        OrderCursor cursor = new OrderCursor(LocalDateTime.of(2026, 10, 16, 9, 0), UUID.randomUUID());
+        PageRequest limit = PageRequest.of(0, 11);
+        when(orderRepository.findPageByAssigneeAndStateAfter(assigneeId, OrderState.IN_PROCESS, cursor.createdAt(),
+                cursor.id(), limit)).thenReturn(pageRows(11));
+
+        orderService.findByAssigneeId(assigneeId, null, null, 10);
+        orderService.findByAssigneeId(assigneeId, null, cursor.encode(), 10);
+        orderService.findByAssigneeId(assigneeId, OrderState.IN_PROCESS, null, 10);
+        CursorPageRs<OrderRs> page = orderService.findByAssigneeId(assigneeId, OrderState.IN_PROCESS, cursor.encode(), 10);
+
+        verify(orderRepository).findFirstPageByAssignee(assigneeId, limit);
+        verify(orderRepository).findPageByAssigneeAfter(assigneeId, cursor.createdAt(), cursor.id(), limit);
+        verify(orderRepository).findFirstPageByAssigneeAndState(assigneeId, OrderState.IN_PROCESS, limit);
+        assertEquals(10, page.getItems().size());
+        assertTrue(page.isHasNext());
+        assertNotNull(page.getNextCursor());
+    }
+
+    @Test
+    void assigneePageWithoutAssigneeIsRejected() {
+        OrderException ex = assertThrows(OrderException.class,
+                () -> orderService.findByAssigneeId(null, null, null, 10));
+
+        assertEquals(OrderException.Type.BAD_REQUEST, ex.getType());
+        verifyNoInteractions(orderRepository);
+    }
+
+    private static List<Order> pageRows(int count) {
+        List<Order> rows = new ArrayList<>();
+        LocalDateTime createdAt = LocalDateTime.of(2026, 10, 16, 12, 0);
+        for (int i = 0; i < count; i++) {
+            Order order = Order.builder()
+                    .description("orden " + i)
+                    .state(OrderState.CREATED)
+                    .assigneeType(AssigneeType.EMPLOYEE)
+                    .assigneeId(UUID.randomUUID())
+                    .build();
+            order.setId(UUID.randomUUID());
+            order.setCreatedAt(createdAt.minusMinutes(i));
+            rows.add(order);
+        }
+        return rows;
+    }
+
+    private static NotificationEvent notification(UUID orderId, String status, Instant occurredAt) {
+        NotificationEvent event = new NotificationEvent();
+        event.setOrderId(orderId);
+        event.setStatus(status);
+        event.setOccurredAt(occurredAt);
+        return event;
+    }
+
+    private OrderServiceImpl serviceWithVerificationChunkSize(int chunkSize) {
+        return new OrderServiceImpl(orderRepository, orderItemRepository, orderIntegrationErrorRepository,
+                devicesGateway, assigneeDirectory, outboxEventRepository, new ObjectMapper(), transactionManager,
+                remoteCallExecutor, orderSagaService, 0, chunkSize, 500);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runRemoteCallsInline() {
+        when(remoteCallExecutor.supplyAsync(any())).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(((Supplier<Object>) invocation.getArgument(0)).get()));
+    }
+
+    private void activeEmployee() {
+        when(assigneeDirectory.getEmployee(any())).thenReturn(Map.of("status", "ACTIVE", "email", "ana@infragest.com"));
+    }
+
+    private static Request request() {
+        return Request.create(Request.HttpMethod.POST, "/api/devices/batch", Map.of(), null,
+                StandardCharsets.UTF_8, null);
+    }
+
+    private Order existingOrder(OrderState state) {
+        Order order = Order.builder()
+                .description("orden")
+                .state(state)
+                .assigneeType(AssigneeType.EMPLOYEE)
+                .assigneeId(UUID.randomUUID())
+                .build();
+        order.setId(UUID.randomUUID());
+        order.setVersion(1L);
+        when(orderRepository.findById(order.getId())).thenReturn(Optional.of(order));
+        when(orderRepository.save(order)).thenReturn(order);
+        return order;
+    }
+
+    private static OrderRq update(Order order, List<UUID> deviceIds) {
+        return OrderRq.builder()
+                .description(order.getDescription())
+                .assigneeType(order.getAssigneeType())
+                .assigneeId(order.getAssigneeId())
+                .devicesIds(deviceIds)
+                .build();
+    }
+
+    private static OrderDevicesPatchRq patch(List<UUID> add, List<UUID> remove) {
+        return OrderDevicesPatchRq.builder().add(add).remove(remove).build();
+    }
+
+    private static DeviceRs device(UUID id, DeviceStatusEnum status) {
+        return DeviceRs.builder().id(id).status(status).build();
+    }
+}
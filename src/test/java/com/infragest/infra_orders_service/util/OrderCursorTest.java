@@ -0,0 +1,59 @@
+package com.infragest.infra_orders_service.util;
+
+import com.infragest.infra_orders_service.excepcion.OrderException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Pruebas de {@link OrderCursor}: ida y vuelta sin pérdida de precisión, cursor ausente y cursores
+ * manipulados o mal formados.
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+class OrderCursorTest {
+
+    @Test
+    void encodeAndDecodeRoundTripKeepsNanoseconds() {
+        OrderCursor cursor = new OrderCursor(LocalDateTime.of(2026, 10, 16, 9, 30, 15, 123456789), UUID.randomUUID());
+
+        String encoded = cursor.encode();
+
+        assertFalse(encoded.contains("="));
+        assertFalse(encoded.contains("+") || encoded.contains("/"));
+        assertEquals(cursor, OrderCursor.decode(encoded));
+    }
+
+    @Test
+    void missingCursorMeansFirstPage() {
+        assertNull(OrderCursor.decode(null));
+        assertNull(OrderCursor.decode(""));
+        assertNull(OrderCursor.decode("   "));
+    }
+
+    @Test
+    void malformedCursorsAreRejectedAsBadRequest() {
+        assertBadRequest("no-es-base64!");
+        assertBadRequest(encode("2026-10-16T09:30:15"));
+        assertBadRequest(encode("2026-10-16T09:30:15|no-es-uuid"));
+        assertBadRequest(encode("ayer|" + UUID.randomUUID()));
+    }
+
+    private static void assertBadRequest(String cursor) {
+        OrderException ex = assertThrows(OrderException.class, () -> OrderCursor.decode(cursor));
+        assertEquals(OrderException.Type.BAD_REQUEST, ex.getType());
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,115 @@
+package com.infragest.infra_orders_service.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas de {@link UuidSet}: sondeo lineal con colisiones, crecimiento con rehash y orden de inserción.
+ *
+ * <p>El hash mezcla {@code msb ^ rotateLeft(lsb, 32)}, por lo que {@code (x, 0)}, {@code (0, rotateRight(x, 32))}
+ * y {@code (x ^ 1, rotateRight(1, 32))} tienen el mismo hash: caen siempre en el mismo hueco y obligan a
+ * sondear, antes y después de cada rehash.</p>
+ *
+ * @author bunnystring
+ * @since 2026-10-16
+ */
+class UuidSetTest {
+
+    @Test
+    void addAndContainsFollowInsertionOrder() {
+        UuidSet set = new UuidSet(4);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        assertTrue(set.isEmpty());
+        assertTrue(set.add(first));
+        assertTrue(set.add(second));
+        assertFalse(set.add(new UUID(first.getMostSignificantBits(), first.getLeastSignificantBits())));
+
+        assertEquals(2, set.size());
+        assertTrue(set.contains(first));
+        assertTrue(set.contains(second));
+        assertFalse(set.contains(UUID.randomUUID()));
+        assertFalse(set.contains(null));
+        assertEquals(first, set.get(0));
+        assertEquals(second, set.get(1));
+        assertEquals(List.of(first, second), set.toList());
+    }
+
+    @Test
+    void collidingHashesAreProbedAndKeptApart() {
+        long x = 0x0123456789abcdefL;
+        UUID a = new UUID(x, 0L);
+        UUID b = new UUID(0L, Long.rotateRight(x, 32));
+        UUID c = new UUID(x ^ 1L, Long.rotateRight(1L, 32));
+        UUID absentWithSameHash = new UUID(x ^ 2L, Long.rotateRight(2L, 32));
+
+        UuidSet set = new UuidSet(4);
+        assertTrue(set.add(a));
+        assertTrue(set.add(b));
+        assertTrue(set.add(c));
+        assertFalse(set.add(b));
+
+        assertEquals(3, set.size());
+        assertTrue(set.contains(a));
+        assertTrue(set.contains(b));
+        assertTrue(set.contains(c));
+        assertFalse(set.contains(absentWithSameHash));
+        assertEquals(List.of(a, b, c), set.toList());
+    }
+
+    @Test
+    void growsAndRehashesKeepingEveryElement() {
+        UuidSet set = new UuidSet(0);
+        List<UUID> ids = new ArrayList<>();
+        for (long i = 1; i <= 10_000; i++) {
+            // Secuenciales y colisiones de hash intercaladas
+            UUID sequential = new UUID(0L, i);
+            UUID colliding = new UUID(i << 32, 0L);
+            ids.add(sequential);
+            ids.add(colliding);
+            assertTrue(set.add(sequential));
+            assertTrue(set.add(colliding));
+        }
+
+        assertEquals(ids.size(), set.size());
+        assertEquals(ids, set.toList());
+        for (UUID id : ids) {
+            assertTrue(set.contains(id));
+            assertFalse(set.add(id));
+        }
+        for (long i = 10_001; i <= 20_000; i++) {
+            assertFalse(set.contains(new UUID(0L, i)));
+            assertFalse(set.contains(new UUID(i << 32, 0L)));
+        }
+        assertEquals(ids.size(), set.size());
+    }
+
+    @Test
+    void ofIgnoresNullsAndDuplicates() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        UuidSet set = UuidSet.of(Arrays.asList(first, null, second, first, null));
+
+        assertEquals(List.of(first, second), set.toList());
+        assertTrue(UuidSet.of(List.of()).isEmpty());
+    }
+
+    @Test
+    void getOutsideTheElementsFails() {
+        UuidSet set = UuidSet.of(List.of(UUID.randomUUID()));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> set.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> set.get(-1));
+    }
+}